@@ -17,6 +17,7 @@ import {
 } from '@app/core/modules/openapi/@tanstack/angular-query-experimental.gen';
 import { KeycloakService } from '@app/core/services/keycloak/keycloak.service';
 import { PermissionService } from '@app/core/services/permission.service';
+import { LiveUpdateService } from '@app/core/services/live-update.service';
 import { injectMutation, injectQuery, QueryClient } from '@tanstack/angular-query-experimental';
 import { AccordionModule } from 'primeng/accordion';
 import { ConfirmationService, MessageService } from 'primeng/api';
@@ -73,6 +74,7 @@ export class EnvironmentListViewComponent implements OnDestroy {
   private confirmationService = inject(ConfirmationService);
   private keycloakService = inject(KeycloakService);
   private permissionService = inject(PermissionService);
+  private liveUpdates = inject(LiveUpdateService);
   private currentTime = signal(Date.now());
   private intervalId: number | undefined;
   private messageService = inject(MessageService);
@@ -157,7 +159,9 @@ export class EnvironmentListViewComponent implements OnDestroy {
   canViewAllEnvironments = computed(() => this.isLoggedIn() && this.editable() && this.hasEditEnvironmentPermissions());
   queryFunction = computed(() => {
     const options = this.canViewAllEnvironments() ? getAllEnvironmentsOptions() : getAllEnabledEnvironmentsOptions();
-    return { ...options, refetchInterval: 3000 };
+    // Deployments and status changes arrive over the live update stream; locks do not, so keep a
+    // slow poll for them and fall back to the fast one while the stream is down
+    return { ...options, refetchInterval: this.liveUpdates.connected() ? 30_000 : 3000 };
   });
   queryKey = computed(() => (this.canViewAllEnvironments() ? getAllEnvironmentsQueryKey() : getAllEnabledEnvironmentsQueryKey()));
 
@@ -1,5 +1,5 @@
 import { NgTemplateOutlet } from '@angular/common';
-import { Component, computed, input } from '@angular/core';
+import { Component, computed, inject, input } from '@angular/core';
 import { injectQuery } from '@tanstack/angular-query-experimental';
 import { PanelModule } from 'primeng/panel';
 import { TooltipModule } from 'primeng/tooltip';
@@ -24,6 +24,7 @@ import {
 } from 'angular-tabler-icons/icons';
 import { getStatusColors } from '@app/core/utils/status-colors';
 import { TimeAgoPipe } from '@app/pipes/time-ago.pipe';
+import { LiveUpdateService } from '@app/core/services/live-update.service';
 
 export type PipelineSelector = { repositoryId: number } & (
   | {
@@ -58,6 +59,8 @@ export type PipelineSelector = { repositoryId: number } & (
   templateUrl: './pipeline.component.html',
 })
 export class PipelineComponent {
+  private liveUpdates = inject(LiveUpdateService);
+
   selector = input<PipelineSelector | null>();
 
   branchName = computed(() => {
@@ -72,17 +75,17 @@ export class PipelineComponent {
   });
 
   // Canonical, always-visible pipeline (Build/Tests/Quality) resolved server-side from the
-  // configured node catalog. One query per selector kind.
-  // TODO instead of refetching every 15 seconds, we should use websockets for real-time updates
+  // configured node catalog. One query per selector kind. Refetched when the live update stream
+  // reports a run or job change; polled only while the stream is down.
   branchPipelineQuery = injectQuery(() => ({
     ...getPipelineByBranchOptions({ query: { branch: this.branchName()! } }),
     enabled: this.branchName() !== null,
-    refetchInterval: 15000,
+    refetchInterval: this.liveUpdates.connected() ? false : 15000,
   }));
   pullRequestPipelineQuery = injectQuery(() => ({
     ...getPipelineByPullRequestOptions({ path: { pullRequestId: this.pullRequestId() || 0 } }),
     enabled: this.pullRequestId() !== null,
-    refetchInterval: 15000,
+    refetchInterval: this.liveUpdates.connected() ? false : 15000,
   }));
 
   private activeQuery = computed(() => (this.branchName() !== null ? this.branchPipelineQuery : this.pullRequestPipelineQuery));
@@ -5,7 +5,7 @@ import { provideQueryClient, QueryClient } from '@tanstack/angular-query-experim
 
 import { PipelineTestResultsComponent } from './pipeline-test-results.component';
 import { PermissionService } from '@app/core/services/permission.service';
-import type { TestCaseDto } from '@app/core/modules/openapi';
+import type { TestCaseDto, TestSuiteDto } from '@app/core/modules/openapi';
 
 describe('PipelineTestResultsComponent', () => {
   let component: PipelineTestResultsComponent;
@@ -60,4 +60,22 @@ describe('PipelineTestResultsComponent', () => {
 
     expect(component.canAnalyzeTestFailureWithAi(failedTestCase)).toBe(false);
   });
+
+  it('offers test details when the test case or its suite references a stored output', () => {
+    const suite: TestSuiteDto = {
+      id: 1,
+      name: 'FailingTest',
+      timestamp: '2026-01-01T00:00:00',
+      tests: 1,
+      failures: 1,
+      errors: 0,
+      skipped: 0,
+      time: 1,
+      testCases: [failedTestCase],
+    };
+
+    expect(component.hasTestDetails(failedTestCase, suite)).toBe(false);
+    expect(component.hasTestDetails({ ...failedTestCase, stackTraceHash: 'abc' }, suite)).toBe(true);
+    expect(component.hasTestDetails(failedTestCase, { ...suite, systemOutHash: 'def' })).toBe(true);
+  });
 });
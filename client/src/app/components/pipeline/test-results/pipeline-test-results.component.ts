@@ -18,6 +18,7 @@ import {
   getGitRepoSettingsOptions,
   getLatestTestResultsByBranchOptions,
   getLatestTestResultsByPullRequestIdOptions,
+  getTestOutputOptions,
   getTestResultsByWorkflowRunIdOptions,
 } from '@app/core/modules/openapi/@tanstack/angular-query-experimental.gen';
 import { TestCaseDto, TestSuiteDto, TestTypeResults } from '@app/core/modules/openapi';
@@ -124,7 +125,27 @@ export class PipelineTestResultsComponent {
   isTestResultsCollapsed = true;
 
   showTestDetails = false;
-  selectedTestCase = signal<(TestCaseDto & { suiteSystemOut: string | undefined }) | null>(null);
+  selectedTestCase = signal<(TestCaseDto & { suiteSystemOutHash: string | undefined }) | null>(null);
+
+  // Outputs are not part of the results page; they are loaded by hash when a test case is opened
+  stackTraceQuery = this.injectTestOutputQuery(() => this.selectedTestCase()?.stackTraceHash);
+  testCaseSystemOutQuery = this.injectTestOutputQuery(() => this.selectedTestCase()?.systemOutHash);
+  testSuiteSystemOutQuery = this.injectTestOutputQuery(() => this.selectedTestCase()?.suiteSystemOutHash);
+
+  stackTrace = computed(() => this.stackTraceQuery.data()?.text);
+  testCaseSystemOut = computed(() => this.testCaseSystemOutQuery.data()?.text);
+  testSuiteSystemOut = computed(() => this.testSuiteSystemOutQuery.data()?.text);
+
+  isLoadingTestOutputs = computed(() => this.stackTraceQuery.isLoading() || this.testCaseSystemOutQuery.isLoading() || this.testSuiteSystemOutQuery.isLoading());
+
+  private injectTestOutputQuery(hash: () => string | undefined) {
+    return injectQuery(() => ({
+      ...getTestOutputOptions({ path: { hash: hash() ?? '' } }),
+      enabled: !!hash(),
+      // Outputs are content-addressed and never change
+      staleTime: Number.POSITIVE_INFINITY,
+    }));
+  }
 
   // Log level filtering
   selectedLogLevelValue = signal<number>(2); // Default to ERROR
@@ -172,11 +193,11 @@ export class PipelineTestResultsComponent {
 
   // Computed signals for filtered content (excluding stack trace)
   filteredTestCaseLogs = computed(() => {
-    return this.filterLogsByLevel(this.selectedTestCase()?.systemOut);
+    return this.filterLogsByLevel(this.testCaseSystemOut());
   });
 
   filteredTestSuiteLogs = computed(() => {
-    return this.filterLogsByLevel(this.selectedTestCase()?.suiteSystemOut);
+    return this.filterLogsByLevel(this.testSuiteSystemOut());
   });
 
   // Repository ID for fetching package name
@@ -245,13 +266,13 @@ export class PipelineTestResultsComponent {
   showTestCaseDetails(testCase: TestCaseDto, testSuite: TestSuiteDto) {
     this.selectedTestCase.set({
       ...testCase,
-      suiteSystemOut: testSuite.systemOut,
+      suiteSystemOutHash: testSuite.systemOutHash,
     });
     this.showTestDetails = true;
   }
 
   hasTestDetails(testCase: TestCaseDto, testSuite: TestSuiteDto): boolean {
-    return !!(testCase.stackTrace || testCase.systemOut || testSuite.systemOut);
+    return !!(testCase.stackTraceHash || testCase.systemOutHash || testSuite.systemOutHash);
   }
 
   canAnalyzeTestFailureWithAi(testCase: TestCaseDto): boolean {
@@ -63,6 +63,7 @@ import {
   getPullRequests,
   getReleaseInfoByName,
   getRepositoryById,
+  getTestOutput,
   getTestResultsByWorkflowRunId,
   getUserPermissions,
   getUserSettings,
@@ -274,6 +275,9 @@ import type {
   GetRepositoryByIdData,
   GetRepositoryByIdError,
   GetRepositoryByIdResponse,
+  GetTestOutputData,
+  GetTestOutputError,
+  GetTestOutputResponse,
   GetTestResultsByWorkflowRunIdData,
   GetTestResultsByWorkflowRunIdError,
   GetTestResultsByWorkflowRunIdResponse,
@@ -1352,6 +1356,22 @@ export const getUserPermissionsOptions = (options?: Options<GetUserPermissionsDa
     queryKey: getUserPermissionsQueryKey(options),
   });
 
+export const getTestOutputQueryKey = (options: Options<GetTestOutputData>) => createQueryKey('getTestOutput', options);
+
+export const getTestOutputOptions = (options: Options<GetTestOutputData>) =>
+  queryOptions<GetTestOutputResponse, GetTestOutputError, GetTestOutputResponse, ReturnType<typeof getTestOutputQueryKey>>({
+    queryFn: async ({ queryKey, signal }) => {
+      const { data } = await getTestOutput({
+        ...options,
+        ...queryKey[0],
+        signal,
+        throwOnError: true,
+      });
+      return data;
+    },
+    queryKey: getTestOutputQueryKey(options),
+  });
+
 export const getTestResultsByWorkflowRunIdQueryKey = (options: Options<GetTestResultsByWorkflowRunIdData>) => createQueryKey('getTestResultsByWorkflowRunId', options);
 
 export const getTestResultsByWorkflowRunIdOptions = (options: Options<GetTestResultsByWorkflowRunIdData>) =>
@@ -60,6 +60,7 @@ export {
   getPullRequests,
   getReleaseInfoByName,
   getRepositoryById,
+  getTestOutput,
   getTestResultsByWorkflowRunId,
   getUserPermissions,
   getUserSettings,
@@ -414,6 +415,11 @@ export type {
   GetRepositoryByIdErrors,
   GetRepositoryByIdResponse,
   GetRepositoryByIdResponses,
+  GetTestOutputData,
+  GetTestOutputError,
+  GetTestOutputErrors,
+  GetTestOutputResponse,
+  GetTestOutputResponses,
   GetTestResultsByWorkflowRunIdData,
   GetTestResultsByWorkflowRunIdError,
   GetTestResultsByWorkflowRunIdErrors,
@@ -558,6 +564,7 @@ export type {
   TestFailureAnalysisUsageDto,
   TestFlakinessScoreDto,
   TestFlakinessScoreRequest,
+  TestOutputDto,
   TestResultsDto,
   TestSuiteDto,
   TestTypeDto,
@@ -657,6 +657,23 @@ export const TestFlakinessScoreDtoSchema = {
   required: ['className', 'testName', 'testSuiteName'],
 } as const;
 
+export const TestFlakinessScoreStreamErrorSchema = {
+  type: 'object',
+  description: 'Last line of an NDJSON flakiness score response whose request had a malformed line. The scores of the lines before it are still valid; no further lines follow.',
+  properties: {
+    error: {
+      type: 'string',
+      description: 'Why the request line was rejected',
+    },
+    line: {
+      type: 'integer',
+      format: 'int32',
+      description: 'The 1-based number of the rejected test case in the request',
+    },
+  },
+  required: ['error'],
+} as const;
+
 export const TestFailureAnalysisResponseDtoSchema = {
   type: 'object',
   properties: {
@@ -1390,10 +1407,10 @@ export const TestCaseDtoSchema = {
     message: {
       type: 'string',
     },
-    stackTrace: {
+    stackTraceHash: {
       type: 'string',
     },
-    systemOut: {
+    systemOutHash: {
       type: 'string',
     },
     errorType: {
@@ -1418,6 +1435,19 @@ export const TestCaseDtoSchema = {
   required: ['className', 'id', 'name', 'status', 'time'],
 } as const;
 
+export const TestOutputDtoSchema = {
+  type: 'object',
+  properties: {
+    hash: {
+      type: 'string',
+    },
+    text: {
+      type: 'string',
+    },
+  },
+  required: ['hash', 'text'],
+} as const;
+
 export const TestResultsDtoSchema = {
   type: 'object',
   properties: {
@@ -1468,7 +1498,7 @@ export const TestSuiteDtoSchema = {
       type: 'number',
       format: 'double',
     },
-    systemOut: {
+    systemOutHash: {
       type: 'string',
     },
     testCases: {
@@ -180,6 +180,9 @@ import type {
   GetRepositoryByIdData,
   GetRepositoryByIdErrors,
   GetRepositoryByIdResponses,
+  GetTestOutputData,
+  GetTestOutputErrors,
+  GetTestOutputResponses,
   GetTestResultsByWorkflowRunIdData,
   GetTestResultsByWorkflowRunIdErrors,
   GetTestResultsByWorkflowRunIdResponses,
@@ -760,6 +763,11 @@ export const getTestResultsByWorkflowRunId = <ThrowOnError extends boolean = fal
 ): RequestResult<GetTestResultsByWorkflowRunIdResponses, GetTestResultsByWorkflowRunIdErrors, ThrowOnError> =>
   (options.client ?? client).get<GetTestResultsByWorkflowRunIdResponses, GetTestResultsByWorkflowRunIdErrors, ThrowOnError>({ url: '/api/tests/run/{workflowRunId}', ...options });
 
+export const getTestOutput = <ThrowOnError extends boolean = false>(
+  options: Options<GetTestOutputData, ThrowOnError>
+): RequestResult<GetTestOutputResponses, GetTestOutputErrors, ThrowOnError> =>
+  (options.client ?? client).get<GetTestOutputResponses, GetTestOutputErrors, ThrowOnError>({ url: '/api/tests/outputs/{hash}', ...options });
+
 export const getLatestTestResultsByPullRequestId = <ThrowOnError extends boolean = false>(
   options: Options<GetLatestTestResultsByPullRequestIdData, ThrowOnError>
 ): RequestResult<GetLatestTestResultsByPullRequestIdResponses, GetLatestTestResultsByPullRequestIdErrors, ThrowOnError> =>
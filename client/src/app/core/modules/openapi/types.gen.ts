@@ -210,6 +210,20 @@ export type TestFlakinessScoreDto = {
   combinedFailureRate?: number;
 };
 
+/**
+ * Last line of an NDJSON flakiness score response whose request had a malformed line. The scores of the lines before it are still valid; no further lines follow.
+ */
+export type TestFlakinessScoreStreamError = {
+  /**
+   * Why the request line was rejected
+   */
+  error: string;
+  /**
+   * The 1-based number of the rejected test case in the request
+   */
+  line?: number;
+};
+
 export type TestFailureAnalysisResponseDto = {
   repositoryId?: number;
   status?: 'COMPLETED' | 'FAILED';
@@ -534,8 +548,8 @@ export type TestCaseDto = {
   previousStatus?: 'PASSED' | 'FAILED' | 'ERROR' | 'SKIPPED';
   time: number;
   message?: string;
-  stackTrace?: string;
-  systemOut?: string;
+  stackTraceHash?: string;
+  systemOutHash?: string;
   errorType?: string;
   flakinessScore?: number;
   defaultBranchFailureRate?: number;
@@ -543,6 +557,11 @@ export type TestCaseDto = {
   failsInDefaultBranch?: boolean;
 };
 
+export type TestOutputDto = {
+  hash: string;
+  text: string;
+};
+
 export type TestResultsDto = {
   testResults: Array<TestTypeResults>;
   isProcessing?: boolean;
@@ -557,7 +576,7 @@ export type TestSuiteDto = {
   errors: number;
   skipped: number;
   time: number;
-  systemOut?: string;
+  systemOutHash?: string;
   testCases: Array<TestCaseDto>;
 };
 
@@ -1516,7 +1535,7 @@ export type GetFlakinessScoresError = GetFlakinessScoresErrors[keyof GetFlakines
 
 export type GetFlakinessScoresResponses = {
   /**
-   * OK
+   * One score per request line; a malformed line ends the response with an error
    */
   200: Array<TestFlakinessScoreDto>;
 };
@@ -2398,6 +2417,33 @@ export type GetTestResultsByWorkflowRunIdResponses = {
 
 export type GetTestResultsByWorkflowRunIdResponse = GetTestResultsByWorkflowRunIdResponses[keyof GetTestResultsByWorkflowRunIdResponses];
 
+export type GetTestOutputData = {
+  body?: never;
+  path: {
+    hash: string;
+  };
+  query?: never;
+  url: '/api/tests/outputs/{hash}';
+};
+
+export type GetTestOutputErrors = {
+  /**
+   * Conflict
+   */
+  409: ApiError;
+};
+
+export type GetTestOutputError = GetTestOutputErrors[keyof GetTestOutputErrors];
+
+export type GetTestOutputResponses = {
+  /**
+   * OK
+   */
+  200: TestOutputDto;
+};
+
+export type GetTestOutputResponse = GetTestOutputResponses[keyof GetTestOutputResponses];
+
 export type GetLatestTestResultsByPullRequestIdData = {
   body?: never;
   path: {
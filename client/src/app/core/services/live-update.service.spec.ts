@@ -0,0 +1,104 @@
+import { provideZonelessChangeDetection } from '@angular/core';
+import { TestBed } from '@angular/core/testing';
+import { provideQueryClient, QueryClient } from '@tanstack/angular-query-experimental';
+import { vi } from 'vitest';
+import { RepositoryService } from '@app/core/services/repository.service';
+import { LiveUpdateService } from './live-update.service';
+
+class FakeEventSource {
+  static instances: FakeEventSource[] = [];
+  onopen: (() => void) | null = null;
+  onerror: (() => void) | null = null;
+  closed = false;
+  private listeners = new Map<string, (message: MessageEvent<string>) => void>();
+
+  constructor(public url: string) {
+    FakeEventSource.instances.push(this);
+  }
+
+  addEventListener(type: string, listener: (message: MessageEvent<string>) => void) {
+    this.listeners.set(type, listener);
+  }
+
+  close() {
+    this.closed = true;
+  }
+
+  emit(type: string, data: unknown) {
+    this.listeners.get(type)?.({ data: JSON.stringify(data) } as MessageEvent<string>);
+  }
+}
+
+describe('LiveUpdateService', () => {
+  let service: LiveUpdateService;
+  let queryClient: QueryClient;
+  let repositoryService: RepositoryService;
+
+  const seed = (key: object) => queryClient.setQueryData([key], {});
+  const isInvalidated = (key: object) => queryClient.getQueryState([key])?.isInvalidated ?? false;
+
+  beforeEach(() => {
+    FakeEventSource.instances = [];
+    vi.stubGlobal('EventSource', FakeEventSource);
+    queryClient = new QueryClient();
+    TestBed.configureTestingModule({
+      providers: [provideZonelessChangeDetection(), provideQueryClient(queryClient)],
+    });
+    repositoryService = TestBed.inject(RepositoryService);
+    service = TestBed.inject(LiveUpdateService);
+  });
+
+  afterEach(() => {
+    TestBed.resetTestingModule();
+    vi.unstubAllGlobals();
+  });
+
+  it('opens one stream per selected repository', () => {
+    repositoryService.currentRepositoryId.set(7);
+    TestBed.tick();
+    repositoryService.currentRepositoryId.set(8);
+    TestBed.tick();
+
+    expect(FakeEventSource.instances.map(source => source.url)).toEqual([
+      expect.stringMatching(/\/api\/live\/repositories\/7$/),
+      expect.stringMatching(/\/api\/live\/repositories\/8$/),
+    ]);
+    expect(FakeEventSource.instances[0].closed).toBe(true);
+  });
+
+  it('reports the connection so views can stop polling', () => {
+    repositoryService.currentRepositoryId.set(7);
+    TestBed.tick();
+    const source = FakeEventSource.instances[0];
+
+    source.onopen?.();
+    expect(service.connected()).toBe(true);
+
+    source.onerror?.();
+    expect(service.connected()).toBe(false);
+  });
+
+  it('invalidates the pipeline of the changed branch only', () => {
+    repositoryService.currentRepositoryId.set(7);
+    TestBed.tick();
+    seed({ _id: 'getPipelineByBranch', query: { branch: 'main' } });
+    seed({ _id: 'getPipelineByBranch', query: { branch: 'feature' } });
+    seed({ _id: 'getAllEnvironments' });
+
+    FakeEventSource.instances[0].emit('changes', [{ type: 'WORKFLOW_RUN', id: 1, headBranch: 'main', headSha: 'abc' }]);
+
+    expect(isInvalidated({ _id: 'getPipelineByBranch', query: { branch: 'main' } })).toBe(true);
+    expect(isInvalidated({ _id: 'getPipelineByBranch', query: { branch: 'feature' } })).toBe(false);
+    expect(isInvalidated({ _id: 'getAllEnvironments' })).toBe(false);
+  });
+
+  it('invalidates environments on status changes', () => {
+    seed({ _id: 'getAllEnabledEnvironments' });
+    seed({ _id: 'getPipelineByPullRequest' });
+
+    service.apply([{ type: 'ENVIRONMENT_STATUS', id: 3, environmentId: 3 }]);
+
+    expect(isInvalidated({ _id: 'getAllEnabledEnvironments' })).toBe(true);
+    expect(isInvalidated({ _id: 'getPipelineByPullRequest' })).toBe(false);
+  });
+});
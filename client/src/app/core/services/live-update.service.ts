@@ -0,0 +1,106 @@
+import { DestroyRef, Injectable, effect, inject, signal } from '@angular/core';
+import { Query, QueryClient } from '@tanstack/angular-query-experimental';
+import { RepositoryService } from '@app/core/services/repository.service';
+import { environment } from 'environments/environment';
+
+export type LiveUpdateType = 'WORKFLOW_RUN' | 'WORKFLOW_JOB' | 'DEPLOYMENT' | 'ENVIRONMENT_STATUS' | 'RESYNC';
+
+/** Mirrors the server's LiveUpdateEvent: what changed, and the branch/commit/environment it concerns. */
+export interface LiveUpdateEvent {
+  type: LiveUpdateType;
+  id?: number;
+  environmentId?: number;
+  headBranch?: string;
+  headSha?: string;
+}
+
+const PIPELINE_QUERIES = [
+  'getPipelineByBranch',
+  'getPipelineByPullRequest',
+  'getLatestWorkflowRunsByBranchAndHeadCommit',
+  'getLatestWorkflowRunsByPullRequestIdAndHeadCommit',
+  'getWorkflowRunById',
+];
+const ENVIRONMENT_QUERIES = ['getAllEnvironments', 'getAllEnabledEnvironments', 'getEnvironmentsByRepositoryId', 'getEnvironmentById'];
+const DEPLOYMENT_QUERIES = ['getDeploymentsByEnvironmentId', 'getLatestDeploymentByEnvironmentId', 'getActivityHistoryByEnvironmentId'];
+
+const QUERIES_BY_TYPE: Record<LiveUpdateType, ReadonlySet<string>> = {
+  WORKFLOW_RUN: new Set(PIPELINE_QUERIES),
+  WORKFLOW_JOB: new Set([...PIPELINE_QUERIES, 'getWorkflowJobStatus']),
+  DEPLOYMENT: new Set([...ENVIRONMENT_QUERIES, ...DEPLOYMENT_QUERIES]),
+  ENVIRONMENT_STATUS: new Set(ENVIRONMENT_QUERIES),
+  RESYNC: new Set([...PIPELINE_QUERIES, 'getWorkflowJobStatus', ...ENVIRONMENT_QUERIES, ...DEPLOYMENT_QUERIES]),
+};
+
+type GeneratedQueryKey = { _id?: string; query?: { branch?: string } };
+
+/**
+ * Subscribes to the server's live update stream of the current repository and invalidates the
+ * queries a change concerns, so pipeline and environment views refetch on change instead of polling.
+ * Views fall back to polling while {@link connected} is false.
+ */
+@Injectable({
+  providedIn: 'root',
+})
+export class LiveUpdateService {
+  private queryClient = inject(QueryClient);
+  private repositoryService = inject(RepositoryService);
+
+  private source: EventSource | null = null;
+
+  private _connected = signal(false);
+  /** Whether the stream is open; views poll while it is not. */
+  public readonly connected = this._connected.asReadonly();
+
+  constructor() {
+    effect(() => this.connect(this.repositoryService.currentRepositoryId()));
+    inject(DestroyRef).onDestroy(() => this.disconnect());
+  }
+
+  private connect(repositoryId: number | null) {
+    this.disconnect();
+    if (repositoryId === null || typeof EventSource === 'undefined') {
+      return;
+    }
+
+    const source = new EventSource(`${environment.serverUrl}/api/live/repositories/${repositoryId}`);
+    source.onopen = () => {
+      this._connected.set(true);
+      // Changes made while the stream was down were not delivered
+      this.apply([{ type: 'RESYNC' }]);
+    };
+    // EventSource reconnects on its own; poll until it has
+    source.onerror = () => this._connected.set(false);
+    source.addEventListener('changes', message => this.apply(JSON.parse((message as MessageEvent<string>).data)));
+    this.source = source;
+  }
+
+  private disconnect() {
+    this.source?.close();
+    this.source = null;
+    this._connected.set(false);
+  }
+
+  /** Invalidates every query affected by one of the events. */
+  apply(events: LiveUpdateEvent[]) {
+    for (const event of events) {
+      const queryIds = QUERIES_BY_TYPE[event.type];
+      if (!queryIds) {
+        continue;
+      }
+      this.queryClient.invalidateQueries({ predicate: query => this.isAffected(query, queryIds, event) });
+    }
+  }
+
+  private isAffected(query: Query, queryIds: ReadonlySet<string>, event: LiveUpdateEvent) {
+    const key = query.queryKey[0] as GeneratedQueryKey | undefined;
+    if (!key?._id || !queryIds.has(key._id)) {
+      return false;
+    }
+    // Branch pipelines of other branches are unaffected by a run or job
+    if (key._id === 'getPipelineByBranch' && event.headBranch && key.query?.branch) {
+      return key.query.branch === event.headBranch;
+    }
+    return true;
+  }
+}
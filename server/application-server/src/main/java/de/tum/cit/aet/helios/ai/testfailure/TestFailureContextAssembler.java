@@ -4,8 +4,11 @@ import de.tum.cit.aet.helios.ai.AiProperties;
 import de.tum.cit.aet.helios.ai.AiTextUtils;
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.tests.TestCase;
+import de.tum.cit.aet.helios.tests.TestOutputService;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
@@ -15,6 +18,7 @@ import org.springframework.stereotype.Service;
 @Log4j2
 class TestFailureContextAssembler {
   private final GitHubService gitHubService;
+  private final TestOutputService testOutputService;
 
   TestFailureContext assemble(TestCase testCase, AiProperties properties) {
     var testFailureProperties = properties.getTestFailure();
@@ -23,17 +27,23 @@ class TestFailureContextAssembler {
     String repositoryName = run.getRepository().getNameWithOwner();
     String headSha = run.getHeadSha();
 
+    Map<String, String> outputs =
+        testOutputService.loadAll(
+            Arrays.asList(
+                testCase.getStackTraceHash(),
+                testCase.getSystemOutHash(),
+                suite.getSystemOutHash()));
     String stackTrace =
         AiTextUtils.truncate(
-            AiTextUtils.nullableText(testCase.getStackTrace()),
+            AiTextUtils.nullableText(outputText(outputs, testCase.getStackTraceHash())),
             testFailureProperties.getMaxSectionChars());
     String testCaseLogs =
         AiTextUtils.truncate(
-            AiTextUtils.nullableText(testCase.getSystemOut()),
+            AiTextUtils.nullableText(outputText(outputs, testCase.getSystemOutHash())),
             testFailureProperties.getMaxSectionChars());
     String testSuiteLogs =
         AiTextUtils.truncate(
-            AiTextUtils.nullableText(suite.getSystemOut()),
+            AiTextUtils.nullableText(outputText(outputs, suite.getSystemOutHash())),
             testFailureProperties.getMaxSectionChars());
     String testSourceFile =
         fetchTestSourceFile(
@@ -55,6 +65,10 @@ class TestFailureContextAssembler {
         testSourceFile);
   }
 
+  private static String outputText(Map<String, String> outputs, String hash) {
+    return hash == null ? null : outputs.get(hash);
+  }
+
   /**
    * Fetches the test source file from GitHub at the given commit SHA.
    *
@@ -50,6 +50,8 @@ public class GitHubCreateMessageHandler extends GitHubMessageHandler<GHEventPayl
         var curRepo = gitHubService.getRepository(repository.getFullName());
         branch = curRepo.getBranch(ref);
 
+        // The branch count is derived from the API, so force a refresh
+        repositorySyncService.invalidate(repository.getId());
         repositorySyncService.processRepository(eventPayload.getRepository());
         branchSyncService.processBranch(branch);
       } catch (IOException e) {
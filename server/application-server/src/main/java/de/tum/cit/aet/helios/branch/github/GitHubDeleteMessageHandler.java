@@ -2,6 +2,7 @@ package de.tum.cit.aet.helios.branch.github;
 
 import de.tum.cit.aet.helios.branch.BranchService;
 import de.tum.cit.aet.helios.github.GitHubMessageHandler;
+import de.tum.cit.aet.helios.gitrepo.github.GitHubRepositorySyncService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.kohsuke.github.GHEvent;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class GitHubDeleteMessageHandler extends GitHubMessageHandler<GHEventPayload.Delete> {
   private final BranchService branchService;
+  private final GitHubRepositorySyncService repositorySyncService;
 
   @Override
   protected Class<GHEventPayload.Delete> getPayloadClass() {
@@ -41,6 +43,8 @@ public class GitHubDeleteMessageHandler extends GitHubMessageHandler<GHEventPayl
         repository = eventPayload.getRepository();
         // delete the branch from db
         branchService.deleteBranchByNameAndRepositoryId(ref, repository.getId());
+        // The next event for this repository has to recount its branches
+        repositorySyncService.invalidate(repository.getId());
       } catch (Exception e) {
         e.printStackTrace();
       }
@@ -1,6 +1,7 @@
 package de.tum.cit.aet.helios.deployment;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
@@ -28,6 +29,26 @@ public interface DeploymentRepository extends JpaRepository<Deployment, Long> {
 
   Optional<Deployment> findFirstByEnvironmentIdOrderByCreatedAtDesc(Long environmentId);
 
+  /**
+   * Batch variant of {@link #findFirstByEnvironmentIdOrderByCreatedAtDesc}: the id of the most
+   * recent deployment of every given environment, in a single {@code DISTINCT ON} scan.
+   */
+  @Query(
+      value =
+          "SELECT DISTINCT ON (environment_id) id FROM deployment "
+              + "WHERE environment_id IN (:environmentIds) "
+              + "ORDER BY environment_id, created_at DESC, id DESC",
+      nativeQuery = true)
+  List<Long> findLatestIdsByEnvironmentIdIn(
+      @Param("environmentIds") Collection<Long> environmentIds);
+
+  @Query(
+      "SELECT d FROM Deployment d "
+          + "LEFT JOIN FETCH d.creator "
+          + "LEFT JOIN FETCH d.pullRequest "
+          + "WHERE d.id IN :ids")
+  List<Deployment> findWithCreatorAndPullRequestByIdIn(@Param("ids") Collection<Long> ids);
+
   /**
    * Finds the first page of stale deployments in incomplete states (e.g., IN_PROGRESS, QUEUED).
    *
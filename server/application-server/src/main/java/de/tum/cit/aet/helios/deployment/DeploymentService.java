@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import de.tum.cit.aet.helios.auth.AuthService;
 import de.tum.cit.aet.helios.environment.Environment;
+import de.tum.cit.aet.helios.environment.EnvironmentCurrentStateService;
 import de.tum.cit.aet.helios.environment.EnvironmentLockHistory;
 import de.tum.cit.aet.helios.environment.EnvironmentLockHistoryRepository;
 import de.tum.cit.aet.helios.environment.EnvironmentRepository;
@@ -56,6 +57,7 @@ public class DeploymentService {
   private final GitRepoRepository gitRepoRepository;
   private final HeliosDeploymentWorkflowRunSyncService heliosDeploymentWorkflowRunSyncService;
   private final WorkflowRunRepository workflowRunRepository;
+  private final EnvironmentCurrentStateService environmentCurrentStateService;
 
   public Optional<DeploymentDto> getDeploymentById(Long id) {
     Long repositoryId = RepositoryContext.getRepositoryId();
@@ -184,7 +186,9 @@ public class DeploymentService {
     heliosDeployment.setSha(deployRequest.commitSha());
     heliosDeployment.setCreator(authService.getUserFromGithubId());
     heliosDeployment.setPullRequest(optionalPullRequest.orElse(null));
-    return heliosDeploymentRepository.saveAndFlush(heliosDeployment);
+    HeliosDeployment saved = heliosDeploymentRepository.saveAndFlush(heliosDeployment);
+    environmentCurrentStateService.refresh(environment.getId());
+    return saved;
   }
 
   private Map<String, Object> createWorkflowParams(
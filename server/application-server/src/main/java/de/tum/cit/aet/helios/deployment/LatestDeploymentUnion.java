@@ -43,6 +43,29 @@ public class LatestDeploymentUnion {
     return new LatestDeploymentUnion(null, null);
   }
 
+  /**
+   * Picks the latest of an environment's most recent HeliosDeployment and most recent real
+   * Deployment. The real Deployment wins ties, keeping the HeliosDeployment as a fallback.
+   *
+   * @param latestHelios the most recent HeliosDeployment, or {@code null}
+   * @param latestDeployment the most recent real Deployment, or {@code null}
+   * @return the union of the latest deployment, or {@link #none()} if both are {@code null}
+   */
+  public static LatestDeploymentUnion latestOf(
+      HeliosDeployment latestHelios, Deployment latestDeployment) {
+    if (latestHelios == null && latestDeployment == null) {
+      return none();
+    }
+    if (latestHelios != null && latestDeployment != null) {
+      if (latestDeployment.getCreatedAt().isAfter(latestHelios.getCreatedAt())
+          || latestDeployment.getCreatedAt().isEqual(latestHelios.getCreatedAt())) {
+        return realDeployment(latestDeployment, latestHelios);
+      }
+      return heliosDeployment(latestHelios);
+    }
+    return latestHelios != null ? heliosDeployment(latestHelios) : realDeployment(latestDeployment);
+  }
+
   public boolean isRealDeployment() {
     return realDeployment != null;
   }
@@ -134,7 +134,14 @@ public class GitHubDeploymentStatusMessageHandler
           environmentName,
           repository.getNameWithOwner());
       // Sync environments of the repository
-      gitHubDataSyncOrchestrator.syncEnvironmentsOfRepository(eventPayload.getRepository());
+      try {
+        gitHubDataSyncOrchestrator.syncEnvironmentsOfRepository(eventPayload.getRepository());
+      } catch (RuntimeException e) {
+        log.error(
+            "Failed to sync environments for repository {}: {}",
+            repository.getNameWithOwner(),
+            e.getMessage());
+      }
 
       // Re-check for the environment after syncing
       environment = environmentRepository.findByNameAndRepository(environmentName, repository);
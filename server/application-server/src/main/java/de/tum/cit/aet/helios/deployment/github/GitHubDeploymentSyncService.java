@@ -3,9 +3,12 @@ package de.tum.cit.aet.helios.deployment.github;
 import de.tum.cit.aet.helios.deployment.Deployment;
 import de.tum.cit.aet.helios.deployment.DeploymentRepository;
 import de.tum.cit.aet.helios.environment.Environment;
+import de.tum.cit.aet.helios.environment.EnvironmentCurrentStateService;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
 import de.tum.cit.aet.helios.heliosdeployment.HeliosDeployment;
 import de.tum.cit.aet.helios.heliosdeployment.HeliosDeploymentRepository;
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.pullrequest.PullRequest;
 import de.tum.cit.aet.helios.pullrequest.PullRequestRepository;
 import de.tum.cit.aet.helios.user.User;
@@ -25,6 +28,8 @@ public class GitHubDeploymentSyncService {
   private final PullRequestRepository pullRequestRepository;
   private final DeploymentConverter deploymentConverter;
   private final HeliosDeploymentRepository heliosDeploymentRepository;
+  private final EnvironmentCurrentStateService environmentCurrentStateService;
+  private final LiveUpdatePublisher liveUpdatePublisher;
 
   /**
    * Processes a single DeploymentSource by updating or creating a Deployment in the local
@@ -68,6 +73,12 @@ public class GitHubDeploymentSyncService {
 
     // Update Helios Deployment
     updateHeliosDeployment(deployment, environment);
+
+    environmentCurrentStateService.refresh(environment.getId());
+    liveUpdatePublisher.publish(
+        gitRepository,
+        LiveUpdateEvent.deployment(
+            deployment.getId(), environment.getId(), deployment.getRef(), deployment.getSha()));
   }
 
   private void updateHeliosDeployment(Deployment deployment, Environment environment) {
@@ -1,5 +1,6 @@
 package de.tum.cit.aet.helios.environment;
 
+import de.tum.cit.aet.helios.config.security.annotations.EnforceAdmin;
 import de.tum.cit.aet.helios.config.security.annotations.EnforceAtLeastMaintainer;
 import de.tum.cit.aet.helios.config.security.annotations.EnforceAtLeastWritePermission;
 import java.io.IOException;
@@ -22,6 +23,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class EnvironmentController {
 
   private final EnvironmentService environmentService;
+  private final EnvironmentCurrentStateService environmentCurrentStateService;
 
   @GetMapping
   public ResponseEntity<List<EnvironmentDto>> getAllEnvironments() {
@@ -123,4 +125,10 @@ public class EnvironmentController {
     }
     return ResponseEntity.ok().build();
   }
+
+  @EnforceAdmin
+  @PostMapping("/current-state/rebuild")
+  public ResponseEntity<Integer> rebuildCurrentState() {
+    return ResponseEntity.ok(environmentCurrentStateService.rebuild());
+  }
 }
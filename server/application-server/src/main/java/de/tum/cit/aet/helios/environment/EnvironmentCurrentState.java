@@ -0,0 +1,43 @@
+package de.tum.cit.aet.helios.environment;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read model of the latest deployment and status rows of an environment. Rows are only written
+ * by the native upserts in {@link EnvironmentCurrentStateRepository}, so the entity is immutable.
+ */
+@Entity
+@Immutable
+@Table(name = "environment_current_state")
+@Getter
+@Setter
+@NoArgsConstructor
+public class EnvironmentCurrentState {
+
+  @Id
+  @Column(name = "environment_id")
+  private Long environmentId;
+
+  @Column(name = "repository_id", nullable = false)
+  private Long repositoryId;
+
+  @Column(name = "latest_helios_deployment_id")
+  private Long latestHeliosDeploymentId;
+
+  @Column(name = "latest_deployment_id")
+  private Long latestDeploymentId;
+
+  @Column(name = "latest_status_id")
+  private Long latestStatusId;
+
+  @Column(name = "refreshed_at", nullable = false)
+  private OffsetDateTime refreshedAt;
+}
@@ -0,0 +1,83 @@
+package de.tum.cit.aet.helios.environment;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EnvironmentCurrentStateRepository
+    extends JpaRepository<EnvironmentCurrentState, Long> {
+
+  /**
+   * The state every environment should have, derived from the source tables. Each latest-row
+   * lookup is a top-1 scan of the (environment_id, created_at / check_timestamp) indexes.
+   */
+  String DERIVED_STATE =
+      "SELECT e.id AS environment_id, e.repository_id, "
+          + "(SELECT hd.id FROM helios_deployment hd WHERE hd.environment_id = e.id "
+          + "  ORDER BY hd.created_at DESC, hd.id DESC LIMIT 1) AS latest_helios_deployment_id, "
+          + "(SELECT d.id FROM deployment d WHERE d.environment_id = e.id "
+          + "  ORDER BY d.created_at DESC, d.id DESC LIMIT 1) AS latest_deployment_id, "
+          + "(SELECT es.id FROM environment_status es WHERE es.environment_id = e.id "
+          + "  ORDER BY es.check_timestamp DESC, es.id DESC LIMIT 1) AS latest_status_id "
+          + "FROM environment e "
+          + "WHERE e.repository_id IS NOT NULL";
+
+  String UPSERT =
+      "INSERT INTO environment_current_state (environment_id, repository_id, "
+          + "latest_helios_deployment_id, latest_deployment_id, latest_status_id, refreshed_at) "
+          + "SELECT derived.*, now() FROM ("
+          + DERIVED_STATE
+          + ") derived ";
+
+  String ON_CONFLICT_UPDATE =
+      "ON CONFLICT (environment_id) DO UPDATE SET "
+          + "repository_id = EXCLUDED.repository_id, "
+          + "latest_helios_deployment_id = EXCLUDED.latest_helios_deployment_id, "
+          + "latest_deployment_id = EXCLUDED.latest_deployment_id, "
+          + "latest_status_id = EXCLUDED.latest_status_id, "
+          + "refreshed_at = EXCLUDED.refreshed_at";
+
+  List<EnvironmentCurrentState> findByRepositoryId(Long repositoryId);
+
+  /** Recomputes the row of a single environment. */
+  @Modifying
+  @Query(
+      value = UPSERT + "WHERE derived.environment_id = :environmentId " + ON_CONFLICT_UPDATE,
+      nativeQuery = true)
+  int refresh(Long environmentId);
+
+  /** Recomputes the rows of the given environments in one statement. */
+  @Modifying
+  @Query(
+      value =
+          UPSERT + "WHERE derived.environment_id IN (:environmentIds) " + ON_CONFLICT_UPDATE,
+      nativeQuery = true)
+  int refreshAll(Collection<Long> environmentIds);
+
+  /** Recomputes the rows of all environments in one statement. */
+  @Modifying
+  @Query(value = UPSERT + ON_CONFLICT_UPDATE, nativeQuery = true)
+  int rebuildAll();
+
+  /** Environments whose row is missing or differs from the state derived from the source tables. */
+  @Query(
+      value =
+          "SELECT derived.environment_id FROM ("
+              + DERIVED_STATE
+              + ") derived "
+              + "LEFT JOIN environment_current_state s "
+              + "  ON s.environment_id = derived.environment_id "
+              + "WHERE s.environment_id IS NULL "
+              + "  OR s.repository_id IS DISTINCT FROM derived.repository_id "
+              + "  OR s.latest_helios_deployment_id "
+              + "    IS DISTINCT FROM derived.latest_helios_deployment_id "
+              + "  OR s.latest_deployment_id IS DISTINCT FROM derived.latest_deployment_id "
+              + "  OR s.latest_status_id IS DISTINCT FROM derived.latest_status_id "
+              + "ORDER BY derived.environment_id",
+      nativeQuery = true)
+  List<Long> findInconsistentEnvironmentIds();
+}
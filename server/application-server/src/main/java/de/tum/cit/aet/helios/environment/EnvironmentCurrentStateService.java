@@ -0,0 +1,81 @@
+package de.tum.cit.aet.helios.environment;
+
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the {@link EnvironmentCurrentState} read model.
+ *
+ * <p>The paths that insert deployments, Helios deployments and status checks call {@link
+ * #refresh(Long)} for the affected environment. Anything those paths miss is caught by {@link
+ * #checkConsistency()}, which runs next to the other reconciliation jobs, and {@link #rebuild()}
+ * recomputes every row on demand.
+ */
+@Service
+@Log4j2
+@RequiredArgsConstructor
+public class EnvironmentCurrentStateService {
+
+  @Value("${reconciliation.enabled:true}")
+  private boolean reconciliationEnabled;
+
+  private final EnvironmentCurrentStateRepository currentStateRepository;
+
+  /**
+   * Recomputes the current state of one environment. Runs in the caller's transaction, if any, so
+   * it sees the rows the caller has just written.
+   */
+  @Transactional
+  public void refresh(Long environmentId) {
+    currentStateRepository.refresh(environmentId);
+  }
+
+  /** Batch variant of {@link #refresh(Long)}. */
+  @Transactional
+  public void refreshAll(Collection<Long> environmentIds) {
+    if (!environmentIds.isEmpty()) {
+      currentStateRepository.refreshAll(environmentIds);
+    }
+  }
+
+  /**
+   * Recomputes the current state of every environment.
+   *
+   * @return the number of rows written
+   */
+  @Transactional
+  public int rebuild() {
+    int rows = currentStateRepository.rebuildAll();
+    log.info("Rebuilt the current state of {} environment(s).", rows);
+    return rows;
+  }
+
+  /** Compares the read model against the source tables and repairs the rows that drifted. */
+  @Scheduled(cron = "${reconciliation.environment-state.cron:0 11/15 * * * *}")
+  @Transactional
+  public void checkConsistency() {
+    if (!reconciliationEnabled) {
+      log.debug("Environment state consistency check is disabled.");
+      return;
+    }
+
+    List<Long> inconsistent = currentStateRepository.findInconsistentEnvironmentIds();
+    if (inconsistent.isEmpty()) {
+      log.debug("Environment current state is consistent.");
+      return;
+    }
+
+    log.warn(
+        "Environment current state of {} environment(s) drifted from the source tables,"
+            + " repairing: {}",
+        inconsistent.size(),
+        inconsistent);
+    inconsistent.forEach(currentStateRepository::refresh);
+  }
+}
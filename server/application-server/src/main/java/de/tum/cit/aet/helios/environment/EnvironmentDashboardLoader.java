@@ -0,0 +1,180 @@
+package de.tum.cit.aet.helios.environment;
+
+import de.tum.cit.aet.helios.deployment.Deployment;
+import de.tum.cit.aet.helios.deployment.DeploymentRepository;
+import de.tum.cit.aet.helios.deployment.LatestDeploymentUnion;
+import de.tum.cit.aet.helios.environment.status.EnvironmentStatus;
+import de.tum.cit.aet.helios.environment.status.EnvironmentStatusRepository;
+import de.tum.cit.aet.helios.heliosdeployment.DeploymentDurationEstimate;
+import de.tum.cit.aet.helios.heliosdeployment.HeliosDeployment;
+import de.tum.cit.aet.helios.heliosdeployment.HeliosDeploymentRepository;
+import de.tum.cit.aet.helios.releaseinfo.releasecandidate.ReleaseCandidateRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Builds the environment list of a repository for the dashboard.
+ *
+ * <p>Every {@link EnvironmentDto} needs the latest Helios and real deployment of its environment,
+ * the latest status, the deployment duration estimate and the release candidates of the deployed
+ * commit. Instead of resolving those per environment, each of them is fetched for all environments
+ * of the repository with one set-based query, and the results are joined in memory. The latest
+ * rows are looked up in the {@link EnvironmentCurrentState} read model. The number of statements
+ * is therefore the same for two environments as for two hundred.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class EnvironmentDashboardLoader {
+
+  private final EnvironmentRepository environmentRepository;
+  private final EnvironmentCurrentStateRepository currentStateRepository;
+  private final EnvironmentStatusRepository environmentStatusRepository;
+  private final HeliosDeploymentRepository heliosDeploymentRepository;
+  private final DeploymentRepository deploymentRepository;
+  private final ReleaseCandidateRepository releaseCandidateRepository;
+
+  /**
+   * Loads the dashboard view of the environments of a repository, ordered by name.
+   *
+   * <p>Read-only, so the timestamp that {@link LatestDeploymentUnion#realDeployment(Deployment,
+   * HeliosDeployment)} copies onto the loaded deployment is never flushed.
+   *
+   * @param repositoryId the repository whose environments are loaded
+   * @param enabledOnly whether to skip disabled environments
+   */
+  @Transactional(readOnly = true)
+  public List<EnvironmentDto> loadEnvironments(Long repositoryId, boolean enabledOnly) {
+    long start = System.nanoTime();
+    List<Environment> environments =
+        environmentRepository.findDashboardEnvironments(repositoryId, enabledOnly);
+    if (environments.isEmpty()) {
+      return List.of();
+    }
+    List<Long> environmentIds = environments.stream().map(Environment::getId).toList();
+    environmentRepository.fetchInstalledApps(environmentIds);
+    environmentRepository.fetchRequiredPreDeploymentWorkflows(environmentIds);
+
+    // The read model points at the latest rows; environments without a row yet (e.g. created
+    // since the last refresh) get them derived from the source tables instead
+    List<Long> heliosDeploymentIds = new ArrayList<>();
+    List<Long> deploymentIds = new ArrayList<>();
+    List<Long> statusIds = new ArrayList<>();
+    Set<Long> withoutCurrentState = new LinkedHashSet<>(environmentIds);
+    for (EnvironmentCurrentState state : currentStateRepository.findByRepositoryId(repositoryId)) {
+      if (withoutCurrentState.remove(state.getEnvironmentId())) {
+        addIfPresent(heliosDeploymentIds, state.getLatestHeliosDeploymentId());
+        addIfPresent(deploymentIds, state.getLatestDeploymentId());
+        addIfPresent(statusIds, state.getLatestStatusId());
+      }
+    }
+    if (!withoutCurrentState.isEmpty()) {
+      log.debug(
+          "No current state for environments {}, deriving their latest rows",
+          withoutCurrentState);
+      heliosDeploymentIds.addAll(
+          heliosDeploymentRepository.findLatestIdsByEnvironmentIdIn(withoutCurrentState));
+      deploymentIds.addAll(
+          deploymentRepository.findLatestIdsByEnvironmentIdIn(withoutCurrentState));
+      statusIds.addAll(
+          environmentStatusRepository.findLatestIdsByEnvironmentIdIn(withoutCurrentState));
+    }
+
+    Map<Long, HeliosDeployment> latestHeliosDeployments = new HashMap<>();
+    if (!heliosDeploymentIds.isEmpty()) {
+      heliosDeploymentRepository
+          .findWithCreatorAndPullRequestByIdIn(heliosDeploymentIds)
+          .forEach(hd -> latestHeliosDeployments.put(hd.getEnvironment().getId(), hd));
+    }
+
+    Map<Long, Deployment> latestDeployments = new HashMap<>();
+    if (!deploymentIds.isEmpty()) {
+      deploymentRepository
+          .findWithCreatorAndPullRequestByIdIn(deploymentIds)
+          .forEach(
+              deployment -> latestDeployments.put(deployment.getEnvironment().getId(), deployment));
+    }
+
+    Map<Long, EnvironmentStatus> latestStatuses = new HashMap<>();
+    if (!statusIds.isEmpty()) {
+      environmentStatusRepository
+          .findAllById(statusIds)
+          .forEach(status -> latestStatuses.put(status.getEnvironment().getId(), status));
+    }
+
+    Map<Long, DeploymentDurationEstimate> estimates = new HashMap<>();
+    for (Object[] row :
+        heliosDeploymentRepository.findMedianDurationsByEnvironmentIdIn(environmentIds)) {
+      DeploymentDurationEstimate estimate =
+          DeploymentDurationEstimate.fromMedians((Number) row[1], (Number) row[2]);
+      if (estimate != null) {
+        estimates.put(((Number) row[0]).longValue(), estimate);
+      }
+    }
+
+    Map<Long, LatestDeploymentUnion> latestUnions = new HashMap<>();
+    Set<String> deployedShas = new LinkedHashSet<>();
+    for (Environment environment : environments) {
+      LatestDeploymentUnion union =
+          LatestDeploymentUnion.latestOf(
+              latestHeliosDeployments.get(environment.getId()),
+              latestDeployments.get(environment.getId()));
+      latestUnions.put(environment.getId(), union);
+      if (!union.isNone() && union.getSha() != null) {
+        deployedShas.add(union.getSha());
+      }
+    }
+    Map<String, List<String>> releaseCandidateNames =
+        findReleaseCandidateNames(repositoryId, deployedShas);
+
+    List<EnvironmentDto> result = new ArrayList<>(environments.size());
+    for (Environment environment : environments) {
+      LatestDeploymentUnion union = latestUnions.get(environment.getId());
+      result.add(
+          EnvironmentDto.fromEnvironment(
+              environment,
+              union,
+              Optional.ofNullable(latestStatuses.get(environment.getId())),
+              releaseCandidateNames.getOrDefault(union.getSha(), List.of()),
+              estimates.get(environment.getId())));
+    }
+    log.debug(
+        "Loaded {} environments of repository {} in {} ms",
+        environments.size(),
+        repositoryId,
+        (System.nanoTime() - start) / 1_000_000);
+    return result;
+  }
+
+  private static void addIfPresent(List<Long> ids, Long id) {
+    if (id != null) {
+      ids.add(id);
+    }
+  }
+
+  private Map<String, List<String>> findReleaseCandidateNames(
+      Long repositoryId, Set<String> commitShas) {
+    Map<String, List<String>> namesBySha = new LinkedHashMap<>();
+    if (commitShas.isEmpty()) {
+      return namesBySha;
+    }
+    for (Object[] row :
+        releaseCandidateRepository.findCommitShaAndNameByRepositoryIdAndCommitShaIn(
+            repositoryId, commitShas)) {
+      namesBySha
+          .computeIfAbsent((String) row[0], sha -> new ArrayList<>())
+          .add((String) row[1]);
+    }
+    return namesBySha;
+  }
+}
@@ -111,6 +111,24 @@ public record EnvironmentDto(
         LatestDeploymentUnion union,
         ReleaseCandidateRepository releaseCandidateRepository,
         DeploymentDurationEstimate estimate) {
+      return fromUnion(
+          union,
+          releaseCandidateRepository
+              .findByRepositoryRepositoryIdAndCommitSha(union.getRepository().id(), union.getSha())
+              .stream()
+              .map(ReleaseCandidate::getName)
+              .toList(),
+          estimate);
+    }
+
+    /**
+     * Builds an EnvironmentDeployment from a LatestDeploymentUnion whose release candidate names
+     * have already been loaded.
+     */
+    public static EnvironmentDeployment fromUnion(
+        LatestDeploymentUnion union,
+        List<String> releaseCandidateNames,
+        DeploymentDurationEstimate estimate) {
       Integer estimatedPreDeploy = null;
       Integer estimatedDeploy = null;
       if (estimate != null) {
@@ -132,11 +150,7 @@ public record EnvironmentDto(
           union.getRef(),
           union.getTask(),
           union.getWorkflowRunHtmlUrl(),
-          releaseCandidateRepository
-              .findByRepositoryRepositoryIdAndCommitSha(union.getRepository().id(), union.getSha())
-              .stream()
-              .map(ReleaseCandidate::getName)
-              .toList(),
+          releaseCandidateNames,
           union.getPullRequestName(),
           UserInfoDto.fromUser(union.getCreator()),
           union.getPullRequestNumber(),
@@ -181,7 +195,30 @@ public record EnvironmentDto(
       envDeployment =
           EnvironmentDeployment.fromUnion(latestUnion, releaseCandidateRepository, estimate);
     }
+    return fromEnvironment(environment, envDeployment, latestStatus);
+  }
+
+  /**
+   * Factory method for callers that load the release candidate names of the latest deployment
+   * themselves, e.g. for many environments at once.
+   */
+  public static EnvironmentDto fromEnvironment(
+      Environment environment,
+      LatestDeploymentUnion latestUnion,
+      Optional<EnvironmentStatus> latestStatus,
+      List<String> releaseCandidateNames,
+      DeploymentDurationEstimate estimate) {
+    EnvironmentDeployment envDeployment = null;
+    if (latestUnion != null && !latestUnion.isNone()) {
+      envDeployment = EnvironmentDeployment.fromUnion(latestUnion, releaseCandidateNames, estimate);
+    }
+    return fromEnvironment(environment, envDeployment, latestStatus);
+  }
 
+  private static EnvironmentDto fromEnvironment(
+      Environment environment,
+      EnvironmentDeployment envDeployment,
+      Optional<EnvironmentStatus> latestStatus) {
     return new EnvironmentDto(
         RepositoryInfoDto.fromRepository(environment.getRepository()),
         environment.getId(),
@@ -2,6 +2,7 @@ package de.tum.cit.aet.helios.environment;
 
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
 import de.tum.cit.aet.helios.gitreposettings.GitRepoSettings;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -25,6 +26,29 @@ public interface EnvironmentRepository extends JpaRepository<Environment, Long>
 
   List<Environment> findByEnabledTrueAndRepositoryRepositoryIdOrderByNameAsc(Long repositoryId);
 
+  /**
+   * The environments of a repository for the dashboard, with the eager deployments collection and
+   * the to-one associations fetched in the same statement instead of one select per environment.
+   */
+  @Query("SELECT e FROM Environment e "
+      + "LEFT JOIN FETCH e.deployments d "
+      + "LEFT JOIN FETCH d.creator "
+      + "LEFT JOIN FETCH e.deploymentWorkflow "
+      + "LEFT JOIN FETCH e.lockedBy "
+      + "WHERE e.repository.repositoryId = :repositoryId "
+      + "AND (:enabledOnly = false OR e.enabled = true) "
+      + "ORDER BY e.name ASC")
+  List<Environment> findDashboardEnvironments(Long repositoryId, boolean enabledOnly);
+
+  // Initialize one lazy collection of already loaded environments in a single statement each;
+  // fetching both in one query would multiply their rows.
+  @Query("SELECT e FROM Environment e LEFT JOIN FETCH e.installedApps WHERE e.id IN :ids")
+  List<Environment> fetchInstalledApps(Collection<Long> ids);
+
+  @Query("SELECT e FROM Environment e "
+      + "LEFT JOIN FETCH e.requiredPreDeploymentWorkflows WHERE e.id IN :ids")
+  List<Environment> fetchRequiredPreDeploymentWorkflows(Collection<Long> ids);
+
   Optional<Environment> findByIdAndRepositoryRepositoryId(Long id, Long repositoryId);
 
   @Query("SELECT DISTINCT e FROM Environment e "
@@ -18,7 +18,6 @@ import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
 import de.tum.cit.aet.helios.gitreposettings.GitRepoSettingsDto;
 import de.tum.cit.aet.helios.gitreposettings.GitRepoSettingsService;
-import de.tum.cit.aet.helios.heliosdeployment.DeploymentDurationEstimate;
 import de.tum.cit.aet.helios.heliosdeployment.HeliosDeployment;
 import de.tum.cit.aet.helios.heliosdeployment.HeliosDeploymentRepository;
 import de.tum.cit.aet.helios.nats.NatsNotificationPublisherService;
@@ -73,6 +72,7 @@ public class EnvironmentService {
   private final GitRepoRepository gitRepoRepository;
   private final GitHubService gitHubService;
   private final NatsNotificationPublisherService notificationPublisherService;
+  private final EnvironmentDashboardLoader dashboardLoader;
 
   public Optional<EnvironmentDto> getEnvironmentById(Long id) {
     return findScopedById(id).map(EnvironmentDto::fromEnvironment);
@@ -102,16 +102,7 @@ public class EnvironmentService {
     if (repositoryId == null) {
       return List.of();
     }
-    return environmentRepository.findByRepositoryRepositoryIdOrderByNameAsc(repositoryId).stream()
-        .map(
-            environment -> {
-              LatestDeploymentUnion latest = findLatestDeployment(environment);
-              DeploymentDurationEstimate estimate = computeEstimate(environment);
-              return EnvironmentDto.fromEnvironment(
-                  environment, latest, environment.getLatestStatus(), releaseCandidateRepository,
-                  estimate);
-            })
-        .collect(Collectors.toList());
+    return dashboardLoader.loadEnvironments(repositoryId, false);
   }
 
   public List<EnvironmentDto> getAllEnabledEnvironments() {
@@ -119,18 +110,7 @@ public class EnvironmentService {
     if (repositoryId == null) {
       return List.of();
     }
-    return environmentRepository
-        .findByEnabledTrueAndRepositoryRepositoryIdOrderByNameAsc(repositoryId)
-        .stream()
-        .map(
-            environment -> {
-              LatestDeploymentUnion latest = findLatestDeployment(environment);
-              DeploymentDurationEstimate estimate = computeEstimate(environment);
-              return EnvironmentDto.fromEnvironment(
-                  environment, latest, environment.getLatestStatus(), releaseCandidateRepository,
-                  estimate);
-            })
-        .collect(Collectors.toList());
+    return dashboardLoader.loadEnvironments(repositoryId, true);
   }
 
   public List<EnvironmentDto> getEnvironmentsByRepositoryId(Long repositoryId) {
@@ -141,28 +121,6 @@ public class EnvironmentService {
         .collect(Collectors.toList());
   }
 
-  /**
-   * Computes median pre-deploy and deploy duration estimates from previous deployments for the
-   * given environment.
-   *
-   * @param environment the environment whose duration estimates should be loaded
-   * @return a duration estimate, or {@code null} when no usable historical data exists
-   */
-  private DeploymentDurationEstimate computeEstimate(Environment environment) {
-    List<Object[]> rows =
-        heliosDeploymentRepository.findMedianDurationsByEnvironmentId(environment.getId());
-    if (rows == null || rows.isEmpty()) {
-      return null;
-    }
-    Object[] row = rows.get(0);
-    if (row == null || row.length < 2 || row[0] == null) {
-      return null;
-    }
-    Double medianPreDeploy = ((Number) row[0]).doubleValue();
-    Double medianDeploy = row[1] != null ? ((Number) row[1]).doubleValue() : null;
-    return new DeploymentDurationEstimate(medianPreDeploy, medianDeploy);
-  }
-
   /**
    * Finds the "latest" deployment for the given environment by considering: 1) The most recent
    * HeliosDeployment (if present), ordered by `createdAt`. 2) If the HeliosDeployment has a
@@ -186,31 +144,8 @@ public class EnvironmentService {
     Optional<Deployment> latestDeploymentOpt =
         deploymentRepository.findFirstByEnvironmentIdOrderByCreatedAtDesc(env.getId());
 
-    // If no deployments exist at all, return empty
-    if (latestHeliosOpt.isEmpty() && latestDeploymentOpt.isEmpty()) {
-      return LatestDeploymentUnion.none();
-    }
-
-    // Compare the latest HeliosDeployment and the latest real Deployment
-    if (latestHeliosOpt.isPresent() && latestDeploymentOpt.isPresent()) {
-      HeliosDeployment latestHelios = latestHeliosOpt.get();
-      Deployment latestDeployment = latestDeploymentOpt.get();
-      // TODO: add logs and check what's returned in ehre
-      // Compare updatedAt timestamps to determine the latest
-      if (latestDeployment.getCreatedAt().isAfter(latestHelios.getCreatedAt())
-          || latestDeployment.getCreatedAt().isEqual(latestHelios.getCreatedAt())) {
-        return LatestDeploymentUnion.realDeployment(latestDeployment, latestHelios);
-      } else {
-        return LatestDeploymentUnion.heliosDeployment(latestHelios);
-      }
-    }
-
-    // If only one of them exists, return the available one
-    if (latestHeliosOpt.isPresent()) {
-      return LatestDeploymentUnion.heliosDeployment(latestHeliosOpt.get());
-    } else {
-      return LatestDeploymentUnion.realDeployment(latestDeploymentOpt.get());
-    }
+    return LatestDeploymentUnion.latestOf(
+        latestHeliosOpt.orElse(null), latestDeploymentOpt.orElse(null));
   }
 
   /**
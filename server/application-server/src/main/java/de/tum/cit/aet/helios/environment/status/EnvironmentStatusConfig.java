@@ -2,20 +2,16 @@ package de.tum.cit.aet.helios.environment.status;
 
 import java.time.Duration;
 import java.util.Map;
-import lombok.Data;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.restclient.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
-@EnableConfigurationProperties(EnvironmentStatusConfig.StatusCheckTaskExecutorConfig.class)
 public class EnvironmentStatusConfig {
 
   /**
@@ -76,41 +72,47 @@ public class EnvironmentStatusConfig {
   }
 
   /**
-   * Creates a TaskExecutor bean named "statusCheckTaskExecutor".
-   * This executor is used to manage and execute status check tasks concurrently.
-   * The core and maximum pool sizes are configured based on the available
-   * processors
-   * to optimize performance but can be overridden in the application
-   * configuration.
-   *
-   * @param config the configuration for the StatusCheckTaskExecutor
-   * @return a configured ThreadPoolTaskExecutor instance
+   * How often the scheduler advances its timer wheel and flushes finished checks. Bounds how late
+   * a check can start relative to its due time. Defaults to 1 second.
    */
-  @Bean("statusCheckTaskExecutor")
-  public TaskExecutor taskExecutor(
-      StatusCheckTaskExecutorConfig config) {
-    int availableProcessors = Runtime.getRuntime().availableProcessors();
+  @Getter
+  @Value("${status-check.tick:1s}")
+  private Duration tick;
 
-    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-    executor.setCorePoolSize(config.getCorePoolSize(availableProcessors));
-    executor.setMaxPoolSize(config.getMaxPoolSize(availableProcessors));
-    executor.setThreadNamePrefix("status-check-");
-    return executor;
-  }
+  /**
+   * How often the scheduler reloads the monitored environments to pick up new, removed or
+   * reconfigured environments. Defaults to 30 seconds.
+   */
+  @Getter
+  @Value("${status-check.resync-interval:30s}")
+  private Duration resyncInterval;
 
-  @ConfigurationProperties(prefix = "status-check.executor")
-  @Data
-  public static class StatusCheckTaskExecutorConfig {
-    private Integer corePoolSize;
-    private Integer maxPoolSize;
+  /**
+   * The fraction by which each check interval is randomly stretched or shortened, so that
+   * environments added at the same time drift apart instead of being checked in lockstep.
+   * Defaults to 0.1, i.e. plus or minus 10%.
+   */
+  @Getter
+  @Value("${status-check.jitter:0.1}")
+  private double jitter;
 
-    // Dynamic defaults based on CPU cores
-    public int getCorePoolSize(int availableProcessors) {
-      return corePoolSize != null ? corePoolSize : availableProcessors * 2;
-    }
+  /**
+   * The maximum number of checks that may run against the same host at once. Defaults to 4.
+   */
+  @Getter
+  @Value("${status-check.max-concurrent-per-host:4}")
+  private int maxConcurrentChecksPerHost;
 
-    public int getMaxPoolSize(int availableProcessors) {
-      return maxPoolSize != null ? maxPoolSize : availableProcessors * 4;
-    }
+  /**
+   * Creates the executor the status checks run on. Every check gets its own virtual thread, so a
+   * slow endpoint only parks its own thread while it waits for the blocking {@link RestTemplate}
+   * instead of occupying a pooled one.
+   *
+   * @return an executor starting a new virtual thread per check
+   */
+  @Bean(name = "statusCheckExecutor", destroyMethod = "shutdownNow")
+  public ExecutorService statusCheckExecutor() {
+    return Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("status-check-", 0).factory());
   }
 }
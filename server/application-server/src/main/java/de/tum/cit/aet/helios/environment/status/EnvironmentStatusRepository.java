@@ -1,5 +1,7 @@
 package de.tum.cit.aet.helios.environment.status;
 
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -11,4 +13,32 @@ public interface EnvironmentStatusRepository extends JpaRepository<EnvironmentSt
       + "SELECT es2.id FROM EnvironmentStatus es2 WHERE es2.environment.id = :environmentId "
       + "ORDER BY es2.checkTimestamp DESC LIMIT :keepCount)")
   void deleteAllButLatestByEnvironmentId(Long environmentId, int keepCount);
+
+  /**
+   * Set-based variant of {@link #deleteAllButLatestByEnvironmentId(Long, int)}: trims the history
+   * of all given environments to their newest {@code keepCount} entries in one statement.
+   */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM environment_status WHERE id IN ("
+              + "SELECT id FROM ("
+              + "SELECT id, ROW_NUMBER() OVER ("
+              + "PARTITION BY environment_id ORDER BY check_timestamp DESC, id DESC) AS recency "
+              + "FROM environment_status WHERE environment_id IN (:environmentIds)) ranked "
+              + "WHERE ranked.recency > :keepCount)",
+      nativeQuery = true)
+  int deleteAllButLatestByEnvironmentIdIn(Collection<Long> environmentIds, int keepCount);
+
+  /**
+   * The id of the most recent status of every given environment, i.e. {@code
+   * Environment#getLatestStatus()} for all of them without initializing each status history.
+   */
+  @Query(
+      value =
+          "SELECT DISTINCT ON (environment_id) id FROM environment_status "
+              + "WHERE environment_id IN (:environmentIds) "
+              + "ORDER BY environment_id, check_timestamp DESC, id DESC",
+      nativeQuery = true)
+  List<Long> findLatestIdsByEnvironmentIdIn(Collection<Long> environmentIds);
 }
@@ -0,0 +1,216 @@
+package de.tum.cit.aet.helios.environment.status;
+
+import de.tum.cit.aet.helios.environment.Environment;
+import de.tum.cit.aet.helios.environment.EnvironmentCurrentStateService;
+import de.tum.cit.aet.helios.environment.EnvironmentRepository;
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-coalescing persistence for {@link EnvironmentStatus} rows.
+ *
+ * <p>Most checks report exactly what the previous one reported. The store remembers the last
+ * persisted result per environment and only writes a new row when the result differs (success,
+ * status code, lifecycle state or metadata) or when the heartbeat interval has passed since the
+ * last written row, so the history still shows the environment is being checked. Accepted results
+ * are queued and flushed in one transaction per flush interval, together with a single trim of
+ * the affected histories.
+ *
+ * <p>A result that changes the status ({@link StatusCheckOutcome#statusChanged()}) is always
+ * written and bumps the environment's statusChangedAt, exactly as before. That timestamp is always
+ * server time: a push keeps its own timestamp only as the check timestamp, and bumps
+ * statusChangedAt to when the store accepted it, so a skewed clock on the pushing server cannot
+ * move it.
+ *
+ * <p>{@link StatusCheckType#PUSH_UPDATE} results are never coalesced: their check timestamp is
+ * how the client tells that an environment still pushes, and it flags pushes older than a few
+ * minutes as a possibly dead server. Environments push far less often than they are polled.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class EnvironmentStatusStore {
+  private final EnvironmentStatusRepository statusRepository;
+  private final EnvironmentRepository environmentRepository;
+  private final EnvironmentCurrentStateService environmentCurrentStateService;
+  private final TransactionTemplate transactionTemplate;
+  private final LiveUpdatePublisher liveUpdatePublisher;
+
+  /**
+   * The number of status entries to keep for each environment
+   * before deleting the oldest entries.
+   */
+  @Value("${status-check.keep-count:10}")
+  private int keepCount;
+
+  /**
+   * The maximum time between two persisted entries of an environment whose status does not
+   * change.
+   */
+  @Value("${status-check.heartbeat-interval:5m}")
+  private Duration heartbeatInterval;
+
+  private final Map<Long, PersistedStatus> lastPersisted = new ConcurrentHashMap<>();
+  private final Queue<PendingStatus> pending = new ConcurrentLinkedQueue<>();
+
+  /** An accepted result, with the server time it changes the status at if it does. */
+  private record PendingStatus(StatusCheckOutcome outcome, Instant statusChangedAt) {}
+
+  /** The part of a persisted result that decides whether the next result is a repetition. */
+  private record PersistedStatus(
+      boolean success,
+      int httpStatusCode,
+      LifecycleState state,
+      Map<String, Object> metadata,
+      Instant checkedAt) {
+
+    static PersistedStatus of(StatusCheckOutcome outcome) {
+      return new PersistedStatus(
+          outcome.result().success(),
+          outcome.result().httpStatusCode(),
+          outcome.state(),
+          outcome.result().metadata(),
+          outcome.checkedAt());
+    }
+
+    boolean reports(StatusCheckOutcome outcome) {
+      return success == outcome.result().success()
+          && httpStatusCode == outcome.result().httpStatusCode()
+          && state == outcome.state()
+          && Objects.equals(metadata, outcome.result().metadata());
+    }
+  }
+
+  /**
+   * Records a finished status check. Queues it for the next flush unless it is a pulled check
+   * that repeats the last persisted result of the environment within the heartbeat interval.
+   *
+   * @param outcome the finished check
+   * @return whether the result will be persisted
+   */
+  public boolean record(StatusCheckOutcome outcome) {
+    boolean[] queued = {false};
+    lastPersisted.compute(outcome.environmentId(), (environmentId, previous) -> {
+      if (previous != null
+          && outcome.checkType() != StatusCheckType.PUSH_UPDATE
+          && !outcome.statusChanged()
+          && previous.reports(outcome)
+          && outcome.checkedAt().isBefore(previous.checkedAt().plus(heartbeatInterval))) {
+        return previous;
+      }
+      // Pushes carry the clock of the pushing server; pulled checks are timed here
+      Instant statusChangedAt = outcome.checkType() == StatusCheckType.PUSH_UPDATE
+          ? Instant.now()
+          : outcome.checkedAt();
+      pending.add(new PendingStatus(outcome, statusChangedAt));
+      queued[0] = true;
+      return PersistedStatus.of(outcome);
+    });
+    return queued[0];
+  }
+
+  /*
+   * Flushes the queued results at a fixed delay.
+   *
+   * The delay is configurable via the status-check.flush-interval property.
+   * Defaults to 1 second.
+   */
+  @Scheduled(fixedDelayString = "${status-check.flush-interval:1s}")
+  public void flush() {
+    List<PendingStatus> batch = new ArrayList<>();
+    PendingStatus next;
+    while ((next = pending.poll()) != null) {
+      batch.add(next);
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    try {
+      transactionTemplate.executeWithoutResult(transactionStatus -> persist(batch));
+    } catch (RuntimeException e) {
+      log.error("Failed to persist {} status check results", batch.size(), e);
+      // Make sure the next result of these environments is written instead of coalesced
+      batch.forEach(failed -> lastPersisted.remove(failed.outcome().environmentId()));
+    }
+  }
+
+  @PreDestroy
+  void flushOnShutdown() {
+    flush();
+  }
+
+  private void persist(List<PendingStatus> batch) {
+    Set<Long> environmentIds = batch.stream()
+        .map(next -> next.outcome().environmentId())
+        .collect(Collectors.toSet());
+    Map<Long, Environment> environments = environmentRepository.findAllById(environmentIds)
+        .stream()
+        .collect(Collectors.toMap(Environment::getId, Function.identity()));
+
+    List<EnvironmentStatus> statuses = new ArrayList<>(batch.size());
+    for (PendingStatus next : batch) {
+      StatusCheckOutcome outcome = next.outcome();
+      Environment environment = environments.get(outcome.environmentId());
+      if (environment == null) {
+        log.debug("Environment {} no longer exists, dropping its status check result",
+            outcome.environmentId());
+        lastPersisted.remove(outcome.environmentId());
+        continue;
+      }
+
+      EnvironmentStatus status = new EnvironmentStatus();
+      status.setEnvironment(environment);
+      status.setCheckType(outcome.checkType());
+      status.setSuccess(outcome.result().success());
+      status.setHttpStatusCode(outcome.result().httpStatusCode());
+      status.setState(outcome.state());
+      status.setCheckTimestamp(outcome.checkedAt());
+      status.setMetadata(outcome.result().metadata());
+      statuses.add(status);
+
+      // The environment is managed here, so only the freshly loaded row is written back
+      if (outcome.statusChanged()) {
+        environment.setStatusChangedAt(next.statusChangedAt());
+      }
+    }
+    if (statuses.isEmpty()) {
+      return;
+    }
+
+    statusRepository.saveAll(statuses);
+
+    // To prevent the status table from growing indefinitely, delete all but the
+    // newest keepCount entries of every environment in the batch
+    int trimmed =
+        statusRepository.deleteAllButLatestByEnvironmentIdIn(environments.keySet(), keepCount);
+    environmentCurrentStateService.refreshAll(environments.keySet());
+    statuses.stream()
+        .map(status -> status.getEnvironment().getId())
+        .distinct()
+        .map(environments::get)
+        .forEach(environment -> liveUpdatePublisher.publish(
+            environment.getRepository(), LiveUpdateEvent.environmentStatus(environment.getId())));
+
+    log.debug("Persisted {} status entries, trimmed {}", statuses.size(), trimmed);
+  }
+}
@@ -0,0 +1,22 @@
+package de.tum.cit.aet.helios.environment.status;
+
+import java.time.Instant;
+
+/**
+ * A finished status check waiting to be persisted.
+ *
+ * @param environmentId the checked environment
+ * @param checkType the type of check that ran
+ * @param result the result of the check
+ * @param state the lifecycle state reported by a push update, null for pull checks
+ * @param checkedAt when the check finished, as reported by the pushing server for push updates
+ * @param statusChanged whether the HTTP status code differs from the previous check
+ */
+public record StatusCheckOutcome(
+    Long environmentId,
+    StatusCheckType checkType,
+    StatusCheckResult result,
+    LifecycleState state,
+    Instant checkedAt,
+    boolean statusChanged) {
+}
@@ -2,33 +2,117 @@ package de.tum.cit.aet.helios.environment.status;
 
 import de.tum.cit.aet.helios.environment.Environment;
 import de.tum.cit.aet.helios.environment.EnvironmentRepository;
+import java.net.URI;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+/**
+ * Schedules the pull-based status checks (everything but {@link StatusCheckType#PUSH_UPDATE}).
+ *
+ * <p>Every monitored environment has its own next due time in a {@link StatusCheckTimerWheel}.
+ * Environments whose status changed recently are due again after the recent interval, stable ones
+ * after the stable interval, each stretched by a random jitter so that checks spread out instead
+ * of all firing on the same tick. On every tick the scheduler reloads the monitored environments
+ * if the resync interval elapsed and starts the checks that became due, each on its own virtual
+ * thread. Finished checks are handed to the {@link EnvironmentStatusStore}, which persists them in
+ * batches.
+ *
+ * <p>Ticks never wait for checks: an environment is only put back on the wheel once its check
+ * returned, so a slow endpoint delays nothing but itself. Checks against the same host are
+ * limited to {@link EnvironmentStatusConfig#getMaxConcurrentChecksPerHost()} at once. The check
+ * interval bounds the wait for a host permit and, separately, the probe itself: a check that gets
+ * no permit in time is skipped without being recorded, and a probe that overruns is interrupted
+ * and recorded as failed once it returned.
+ */
 @Service
-@RequiredArgsConstructor
 @Log4j2
 public class StatusCheckScheduler {
+  private static final int WHEEL_SLOTS = 512;
+
   private final EnvironmentRepository environmentRepository;
   private final StatusCheckService statusCheckService;
+  private final EnvironmentStatusStore statusStore;
   private final EnvironmentStatusConfig config;
   private final org.springframework.core.env.Environment springEnvironment;
+  private final ExecutorService statusCheckExecutor;
+
+  private final StatusCheckTimerWheel wheel;
+  private final Map<Long, MonitoredEnvironment> monitored = new ConcurrentHashMap<>();
+  private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+  private final Map<String, Semaphore> hostLimits = new ConcurrentHashMap<>();
+  private Instant lastResync = Instant.MIN;
+
+  public StatusCheckScheduler(
+      EnvironmentRepository environmentRepository,
+      StatusCheckService statusCheckService,
+      EnvironmentStatusStore statusStore,
+      EnvironmentStatusConfig config,
+      org.springframework.core.env.Environment springEnvironment,
+      @Qualifier("statusCheckExecutor") ExecutorService statusCheckExecutor) {
+    this.environmentRepository = environmentRepository;
+    this.statusCheckService = statusCheckService;
+    this.statusStore = statusStore;
+    this.config = config;
+    this.springEnvironment = springEnvironment;
+    this.statusCheckExecutor = statusCheckExecutor;
+    this.wheel = new StatusCheckTimerWheel(config.getTick(), WHEEL_SLOTS, Instant.now());
+  }
+
+  /**
+   * The state the scheduler keeps per environment between resyncs.
+   *
+   * @param environment the environment as of the last resync, used by the check strategies
+   * @param lastHttpStatusCode the status code of the latest check, null if never checked
+   * @param statusChangedAt when the status code last changed, null if unknown
+   */
+  private record MonitoredEnvironment(
+      Environment environment, Integer lastHttpStatusCode, Instant statusChangedAt) {
+
+    boolean isChangedBy(int httpStatusCode) {
+      return lastHttpStatusCode == null || lastHttpStatusCode != httpStatusCode;
+    }
+
+    MonitoredEnvironment withResult(int httpStatusCode, Instant checkedAt) {
+      return new MonitoredEnvironment(
+          environment,
+          httpStatusCode,
+          isChangedBy(httpStatusCode) ? checkedAt : statusChangedAt);
+    }
+
+    /*
+     * Status codes are tracked here from the first load on; the database only knows better
+     * about statusChangedAt, which deployments bump as well.
+     */
+    MonitoredEnvironment resynced(Environment reloaded) {
+      return new MonitoredEnvironment(
+          reloaded, lastHttpStatusCode, latest(statusChangedAt, reloaded.getStatusChangedAt()));
+    }
+  }
 
   /*
-   * Runs status checks for all environments with a status check type configured
-   * at a fixed interval.
+   * Advances the scheduler by one tick.
    *
-   * The interval is configurable via the status-check.recent-interval property.
-   * Defaults to 10 seconds.
+   * The tick length is configurable via the status-check.tick property.
+   * Defaults to 1 second.
    */
-  @Scheduled(fixedRateString = "${status-check.recent-interval:10s}")
+  @Scheduled(fixedDelayString = "${status-check.tick:1s}")
   public void runScheduledChecks() {
     if (springEnvironment.matchesProfiles("openapi")) {
       log.info("OpenAPI profile detected. Skipping Status Check Scheduler.");
@@ -36,90 +120,280 @@ public class StatusCheckScheduler {
     }
 
     final Instant now = Instant.now();
-    final long start = System.currentTimeMillis() / 1000;
-
-    log.debug("Starting scheduled status checks.");
-
-    // 1. Let's get all environments with a status check type configured
-    // and pre-load the latest status for each environment (if it exists)
-    List<Environment> environments = environmentRepository
-        .findByStatusCheckTypeIsNotNullWithLatestStatus()
-        // filter out environments with status check type PUSH_UPDATE
-        .stream().filter(env -> !StatusCheckType.PUSH_UPDATE.equals(env.getStatusCheckType()))
-        .toList();
-
-    // 2. Now let's determine if the environments are stable, meaning that we would
-    // check them less frequently.
-    var stableEnvironments = environments.stream()
-        .filter(env -> {
-          if (env.getStatusChangedAt() == null) {
-            return true;
-          }
-
-          long secsSinceLastChange = Duration.between(env.getStatusChangedAt(), now).toSeconds();
-          long recentThresholdSeconds = this.config.getCheckRecentThreshold().getSeconds();
-
-          // Stable means that the environment has been in the same state for a while
-          // (threshold)
-          return secsSinceLastChange >= recentThresholdSeconds;
-        })
-        .toList();
-
-    // 3. Filter the stable environments, so we only include the ones that we should
-    // check now
-    // (the last status check is older than the stable interval)
-    var stableEnvironmentsToCheck = stableEnvironments.stream()
-        .filter(env -> {
-          Optional<EnvironmentStatus> latestStatus = env.getLatestStatus();
-
-          if (latestStatus.isEmpty()) {
-            return true;
-          }
-
-          long secsSinceLastCheck = Duration.between(latestStatus.get().getCheckTimestamp(), now)
-              .toSeconds();
-          long stableIntervalSeconds = this.config.getCheckStableInterval().getSeconds();
-
-          return secsSinceLastCheck >= stableIntervalSeconds;
-        })
-        .toList();
-
-    // 4. Set all non-stable environments as recent environments
-    var recentEnvironments = environments.stream()
-        .filter(env -> !stableEnvironments.contains(env))
-        .toList();
-
-    // 5. Combine the stable environments to check and the recent environments
-    var environmentsToCheck = List.of(stableEnvironmentsToCheck, recentEnvironments).stream()
-        .flatMap(List::stream)
-        .toList();
-
-    log.debug(
-        "Found {} environments with status check type configured. "
-            + "{} stable (checking {} now), {} recent",
-        environments.size(),
-        stableEnvironments.size(),
-        stableEnvironmentsToCheck.size(),
-        recentEnvironments.size()
-    );
-
-    List<CompletableFuture<Void>> futures = environmentsToCheck.stream()
-        .map(env -> statusCheckService.performStatusCheck(env))
-        .toList();
-
-    // Wait for all status checks to complete
-    futures.forEach(CompletableFuture::join);
-
-    final long end = System.currentTimeMillis() / 1000;
-    final double duration = Math.round((end - start) * 10) / 10.0;
-
-    final long intervalSeconds = this.config.getCheckInterval().getSeconds();
-
-    if (duration > intervalSeconds) {
-      log.warn("Scheduled status checks took longer than the configured interval of {} seconds.",
-          intervalSeconds);
-    } else {
-      log.debug("Scheduled status checks completed in {} seconds.", duration);
+
+    if (!lastResync.plus(config.getResyncInterval()).isAfter(now)) {
+      resync(now);
+      lastResync = now;
+    }
+
+    int started = 0;
+    int stillRunning = 0;
+    for (Long environmentId : wheel.advance(now)) {
+      MonitoredEnvironment environment = monitored.get(environmentId);
+      if (environment == null) {
+        continue;
+      }
+      if (!inFlight.add(environmentId)) {
+        // Rescheduled by a resync while its previous check was running; the running check puts
+        // it back on the wheel when it finishes
+        stillRunning++;
+        continue;
+      }
+      startCheck(environment.environment());
+      started++;
+    }
+
+    if (stillRunning > 0) {
+      log.warn("{} status checks became due while their previous check was still running.",
+          stillRunning);
+    }
+    if (started > 0) {
+      log.debug("Started {} status checks, {} running, {} environments monitored.",
+          started, inFlight.size(), monitored.size());
+    }
+  }
+
+  /**
+   * Reloads the environments to monitor. New environments are spread over their check interval,
+   * removed ones are taken off the wheel, and environments that became recent since the last
+   * resync (e.g. through a deployment) are pulled forward to the recent interval.
+   */
+  private void resync(Instant now) {
+    List<Environment> environments =
+        environmentRepository.findByStatusCheckTypeIsNotNullWithLatestStatus();
+
+    Set<Long> seen = new HashSet<>();
+    for (Environment environment : environments) {
+      if (StatusCheckType.PUSH_UPDATE.equals(environment.getStatusCheckType())) {
+        continue;
+      }
+      seen.add(environment.getId());
+
+      MonitoredEnvironment previous = monitored.get(environment.getId());
+      if (previous == null) {
+        Optional<EnvironmentStatus> latestStatus = environment.getLatestStatus();
+        MonitoredEnvironment added = new MonitoredEnvironment(
+            environment,
+            latestStatus.map(EnvironmentStatus::getHttpStatusCode).orElse(null),
+            environment.getStatusChangedAt());
+        monitored.put(environment.getId(), added);
+        wheel.schedule(environment.getId(), firstDueAt(added, latestStatus, now));
+        continue;
+      }
+
+      MonitoredEnvironment updated = monitored.computeIfPresent(
+          environment.getId(), (id, current) -> current.resynced(environment));
+
+      if (updated != null && isRecent(updated, now) && !isRecent(previous, now)) {
+        Instant recentDueAt = now.plus(randomFraction(config.getCheckRecentInterval()));
+        boolean dueLater = wheel.dueAt(environment.getId())
+            .map(dueAt -> dueAt.isAfter(recentDueAt))
+            .orElse(false);
+        if (dueLater) {
+          wheel.schedule(environment.getId(), recentDueAt);
+        }
+      }
+    }
+
+    List<Long> removed = new ArrayList<>();
+    for (Long environmentId : monitored.keySet()) {
+      if (!seen.contains(environmentId)) {
+        removed.add(environmentId);
+      }
+    }
+    removed.forEach(environmentId -> {
+      monitored.remove(environmentId);
+      wheel.cancel(environmentId);
+    });
+
+    log.debug("Resynced status checks: {} environments monitored, {} removed, {} scheduled.",
+        monitored.size(), removed.size(), wheel.size());
+  }
+
+  private void startCheck(Environment environment) {
+    try {
+      statusCheckExecutor.execute(() -> {
+        Optional<StatusCheckResult> result = Optional.empty();
+        try {
+          result = check(environment);
+        } finally {
+          finishCheck(environment, result);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Shutting down
+      inFlight.remove(environment.getId());
+    }
+  }
+
+  /**
+   * Waits for a permit of the environment's host, then probes it. A check that gets no permit
+   * within the check interval is throttled: it is not recorded, only rescheduled.
+   */
+  private Optional<StatusCheckResult> check(Environment environment) {
+    Semaphore hostLimit = hostLimits.computeIfAbsent(
+        hostOf(environment.getStatusUrl()),
+        host -> new Semaphore(config.getMaxConcurrentChecksPerHost()));
+    try {
+      if (!hostLimit.tryAcquire(config.getCheckInterval().toMillis(), TimeUnit.MILLISECONDS)) {
+        log.debug("Status check for environment {} throttled, its host is busy with {} checks.",
+            environment.getId(), config.getMaxConcurrentChecksPerHost());
+        return Optional.empty();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Optional.empty();
+    }
+    try {
+      return probe(environment);
+    } finally {
+      hostLimit.release();
+    }
+  }
+
+  /**
+   * Runs the check on the calling thread. Once the check interval elapsed, the thread is
+   * interrupted so that blocking I/O gives up, and the check counts as failed. Returns only after
+   * the check itself returned, so the host permit is held and the environment stays off the wheel
+   * until the probe is really gone.
+   */
+  private Optional<StatusCheckResult> probe(Environment environment) {
+    ProbeDeadline deadline = new ProbeDeadline(Thread.currentThread());
+    CompletableFuture.runAsync(
+        deadline::expire,
+        CompletableFuture.delayedExecutor(
+            config.getCheckInterval().toMillis(), TimeUnit.MILLISECONDS));
+
+    Optional<StatusCheckResult> result;
+    try {
+      result = statusCheckService.runCheck(environment);
+    } catch (RuntimeException e) {
+      log.error("Failed to perform status check for environment {}", environment.getId(), e);
+      // Status code of 0 indicates that the check failed because of us
+      result = Optional.of(new StatusCheckResult(false, 0, Map.of()));
+    }
+
+    if (deadline.finish()) {
+      log.warn("Status check for environment {} did not finish within {}.",
+          environment.getId(), config.getCheckInterval());
+      return Optional.of(new StatusCheckResult(false, 0, Map.of()));
+    }
+    return result;
+  }
+
+  private void finishCheck(Environment environment, Optional<StatusCheckResult> result) {
+    final Instant now = Instant.now();
+    final Long environmentId = environment.getId();
+    try {
+      MonitoredEnvironment updated = monitored.computeIfPresent(environmentId, (id, current) -> {
+        if (result.isEmpty()) {
+          return current;
+        }
+        int httpStatusCode = result.get().httpStatusCode();
+        statusStore.record(new StatusCheckOutcome(
+            environmentId,
+            environment.getStatusCheckType(),
+            result.get(),
+            null,
+            now,
+            current.isChangedBy(httpStatusCode)));
+        return current.withResult(httpStatusCode, now);
+      });
+      if (updated == null) {
+        // Removed by a resync while the check was running
+        return;
+      }
+
+      wheel.schedule(environmentId, now.plus(withJitter(intervalFor(updated, now))));
+    } finally {
+      inFlight.remove(environmentId);
+    }
+  }
+
+  private Instant firstDueAt(
+      MonitoredEnvironment environment, Optional<EnvironmentStatus> latestStatus, Instant now) {
+    Duration interval = intervalFor(environment, now);
+    if (latestStatus.isPresent()) {
+      Instant regularDueAt = latestStatus.get().getCheckTimestamp().plus(withJitter(interval));
+      if (regularDueAt.isAfter(now)) {
+        return regularDueAt;
+      }
+    }
+    // Overdue or never checked: spread over one interval instead of checking all at once
+    return now.plus(randomFraction(interval));
+  }
+
+  private Duration intervalFor(MonitoredEnvironment environment, Instant now) {
+    return isRecent(environment, now)
+        ? config.getCheckRecentInterval()
+        : config.getCheckStableInterval();
+  }
+
+  /*
+   * Recent means that the status changed within the threshold, environments that have
+   * been in the same state for a while are stable and checked less frequently.
+   */
+  private boolean isRecent(MonitoredEnvironment environment, Instant now) {
+    return environment.statusChangedAt() != null
+        && Duration.between(environment.statusChangedAt(), now)
+            .compareTo(config.getCheckRecentThreshold()) < 0;
+  }
+
+  private Duration withJitter(Duration interval) {
+    double factor = 1 + ThreadLocalRandom.current().nextDouble(-1, 1) * config.getJitter();
+    return Duration.ofMillis(Math.round(interval.toMillis() * factor));
+  }
+
+  private static Duration randomFraction(Duration interval) {
+    return Duration.ofMillis(ThreadLocalRandom.current().nextLong(interval.toMillis() + 1));
+  }
+
+  private static Instant latest(Instant a, Instant b) {
+    if (a == null) {
+      return b;
+    }
+    return b == null || a.isAfter(b) ? a : b;
+  }
+
+  private static String hostOf(String url) {
+    if (url == null) {
+      return "";
+    }
+    try {
+      String host = URI.create(url).getHost();
+      return host != null ? host : url;
+    } catch (IllegalArgumentException e) {
+      return url;
+    }
+  }
+
+  /**
+   * Interrupts a probe that overran its deadline. Both sides synchronize on the deadline, so no
+   * interrupt can reach the probing thread after {@link #finish()} returned.
+   */
+  private static final class ProbeDeadline {
+    private final Thread probingThread;
+    private boolean finished;
+    private boolean expired;
+
+    ProbeDeadline(Thread probingThread) {
+      this.probingThread = probingThread;
+    }
+
+    synchronized void expire() {
+      if (!finished) {
+        expired = true;
+        probingThread.interrupt();
+      }
+    }
+
+    /** Marks the probe as returned and reports whether it overran. Clears the interrupt. */
+    synchronized boolean finish() {
+      finished = true;
+      if (expired) {
+        Thread.interrupted();
+      }
+      return expired;
     }
   }
 }
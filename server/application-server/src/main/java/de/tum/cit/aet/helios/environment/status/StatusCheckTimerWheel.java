@@ -0,0 +1,115 @@
+package de.tum.cit.aet.helios.environment.status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Hashed timer wheel holding the next due time of every monitored environment.
+ *
+ * <p>Time is divided into ticks of a fixed length, and an environment due at tick {@code t} sits
+ * in slot {@code t % slots}. Advancing the wheel only visits the slots of the ticks that passed
+ * since the previous advance, so finding the due environments costs the number of entries in
+ * those slots instead of a scan over every environment. Entries due more than one rotation ahead
+ * stay in their slot until the wheel comes round again.
+ *
+ * <p>All methods are synchronized: the scheduler advances the wheel on its own thread while probes
+ * reschedule their environment from the threads they complete on.
+ */
+class StatusCheckTimerWheel {
+  private final long tickMillis;
+  private final List<Set<Long>> slots;
+  private final Map<Long, Long> dueTicks = new HashMap<>();
+
+  /** The last tick the wheel was advanced to; everything due up to it has been handed out. */
+  private long cursor;
+
+  StatusCheckTimerWheel(Duration tick, int slotCount, Instant start) {
+    if (tick.toMillis() <= 0) {
+      throw new IllegalArgumentException("Tick must be at least one millisecond");
+    }
+    if (slotCount <= 0) {
+      throw new IllegalArgumentException("Slot count must be positive");
+    }
+    this.tickMillis = tick.toMillis();
+    this.slots = new ArrayList<>(slotCount);
+    for (int i = 0; i < slotCount; i++) {
+      slots.add(new HashSet<>());
+    }
+    this.cursor = tickOf(start) - 1;
+  }
+
+  /**
+   * Schedules the environment at the given time, replacing any earlier schedule. Times that are
+   * already past become due on the next advance.
+   */
+  synchronized void schedule(long environmentId, Instant dueAt) {
+    cancel(environmentId);
+    long tick = Math.max(tickOf(dueAt), cursor + 1);
+    dueTicks.put(environmentId, tick);
+    slot(tick).add(environmentId);
+  }
+
+  /** Removes the environment from the wheel. Returns whether it was scheduled. */
+  synchronized boolean cancel(long environmentId) {
+    Long tick = dueTicks.remove(environmentId);
+    if (tick == null) {
+      return false;
+    }
+    slot(tick).remove(environmentId);
+    return true;
+  }
+
+  /**
+   * Moves the wheel forward to {@code now} and removes and returns every environment that became
+   * due on the way.
+   */
+  synchronized List<Long> advance(Instant now) {
+    long target = tickOf(now);
+    if (target <= cursor) {
+      return List.of();
+    }
+
+    // When more than a full rotation passed, every slot is visited exactly once
+    long from = Math.max(cursor + 1, target - slots.size() + 1);
+    List<Long> due = new ArrayList<>();
+    for (long tick = from; tick <= target; tick++) {
+      Iterator<Long> entries = slot(tick).iterator();
+      while (entries.hasNext()) {
+        Long environmentId = entries.next();
+        if (dueTicks.get(environmentId) <= target) {
+          entries.remove();
+          dueTicks.remove(environmentId);
+          due.add(environmentId);
+        }
+      }
+    }
+    cursor = target;
+    return due;
+  }
+
+  /** The time the environment is due at, rounded down to its tick. */
+  synchronized Optional<Instant> dueAt(long environmentId) {
+    return Optional.ofNullable(dueTicks.get(environmentId))
+        .map(tick -> Instant.ofEpochMilli(tick * tickMillis));
+  }
+
+  synchronized int size() {
+    return dueTicks.size();
+  }
+
+  private long tickOf(Instant instant) {
+    return Math.floorDiv(instant.toEpochMilli(), tickMillis);
+  }
+
+  private Set<Long> slot(long tick) {
+    return slots.get(Math.floorMod(tick, slots.size()));
+  }
+}
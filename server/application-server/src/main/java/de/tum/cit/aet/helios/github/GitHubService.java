@@ -19,7 +19,12 @@ import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -903,14 +908,19 @@ public class GitHubService {
   }
 
   /**
-   * Downloads the GitHub Actions log archive for a workflow run.
+   * Downloads the GitHub Actions log archive for a workflow run into a file. The response body is
+   * streamed straight to disk, so the archive is never held in memory as a whole.
    *
    * @param repoNameWithOwner Repository in format "owner/repo"
    * @param runId Workflow run ID to fetch logs for
-   * @return ZIP archive bytes returned by GitHub
-   * @throws IOException if the API call fails or the response body is empty
+   * @param target File the ZIP archive returned by GitHub is written to
+   * @param maxBytes Largest archive accepted; bigger downloads are aborted
+   * @return the number of bytes written to {@code target}
+   * @throws IOException if the API call fails, the response body is empty or the archive exceeds
+   *     {@code maxBytes}
    */
-  public byte[] downloadWorkflowRunLogs(String repoNameWithOwner, long runId) throws IOException {
+  public long downloadWorkflowRunLogs(
+      String repoNameWithOwner, long runId, Path target, long maxBytes) throws IOException {
     String url =
         String.format(
             "https://api.github.com/repos/%s/actions/runs/%d/logs", repoNameWithOwner, runId);
@@ -940,10 +950,34 @@ public class GitHubService {
       if (responseBody == null) {
         throw new IOException("Response body is null");
       }
+      if (responseBody.contentLength() > maxBytes) {
+        throw new IOException(
+            "Workflow log archive of run " + runId + " exceeds the limit of " + maxBytes
+                + " bytes");
+      }
 
-      byte[] result = responseBody.bytes();
-      log.debug("Successfully fetched workflow logs for workflow run ID: {}", runId);
-      return result;
+      long written = 0;
+      try (ReadableByteChannel source = Channels.newChannel(responseBody.byteStream());
+          FileChannel sink =
+              FileChannel.open(
+                  target,
+                  StandardOpenOption.CREATE,
+                  StandardOpenOption.WRITE,
+                  StandardOpenOption.TRUNCATE_EXISTING)) {
+        long transferred;
+        // Ask for one byte more than allowed, so an oversized body is detected without reading it
+        while ((transferred = sink.transferFrom(source, written, maxBytes + 1 - written)) > 0) {
+          written += transferred;
+          if (written > maxBytes) {
+            throw new IOException(
+                "Workflow log archive of run " + runId + " exceeds the limit of " + maxBytes
+                    + " bytes");
+          }
+        }
+      }
+      log.debug(
+          "Successfully fetched workflow logs for workflow run ID: {} ({} bytes)", runId, written);
+      return written;
     }
   }
 
@@ -5,6 +5,7 @@ import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.github.sync.DataSyncStatusService;
 import de.tum.cit.aet.helios.github.sync.GitHubDataSyncService;
 import de.tum.cit.aet.helios.gitrepo.RepositoryService;
+import de.tum.cit.aet.helios.gitrepo.github.GitHubRepositorySyncService;
 import de.tum.cit.aet.helios.nats.JacksonMessageHandler;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +24,7 @@ public class GitHubInstallationRepositoriesMessageHandler
   private final DataSyncStatusService dataSyncStatusService;
   private final GitHubClientManager gitHubClientManager;
   private final GitHubService gitHubService;
+  private final GitHubRepositorySyncService repositorySyncService;
 
   @Override
   public String getSubjectPattern() {
@@ -95,5 +97,6 @@ public class GitHubInstallationRepositoriesMessageHandler
     gitHubClientManager.forceRefreshClient();
     // Ensure we listen to the events for the newly installed repositories
     gitHubService.clearInstalledRepositoriesCache();
+    repositorySyncService.invalidateAll();
   }
 }
@@ -0,0 +1,119 @@
+package de.tum.cit.aet.helios.github.sync;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * The steps of one repository's data sync and what each of them needs to have been synced first.
+ *
+ * <p>A step starts as soon as all of its dependencies completed, so independent steps (e.g. labels
+ * and environments) run concurrently. A step whose dependency failed is skipped, since it would
+ * otherwise work on incomplete data; steps that do not depend on the failed one still run.
+ */
+@Log4j2
+class DataSyncPlan {
+  private final String label;
+  private final Map<String, Step> steps = new LinkedHashMap<>();
+
+  private record Step(Runnable action, List<String> dependencies) {}
+
+  /**
+   * The outcome of a sync.
+   *
+   * @param durations how long each step that ran took in milliseconds, in declaration order
+   * @param failed the steps that threw
+   * @param skipped the steps that did not run because a dependency failed
+   */
+  record Result(Map<String, Long> durations, List<String> failed, List<String> skipped) {
+    boolean isSuccess() {
+      return failed.isEmpty() && skipped.isEmpty();
+    }
+  }
+
+  DataSyncPlan(String label) {
+    this.label = label;
+  }
+
+  /**
+   * Adds a step. Dependencies have to be added before the steps that need them, which also rules
+   * out cycles.
+   */
+  DataSyncPlan step(String name, Runnable action, String... dependencies) {
+    if (steps.containsKey(name)) {
+      throw new IllegalArgumentException("Duplicate sync step " + name);
+    }
+    for (String dependency : dependencies) {
+      if (!steps.containsKey(dependency)) {
+        throw new IllegalArgumentException(
+            "Sync step %s depends on unknown step %s".formatted(name, dependency));
+      }
+    }
+    steps.put(name, new Step(action, List.of(dependencies)));
+    return this;
+  }
+
+  /** Runs all steps on the executor and waits until every one of them completed or was skipped. */
+  Result run(Executor executor) {
+    Map<String, Long> durations = new ConcurrentHashMap<>();
+    List<String> failed = new ArrayList<>();
+    List<String> skipped = new ArrayList<>();
+    Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+
+    steps.forEach(
+        (name, step) -> {
+          CompletableFuture<?>[] dependencies =
+              step.dependencies().stream().map(futures::get).toArray(CompletableFuture[]::new);
+          futures.put(
+              name,
+              CompletableFuture.allOf(dependencies)
+                  .handleAsync(
+                      (ignored, dependencyFailure) -> {
+                        if (dependencyFailure != null) {
+                          log.warn("{} --> Skipping {}, a step it depends on failed", label, name);
+                          synchronized (skipped) {
+                            skipped.add(name);
+                          }
+                          throw new CompletionException(dependencyFailure);
+                        }
+                        var start = Instant.now();
+                        log.info("{} --> Syncing {}...", label, name);
+                        try {
+                          step.action().run();
+                        } catch (RuntimeException e) {
+                          log.error("{} --> Syncing {} failed: {}", label, name, e.getMessage(), e);
+                          synchronized (failed) {
+                            failed.add(name);
+                          }
+                          throw e;
+                        } finally {
+                          durations.put(name, Duration.between(start, Instant.now()).toMillis());
+                        }
+                        log.info(
+                            "{} --> Completed syncing {}. (Took: {} ms)",
+                            label,
+                            name,
+                            durations.get(name));
+                        return null;
+                      },
+                      executor));
+        });
+
+    // Failures are collected above; join only waits for every step to settle
+    futures.values().forEach(future -> future.handle((ignored, failure) -> null).join());
+
+    Map<String, Long> ordered = new LinkedHashMap<>();
+    steps.keySet().stream()
+        .filter(durations::containsKey)
+        .forEach(name -> ordered.put(name, durations.get(name)));
+    return new Result(ordered, List.copyOf(failed), List.copyOf(skipped));
+  }
+}
@@ -0,0 +1,31 @@
+package de.tum.cit.aet.helios.github.sync;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning for the GitHub data sync, see {@link GitHubDataSyncService}.
+ *
+ * <p>Up to {@code repositoryConcurrency} repositories are synced at once, and at most {@code
+ * stepConcurrency} sync steps run at any time across all of them. Once the remaining GitHub rate
+ * limit drops below {@code minRemainingRateLimit}, new steps wait for the rate limit to reset, but
+ * never longer than {@code maxRateLimitWait}; the webhooks share the same budget and must not be
+ * starved by a sync.
+ */
+@ConfigurationProperties(prefix = "helios.sync")
+public record DataSyncProperties(
+    @DefaultValue("4") int repositoryConcurrency,
+    @DefaultValue("8") int stepConcurrency,
+    @DefaultValue("500") int minRemainingRateLimit,
+    @DefaultValue("15m") Duration maxRateLimitWait) {
+
+  public DataSyncProperties {
+    if (repositoryConcurrency < 1) {
+      throw new IllegalArgumentException("helios.sync.repository-concurrency must be at least 1");
+    }
+    if (stepConcurrency < 1) {
+      throw new IllegalArgumentException("helios.sync.step-concurrency must be at least 1");
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package de.tum.cit.aet.helios.github.sync;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -8,9 +9,15 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.springframework.lang.NonNull;
 
 @Entity
@@ -38,6 +45,16 @@ public class DataSyncStatus {
   @Enumerated(EnumType.STRING)
   private Status status;
 
+  /** How long each sync step took in milliseconds, keyed by step name. */
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(columnDefinition = "jsonb")
+  private Map<String, Long> stepDurations = new LinkedHashMap<>();
+
+  /** The steps that failed or were skipped because a step they depend on failed. */
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(columnDefinition = "jsonb")
+  private List<String> failedSteps = new ArrayList<>();
+
   public enum Status {
     SUCCESS,
     FAILED,
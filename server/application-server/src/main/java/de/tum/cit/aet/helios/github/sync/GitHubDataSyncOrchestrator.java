@@ -28,6 +28,7 @@ import de.tum.cit.aet.helios.workflow.GitHubWorkflowContext;
 import de.tum.cit.aet.helios.workflow.github.GitHubWorkflowRunSyncService;
 import de.tum.cit.aet.helios.workflow.github.GitHubWorkflowSyncService;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Date;
@@ -49,6 +50,12 @@ import org.kohsuke.github.GHWorkflow;
 import org.kohsuke.github.GHWorkflowRun;
 import org.springframework.stereotype.Service;
 
+/**
+ * The steps of the data sync. A step throws when it could not sync everything, so the sync records
+ * it as failed and can retry it; steps that go through many items still process the rest and throw
+ * the first failure at the end. Steps that page through the GitHub API wait for {@link
+ * SyncRateBudget} before every page or item, as a single step can use up the whole budget.
+ */
 @Service
 @Log4j2
 @RequiredArgsConstructor
@@ -72,6 +79,7 @@ public class GitHubDataSyncOrchestrator {
   private final GitHubUserSyncService gitHubUserSyncService;
   private final BranchRepository branchRepository;
   private final UserRepository userRepository;
+  private final SyncRateBudget rateBudget;
 
   /**
    * Syncs a single GitHub repository by its full name (e.g., "owner/repo").
@@ -81,14 +89,17 @@ public class GitHubDataSyncOrchestrator {
    *     repository could not be fetched.
    */
   public Optional<GHRepository> syncRepository(String nameWithOwner) {
+    GHRepository repository;
     try {
-      var repository = github.getRepository(nameWithOwner);
-      repositorySyncService.processRepository(repository);
-      return Optional.of(repository);
-    } catch (Exception e) {
+      repository = github.getRepository(nameWithOwner);
+    } catch (IOException e) {
       log.error("Failed to fetch repository {}: {}", nameWithOwner, e.getMessage());
       return Optional.empty();
     }
+    // A full sync always refreshes the counters derived from the GitHub API
+    repositorySyncService.invalidate(repository.getId());
+    repositorySyncService.processRepository(repository);
+    return Optional.of(repository);
   }
 
   /**
@@ -98,10 +109,13 @@ public class GitHubDataSyncOrchestrator {
    */
   public void syncLabelsOfRepository(GHRepository repository) {
     try {
-      repository.listLabels().withPageSize(100).forEach(gitHubLabelSyncService::processLabel);
+      var iterator = repository.listLabels().withPageSize(100).iterator();
+      while (hasNextWithinBudget(repository, iterator)) {
+        iterator.nextPage().forEach(gitHubLabelSyncService::processLabel);
+      }
     } catch (IOException e) {
-      log.error(
-          "Failed to fetch labels for repository {}: {}", repository.getFullName(), e.getMessage());
+      throw new UncheckedIOException(
+          "Failed to fetch labels for repository " + repository.getFullName(), e);
     }
   }
 
@@ -121,7 +135,9 @@ public class GitHubDataSyncOrchestrator {
             .withPageSize(100)
             .iterator();
 
-    iterator.forEachRemaining(pullRequestSyncService::processPullRequest);
+    while (hasNextWithinBudget(repository, iterator)) {
+      iterator.nextPage().forEach(pullRequestSyncService::processPullRequest);
+    }
   }
 
   /**
@@ -140,10 +156,8 @@ public class GitHubDataSyncOrchestrator {
 
       // TODO: handle deletion of environments that are not present in the GitHub repository anymore
     } catch (IOException e) {
-      log.error(
-          "Failed to sync environments for repository {}: {}",
-          ghRepository.getFullName(),
-          e.getMessage());
+      throw new UncheckedIOException(
+          "Failed to sync environments for repository " + ghRepository.getFullName(), e);
     }
   }
 
@@ -155,27 +169,30 @@ public class GitHubDataSyncOrchestrator {
    */
   public void syncDeploymentsOfRepository(
       @NotNull GHRepository ghRepository, Optional<OffsetDateTime> since) {
-    try {
-      // Fetch the GitRepository entity
-      String fullName = ghRepository.getFullName();
-      GitRepository repository = gitRepoRepository.findByNameWithOwner(fullName);
-      if (repository == null) {
-        log.warn("Repository {} not found in local database.", fullName);
-        return;
-      }
+    // Fetch the GitRepository entity
+    String fullName = ghRepository.getFullName();
+    GitRepository repository = gitRepoRepository.findByNameWithOwner(fullName);
+    if (repository == null) {
+      log.warn("Repository {} not found in local database.", fullName);
+      return;
+    }
 
-      // Fetch environments associated with the repository
-      List<Environment> environments = environmentRepository.findByRepository(repository);
+    // Fetch environments associated with the repository
+    List<Environment> environments = environmentRepository.findByRepository(repository);
 
-      for (Environment environment : environments) {
+    RuntimeException failure = null;
+    for (Environment environment : environments) {
+      try {
         syncDeploymentsOfEnvironment(ghRepository, environment, since);
+      } catch (RuntimeException e) {
+        log.error(
+            "Failed to sync deployments for environment {}: {}",
+            environment.getName(),
+            e.getMessage());
+        failure = addFailure(failure, e);
       }
-    } catch (Exception e) {
-      log.error(
-          "Failed to sync deployments for repository {}: {}",
-          ghRepository.getFullName(),
-          e.getMessage());
     }
+    throwIfFailed(failure);
   }
 
   /**
@@ -189,56 +206,49 @@ public class GitHubDataSyncOrchestrator {
       @NotNull GHRepository ghRepository,
       @NotNull Environment environment,
       Optional<OffsetDateTime> since) {
-    try {
-      GitRepository gitRepository =
-          gitRepoRepository.findByNameWithOwner(ghRepository.getFullName());
-      if (gitRepository == null) {
-        // TODO: Process repository
-        log.error(
-            "Repository {} not found in database. Skipping deployments sync for environment {}.",
-            ghRepository.getFullName(),
-            environment.getName());
-        return;
-      }
-
-      // Use the iterator from GitHubService to fetch deployments one by one
-      Iterator<GitHubDeploymentDto> iterator =
-          gitHubService.getDeploymentIterator(ghRepository, environment.getName(), since);
-
-      while (iterator.hasNext()) {
-        final GitHubDeploymentDto ghDeployment = iterator.next();
-
-        // The data sync fetches deployments without their state,
-        // as the GitHub REST API does not provide the state directly.
-        // This is not ideal, but it's a limitation of the API.
-        // To avoid making an additional API call to fetch the state,
-        // we set it to UNKNOWN initially.
-        // The state is later updated by the webhook handler during runtime.
-        // However, if the data sync runs again, it could overwrite the state back to UNKNOWN.
-        // To prevent this, we check if the deployment already exists in the database.
-        // If it does, we skip processing to avoid overwriting the state with UNKNOWN.
-        // If it doesn't, we proceed with processing the deployment.
-        if (deploymentRepository.existsById(ghDeployment.getId())) {
-          continue;
-        }
+    GitRepository gitRepository =
+        gitRepoRepository.findByNameWithOwner(ghRepository.getFullName());
+    if (gitRepository == null) {
+      // TODO: Process repository
+      log.error(
+          "Repository {} not found in database. Skipping deployments sync for environment {}.",
+          ghRepository.getFullName(),
+          environment.getName());
+      return;
+    }
 
-        // Set state as UNKNOWN
-        final DeploymentSource deploymentSource =
-            deploymentSourceFactory.create(ghDeployment, Deployment.State.UNKNOWN);
+    // Use the iterator from GitHubService to fetch deployments one by one
+    Iterator<GitHubDeploymentDto> iterator =
+        gitHubService.getDeploymentIterator(ghRepository, environment.getName(), since);
+
+    while (hasNextWithinBudget(ghRepository, iterator)) {
+      final GitHubDeploymentDto ghDeployment = iterator.next();
+
+      // The data sync fetches deployments without their state,
+      // as the GitHub REST API does not provide the state directly.
+      // This is not ideal, but it's a limitation of the API.
+      // To avoid making an additional API call to fetch the state,
+      // we set it to UNKNOWN initially.
+      // The state is later updated by the webhook handler during runtime.
+      // However, if the data sync runs again, it could overwrite the state back to UNKNOWN.
+      // To prevent this, we check if the deployment already exists in the database.
+      // If it does, we skip processing to avoid overwriting the state with UNKNOWN.
+      // If it doesn't, we proceed with processing the deployment.
+      if (deploymentRepository.existsById(ghDeployment.getId())) {
+        continue;
+      }
 
-        User user = null;
-        if (deploymentSource.getUserLogin() != null) {
-          // Process the creator of the deployment
-          user = syncUser(deploymentSource.getUserLogin());
-        }
+      // Set state as UNKNOWN
+      final DeploymentSource deploymentSource =
+          deploymentSourceFactory.create(ghDeployment, Deployment.State.UNKNOWN);
 
-        deploymentSyncService.processDeployment(deploymentSource, gitRepository, environment, user);
+      User user = null;
+      if (deploymentSource.getUserLogin() != null) {
+        // Process the creator of the deployment
+        user = syncUser(deploymentSource.getUserLogin());
       }
-    } catch (Exception e) {
-      log.error(
-          "Failed to sync deployments for environment {}: {}",
-          environment.getName(),
-          e.getMessage());
+
+      deploymentSyncService.processDeployment(deploymentSource, gitRepository, environment, user);
     }
   }
 
@@ -263,10 +273,8 @@ public class GitHubDataSyncOrchestrator {
         workflowSyncService.processWorkflow(ghWorkflow, repository, ghRepository);
       }
     } catch (IOException e) {
-      log.error(
-          "Failed to sync workflows for repository {}: {}",
-          ghRepository.getFullName(),
-          e.getMessage());
+      throw new UncheckedIOException(
+          "Failed to sync workflows for repository " + ghRepository.getFullName(), e);
     }
   }
 
@@ -288,10 +296,8 @@ public class GitHubDataSyncOrchestrator {
       //      dbBranch -> branches.stream().noneMatch(b -> b.getName().equals(dbBranch.getName())))
       //     .forEach(dbBranch -> branchRepository.delete(dbBranch));
     } catch (IOException e) {
-      log.error(
-          "Failed to fetch branches of repository {}: {}",
-          repository.getFullName(),
-          e.getMessage());
+      throw new UncheckedIOException(
+          "Failed to fetch branches of repository " + repository.getFullName(), e);
     }
   }
 
@@ -303,48 +309,43 @@ public class GitHubDataSyncOrchestrator {
    */
   public List<GHCommit> syncCommitsOfRepository(GHRepository repository) {
     List<GHCommit> commits = new ArrayList<>();
+    List<String> shas = new ArrayList<>();
 
     var dbBranches = branchRepository.findByRepositoryRepositoryId(repository.getId());
-    dbBranches.forEach(
-        dbBranch -> {
-          try {
-            var commit = repository.getCommit(dbBranch.getCommitSha());
-            commitSyncService.processCommit(commit, repository);
-            commits.add(commit);
-          } catch (IOException e) {
-            log.error(
-                "Failed to fetch commit {} of repository {}: {}",
-                dbBranch.getCommitSha(),
-                repository.getFullName(),
-                e.getMessage());
-          }
-        });
+    dbBranches.forEach(dbBranch -> shas.add(dbBranch.getCommitSha()));
 
     var dbEnvironments =
         environmentRepository.findByRepositoryRepositoryIdOrderByCreatedAtDesc(repository.getId());
     dbEnvironments.forEach(
         dbEnvironment -> {
-          try {
-            if (dbEnvironment.getDeployments() == null
-                || dbEnvironment.getDeployments().isEmpty()) {
-              return;
-            }
-            var commit = repository.getCommit(dbEnvironment.getDeployments().getLast().getSha());
-            log.info(
-                "env: {}, sha: {}",
-                dbEnvironment.getName(),
-                dbEnvironment.getDeployments().getLast().getSha());
-            commitSyncService.processCommit(commit, repository);
-            commits.add(commit);
-          } catch (IOException e) {
-            log.error(
-                "Failed to fetch commit {} of repository {}: {}",
-                dbEnvironment.getDeployments().getLast().getSha(),
-                repository.getFullName(),
-                e.getMessage());
+          if (dbEnvironment.getDeployments() == null || dbEnvironment.getDeployments().isEmpty()) {
+            return;
           }
+          log.info(
+              "env: {}, sha: {}",
+              dbEnvironment.getName(),
+              dbEnvironment.getDeployments().getLast().getSha());
+          shas.add(dbEnvironment.getDeployments().getLast().getSha());
         });
 
+    RuntimeException failure = null;
+    for (String sha : shas) {
+      rateBudget.checkpoint(repository.getFullName());
+      try {
+        var commit = repository.getCommit(sha);
+        commitSyncService.processCommit(commit, repository);
+        commits.add(commit);
+      } catch (IOException | RuntimeException e) {
+        log.error(
+            "Failed to fetch commit {} of repository {}: {}",
+            sha,
+            repository.getFullName(),
+            e.getMessage());
+        failure = addFailure(failure, e);
+      }
+    }
+    throwIfFailed(failure);
+
     // Get all commits for the current repository
     // var dbCommits = commitRepository.findByRepositoryRepositoryId(repository.getId());
     // Delete each commit that exists in the database and not in the fetched commits
@@ -364,7 +365,7 @@ public class GitHubDataSyncOrchestrator {
     try {
       var iterator = repository.listReleases().withPageSize(100).iterator();
 
-      while (iterator.hasNext()) {
+      while (hasNextWithinBudget(repository, iterator)) {
         var ghReleases = iterator.nextPage();
         // Only process non-draft releases, because drafts are not unique in GitHub
         ghReleases.stream()
@@ -372,10 +373,8 @@ public class GitHubDataSyncOrchestrator {
             .forEach((ghRelease) -> releaseSyncService.processRelease(ghRelease, repository));
       }
     } catch (IOException e) {
-      log.error(
-          "Failed to fetch releases for repository {}: {}",
-          repository.getFullName(),
-          e.getMessage());
+      throw new UncheckedIOException(
+          "Failed to fetch releases for repository " + repository.getFullName(), e);
     }
   }
 
@@ -392,7 +391,7 @@ public class GitHubDataSyncOrchestrator {
 
     var workflowRuns = new ArrayList<GHWorkflowRun>();
 
-    while (iterator.hasNext()) {
+    while (hasNextWithinBudget(repository, iterator)) {
       var ghWorkflowRuns = iterator.nextPage();
       var keepWorkflowRuns =
           ghWorkflowRuns.stream()
@@ -417,23 +416,18 @@ public class GitHubDataSyncOrchestrator {
       }
     }
 
-    workflowRuns.forEach(run -> {
+    RuntimeException failure = null;
+    for (GHWorkflowRun run : workflowRuns) {
+      rateBudget.checkpoint(repository.getFullName());
       try {
-
         if (run.getEvent().equals(GHEvent.WORKFLOW_RUN)) {
           log.info("Processing workflow_run event with workflow run id: {}", run.getId());
-          GitHubWorkflowContext context = null;
-          try {
-            context =
-                gitHubService.extractWorkflowContext(repository.getId(), run.getId());
-          } catch (Exception e) {
-            log.error("Error while extracting workflow context: {}", e.getMessage());
-            return;
-          }
+          GitHubWorkflowContext context =
+              gitHubService.extractWorkflowContext(repository.getId(), run.getId());
 
           if (context == null) {
             log.warn("No workflow context found for workflow run: {}", run.getId());
-            return;
+            continue;
           }
 
           log.info(
@@ -444,14 +438,15 @@ public class GitHubDataSyncOrchestrator {
         } else {
           workflowRunSyncService.processRun(run);
         }
-
-      } catch (Exception e) {
+      } catch (RuntimeException e) {
         log.error(
             "Failed to process workflow run {}: {}",
             run.getId(),
             e.getMessage());
+        failure = addFailure(failure, e);
       }
-    });
+    }
+    throwIfFailed(failure);
   }
 
   /**
@@ -475,4 +470,27 @@ public class GitHubDataSyncOrchestrator {
       return null;
     }
   }
+
+  /** Waits for the rate budget before the iterator fetches its next page or item. */
+  private boolean hasNextWithinBudget(GHRepository repository, Iterator<?> iterator) {
+    rateBudget.checkpoint(repository.getFullName());
+    return iterator.hasNext();
+  }
+
+  /** Keeps the first failure of a step and attaches the later ones to it. */
+  private static RuntimeException addFailure(RuntimeException failure, Exception e) {
+    RuntimeException next =
+        e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+    if (failure == null) {
+      return next;
+    }
+    failure.addSuppressed(next);
+    return failure;
+  }
+
+  private static void throwIfFailed(RuntimeException failure) {
+    if (failure != null) {
+      throw failure;
+    }
+  }
 }
@@ -66,8 +66,8 @@ public class GitHubDataSyncScheduler {
       log.info("Repositories that needs to be deleted from db: {}",
           repositoriesThatNeedsToBeDeleted);
 
-      // Sync the repositories that are installed
-      syncRepositories.forEach(dataSyncService::syncRepositoryData);
+      // Sync the repositories that are installed, several at once
+      dataSyncService.syncRepositoryData(syncRepositories);
       // Delete the repositories that are not installed anymore
       repositoriesThatNeedsToBeDeleted.forEach(repoNameWithOwner -> {
         repositoryService.deleteRepository(repoNameWithOwner);
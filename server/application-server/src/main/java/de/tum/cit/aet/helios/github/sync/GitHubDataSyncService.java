@@ -1,13 +1,23 @@
 package de.tum.cit.aet.helios.github.sync;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.kohsuke.github.GHRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +26,8 @@ import org.springframework.transaction.annotation.Transactional;
 @Log4j2
 @RequiredArgsConstructor
 public class GitHubDataSyncService {
+  private static final String REPOSITORY_STEP = "repository";
+
   @Value("${monitoring.timeframe}")
   private int timeframe;
 
@@ -24,6 +36,12 @@ public class GitHubDataSyncService {
 
   private final DataSyncStatusRepository dataSyncStatusRepository;
   private final GitHubDataSyncOrchestrator dataSyncOrchestrator;
+  private final DataSyncProperties properties;
+  private final SyncRateBudget rateBudget;
+
+  private final ExecutorService virtualThreads =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("data-sync-", 0).factory());
+  private Semaphore stepPermits;
 
   @Transactional(propagation = Propagation.REQUIRES_NEW)
   public void syncUsers() {
@@ -39,6 +57,30 @@ public class GitHubDataSyncService {
     logSeparator();
   }
 
+  /**
+   * Syncs the given repositories, up to {@link DataSyncProperties#repositoryConcurrency()} of them
+   * at once, and returns once all of them are done.
+   */
+  public void syncRepositoryData(List<String> repositoryNamesWithOwner) {
+    Semaphore repositoryPermits = new Semaphore(properties.repositoryConcurrency());
+    CompletableFuture<?>[] syncs =
+        repositoryNamesWithOwner.stream()
+            .map(
+                repositoryNameWithOwner ->
+                    CompletableFuture.runAsync(
+                        () -> {
+                          repositoryPermits.acquireUninterruptibly();
+                          try {
+                            syncRepositoryData(repositoryNameWithOwner);
+                          } finally {
+                            repositoryPermits.release();
+                          }
+                        },
+                        virtualThreads))
+            .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(syncs).join();
+  }
+
   public void syncRepositoryData(String repositoryNameWithOwner) {
     var cutoffDate = OffsetDateTime.now().minusDays(timeframe);
 
@@ -59,9 +101,7 @@ public class GitHubDataSyncService {
       return;
     }
 
-    logSeparator();
-    log.info("    Starting Data Sync Job for Repository: {}", repositoryNameWithOwner);
-    logSeparator();
+    log.info("Starting Data Sync Job for Repository: {}", repositoryNameWithOwner);
 
     // Create a new sync status record with IN_PROGRESS status.
     DataSyncStatus syncStatus = new DataSyncStatus();
@@ -70,29 +110,32 @@ public class GitHubDataSyncService {
     syncStatus.setStatus(DataSyncStatus.Status.IN_PROGRESS);
     dataSyncStatusRepository.save(syncStatus);
 
+    String label = "Repository: " + repositoryNameWithOwner;
     try {
-
-      // Start new sync
       // CHECKSTYLE.OFF: VariableDeclarationUsageDistance
       var startTime = OffsetDateTime.now();
       // CHECKSTYLE.ON: VariableDeclarationUsageDistance
-
-      logSeparator();
-      var step1Start = Instant.now();
-      log.info("Repository: {} --> [Step 1/10] Syncing Repository", repositoryNameWithOwner);
-      Optional<GHRepository> optionalRepository =
-          dataSyncOrchestrator.syncRepository(repositoryNameWithOwner);
-      var step1Duration = Duration.between(step1Start, Instant.now()).toMillis();
-      log.info(
-          "Repository: {} --> [Step 1/10] Completed Syncing " + "(Took: {} ms)",
-          repositoryNameWithOwner,
-          step1Duration);
+      var repositoryStart = Instant.now();
+      log.info("{} --> Syncing repository...", label);
+      Optional<GHRepository> optionalRepository;
+      try {
+        optionalRepository =
+            callGated(
+                label,
+                () ->
+                    callRetryingOnConflict(
+                        () -> dataSyncOrchestrator.syncRepository(repositoryNameWithOwner)));
+      } catch (RuntimeException e) {
+        log.error("{} --> Syncing repository failed: {}", label, e.getMessage(), e);
+        optionalRepository = Optional.empty();
+      }
+      syncStatus.getStepDurations().put(
+          REPOSITORY_STEP, Duration.between(repositoryStart, Instant.now()).toMillis());
 
       if (optionalRepository.isEmpty()) {
         log.error(
-            "Repository: {} --> [Step 1/10] Syncing Repository Failed. "
-                + "Skipping the rest of the sync steps.",
-            repositoryNameWithOwner);
+            "{} --> Syncing repository failed. Skipping the rest of the sync steps.", label);
+        syncStatus.getFailedSteps().add(REPOSITORY_STEP);
         syncStatus.setEndTime(OffsetDateTime.now());
         syncStatus.setStatus(DataSyncStatus.Status.FAILED);
         dataSyncStatusRepository.save(syncStatus);
@@ -100,148 +143,91 @@ public class GitHubDataSyncService {
       }
 
       GHRepository ghRepository = optionalRepository.get();
+      Optional<OffsetDateTime> since = Optional.of(cutoffDate);
 
-      // Sync all labels
-      logSeparator();
-      var step2Start = Instant.now();
-      log.info("Repository: {} --> [Step 2/10] Syncing Labels...", repositoryNameWithOwner);
-      dataSyncOrchestrator.syncLabelsOfRepository(ghRepository);
-      var step2Duration = Duration.between(step2Start, Instant.now()).toMillis();
-      log.info(
-          "Repository: {} --> [Step 2/10] Completed Label Sync. (Took: {} ms)",
-          repositoryNameWithOwner,
-          step2Duration);
-
-      // Sync pull requests
-      logSeparator();
-      var step3Start = Instant.now();
-      log.info(
-          "Repository: {} --> [Step 3/10] Syncing Open Pull Requests...", repositoryNameWithOwner);
-      dataSyncOrchestrator.syncPullRequestsOfRepository(ghRepository);
-      var step3Duration = Duration.between(step3Start, Instant.now()).toMillis();
-      log.info(
-          "Repository: {} --> [Step 3/10] Completed Pull Request Sync. (Took: {} ms)",
-          repositoryNameWithOwner,
-          step3Duration);
-
-      // Sync environments
-      logSeparator();
-      var step4Start = Instant.now();
-      log.info("Repository: {} --> [Step 4/10] Syncing Environments...", repositoryNameWithOwner);
-      dataSyncOrchestrator.syncEnvironmentsOfRepository(ghRepository);
-      var step4Duration = Duration.between(step4Start, Instant.now()).toMillis();
-      log.info(
-          "Repository: {} --> [Step 4/10] Completed Environment Sync. (Took: {} ms)",
-          repositoryNameWithOwner,
-          step4Duration);
-
-      // Sync deployments
-      logSeparator();
-      var step5Start = Instant.now();
-      log.info(
-          "Repository: {} --> [Step 5/10] Syncing Deployments (Cutoff: {})",
-          repositoryNameWithOwner,
-          cutoffDate);
-      dataSyncOrchestrator.syncDeploymentsOfRepository(ghRepository, Optional.of(cutoffDate));
-      var step5Duration = Duration.between(step5Start, Instant.now()).toMillis();
-      log.info(
-          "Repository: {} --> [Step 5/10] Completed Deployment Sync. (Took: {} ms)",
-          repositoryNameWithOwner,
-          step5Duration);
-
-      // Sync workflows
-      logSeparator();
-      var step6Start = Instant.now();
-      log.info("Repository: {} --> [Step 6/10] Syncing Workflows...", repositoryNameWithOwner);
-      dataSyncOrchestrator.syncWorkflowsOfRepository(ghRepository);
-      var step6Duration = Duration.between(step6Start, Instant.now()).toMillis();
-      log.info(
-          "Repository: {} --> [Step 6/10] Completed Workflow Sync. (Took: {} ms)",
-          repositoryNameWithOwner,
-          step6Duration);
-
-      // Sync branches
-      logSeparator();
-      var step7Start = Instant.now();
-      log.info("Repository: {} --> [Step 7/10] Syncing Branches...", repositoryNameWithOwner);
-      dataSyncOrchestrator.syncBranchesOfRepository(ghRepository);
-      var step7Duration = Duration.between(step7Start, Instant.now()).toMillis();
-      log.info(
-          "Repository: {} --> [Step 7/10] Completed Branch Sync. (Took: {} ms)",
-          repositoryNameWithOwner,
-          step7Duration);
-
-      // Sync commits
-      logSeparator();
-      var step8Start = Instant.now();
-      log.info("Repository: {} --> [Step 8/10] Syncing Commits...", repositoryNameWithOwner);
-      dataSyncOrchestrator.syncCommitsOfRepository(ghRepository);
-      var step8Duration = Duration.between(step8Start, Instant.now()).toMillis();
-      log.info(
-          "Repository: {} --> [Step 8/10] Completed Commit Sync. (Took: {} ms)",
-          repositoryNameWithOwner,
-          step8Duration);
-
-      // Sync workflow runs
-      logSeparator();
-      var step9Start = Instant.now();
-      log.info(
-          "Repository: {} --> [Step 9/10] Syncing Workflow Runs (Cutoff: {})",
-          repositoryNameWithOwner,
-          cutoffDate);
-      dataSyncOrchestrator.syncRunsOfRepository(ghRepository, Optional.of(cutoffDate));
-      var step9Duration = Duration.between(step9Start, Instant.now()).toMillis();
-      log.info(
-          "Repository: {} --> [Step 9/10] Completed Workflow Run Sync. (Took: {} ms)",
-          repositoryNameWithOwner,
-          step9Duration);
-
-      // Sync commits
-      logSeparator();
-      var step10Start = Instant.now();
-      log.info("Repository: {} --> [Step 10/10] Syncing Releases...", repositoryNameWithOwner);
-      dataSyncOrchestrator.syncReleasesOfRepository(ghRepository);
-      var step10Duration = Duration.between(step10Start, Instant.now()).toMillis();
-      log.info(
-          "Repository: {} --> [Step 10/10] Completed Release Sync. (Took: {} ms)",
-          repositoryNameWithOwner,
-          step10Duration);
+      // Every step needs the repository itself. Pull requests reference labels, deployments
+      // their environments, and the commits synced are the heads of branches and deployments.
+      // Workflow runs link to workflows, pull requests and Helios deployments, and releases to
+      // commits, so these come last.
+      DataSyncPlan.Result result =
+          new DataSyncPlan(label)
+              .step(
+                  "labels",
+                  retryOnConflict(() -> dataSyncOrchestrator.syncLabelsOfRepository(ghRepository)))
+              .step(
+                  "environments",
+                  retryOnConflict(
+                      () -> dataSyncOrchestrator.syncEnvironmentsOfRepository(ghRepository)))
+              .step(
+                  "workflows",
+                  retryOnConflict(
+                      () -> dataSyncOrchestrator.syncWorkflowsOfRepository(ghRepository)))
+              .step(
+                  "branches",
+                  retryOnConflict(
+                      () -> dataSyncOrchestrator.syncBranchesOfRepository(ghRepository)))
+              .step(
+                  "pull requests",
+                  retryOnConflict(
+                      () -> dataSyncOrchestrator.syncPullRequestsOfRepository(ghRepository)),
+                  "labels")
+              .step(
+                  "deployments",
+                  retryOnConflict(
+                      () -> dataSyncOrchestrator.syncDeploymentsOfRepository(ghRepository, since)),
+                  "environments")
+              .step(
+                  "commits",
+                  retryOnConflict(() -> dataSyncOrchestrator.syncCommitsOfRepository(ghRepository)),
+                  "branches",
+                  "deployments")
+              .step(
+                  "workflow runs",
+                  retryOnConflict(
+                      () -> dataSyncOrchestrator.syncRunsOfRepository(ghRepository, since)),
+                  "workflows",
+                  "pull requests",
+                  "deployments")
+              .step(
+                  "releases",
+                  retryOnConflict(
+                      () -> dataSyncOrchestrator.syncReleasesOfRepository(ghRepository)),
+                  "commits")
+              .run(stepExecutor(label));
 
       // CHECKSTYLE.OFF: VariableDeclarationUsageDistance
       var endTime = OffsetDateTime.now();
       // CHECKSTYLE.ON: VariableDeclarationUsageDistance
+      syncStatus.getStepDurations().putAll(result.durations());
+      syncStatus.getFailedSteps().addAll(result.failed());
+      syncStatus.getFailedSteps().addAll(result.skipped());
 
       logSeparator();
-      log.info(
-          "    Data Sync Job Completed Successfully for Repository: {}", repositoryNameWithOwner);
+      if (result.isSuccess()) {
+        log.info("    Data Sync Job Completed Successfully for {}", label);
+      } else {
+        log.warn(
+            "    Data Sync Job Completed with Errors for {} (Failed: {}, Skipped: {})",
+            label,
+            result.failed(),
+            result.skipped());
+      }
       logSeparator();
-      log.info("Repository: {} --> Step 1  took: {} ms", repositoryNameWithOwner, step1Duration);
-      log.info("Repository: {} --> Step 2  took: {} ms", repositoryNameWithOwner, step2Duration);
-      log.info("Repository: {} --> Step 3  took: {} ms", repositoryNameWithOwner, step3Duration);
-      log.info("Repository: {} --> Step 4  took: {} ms", repositoryNameWithOwner, step4Duration);
-      log.info("Repository: {} --> Step 5  took: {} ms", repositoryNameWithOwner, step5Duration);
-      log.info("Repository: {} --> Step 6  took: {} ms", repositoryNameWithOwner, step6Duration);
-      log.info("Repository: {} --> Step 7  took: {} ms", repositoryNameWithOwner, step7Duration);
-      log.info("Repository: {} --> Step 8  took: {} ms", repositoryNameWithOwner, step8Duration);
-      log.info("Repository: {} --> Step 9  took: {} ms", repositoryNameWithOwner, step9Duration);
-      log.info("Repository: {} --> Step 10 took: {} ms", repositoryNameWithOwner, step10Duration);
+      syncStatus
+          .getStepDurations()
+          .forEach((step, millis) -> log.info("{} --> {} took: {} ms", label, step, millis));
       log.info(
-          "Repository: {} --> Total Duration: {} seconds",
-          repositoryNameWithOwner,
+          "{} --> Total Duration: {} seconds",
+          label,
           Duration.between(startTime, endTime).getSeconds());
       logSeparator();
-      logSeparator();
 
-      // Store successful sync status
       syncStatus.setEndTime(endTime);
-      syncStatus.setStatus(DataSyncStatus.Status.SUCCESS);
+      syncStatus.setStatus(
+          result.isSuccess() ? DataSyncStatus.Status.SUCCESS : DataSyncStatus.Status.FAILED);
       dataSyncStatusRepository.save(syncStatus);
     } catch (Exception e) {
-      log.error(
-          "Repository: {} --> Error syncing repository: {}",
-          repositoryNameWithOwner,
-          e.getMessage(),
-          e);
+      log.error("{} --> Error syncing repository: {}", label, e.getMessage(), e);
       // Update the sync record with FAILED status.
       syncStatus.setEndTime(OffsetDateTime.now());
       syncStatus.setStatus(DataSyncStatus.Status.FAILED);
@@ -249,6 +235,68 @@ public class GitHubDataSyncService {
     }
   }
 
+  /**
+   * Runs each sync step on its own virtual thread, but at most {@link
+   * DataSyncProperties#stepConcurrency()} steps at a time across all repositories, and only once
+   * the rate limit leaves room for it.
+   */
+  private Executor stepExecutor(String label) {
+    return step ->
+        virtualThreads.execute(
+            () -> {
+              stepPermits.acquireUninterruptibly();
+              try {
+                rateBudget.checkpoint(label);
+                step.run();
+              } finally {
+                stepPermits.release();
+              }
+            });
+  }
+
+  private <T> T callGated(String label, Supplier<T> action) {
+    stepPermits.acquireUninterruptibly();
+    try {
+      rateBudget.checkpoint(label);
+      return action.get();
+    } finally {
+      stepPermits.release();
+    }
+  }
+
+  /**
+   * Repositories are synced concurrently and share users, and webhooks write the same rows while a
+   * step runs, so a step may lose an insert race on a unique key. The sync steps are idempotent
+   * upserts, so running the step again picks up the row the other writer created.
+   */
+  private static Runnable retryOnConflict(Runnable step) {
+    return () ->
+        callRetryingOnConflict(
+            () -> {
+              step.run();
+              return null;
+            });
+  }
+
+  private static <T> T callRetryingOnConflict(Supplier<T> step) {
+    try {
+      return step.get();
+    } catch (DataIntegrityViolationException e) {
+      log.warn("Sync step hit a concurrent insert, retrying once: {}", e.getMessage());
+      return step.get();
+    }
+  }
+
+  @PostConstruct
+  void initStepPermits() {
+    stepPermits = new Semaphore(properties.stepConcurrency());
+  }
+
+  @PreDestroy
+  void shutdown() {
+    virtualThreads.shutdownNow();
+  }
+
   private void logSeparator() {
     log.info("--------------------------------------------------");
   }
@@ -0,0 +1,73 @@
+package de.tum.cit.aet.helios.github.sync;
+
+import de.tum.cit.aet.helios.http.RateLimitInfo;
+import de.tum.cit.aet.helios.http.RateLimitInfoHolder;
+import de.tum.cit.aet.helios.util.RateLimitUtil;
+import java.time.Duration;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the data sync within the GitHub rate limit last reported to {@link RateLimitInfoHolder}.
+ *
+ * <p>Every sync step asks for the budget before it starts and again before each page or item it
+ * fetches. While enough requests remain this returns at once; below {@link
+ * DataSyncProperties#minRemainingRateLimit()} the step sleeps until the rate limit resets, so
+ * concurrent steps slow down together instead of running the budget dry, including the long ones
+ * that started while the budget was still plentiful.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+class SyncRateBudget {
+  // GitHub's reset time has second precision, so wait a little past it
+  private static final Duration RESET_GRACE = Duration.ofSeconds(1);
+
+  private final RateLimitInfoHolder rateLimitInfoHolder;
+  private final DataSyncProperties properties;
+
+  /** Blocks the calling (virtual) thread until the rate limit leaves room for another step. */
+  void await(String label) throws InterruptedException {
+    RateLimitInfo info = rateLimitInfoHolder.getLatestRateLimitInfo();
+    Duration wait = requiredWait(info, Instant.now());
+    if (wait.isZero()) {
+      return;
+    }
+    log.warn(
+        "{} --> Waiting {} s for the rate limit to reset. {}",
+        label,
+        wait.toSeconds(),
+        RateLimitUtil.formatRateLimitMessage("GitHub", info));
+    Thread.sleep(wait);
+  }
+
+  /**
+   * Like {@link #await(String)}, for callers that cannot throw. An interrupt only happens on
+   * shutdown; the flag is kept so the step runs into the interrupted I/O instead of hanging.
+   */
+  void checkpoint(String label) {
+    try {
+      await(label);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** How long a step has to wait before it may start, zero if it can start right away. */
+  Duration requiredWait(RateLimitInfo info, Instant now) {
+    if (info == null
+        || info.getReset() == null
+        || info.getRemaining() >= properties.minRemainingRateLimit()) {
+      return Duration.ZERO;
+    }
+    Duration untilReset = Duration.between(now, info.getReset().plus(RESET_GRACE));
+    if (untilReset.isNegative()) {
+      return Duration.ZERO;
+    }
+    return untilReset.compareTo(properties.maxRateLimitWait()) > 0
+        ? properties.maxRateLimitWait()
+        : untilReset;
+  }
+}
@@ -2,6 +2,8 @@ package de.tum.cit.aet.helios.github.sync;
 
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.workflow.WorkflowRun;
 import de.tum.cit.aet.helios.workflow.WorkflowRunRepository;
 import de.tum.cit.aet.helios.workflow.github.GitHubWorkflowRunStateMapper;
@@ -39,6 +41,7 @@ public class WorkflowRunReconciliationService {
 
   private final WorkflowRunRepository workflowRunRepository;
   private final GitHubService gitHubService;
+  private final LiveUpdatePublisher liveUpdatePublisher;
 
   @Scheduled(cron = "${reconciliation.workflow-runs.cron:0 7/15 * * * *}")
   public void reconcileStaleWorkflowRuns() {
@@ -150,6 +153,10 @@ public class WorkflowRunReconciliationService {
       workflowRun.setUpdatedAt(remoteUpdatedAt);
     }
     workflowRunRepository.save(workflowRun);
+    liveUpdatePublisher.publish(
+        workflowRun.getRepository(),
+        LiveUpdateEvent.workflowRun(
+            workflowRun.getId(), workflowRun.getHeadBranch(), workflowRun.getHeadSha()));
     return true;
   }
 
@@ -0,0 +1,46 @@
+package de.tum.cit.aet.helios.gitrepo.github;
+
+import de.tum.cit.aet.helios.github.GitHubMessageHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.kohsuke.github.GHEvent;
+import org.kohsuke.github.GHEventPayload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handles {@code repository} events (renamed, edited, archived, visibility changes, ...) by
+ * dropping the cached repository state and writing the new metadata through.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class GitHubRepositoryMessageHandler
+    extends GitHubMessageHandler<GHEventPayload.Repository> {
+
+  private final GitHubRepositorySyncService repositorySyncService;
+
+  @Override
+  protected Class<GHEventPayload.Repository> getPayloadClass() {
+    return GHEventPayload.Repository.class;
+  }
+
+  @Override
+  protected GHEvent getPayloadType() {
+    return GHEvent.REPOSITORY;
+  }
+
+  @Override
+  protected void handleInstalledRepositoryEvent(GHEventPayload.Repository eventPayload) {
+    var repository = eventPayload.getRepository();
+    log.info(
+        "Received repository event for repository: {}, action: {}",
+        repository.getFullName(),
+        eventPayload.getAction());
+
+    repositorySyncService.invalidate(repository.getId());
+    if ("deleted".equals(eventPayload.getAction())) {
+      return;
+    }
+    repositorySyncService.processRepository(repository);
+  }
+}
@@ -1,17 +1,23 @@
 package de.tum.cit.aet.helios.gitrepo.github;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
 import de.tum.cit.aet.helios.user.github.GitHubUserSyncService;
 import de.tum.cit.aet.helios.util.DateUtil;
 import jakarta.transaction.Transactional;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.kohsuke.github.GHIssueState;
 import org.kohsuke.github.GHRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @Log4j2
@@ -23,13 +29,30 @@ public class GitHubRepositorySyncService {
   private final GitHubUserSyncService userSyncService;
   private final GitHubService gitHubService;
 
+  /**
+   * Fingerprint of the repository metadata last written per repository id. Almost every webhook
+   * carries the repository, so without this each event would re-read the row, re-count branches,
+   * contributors and environments through the GitHub API and write the row again. The TTL bounds
+   * how stale the API-derived counters may get; branch and release events invalidate eagerly.
+   */
+  private final Cache<Long, List<Object>> syncedRepositories =
+      Caffeine.newBuilder().maximumSize(1_000).expireAfterWrite(Duration.ofMinutes(15)).build();
+
   /**
    * Processes a single GitHub repository by updating or creating it in the local repository.
+   * Skipped when the same metadata was already written recently, see {@link #syncedRepositories}.
    *
    * @param ghRepository The GitHub repository data to process.
    */
   @Transactional
   public void processRepository(GHRepository ghRepository) {
+    final List<Object> fingerprint = fingerprint(ghRepository);
+    if (fingerprint != null
+        && fingerprint.equals(syncedRepositories.getIfPresent(ghRepository.getId()))) {
+      log.debug("Repository {} unchanged, skipping sync", ghRepository.getFullName());
+      return;
+    }
+
     // TODO if gitRepoSettings is not found, create it
     var result =
         gitRepoRepository
@@ -75,5 +98,68 @@ public class GitHubRepositorySyncService {
     }
 
     gitRepoRepository.save(result);
+    rememberAfterCommit(ghRepository.getId(), fingerprint);
+  }
+
+  /**
+   * Forces the next {@link #processRepository(GHRepository)} call for the repository to write
+   * through to the database, e.g. after its branches, releases or settings changed.
+   *
+   * @param repositoryId the GitHub id of the repository
+   */
+  public void invalidate(long repositoryId) {
+    syncedRepositories.invalidate(repositoryId);
+  }
+
+  /** Forgets all cached repository fingerprints, e.g. after installation changes. */
+  public void invalidateAll() {
+    syncedRepositories.invalidateAll();
+  }
+
+  private void rememberAfterCommit(long repositoryId, List<Object> fingerprint) {
+    if (fingerprint == null) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      syncedRepositories.put(repositoryId, fingerprint);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            syncedRepositories.put(repositoryId, fingerprint);
+          }
+        });
+  }
+
+  /**
+   * Collects the mutable repository fields carried by webhook payloads.
+   *
+   * @return the fingerprint, or {@code null} if the payload could not be read
+   */
+  private static List<Object> fingerprint(GHRepository ghRepository) {
+    try {
+      return Arrays.asList(
+          ghRepository.getUpdatedAt(),
+          ghRepository.getPushedAt(),
+          ghRepository.getFullName(),
+          ghRepository.isPrivate(),
+          ghRepository.getDescription(),
+          ghRepository.getHomepage(),
+          ghRepository.isArchived(),
+          ghRepository.isDisabled(),
+          ghRepository.getVisibility(),
+          ghRepository.getStargazersCount(),
+          ghRepository.getWatchersCount(),
+          ghRepository.getOpenIssueCount(),
+          ghRepository.getDefaultBranch(),
+          ghRepository.hasIssues(),
+          ghRepository.hasProjects(),
+          ghRepository.hasWiki());
+    } catch (IOException | RuntimeException e) {
+      log.debug("Could not fingerprint repository {}: {}", ghRepository.getId(), e.getMessage());
+      return null;
+    }
   }
 }
@@ -1,9 +1,11 @@
 package de.tum.cit.aet.helios.gitreposettings.secret;
 
+import com.github.benmanes.caffeine.cache.Ticker;
 import de.tum.cit.aet.helios.gitreposettings.GitRepoSettings;
 import de.tum.cit.aet.helios.gitreposettings.GitRepoSettingsRepository;
 import jakarta.persistence.EntityNotFoundException;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.concurrent.Semaphore;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,6 +23,7 @@ public class RepoSecretService {
   private final GitRepoSettingsRepository gitRepoSettingsRepository;
   private final Argon2PasswordEncoder argon2;
   private final Semaphore argon2VerifySemaphore;
+  private final VerifiedSecretCache verifiedSecrets;
 
   public RepoSecretService(
       GitRepoSettingsRepository gitRepoSettingsRepository,
@@ -30,7 +33,9 @@ public class RepoSecretService {
       @Value("${helios.repo-secret.argon2.memory-kib:16384}") int memoryKiB,
       @Value("${helios.repo-secret.argon2.iterations:2}") int iterations,
       @Value("${helios.repo-secret.max-concurrent-verifications:4}")
-          int maxConcurrentVerifications) {
+          int maxConcurrentVerifications,
+      @Value("${helios.repo-secret.verified-cache.ttl:5m}") Duration verifiedCacheTtl,
+      @Value("${helios.repo-secret.verified-cache.max-size:1000}") long verifiedCacheMaxSize) {
     this.gitRepoSettingsRepository = gitRepoSettingsRepository;
     this.argon2 = new Argon2PasswordEncoder(
         saltLength,
@@ -39,6 +44,8 @@ public class RepoSecretService {
         memoryKiB,
         iterations);
     this.argon2VerifySemaphore = new Semaphore(Math.max(1, maxConcurrentVerifications), true);
+    this.verifiedSecrets =
+        new VerifiedSecretCache(verifiedCacheTtl, verifiedCacheMaxSize, Ticker.systemTicker());
   }
 
   /**
@@ -65,12 +72,16 @@ public class RepoSecretService {
     /* 4) Persist the hash (overwriting any previous value) */
     gitRepoSettings.setSecretHash(hash);
     gitRepoSettingsRepository.save(gitRepoSettings);
+    verifiedSecrets.invalidateRepository(repoId);
 
     return token;
   }
 
   /**
    * True iff token belongs to repo and suffix matches stored hash.
+   *
+   * <p>Tokens that matched the same stored hash within the last few minutes are accepted without
+   * running Argon2 again, see {@link VerifiedSecretCache}.
    */
   public boolean matches(GitRepoSettings settings, String token) {
     // "repo", "<id>", "<suffix>"
@@ -85,13 +96,22 @@ public class RepoSecretService {
       return false;
     }
 
+    String secretHash = settings.getSecretHash();
+    if (secretHash != null && verifiedSecrets.isVerified(repoId, secretHash, token)) {
+      return true;
+    }
+
     String suffix = parts[2];
     boolean acquired = false;
     try {
       // Bound concurrent Argon2 allocations to avoid heap spikes under request bursts.
       argon2VerifySemaphore.acquire();
       acquired = true;
-      return argon2.matches(suffix, settings.getSecretHash());
+      boolean matches = argon2.matches(suffix, secretHash);
+      if (matches) {
+        verifiedSecrets.markVerified(repoId, secretHash, token);
+      }
+      return matches;
     } catch (InterruptedException interruptedException) {
       Thread.currentThread().interrupt();
       return false;
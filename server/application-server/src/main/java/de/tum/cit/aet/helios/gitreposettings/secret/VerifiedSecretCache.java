@@ -0,0 +1,72 @@
+package de.tum.cit.aet.helios.gitreposettings.secret;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Short-lived memory of repo secrets that already passed the Argon2 verification, so that the
+ * heartbeats of an environment do not pay for a full Argon2 verify on every push.
+ *
+ * <p>Entries are keyed by an HMAC-SHA256 of the presented token under a random key that only
+ * lives in this instance, so neither tokens nor anything that could be checked offline against a
+ * guessed token is kept in memory. Each entry remembers the secret hash it was verified against:
+ * once the hash of the repository changes (a rotation, possibly on another instance), the entry no
+ * longer matches and the token goes through Argon2 again.
+ */
+class VerifiedSecretCache {
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  private final SecretKeySpec key;
+  private final Cache<String, Verified> verified;
+
+  private record Verified(long repositoryId, String secretHash) {}
+
+  VerifiedSecretCache(Duration ttl, long maxSize, Ticker ticker) {
+    byte[] keyBytes = new byte[32];
+    new SecureRandom().nextBytes(keyBytes);
+    this.key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+    this.verified = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .ticker(ticker)
+        .build();
+  }
+
+  /** True iff the token was verified against exactly this secret hash within the TTL. */
+  boolean isVerified(long repositoryId, String secretHash, String token) {
+    Verified entry = verified.getIfPresent(fingerprint(token));
+    return entry != null
+        && entry.repositoryId() == repositoryId
+        && entry.secretHash().equals(secretHash);
+  }
+
+  /** Remembers that the token matched the given secret hash. */
+  void markVerified(long repositoryId, String secretHash, String token) {
+    verified.put(fingerprint(token), new Verified(repositoryId, secretHash));
+  }
+
+  /** Forgets every verified token of the repository, e.g. after its secret was rotated. */
+  void invalidateRepository(long repositoryId) {
+    verified.asMap().values().removeIf(entry -> entry.repositoryId() == repositoryId);
+  }
+
+  private String fingerprint(String token) {
+    try {
+      // Mac instances are not thread-safe, and creating one is cheap compared to a lock
+      Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(key);
+      byte[] digest = mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(HMAC_ALGORITHM + " is not available", e);
+    }
+  }
+}
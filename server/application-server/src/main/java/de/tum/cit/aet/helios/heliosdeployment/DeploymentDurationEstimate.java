@@ -2,4 +2,20 @@ package de.tum.cit.aet.helios.heliosdeployment;
 
 public record DeploymentDurationEstimate(
     Double medianPreDeployDurationSeconds,
-    Double medianDeployDurationSeconds) {}
+    Double medianDeployDurationSeconds) {
+
+  /**
+   * Builds an estimate from the medians returned by the duration queries.
+   *
+   * @return the estimate, or {@code null} when there is no pre-deploy median
+   */
+  public static DeploymentDurationEstimate fromMedians(
+      Number medianPreDeploy, Number medianDeploy) {
+    if (medianPreDeploy == null) {
+      return null;
+    }
+    return new DeploymentDurationEstimate(
+        medianPreDeploy.doubleValue(),
+        medianDeploy != null ? medianDeploy.doubleValue() : null);
+  }
+}
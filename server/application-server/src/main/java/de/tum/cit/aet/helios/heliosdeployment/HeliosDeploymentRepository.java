@@ -3,6 +3,7 @@ package de.tum.cit.aet.helios.heliosdeployment;
 import de.tum.cit.aet.helios.environment.Environment;
 import jakarta.persistence.LockModeType;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -87,23 +88,52 @@ public interface HeliosDeploymentRepository extends JpaRepository<HeliosDeployme
   Optional<HeliosDeploymentWorkflowJobTimingMeta> findWorkflowJobTimingMetaByWorkflowRunId(
       @Param("workflowRunId") Long workflowRunId);
 
+  /**
+   * Batch variant of {@link #findTopByEnvironmentOrderByCreatedAtDesc}: the id of the most recent
+   * deployment of every given environment, in a single index-backed {@code DISTINCT ON} scan.
+   */
+  @Query(
+      value =
+          "SELECT DISTINCT ON (environment_id) id FROM helios_deployment "
+              + "WHERE environment_id IN (:environmentIds) "
+              + "ORDER BY environment_id, created_at DESC, id DESC",
+      nativeQuery = true)
+  List<Long> findLatestIdsByEnvironmentIdIn(
+      @Param("environmentIds") Collection<Long> environmentIds);
+
+  @Query(
+      "SELECT hd FROM HeliosDeployment hd "
+          + "LEFT JOIN FETCH hd.creator "
+          + "LEFT JOIN FETCH hd.pullRequest "
+          + "WHERE hd.id IN :ids")
+  List<HeliosDeployment> findWithCreatorAndPullRequestByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Median pre-deploy and deploy durations of the last 15 successful deployments of every given
+   * environment. Each row holds the environment id followed by the two medians; environments
+   * without such deployments have no row.
+   */
   @Query(
       value =
-          "SELECT PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY sub.pre_deploy_duration_seconds)"
+          "SELECT sub.environment_id, "
+              + "PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY sub.pre_deploy_duration_seconds)"
               + " AS median_pre_deploy, "
               + "PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY sub.deploy_duration_seconds)"
               + " AS median_deploy "
               + "FROM ("
-              + "  SELECT pre_deploy_duration_seconds, deploy_duration_seconds "
+              + "  SELECT environment_id, pre_deploy_duration_seconds, deploy_duration_seconds, "
+              + "    ROW_NUMBER() OVER ("
+              + "      PARTITION BY environment_id ORDER BY created_at DESC, id DESC) AS recency "
               + "  FROM helios_deployment "
-              + "  WHERE environment_id = :environmentId "
+              + "  WHERE environment_id IN (:environmentIds) "
               + "    AND status = 'DEPLOYMENT_SUCCESS' "
-              + "    AND pre_deploy_duration_seconds IS NOT NULL "
-              + "  ORDER BY created_at DESC "
-              + "  LIMIT 15"
-              + ") sub",
+              + "    AND pre_deploy_duration_seconds IS NOT NULL"
+              + ") sub "
+              + "WHERE sub.recency <= 15 "
+              + "GROUP BY sub.environment_id",
       nativeQuery = true)
-  List<Object[]> findMedianDurationsByEnvironmentId(@Param("environmentId") Long environmentId);
+  List<Object[]> findMedianDurationsByEnvironmentIdIn(
+      @Param("environmentIds") Collection<Long> environmentIds);
 
   /**
    * Finds deployments that are stuck in incomplete state for more than the specified duration.
@@ -0,0 +1,267 @@
+package de.tum.cit.aet.helios.http;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.log4j.Log4j2;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * An OkHttp interceptor that turns repeated GitHub API GETs into conditional requests.
+ *
+ * <p>The ETag and Last-Modified of every JSON response with an ETag are kept together with its
+ * gzip-compressed body in direct (off-heap) buffers, bounded by their total compressed size. The
+ * next GET of the same URL sends them as {@code If-None-Match} / {@code If-Modified-Since}; a
+ * {@code 304 Not Modified}, which GitHub does not count against the rate limit, is answered from
+ * the stored body with the fresh headers of the 304 (e.g. the rate limit). Unlike the OkHttp disk
+ * cache this always revalidates, so callers never see a response GitHub would consider stale.
+ *
+ * <p>Entries are keyed by URL and {@code Accept} header, not by the token, so they survive token
+ * rotation. That is only safe because an ETag is required: GitHub answers 304 only if the stored
+ * body is exactly the one this request would have received, while a Last-Modified alone could
+ * match a different user's view of the same URL.
+ */
+@Log4j2
+@Component
+public class ConditionalRequestCache implements Interceptor {
+
+  private static final String GITHUB_API_HOST = "api.github.com";
+
+  // Describe the stored body, not the one of the 304
+  private static final Set<String> BODY_HEADERS =
+      Set.of("content-length", "content-type", "content-encoding", "transfer-encoding");
+
+  private final Cache<String, Entry> entries;
+  private final int maxEntryBytes;
+  private final Map<String, FamilyStats> statsByFamily = new ConcurrentHashMap<>();
+
+  private record Entry(
+      String etag, String lastModified, Headers headers, String contentType, ByteBuffer body) {}
+
+  /** Immutable view of the statistics of one endpoint family. */
+  public record FamilyStatsSnapshot(long hits, long misses) {
+    public double hitRatio() {
+      long total = hits + misses;
+      return total == 0 ? 0 : (double) hits / total;
+    }
+  }
+
+  private static final class FamilyStats {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    FamilyStatsSnapshot snapshot() {
+      return new FamilyStatsSnapshot(hits.sum(), misses.sum());
+    }
+  }
+
+  @Autowired
+  public ConditionalRequestCache(
+      @Value("${http.cache.size:50}") long sizeInMegabytes,
+      @Value("${http.cache.ttl:7200}") long ttlInSeconds,
+      @Value("${http.cache.max-entry-size:1048576}") int maxEntryBytes) {
+    this(sizeInMegabytes * 1024L * 1024L, Duration.ofSeconds(ttlInSeconds), maxEntryBytes);
+  }
+
+  ConditionalRequestCache(long maxBytes, Duration ttl, int maxEntryBytes) {
+    this.maxEntryBytes = maxEntryBytes;
+    this.entries =
+        Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, Entry entry) -> key.length() + entry.body().capacity())
+            .expireAfterAccess(ttl)
+            .build();
+  }
+
+  @NotNull
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    if (!isCacheable(request)) {
+      return chain.proceed(request);
+    }
+
+    String key = key(request);
+    FamilyStats stats =
+        statsByFamily.computeIfAbsent(family(request.url()), family -> new FamilyStats());
+    Entry cached = entries.getIfPresent(key);
+    Response response = chain.proceed(cached == null ? request : withValidators(request, cached));
+
+    if (cached != null && response.code() == 304) {
+      stats.hits.increment();
+      return fromCache(request, response, cached);
+    }
+
+    stats.misses.increment();
+    if (response.code() == 200) {
+      store(key, response);
+    } else if (response.code() == 404 || response.code() == 410) {
+      entries.invalidate(key);
+    }
+    return response;
+  }
+
+  /** Hits (304s served locally) and misses per endpoint family, see {@link #family(HttpUrl)}. */
+  public Map<String, FamilyStatsSnapshot> getStats() {
+    Map<String, FamilyStatsSnapshot> snapshot = new TreeMap<>();
+    statsByFamily.forEach((family, stats) -> snapshot.put(family, stats.snapshot()));
+    return snapshot;
+  }
+
+  @Scheduled(fixedDelayString = "${http.cache.stats-log-interval:15m}")
+  public void logStats() {
+    if (statsByFamily.isEmpty()) {
+      return;
+    }
+    log.info(
+        "GitHub conditional request cache: entries={}, compressedBytes={}",
+        entries.estimatedSize(),
+        entries.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+    getStats()
+        .forEach(
+            (family, stats) ->
+                log.info(
+                    "GitHub conditional requests [{}]: hits={}, misses={}, hitRatio={}",
+                    family,
+                    stats.hits(),
+                    stats.misses(),
+                    String.format("%.2f", stats.hitRatio())));
+  }
+
+  /**
+   * Groups GitHub API URLs for the statistics, e.g. {@code /repos/o/r/actions/runs/1/jobs} and
+   * {@code /repos/o/r/actions/runs?page=2} both belong to {@code repos/actions/runs}. Everything
+   * after the resource, such as ids, SHAs and branch names, is dropped to keep the number of
+   * families small.
+   */
+  static String family(HttpUrl url) {
+    var segments = url.pathSegments();
+    if (segments.isEmpty() || segments.getFirst().isEmpty()) {
+      return "/";
+    }
+    if (!"repos".equals(segments.getFirst()) || segments.size() < 4) {
+      return segments.getFirst();
+    }
+    String resource = segments.get(3);
+    if ("actions".equals(resource) && segments.size() > 4) {
+      return "repos/actions/" + segments.get(4);
+    }
+    return "repos/" + resource;
+  }
+
+  private static boolean isCacheable(Request request) {
+    return "GET".equals(request.method())
+        && request.url().host().equalsIgnoreCase(GITHUB_API_HOST)
+        // The caller does its own revalidation
+        && request.header("If-None-Match") == null
+        && request.header("If-Modified-Since") == null;
+  }
+
+  private static String key(Request request) {
+    String accept = request.header("Accept");
+    return accept == null ? request.url().toString() : request.url() + " " + accept;
+  }
+
+  private static Request withValidators(Request request, Entry cached) {
+    Request.Builder builder = request.newBuilder();
+    builder.header("If-None-Match", cached.etag());
+    if (cached.lastModified() != null) {
+      builder.header("If-Modified-Since", cached.lastModified());
+    }
+    return builder.build();
+  }
+
+  private void store(String key, Response response) throws IOException {
+    String etag = response.header("ETag");
+    String lastModified = response.header("Last-Modified");
+    ResponseBody body = response.body();
+    MediaType contentType = body.contentType();
+    if (etag == null
+        || contentType == null
+        || !contentType.subtype().contains("json")
+        || body.contentLength() > maxEntryBytes) {
+      entries.invalidate(key);
+      return;
+    }
+
+    // Peeking leaves the body unread for the caller, and stops after the limit for chunked bodies
+    byte[] bytes = response.peekBody(maxEntryBytes + 1L).bytes();
+    if (bytes.length > maxEntryBytes) {
+      entries.invalidate(key);
+      return;
+    }
+    entries.put(
+        key,
+        new Entry(etag, lastModified, response.headers(), contentType.toString(), compress(bytes)));
+  }
+
+  private static Response fromCache(Request request, Response notModified, Entry cached) {
+    Headers.Builder headers = new Headers.Builder();
+    for (String name : cached.headers().names()) {
+      if (!BODY_HEADERS.contains(name.toLowerCase())) {
+        cached.headers().values(name).forEach(value -> headers.add(name, value));
+      }
+    }
+    for (String name : notModified.headers().names()) {
+      if (!BODY_HEADERS.contains(name.toLowerCase())) {
+        headers.removeAll(name);
+        notModified.headers().values(name).forEach(value -> headers.add(name, value));
+      }
+    }
+    notModified.close();
+
+    return notModified
+        .newBuilder()
+        .request(request)
+        .code(200)
+        .message("OK")
+        .headers(headers.build())
+        .body(ResponseBody.create(decompress(cached.body()), MediaType.parse(cached.contentType())))
+        .build();
+  }
+
+  private static ByteBuffer compress(byte[] bytes) {
+    var out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+    try (var gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    byte[] compressed = out.toByteArray();
+    return ByteBuffer.allocateDirect(compressed.length).put(compressed).flip();
+  }
+
+  private static byte[] decompress(ByteBuffer body) {
+    // Duplicate, so that concurrent readers do not share a position
+    byte[] compressed = new byte[body.capacity()];
+    body.duplicate().get(compressed);
+    try (var gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return gzip.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -1,10 +1,8 @@
 package de.tum.cit.aet.helios.http;
 
-import java.io.File;
 import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,21 +15,16 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class HttpClientConfig {
 
-  @Value("${http.cache.enabled:false}")
+  @Value("${http.cache.enabled:true}")
   private boolean cacheEnabled;
 
-  @Value("${http.cache.ttl:500}")
-  private int cacheTtl;
-
-  @Value("${http.cache.size:50}")
-  private int cacheSize;
-
   private final Environment environment;
   private final RateLimitInfoHolder rateLimitInfoHolder;
+  private final ConditionalRequestCache conditionalRequestCache;
 
   /**
-   * Builds an OkHttpClient.Builder with cache, logging interceptor, rate limit interceptor, and
-   * timeouts.
+   * Builds an OkHttpClient.Builder with conditional request cache, logging interceptor, rate limit
+   * interceptor, and timeouts.
    *
    * @return the OkHttpClient.Builder
    */
@@ -48,18 +41,17 @@ public class HttpClientConfig {
 
     OkHttpClient.Builder builder = new OkHttpClient.Builder();
 
-    // Add the rate limit interceptor
-    builder.addInterceptor(new HttpClientRateLimitInterceptor(rateLimitInfoHolder));
-
+    // Outermost, so that the rate limit interceptor still sees the headers of every 304
     if (cacheEnabled) {
-      File cacheDir = new File("./build/github-cache");
-      Cache cache = new Cache(cacheDir, cacheSize * 1024L * 1024L);
-      builder.cache(cache);
-      log.info("Cache enabled with TTL {} seconds and size {} MB", cacheTtl, cacheSize);
+      builder.addInterceptor(conditionalRequestCache);
+      log.info("Conditional request cache for GitHub API responses is enabled");
     } else {
       log.info("Cache is disabled");
     }
 
+    // Add the rate limit interceptor
+    builder.addInterceptor(new HttpClientRateLimitInterceptor(rateLimitInfoHolder));
+
     // Configure timeouts and add the logging interceptor
     builder
         .connectTimeout(15, TimeUnit.SECONDS)
@@ -2,6 +2,8 @@ package de.tum.cit.aet.helios.label;
 
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -10,4 +12,30 @@ public interface LabelRepository extends JpaRepository<Label, Long> {
 
   Optional<Label> findByRepositoryRepositoryIdAndName(@Param("repositoryId") Long repositoryId,
                                                       @Param("name") String name);
-}
\ No newline at end of file
+
+  /**
+   * Inserts the label or updates it if it exists already, in one statement. A label that is linked
+   * with a repository keeps that link. Label events, pull request events and the data sync of every
+   * repository store labels concurrently, so a writer must not fail because another one inserted
+   * the label first.
+   */
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO label (id, repository_id, name, description, color)
+          VALUES (:id, :repositoryId, :name, :description, :color)
+          ON CONFLICT (id) DO UPDATE SET
+            name = EXCLUDED.name,
+            description = EXCLUDED.description,
+            color = EXCLUDED.color,
+            repository_id = COALESCE(label.repository_id, EXCLUDED.repository_id)
+          """,
+      nativeQuery = true)
+  void upsert(
+      @Param("id") Long id,
+      @Param("repositoryId") Long repositoryId,
+      @Param("name") String name,
+      @Param("description") String description,
+      @Param("color") String color);
+}
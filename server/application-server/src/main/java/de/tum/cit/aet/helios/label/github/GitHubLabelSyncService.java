@@ -2,6 +2,8 @@ package de.tum.cit.aet.helios.label.github;
 
 
 import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
+import de.tum.cit.aet.helios.gitrepo.GitRepository;
+import de.tum.cit.aet.helios.label.Label;
 import de.tum.cit.aet.helios.label.LabelRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -25,25 +27,29 @@ public class GitHubLabelSyncService {
    */
   @Transactional
   public void processLabel(GHLabel ghLabel) {
-    var result = labelRepository
-        .findById(ghLabel.getId())
-        .map(label -> {
-          return labelConverter.update(ghLabel, label);
-        })
-        .orElseGet(() -> labelConverter.convert(ghLabel));
-
-    if (result == null) {
-      return;
-    }
-
-    // Link with existing repository if not already linked
-    if (result.getRepository() == null) {
-      // Extract name with owner from the repository URL
-      // Example: https://api.github.com/repos/ls1intum/Artemis/labels/core
-      var nameWithOwner = ghLabel.getUrl().split("/repos/")[1].split("/label")[0];
-      result.setRepository(gitRepoRepository.findByNameWithOwner(nameWithOwner));
-    }
+    // Extract name with owner from the repository URL
+    // Example: https://api.github.com/repos/ls1intum/Artemis/labels/core
+    var nameWithOwner = ghLabel.getUrl().split("/repos/")[1].split("/label")[0];
+    processLabel(ghLabel, gitRepoRepository.findByNameWithOwner(nameWithOwner));
+  }
 
-    labelRepository.save(result);
+  /**
+   * Stores a GitHub label with {@link LabelRepository#upsert}, so concurrent writers of the same
+   * new label do not conflict, and links it with the repository if not already linked.
+   *
+   * @param ghLabel the GitHub label to process
+   * @param repository the repository the label belongs to, or {@code null} if unknown
+   * @return the stored label
+   */
+  @Transactional
+  public Label processLabel(GHLabel ghLabel, GitRepository repository) {
+    var label = labelConverter.convert(ghLabel);
+    labelRepository.upsert(
+        label.getId(),
+        repository != null ? repository.getRepositoryId() : null,
+        label.getName(),
+        label.getDescription(),
+        label.getColor());
+    return labelRepository.findById(label.getId()).orElseThrow();
   }
-}
\ No newline at end of file
+}
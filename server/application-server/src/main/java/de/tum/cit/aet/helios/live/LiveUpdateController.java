@@ -0,0 +1,34 @@
+package de.tum.cit.aet.helios.live;
+
+import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/live")
+@RequiredArgsConstructor
+public class LiveUpdateController {
+
+  private final LiveUpdateRegistry liveUpdateRegistry;
+  private final GitRepoRepository gitRepoRepository;
+
+  /**
+   * Server-sent event stream of the changes of a repository's workflow runs, workflow jobs,
+   * deployments and environment statuses. Every {@code changes} event carries a JSON array of
+   * {@link LiveUpdateEvent}s. The repository is a path variable, since EventSource cannot send the
+   * repository header.
+   */
+  @GetMapping(path = "/repositories/{repositoryId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter subscribe(@PathVariable Long repositoryId) {
+    if (!gitRepoRepository.existsById(repositoryId)) {
+      throw new EntityNotFoundException("Repository not found with ID: " + repositoryId);
+    }
+    return liveUpdateRegistry.subscribe(repositoryId);
+  }
+}
@@ -0,0 +1,45 @@
+package de.tum.cit.aet.helios.live;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.lang.NonNull;
+
+/**
+ * Compact notification that an entity of a repository changed. It only carries what a client
+ * needs to decide whether the change concerns the view it shows (the branch or commit of a run,
+ * the environment of a deployment); the client then refetches or patches that view itself.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LiveUpdateEvent(
+    @NonNull LiveUpdateType type,
+    Long id,
+    Long environmentId,
+    String headBranch,
+    String headSha) {
+
+  public static LiveUpdateEvent workflowRun(Long runId, String headBranch, String headSha) {
+    return new LiveUpdateEvent(LiveUpdateType.WORKFLOW_RUN, runId, null, headBranch, headSha);
+  }
+
+  public static LiveUpdateEvent workflowJob(Long jobId, String headBranch, String headSha) {
+    return new LiveUpdateEvent(LiveUpdateType.WORKFLOW_JOB, jobId, null, headBranch, headSha);
+  }
+
+  public static LiveUpdateEvent deployment(
+      Long deploymentId, Long environmentId, String ref, String sha) {
+    return new LiveUpdateEvent(LiveUpdateType.DEPLOYMENT, deploymentId, environmentId, ref, sha);
+  }
+
+  public static LiveUpdateEvent environmentStatus(Long environmentId) {
+    return new LiveUpdateEvent(
+        LiveUpdateType.ENVIRONMENT_STATUS, environmentId, environmentId, null, null);
+  }
+
+  public static LiveUpdateEvent resync() {
+    return new LiveUpdateEvent(LiveUpdateType.RESYNC, null, null, null, null);
+  }
+
+  /** Events with the same key describe the same entity; only the latest one is sent. */
+  String coalescingKey() {
+    return type + ":" + id;
+  }
+}
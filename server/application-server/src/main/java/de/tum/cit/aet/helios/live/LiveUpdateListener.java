@@ -0,0 +1,9 @@
+package de.tum.cit.aet.helios.live;
+
+/**
+ * Receives every change announced through {@link LiveUpdatePublisher}, once its transaction
+ * committed. Called on the publishing thread, so implementations must return quickly.
+ */
+public interface LiveUpdateListener {
+  void onLiveUpdate(long repositoryId, LiveUpdateEvent event);
+}
@@ -0,0 +1,33 @@
+package de.tum.cit.aet.helios.live;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning for the live update streams, see {@link LiveUpdateRegistry}.
+ *
+ * <p>{@code flushInterval} is how often pending changes are sent, and therefore the window in which
+ * repeated changes of the same entity are coalesced. A subscriber with more than {@code maxPending}
+ * unsent changes gets a single resync instead. {@code heartbeatInterval} keeps idle streams from
+ * being closed by proxies, and {@code timeout} bounds a stream's lifetime; the browser's
+ * EventSource reconnects on its own.
+ */
+@ConfigurationProperties(prefix = "helios.live-updates")
+public record LiveUpdateProperties(
+    @DefaultValue("250ms") Duration flushInterval,
+    @DefaultValue("25s") Duration heartbeatInterval,
+    @DefaultValue("30m") Duration timeout,
+    @DefaultValue("200") int maxPending,
+    @DefaultValue("500") int maxSubscribersPerRepository) {
+
+  public LiveUpdateProperties {
+    if (maxPending < 1) {
+      throw new IllegalArgumentException("helios.live-updates.max-pending must be at least 1");
+    }
+    if (maxSubscribersPerRepository < 1) {
+      throw new IllegalArgumentException(
+          "helios.live-updates.max-subscribers-per-repository must be at least 1");
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package de.tum.cit.aet.helios.live;
+
+import de.tum.cit.aet.helios.gitrepo.GitRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entry point for the write paths to announce changes, to the live update streams and every other
+ * {@link LiveUpdateListener}.
+ */
+@Component
+@RequiredArgsConstructor
+public class LiveUpdatePublisher {
+
+  private final List<LiveUpdateListener> listeners;
+
+  /**
+   * Announces a change of an entity of the repository. Inside a transaction, the event is only
+   * sent once it committed, so a client refetching on it reads the new state and rolled back
+   * changes are never announced.
+   *
+   * @param repository the repository the entity belongs to; nothing is sent if it is null
+   */
+  public void publish(GitRepository repository, LiveUpdateEvent event) {
+    if (repository == null || repository.getRepositoryId() == null) {
+      return;
+    }
+    long repositoryId = repository.getRepositoryId();
+
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      notifyListeners(repositoryId, event);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            notifyListeners(repositoryId, event);
+          }
+        });
+  }
+
+  private void notifyListeners(long repositoryId, LiveUpdateEvent event) {
+    listeners.forEach(listener -> listener.onLiveUpdate(repositoryId, event));
+  }
+}
@@ -0,0 +1,122 @@
+package de.tum.cit.aet.helios.live;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * The open live update streams, grouped by repository.
+ *
+ * <p>{@link #onLiveUpdate(long, LiveUpdateEvent)} only hands the event to the subscribers of its
+ * repository, which coalesce it (see {@link LiveUpdateSubscriber}); the actual writes happen in
+ * {@link #flush()}, each on its own virtual thread, so a slow client never blocks the NATS handler
+ * that published the change, nor the other subscribers.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class LiveUpdateRegistry implements LiveUpdateListener {
+
+  private final LiveUpdateProperties properties;
+
+  private final Map<Long, Set<LiveUpdateSubscriber>> subscribers = new ConcurrentHashMap<>();
+
+  private final ExecutorService senders =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("live-update-", 0).factory());
+
+  /**
+   * Opens a new stream of the changes of the given repository.
+   *
+   * @throws ResponseStatusException 503 if the repository already has the maximum number of
+   *     subscribers
+   */
+  public SseEmitter subscribe(long repositoryId) {
+    SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+    LiveUpdateSubscriber subscriber =
+        new LiveUpdateSubscriber(emitter, properties.maxPending(), Instant.now());
+
+    subscribers.compute(
+        repositoryId,
+        (id, repositorySubscribers) -> {
+          Set<LiveUpdateSubscriber> current =
+              repositorySubscribers != null ? repositorySubscribers : ConcurrentHashMap.newKeySet();
+          if (current.size() >= properties.maxSubscribersPerRepository()) {
+            throw new ResponseStatusException(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "Too many live update subscribers for repository " + repositoryId);
+          }
+          current.add(subscriber);
+          return current;
+        });
+
+    emitter.onCompletion(() -> unsubscribe(repositoryId, subscriber));
+    emitter.onTimeout(() -> unsubscribe(repositoryId, subscriber));
+    emitter.onError(e -> unsubscribe(repositoryId, subscriber));
+    return emitter;
+  }
+
+  /** Queues the event for every subscriber of the repository. */
+  @Override
+  public void onLiveUpdate(long repositoryId, LiveUpdateEvent event) {
+    Set<LiveUpdateSubscriber> repositorySubscribers = subscribers.get(repositoryId);
+    if (repositorySubscribers != null) {
+      repositorySubscribers.forEach(subscriber -> subscriber.offer(event));
+    }
+  }
+
+  /**
+   * Sends the pending changes (and due heartbeats) of all subscribers.
+   * The delay is configurable via the helios.live-updates.flush-interval property.
+   */
+  @Scheduled(fixedDelayString = "${helios.live-updates.flush-interval:250ms}")
+  public void flush() {
+    Instant now = Instant.now();
+    subscribers.forEach(
+        (repositoryId, repositorySubscribers) ->
+            repositorySubscribers.forEach(
+                subscriber -> {
+                  if (subscriber.needsFlush(now, properties.heartbeatInterval())) {
+                    senders.execute(() -> send(repositoryId, subscriber, now));
+                  }
+                }));
+  }
+
+  int subscriberCount(long repositoryId) {
+    Set<LiveUpdateSubscriber> repositorySubscribers = subscribers.get(repositoryId);
+    return repositorySubscribers != null ? repositorySubscribers.size() : 0;
+  }
+
+  private void send(long repositoryId, LiveUpdateSubscriber subscriber, Instant now) {
+    if (!subscriber.flush(now, properties.heartbeatInterval())) {
+      log.debug("Dropping broken live update stream of repository {}", repositoryId);
+      unsubscribe(repositoryId, subscriber);
+    }
+  }
+
+  private void unsubscribe(long repositoryId, LiveUpdateSubscriber subscriber) {
+    subscribers.computeIfPresent(
+        repositoryId,
+        (id, repositorySubscribers) -> {
+          repositorySubscribers.remove(subscriber);
+          return repositorySubscribers.isEmpty() ? null : repositorySubscribers;
+        });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    senders.shutdownNow();
+    subscribers.values().forEach(set -> set.forEach(LiveUpdateSubscriber::complete));
+    subscribers.clear();
+  }
+}
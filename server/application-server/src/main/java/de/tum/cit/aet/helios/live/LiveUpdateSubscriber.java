@@ -0,0 +1,108 @@
+package de.tum.cit.aet.helios.live;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One open event stream.
+ *
+ * <p>Publishing never writes to the stream: changes are collected here, coalesced per entity, and
+ * sent as one batch by the next flush. While a send is still blocked on a slow client, further
+ * changes keep coalescing; once more than {@code maxPending} distinct entities are waiting, they
+ * are replaced by a single {@link LiveUpdateType#RESYNC}, so a stalled client costs a bounded
+ * amount of memory and catches up with one refetch.
+ */
+class LiveUpdateSubscriber {
+  static final String EVENT_NAME = "changes";
+
+  private final SseEmitter emitter;
+  private final int maxPending;
+
+  // Guarded by this
+  private final Map<String, LiveUpdateEvent> pending = new LinkedHashMap<>();
+  private boolean resyncPending;
+
+  private final AtomicBoolean sending = new AtomicBoolean();
+  private volatile Instant lastSentAt;
+
+  LiveUpdateSubscriber(SseEmitter emitter, int maxPending, Instant now) {
+    this.emitter = emitter;
+    this.maxPending = maxPending;
+    this.lastSentAt = now;
+  }
+
+  SseEmitter emitter() {
+    return emitter;
+  }
+
+  synchronized void offer(LiveUpdateEvent event) {
+    if (resyncPending) {
+      return;
+    }
+    pending.put(event.coalescingKey(), event);
+    if (pending.size() > maxPending) {
+      pending.clear();
+      resyncPending = true;
+    }
+  }
+
+  /** True if there is something to send, or the stream has been idle for a heartbeat. */
+  boolean needsFlush(Instant now, Duration heartbeatInterval) {
+    if (sending.get()) {
+      return false;
+    }
+    synchronized (this) {
+      if (resyncPending || !pending.isEmpty()) {
+        return true;
+      }
+    }
+    return !lastSentAt.plus(heartbeatInterval).isAfter(now);
+  }
+
+  /**
+   * Sends the pending changes, or a heartbeat comment if there are none and the stream has been
+   * idle for {@code heartbeatInterval}. Does nothing while another flush is still sending.
+   *
+   * @return false if the stream is broken and the subscriber should be dropped
+   */
+  boolean flush(Instant now, Duration heartbeatInterval) {
+    if (!sending.compareAndSet(false, true)) {
+      return true;
+    }
+    try {
+      List<LiveUpdateEvent> batch;
+      synchronized (this) {
+        batch = resyncPending ? List.of(LiveUpdateEvent.resync()) : List.copyOf(pending.values());
+        pending.clear();
+        resyncPending = false;
+      }
+
+      if (!batch.isEmpty()) {
+        emitter.send(SseEmitter.event().name(EVENT_NAME).data(batch, MediaType.APPLICATION_JSON));
+      } else if (!lastSentAt.plus(heartbeatInterval).isAfter(now)) {
+        emitter.send(SseEmitter.event().comment("keep-alive"));
+      } else {
+        return true;
+      }
+      lastSentAt = now;
+      return true;
+    } catch (IOException | IllegalStateException e) {
+      // The client went away or the emitter already completed; the container cleans up the
+      // response, the subscriber only has to be forgotten
+      return false;
+    } finally {
+      sending.set(false);
+    }
+  }
+
+  void complete() {
+    emitter.complete();
+  }
+}
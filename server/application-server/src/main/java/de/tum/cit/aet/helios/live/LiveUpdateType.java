@@ -0,0 +1,10 @@
+package de.tum.cit.aet.helios.live;
+
+public enum LiveUpdateType {
+  WORKFLOW_RUN,
+  WORKFLOW_JOB,
+  DEPLOYMENT,
+  ENVIRONMENT_STATUS,
+  // Too many changes to list: refetch everything of the repository
+  RESYNC
+}
@@ -0,0 +1,207 @@
+package de.tum.cit.aet.helios.nats;
+
+import io.nats.client.ConsumerContext;
+import io.nats.client.FetchConsumeOptions;
+import io.nats.client.FetchConsumer;
+import io.nats.client.Message;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pull-based alternative to the push consumer used by {@link NatsConsumerService} when {@code
+ * nats.batch.enabled} is set.
+ *
+ * <p>A single virtual thread repeatedly fetches a batch from the durable consumer and hands its
+ * messages to the per-repository lanes of {@link NatsMessageDispatcher#dispatch(Message)}, so
+ * batches are applied with the same parallelism and ordering guarantees as pushed messages while
+ * the next batch is being fetched. Each message runs in the transactions of its own handler and is
+ * acknowledged once handled: handlers call the GitHub API, so a transaction spanning several
+ * messages would stay open across those calls, and a failing message would roll back the ones
+ * before it. What the batches save are the per-message pull round-trips, which dominate when
+ * catching up on a large backlog. A failed fetch is retried with exponential backoff.
+ */
+@Log4j2
+@Component
+public class NatsBatchConsumer {
+
+  /** Upper bounds of the batch-size histogram buckets; the last bucket is open-ended. */
+  private static final int[] BATCH_SIZE_BUCKETS = {1, 10, 50, 100, 500};
+
+  static final Duration MIN_FETCH_BACKOFF = Duration.ofSeconds(1);
+  static final Duration MAX_FETCH_BACKOFF = Duration.ofSeconds(30);
+
+  private final NatsBatchProperties properties;
+  private final NatsMessageDispatcher messageDispatcher;
+
+  private final LongAdder messagesDispatched = new LongAdder();
+  private final AtomicLongArray batchSizeHistogram =
+      new AtomicLongArray(BATCH_SIZE_BUCKETS.length + 1);
+  private long lastStatsMessages;
+  private long lastStatsNanos = System.nanoTime();
+
+  private volatile Thread worker;
+
+  public NatsBatchConsumer(
+      NatsBatchProperties properties, NatsMessageDispatcher messageDispatcher) {
+    this.properties = properties;
+    this.messageDispatcher = messageDispatcher;
+  }
+
+  public boolean isEnabled() {
+    return properties.enabled();
+  }
+
+  /**
+   * Starts fetching from the given consumer, replacing any previously started fetch loop.
+   *
+   * @param consumerContext the durable consumer to pull from
+   */
+  public synchronized void start(ConsumerContext consumerContext) {
+    stop();
+    FetchConsumeOptions options =
+        FetchConsumeOptions.builder()
+            .maxMessages(properties.maxMessages())
+            .expiresIn(properties.maxWait().toMillis())
+            .build();
+    worker =
+        Thread.ofVirtual()
+            .name("nats-batch-consumer")
+            .start(() -> fetchLoop(consumerContext, options));
+    log.info(
+        "Started batch consumption with up to {} messages per batch and {} max wait.",
+        properties.maxMessages(),
+        properties.maxWait());
+  }
+
+  @PreDestroy
+  public synchronized void stop() {
+    Thread current = worker;
+    worker = null;
+    if (current != null) {
+      current.interrupt();
+      try {
+        current.join(properties.maxWait().toMillis() * 2);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void fetchLoop(ConsumerContext consumerContext, FetchConsumeOptions options) {
+    final Thread self = Thread.currentThread();
+    Duration backoff = null;
+    while (worker == self && !self.isInterrupted()) {
+      List<Message> batch = new ArrayList<>(properties.maxMessages());
+      boolean failed = false;
+      try (FetchConsumer fetchConsumer = consumerContext.fetch(options)) {
+        Message msg;
+        while ((msg = fetchConsumer.nextMessage()) != null) {
+          batch.add(msg);
+        }
+      } catch (InterruptedException e) {
+        self.interrupt();
+      } catch (Exception e) {
+        failed = true;
+        log.error("Error while fetching NATS batch: {}", e.getMessage(), e);
+      }
+
+      if (!batch.isEmpty()) {
+        applyBatch(batch);
+      }
+
+      if (failed) {
+        // E.g. the connection is down: wait before trying again instead of spinning
+        backoff = nextBackoff(backoff);
+        try {
+          Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+          self.interrupt();
+        }
+      } else {
+        backoff = null;
+      }
+    }
+    log.info("Batch consumption stopped.");
+  }
+
+  /**
+   * Hands the messages of a batch to the dispatcher in delivery order. A failing message is logged
+   * and acknowledged like on the push path and does not affect the others. Blocks while the
+   * dispatcher's in-flight limit is exhausted.
+   *
+   * @param batch messages in delivery order
+   */
+  void applyBatch(List<Message> batch) {
+    recordBatchSize(batch.size());
+    // Announce the whole batch first so superseded updates within it can be skipped
+    batch.forEach(messageDispatcher::announce);
+    for (Message msg : batch) {
+      messageDispatcher.dispatch(msg);
+      messagesDispatched.increment();
+    }
+  }
+
+  /** The wait after a failed fetch: doubling from {@link #MIN_FETCH_BACKOFF} up to the maximum. */
+  static Duration nextBackoff(Duration previous) {
+    if (previous == null) {
+      return MIN_FETCH_BACKOFF;
+    }
+    Duration doubled = previous.multipliedBy(2);
+    return doubled.compareTo(MAX_FETCH_BACKOFF) > 0 ? MAX_FETCH_BACKOFF : doubled;
+  }
+
+  private void recordBatchSize(int size) {
+    int bucket = 0;
+    while (bucket < BATCH_SIZE_BUCKETS.length && size > BATCH_SIZE_BUCKETS[bucket]) {
+      bucket++;
+    }
+    batchSizeHistogram.incrementAndGet(bucket);
+  }
+
+  /**
+   * Returns how many batches fell into each size bucket, labelled by their upper bound.
+   *
+   * @return bucket label to batch count
+   */
+  public Map<String, Long> getBatchSizeHistogram() {
+    Map<String, Long> histogram = new LinkedHashMap<>();
+    for (int i = 0; i < BATCH_SIZE_BUCKETS.length; i++) {
+      histogram.put("<=" + BATCH_SIZE_BUCKETS[i], batchSizeHistogram.get(i));
+    }
+    histogram.put(
+        ">" + BATCH_SIZE_BUCKETS[BATCH_SIZE_BUCKETS.length - 1],
+        batchSizeHistogram.get(BATCH_SIZE_BUCKETS.length));
+    return histogram;
+  }
+
+  public long getMessagesDispatched() {
+    return messagesDispatched.sum();
+  }
+
+  @Scheduled(fixedDelayString = "${nats.batch.stats-log-interval:5m}")
+  public synchronized void logStats() {
+    if (!properties.enabled()) {
+      return;
+    }
+    long now = System.nanoTime();
+    long total = messagesDispatched.sum();
+    double seconds = (now - lastStatsNanos) / 1_000_000_000d;
+    double rate = seconds <= 0 ? 0 : (total - lastStatsMessages) / seconds;
+    lastStatsMessages = total;
+    lastStatsNanos = now;
+    log.info(
+        "NATS batch consumption: {} msg/s, {} dispatched, batch sizes {}",
+        String.format("%.1f", rate),
+        total,
+        getBatchSizeHistogram());
+  }
+}
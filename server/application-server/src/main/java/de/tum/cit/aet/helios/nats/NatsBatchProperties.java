@@ -0,0 +1,26 @@
+package de.tum.cit.aet.helios.nats;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Opt-in pull-based batch consumption of the {@code github} stream.
+ *
+ * <p>When {@code enabled}, the consumer fetches up to {@code maxMessages} messages, waiting at most
+ * {@code maxWait} for the batch to fill, and hands them to the dispatch lanes in delivery order.
+ * Meant for catching up on a large backlog (see {@code nats.timeframe}); the default push-based
+ * dispatch keeps lower latency for live traffic.
+ */
+@ConfigurationProperties(prefix = "nats.batch")
+public record NatsBatchProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("200") int maxMessages,
+    @DefaultValue("500ms") Duration maxWait) {
+
+  public NatsBatchProperties {
+    if (maxMessages < 1) {
+      throw new IllegalArgumentException("nats.batch.max-messages must be at least 1");
+    }
+  }
+}
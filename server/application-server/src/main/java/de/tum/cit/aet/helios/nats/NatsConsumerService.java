@@ -3,7 +3,6 @@ package de.tum.cit.aet.helios.nats;
 import io.nats.client.Connection;
 import io.nats.client.ConsumerContext;
 import io.nats.client.JetStreamApiException;
-import io.nats.client.Message;
 import io.nats.client.MessageConsumer;
 import io.nats.client.Nats;
 import io.nats.client.Options;
@@ -70,12 +69,20 @@ public class NatsConsumerService {
 
   private final NatsMessageHandlerRegistry handlerRegistry;
 
+  private final NatsMessageDispatcher messageDispatcher;
+
+  private final NatsBatchConsumer batchConsumer;
+
   public NatsConsumerService(
       Environment environment,
       NatsMessageHandlerRegistry handlerRegistry,
+      NatsMessageDispatcher messageDispatcher,
+      NatsBatchConsumer batchConsumer,
       @Lazy NatsErrorListener natsErrorListener) {
     this.environment = environment;
     this.handlerRegistry = handlerRegistry;
+    this.messageDispatcher = messageDispatcher;
+    this.batchConsumer = batchConsumer;
     this.natsErrorListener = natsErrorListener;
   }
 
@@ -136,6 +143,7 @@ public class NatsConsumerService {
         log.info("Closed previous MessageConsumer.");
         messageConsumer = null;
       }
+      batchConsumer.stop();
 
       // Get the stream context for the "github" stream
       StreamContext streamContext = connection.getStreamContext("github");
@@ -192,7 +200,11 @@ public class NatsConsumerService {
           consumerContext.getConsumerInfo().getName(),
           consumerConfig);
 
-      messageConsumer = consumerContext.consume(this::handleMessage);
+      if (batchConsumer.isEnabled()) {
+        batchConsumer.start(consumerContext);
+      } else {
+        messageConsumer = consumerContext.consume(messageDispatcher::dispatch);
+      }
       log.info("Successfully started consuming messages.");
     } catch (JetStreamApiException e) {
       log.error("JetStream API exception: {}", e.getMessage(), e);
@@ -203,35 +215,6 @@ public class NatsConsumerService {
     }
   }
 
-  private void handleMessage(Message msg) {
-    try {
-      final String subject = msg.getSubject();
-
-      log.info("Received message with subject: {}", subject);
-
-      final NatsMessageHandler<?> handler = handlerRegistry.findHandlerForSubject(subject);
-
-      if (handler == null) {
-        log.warn("No handler for subject {}", subject);
-        return;
-      }
-
-      if (handler.shouldAcknowledgeEarly()) {
-        msg.ack();
-        handler.onMessage(msg);
-      } else {
-        // Ack after the handler otherwise
-        handler.onMessage(msg);
-      }
-    } catch (IllegalArgumentException e) {
-      log.error("Invalid event type in subject '{}': {}", msg.getSubject(), e.getMessage());
-    } catch (Exception e) {
-      log.error("Error processing message: {}", e.getMessage(), e);
-    } finally {
-      msg.ack();
-    }
-  }
-
   public synchronized void reinitializeConsumer() {
     log.info("NATS Consumer reinitialization process started.");
     if (natsConnection != null) {
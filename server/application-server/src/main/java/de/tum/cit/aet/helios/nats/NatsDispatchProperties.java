@@ -0,0 +1,24 @@
+package de.tum.cit.aet.helios.nats;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the dispatch stage between the JetStream consumer and the message handlers.
+ *
+ * <p>When {@code enabled}, incoming messages are spread over {@code workers} ordered lanes. Each
+ * lane runs on its own virtual thread, and all messages sharing a partition key (the repository id,
+ * see {@link NatsPartitionKeyResolver}) land on the same lane, so their relative order is
+ * preserved. When disabled, messages are handled inline on the consumer thread as before.
+ */
+@ConfigurationProperties(prefix = "nats.dispatch")
+public record NatsDispatchProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("8") int workers) {
+
+  public NatsDispatchProperties {
+    if (workers < 1) {
+      throw new IllegalArgumentException("nats.dispatch.workers must be at least 1");
+    }
+  }
+}
@@ -0,0 +1,238 @@
+package de.tum.cit.aet.helios.nats;
+
+import io.nats.client.Message;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands NATS messages from the JetStream consumer callback to their {@link NatsMessageHandler}.
+ *
+ * <p>Messages are striped over a fixed number of single-threaded lanes running on virtual threads.
+ * The lane is chosen by the message's partition key, so events of the same repository are applied
+ * in delivery order while events of different repositories proceed in parallel. At most
+ * {@code nats.consumerMaxAckPending} messages are in flight at once; the consumer callback blocks
+ * once that limit is reached, which pushes back on the JetStream pull. Messages are acknowledged
+ * only after their handler returned (unless the handler opts into early acknowledgement).
+ */
+@Log4j2
+@Component
+public class NatsMessageDispatcher {
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  private final NatsDispatchProperties properties;
+  private final NatsMessageHandlerRegistry handlerRegistry;
+  private final NatsPartitionKeyResolver partitionKeyResolver;
+  private final int maxInFlight;
+  private final Semaphore inFlight;
+  private final ExecutorService[] lanes;
+  private final Map<String, SubjectStats> statsByEventType = new ConcurrentHashMap<>();
+
+  public NatsMessageDispatcher(
+      NatsDispatchProperties properties,
+      NatsMessageHandlerRegistry handlerRegistry,
+      NatsPartitionKeyResolver partitionKeyResolver,
+      @Value("${nats.consumerMaxAckPending:500}") int consumerMaxAckPending) {
+    this.properties = properties;
+    this.handlerRegistry = handlerRegistry;
+    this.partitionKeyResolver = partitionKeyResolver;
+    this.maxInFlight = Math.max(1, consumerMaxAckPending);
+    this.inFlight = new Semaphore(maxInFlight);
+    this.lanes = new ExecutorService[properties.enabled() ? properties.workers() : 0];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] =
+          Executors.newSingleThreadExecutor(
+              Thread.ofVirtual().name("nats-dispatch-" + i + "-", 0).factory());
+    }
+  }
+
+  /**
+   * Schedules the message on the lane of its partition key, or handles it inline if the dispatch
+   * stage is disabled. Blocks while the in-flight limit is exhausted.
+   *
+   * @param msg the message received from JetStream
+   */
+  public void dispatch(Message msg) {
+    if (lanes.length == 0) {
+      process(msg);
+      return;
+    }
+
+    final String subject = msg.getSubject();
+    final SubjectStats stats = statsFor(subject);
+    final String partitionKey = partitionKeyResolver.resolve(subject, msg.getData());
+
+    try {
+      inFlight.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      // Not acknowledged: JetStream redelivers the message after the ack wait expires
+      log.warn("Interrupted while waiting for a free dispatch slot for subject {}", subject);
+      return;
+    }
+
+    announce(msg);
+    stats.queued.incrementAndGet();
+    try {
+      lanes[Math.floorMod(partitionKey.hashCode(), lanes.length)].execute(
+          () -> {
+            stats.queued.decrementAndGet();
+            final long start = System.nanoTime();
+            try {
+              process(msg);
+            } finally {
+              stats.record(System.nanoTime() - start);
+              inFlight.release();
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      stats.queued.decrementAndGet();
+      inFlight.release();
+      log.warn("Dispatcher is shutting down, leaving message with subject {} unacked", subject);
+    }
+  }
+
+  /**
+   * Runs the handler registered for the message's subject and acknowledges the message.
+   *
+   * @param msg the message to handle
+   */
+  void process(Message msg) {
+    try {
+      final String subject = msg.getSubject();
+
+      log.info("Received message with subject: {}", subject);
+
+      final NatsMessageHandler<?> handler = handlerRegistry.findHandlerForSubject(subject);
+
+      if (handler == null) {
+        log.warn("No handler for subject {}", subject);
+        return;
+      }
+
+      if (handler.shouldAcknowledgeEarly()) {
+        msg.ack();
+        handler.onMessage(msg);
+      } else {
+        // Ack after the handler otherwise
+        handler.onMessage(msg);
+      }
+    } catch (IllegalArgumentException e) {
+      log.error("Invalid event type in subject '{}': {}", msg.getSubject(), e.getMessage());
+    } catch (Exception e) {
+      log.error("Error processing message: {}", e.getMessage(), e);
+    } finally {
+      msg.ack();
+    }
+  }
+
+  /**
+   * Tells the message's handler that the message is queued, see {@link
+   * NatsMessageHandler#onQueued(Message)}.
+   *
+   * @param msg the message about to be queued
+   */
+  void announce(Message msg) {
+    try {
+      final NatsMessageHandler<?> handler =
+          handlerRegistry.findHandlerForSubject(msg.getSubject());
+      if (handler != null) {
+        handler.onQueued(msg);
+      }
+    } catch (Exception e) {
+      log.debug("Could not announce message with subject {}: {}", msg.getSubject(), e.getMessage());
+    }
+  }
+
+  private SubjectStats statsFor(String subject) {
+    return statsByEventType.computeIfAbsent(
+        NatsPartitionKeyResolver.eventType(subject), key -> new SubjectStats());
+  }
+
+  /**
+   * Returns a point-in-time view of the dispatch statistics, keyed by GitHub event type.
+   *
+   * @return queue depth and handler latency per event type
+   */
+  public Map<String, SubjectStatsSnapshot> getStats() {
+    Map<String, SubjectStatsSnapshot> snapshot = new TreeMap<>();
+    statsByEventType.forEach((eventType, stats) -> snapshot.put(eventType, stats.snapshot()));
+    return snapshot;
+  }
+
+  /** Returns the number of messages currently queued or being handled. */
+  public int getInFlight() {
+    return maxInFlight - inFlight.availablePermits();
+  }
+
+  @Scheduled(fixedDelayString = "${nats.dispatch.stats-log-interval:5m}")
+  public void logStats() {
+    if (statsByEventType.isEmpty()) {
+      return;
+    }
+    getStats()
+        .forEach(
+            (eventType, stats) ->
+                log.info(
+                    "NATS dispatch [{}]: queued={}, handled={}, avgMs={}, maxMs={}",
+                    eventType,
+                    stats.queued(),
+                    stats.handled(),
+                    String.format("%.1f", stats.averageMillis()),
+                    String.format("%.1f", stats.maxMillis())));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    for (ExecutorService lane : lanes) {
+      lane.shutdown();
+    }
+    for (ExecutorService lane : lanes) {
+      try {
+        if (!lane.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          lane.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        lane.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Immutable view of the statistics of one event type. */
+  public record SubjectStatsSnapshot(int queued, long handled, double averageMillis,
+      double maxMillis) {}
+
+  private static final class SubjectStats {
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+      handled.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+    }
+
+    SubjectStatsSnapshot snapshot() {
+      long count = handled.sum();
+      double average = count == 0 ? 0 : totalNanos.sum() / (double) count / 1_000_000d;
+      return new SubjectStatsSnapshot(queued.get(), count, average, maxNanos.get() / 1_000_000d);
+    }
+  }
+}
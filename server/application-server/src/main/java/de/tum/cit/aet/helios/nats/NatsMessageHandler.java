@@ -29,6 +29,15 @@ public abstract class NatsMessageHandler<T> implements MessageHandler {
     return false;
   }
 
+  /**
+   * Called when a message for this handler is queued for processing, before any earlier message
+   * of its lane has been handled. Runs on the consumer thread and must be cheap; handlers use it
+   * to learn about updates that will supersede the ones they are about to apply.
+   *
+   * @param msg the queued message
+   */
+  public void onQueued(Message msg) {}
+
   @Override
   public void onMessage(Message msg) {
     try {
@@ -0,0 +1,54 @@
+package de.tum.cit.aet.helios.nats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives the ordering key of a GitHub event delivered through NATS.
+ *
+ * <p>The key is the id of the repository the event belongs to. Events with the same key are
+ * applied in delivery order; events of different repositories may run concurrently. Almost every
+ * handler also writes the event's repository row (and the runs, pull requests, ... within it) with
+ * a find-then-save, so keying by anything finer than the repository would let two lanes race on
+ * the same rows.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class NatsPartitionKeyResolver {
+
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Resolves the partition key for a message.
+   *
+   * @param subject the NATS subject, e.g. {@code github.ls1intum.Helios.workflow_run}
+   * @param data the raw event payload
+   * @return the partition key; falls back to the subject's repository part if the payload cannot
+   *     be read or carries no repository
+   */
+  public String resolve(String subject, byte[] data) {
+    try {
+      JsonNode root = objectMapper.readTree(data);
+      String repository = root.path("repository").path("id").asText("");
+      return repository.isEmpty() ? repositoryPart(subject) : repository;
+    } catch (Exception e) {
+      log.debug("Could not derive partition key for subject {}: {}", subject, e.getMessage());
+      return repositoryPart(subject);
+    }
+  }
+
+  /** Returns the last token of the subject, which is the GitHub event type. */
+  static String eventType(String subject) {
+    int lastDot = subject.lastIndexOf('.');
+    return lastDot < 0 ? subject : subject.substring(lastDot + 1);
+  }
+
+  private static String repositoryPart(String subject) {
+    int lastDot = subject.lastIndexOf('.');
+    return lastDot < 0 ? subject : subject.substring(0, lastDot);
+  }
+}
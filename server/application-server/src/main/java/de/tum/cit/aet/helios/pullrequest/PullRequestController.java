@@ -2,6 +2,7 @@ package de.tum.cit.aet.helios.pullrequest;
 
 import de.tum.cit.aet.helios.permissions.RepositoryAuthorizationService;
 import de.tum.cit.aet.helios.pullrequest.pagination.PaginatedPullRequestsResponse;
+import de.tum.cit.aet.helios.pullrequest.pagination.PullRequestCursorPage;
 import de.tum.cit.aet.helios.pullrequest.pagination.PullRequestPageRequest;
 import java.io.IOException;
 import java.util.List;
@@ -33,6 +34,12 @@ public class PullRequestController {
     return ResponseEntity.ok(response);
   }
 
+  @GetMapping("/cursor")
+  public ResponseEntity<PullRequestCursorPage> getPullRequestsAfterCursor(
+      @ParameterObject PullRequestPageRequest pageRequest) {
+    return ResponseEntity.ok(pullRequestService.getPullRequestsAfterCursor(pageRequest));
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<PullRequestInfoDto> getPullRequestById(@PathVariable Long id) {
     return pullRequestService
@@ -5,11 +5,15 @@ import de.tum.cit.aet.helios.filters.RepositoryContext;
 import de.tum.cit.aet.helios.issue.Issue;
 import de.tum.cit.aet.helios.label.Label;
 import de.tum.cit.aet.helios.pullrequest.pagination.PaginatedPullRequestsResponse;
+import de.tum.cit.aet.helios.pullrequest.pagination.PullRequestCursorPage;
 import de.tum.cit.aet.helios.pullrequest.pagination.PullRequestPageRequest;
 import de.tum.cit.aet.helios.pullrequest.pagination.PullRequestReviewFilterType;
 import de.tum.cit.aet.helios.user.User;
 import de.tum.cit.aet.helios.userpreference.UserPreference;
 import de.tum.cit.aet.helios.userpreference.UserPreferenceRepository;
+import de.tum.cit.aet.helios.util.CappedCounter;
+import de.tum.cit.aet.helios.util.CappedCounter.CappedCount;
+import de.tum.cit.aet.helios.util.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
@@ -40,6 +44,9 @@ public class PullRequestService {
   private final PullRequestRepository pullRequestRepository;
   private final UserPreferenceRepository userPreferenceRepository;
   private final AuthService authService;
+  private final CappedCounter cappedCounter;
+
+  private static final String[] PULL_REQUEST_KEYSET = {"updatedAt"};
 
   public List<PullRequestBaseInfoDto> getAllPullRequests() {
     final Optional<UserPreference> userPreference =
@@ -98,15 +105,7 @@ public class PullRequestService {
     }
 
     /* ---------- pinned ---------- */
-    List<PullRequestBaseInfoDto> pinnedDtos =
-        prefOpt.map(UserPreference::getFavouritePullRequests).orElseGet(HashSet::new).stream()
-            .filter(
-                pr -> {
-                  return pr.getRepository().getRepositoryId().equals(repositoryId);
-                })
-            .sorted(Comparator.comparing(PullRequest::getUpdatedAt).reversed())
-            .map(pr -> PullRequestBaseInfoDto.fromPullRequestAndUserPreference(pr, prefOpt))
-            .toList();
+    List<PullRequestBaseInfoDto> pinnedDtos = getPinnedPullRequests(prefOpt, repositoryId);
 
     /* ---------- non-pinned ---------- */
     Specification<PullRequest> nonPinnedSpec =
@@ -143,6 +142,80 @@ public class PullRequestService {
         totalPages);
   }
 
+  /**
+   * Keyset variant of {@link #getPaginatedPullRequests(PullRequestPageRequest)}: always ordered
+   * by most recently updated first, then id, continues after {@code pageRequest.getCursor()} and
+   * only counts the non-pinned pull requests, capped, if {@code pageRequest.isIncludeTotal()}.
+   * Pinned pull requests are only part of the first page.
+   */
+  public PullRequestCursorPage getPullRequestsAfterCursor(PullRequestPageRequest pageRequest) {
+    final String currentUserId = authService.isLoggedIn() ? authService.getGithubId() : null;
+    int size = Math.max(pageRequest.getSize(), 1);
+
+    Long repositoryId = RepositoryContext.getRepositoryId();
+    if (repositoryId == null) {
+      return new PullRequestCursorPage(List.of(), List.of(), size, null, null, false);
+    }
+
+    Optional<UserPreference> prefOpt =
+        currentUserId != null
+            ? userPreferenceRepository.findByUser(authService.getUserFromGithubId())
+            : Optional.empty();
+
+    List<PullRequestBaseInfoDto> pinnedDtos =
+        pageRequest.getCursor() == null
+            ? getPinnedPullRequests(prefOpt, repositoryId)
+            : List.of();
+
+    Specification<PullRequest> filter =
+        buildNonPinnedPullRequestSpecification(pageRequest, currentUserId, repositoryId);
+    Specification<PullRequest> spec =
+        pageRequest.getCursor() == null
+            ? filter
+            : filter.and(
+                KeysetCursor.decode(pageRequest.getCursor(), PULL_REQUEST_KEYSET.length)
+                    .seekAfter(PULL_REQUEST_KEYSET));
+
+    // One extra row tells whether there is a next page
+    List<PullRequest> rows =
+        pullRequestRepository.findBy(
+            spec,
+            query -> query.sortBy(KeysetCursor.sort(PULL_REQUEST_KEYSET)).limit(size + 1).all());
+    boolean hasNext = rows.size() > size;
+    List<PullRequest> page = hasNext ? rows.subList(0, size) : rows;
+
+    String nextCursor = null;
+    if (hasNext) {
+      PullRequest last = page.getLast();
+      nextCursor = KeysetCursor.of(last.getId(), last.getUpdatedAt()).encode();
+    }
+
+    CappedCount total =
+        pageRequest.isIncludeTotal() ? cappedCounter.count(PullRequest.class, filter) : null;
+
+    return new PullRequestCursorPage(
+        pinnedDtos,
+        page.stream()
+            .map(pr -> PullRequestBaseInfoDto.fromPullRequestAndUserPreference(pr, prefOpt))
+            .toList(),
+        size,
+        nextCursor,
+        total != null ? total.count() : null,
+        total != null && total.exact());
+  }
+
+  private List<PullRequestBaseInfoDto> getPinnedPullRequests(
+      Optional<UserPreference> prefOpt, Long repositoryId) {
+    return prefOpt.map(UserPreference::getFavouritePullRequests).orElseGet(HashSet::new).stream()
+        .filter(
+            pr -> {
+              return pr.getRepository().getRepositoryId().equals(repositoryId);
+            })
+        .sorted(Comparator.comparing(PullRequest::getUpdatedAt).reversed())
+        .map(pr -> PullRequestBaseInfoDto.fromPullRequestAndUserPreference(pr, prefOpt))
+        .toList();
+  }
+
   private Specification<PullRequest> buildNonPinnedPullRequestSpecification(
       PullRequestPageRequest pageRequest, String currentUserId, Long repositoryId) {
     return (root, query, cb) -> {
@@ -2,8 +2,7 @@ package de.tum.cit.aet.helios.pullrequest.github;
 
 import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
 import de.tum.cit.aet.helios.label.Label;
-import de.tum.cit.aet.helios.label.LabelRepository;
-import de.tum.cit.aet.helios.label.github.GitHubLabelConverter;
+import de.tum.cit.aet.helios.label.github.GitHubLabelSyncService;
 import de.tum.cit.aet.helios.pullrequest.PullRequestRepository;
 import de.tum.cit.aet.helios.user.User;
 import de.tum.cit.aet.helios.user.github.GitHubUserSyncService;
@@ -28,8 +27,7 @@ public class GitHubPullRequestSyncService {
   private final PullRequestRepository pullRequestRepository;
   private final GitRepoRepository gitRepoRepository;
   private final GitHubPullRequestConverter pullRequestConverter;
-  private final LabelRepository labelRepository;
-  private final GitHubLabelConverter gitHubLabelConverter;
+  private final GitHubLabelSyncService gitHubLabelSyncService;
   private final GitHubUserSyncService gitHubUserSyncService;
 
 
@@ -84,16 +82,8 @@ public class GitHubPullRequestSyncService {
     // Link new labels and remove labels that are not present anymore
     var ghLabels = ghPullRequest.getLabels();
     var resultLabels = new HashSet<Label>();
-    ghLabels.forEach(ghLabel -> {
-      var resultLabel = labelRepository
-          .findById(ghLabel.getId())
-          .orElseGet(() -> {
-            var label = gitHubLabelConverter.convert(ghLabel);
-            label.setRepository(result.getRepository());
-            return labelRepository.save(label);
-          });
-      resultLabels.add(resultLabel);
-    });
+    ghLabels.forEach(ghLabel -> resultLabels.add(
+        gitHubLabelSyncService.processLabel(ghLabel, result.getRepository())));
     result.getLabels().clear();
     result.getLabels().addAll(resultLabels);
 
@@ -0,0 +1,17 @@
+package de.tum.cit.aet.helios.pullrequest.pagination;
+
+import de.tum.cit.aet.helios.pullrequest.PullRequestBaseInfoDto;
+import java.util.List;
+
+public record PullRequestCursorPage(
+    // only on the first page, not paged
+    List<PullRequestBaseInfoDto> pinned,
+    // paged, non-pinned pull requests
+    List<PullRequestBaseInfoDto> page,
+    int pageSize,
+    // null on the last page
+    String nextCursor,
+    // only set when requested; capped, see totalIsExact
+    Long approximateTotalNonPinned,
+    boolean totalIsExact) {
+}
@@ -27,4 +27,11 @@ public class PullRequestPageRequest {
   private Boolean noLabel;
   private PullRequestReviewFilterType reviewState;
   private String requestedReviewer;
+
+  // Keyset pagination only: position after the previous page, null for the first page
+  private String cursor;
+
+  // Keyset pagination only: whether to compute the (capped) total
+  @Schema(defaultValue = "false")
+  private boolean includeTotal;
 }
@@ -47,6 +47,8 @@ public class GitHubReleaseMessageHandler extends GitHubMessageHandler<GHEventPay
               && eventPayload.getSender() != null
               ? gitHubUserSyncService.processUser(eventPayload.getSender())
               : null;
+      // The latest release tag is derived from the API, so force a refresh
+      repositorySyncService.invalidate(eventPayload.getRepository().getId());
       repositorySyncService.processRepository(eventPayload.getRepository());
       releaseSyncService.processRelease(
           eventPayload.getRelease(), eventPayload.getRepository(), creator);
@@ -1,9 +1,12 @@
 package de.tum.cit.aet.helios.releaseinfo.releasecandidate;
 
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -20,6 +23,18 @@ public interface ReleaseCandidateRepository extends JpaRepository<ReleaseCandida
   List<ReleaseCandidate> findByRepositoryRepositoryIdAndCommitSha(
       Long repositoryId, String commitSha);
 
+  /**
+   * Batch variant of {@link #findByRepositoryRepositoryIdAndCommitSha} that only reads the names.
+   * Each row holds the commit sha followed by the release candidate name.
+   */
+  @Query(
+      "SELECT rc.commit.sha, rc.name FROM ReleaseCandidate rc "
+          + "WHERE rc.repository.repositoryId = :repositoryId AND rc.commit.sha IN :commitShas "
+          + "ORDER BY rc.id")
+  List<Object[]> findCommitShaAndNameByRepositoryIdAndCommitShaIn(
+      @Param("repositoryId") Long repositoryId,
+      @Param("commitShas") Collection<String> commitShas);
+
   boolean existsByRepositoryRepositoryIdAndName(Long repositoryId, String name);
 
   Optional<ReleaseCandidate> deleteByRepositoryRepositoryIdAndName(Long repositoryId, String name);
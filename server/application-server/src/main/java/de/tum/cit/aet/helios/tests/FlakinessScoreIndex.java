@@ -0,0 +1,64 @@
+package de.tum.cit.aet.helios.tests;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-repository {@link FlakinessSnapshot}s for the bulk flakiness lookup of CI pipelines.
+ *
+ * <p>A snapshot is loaded with one query on first use and dropped once the flakiness rows of its
+ * repository are written, after that transaction committed; the next lookup loads a fresh one.
+ * Concurrent lookups of a repository share one load.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+class FlakinessScoreIndex {
+  private static final int MAX_REPOSITORIES = 256;
+  private static final Duration IDLE_TIMEOUT = Duration.ofHours(1);
+
+  private final TestCaseFlakinessRepository flakinessRepository;
+
+  private final Cache<Long, FlakinessSnapshot> snapshots =
+      Caffeine.newBuilder().maximumSize(MAX_REPOSITORIES).expireAfterAccess(IDLE_TIMEOUT).build();
+
+  FlakinessSnapshot snapshot(Long repositoryId) {
+    return snapshots.get(repositoryId, this::load);
+  }
+
+  /**
+   * Drops the snapshot of the repository once the current transaction committed, or right away
+   * outside of one. Dropping it before the commit would let a lookup reload the old rows.
+   */
+  void invalidateAfterCommit(Long repositoryId) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              snapshots.invalidate(repositoryId);
+            }
+          });
+    } else {
+      snapshots.invalidate(repositoryId);
+    }
+  }
+
+  private FlakinessSnapshot load(Long repositoryId) {
+    long start = System.nanoTime();
+    FlakinessSnapshot snapshot =
+        FlakinessSnapshot.of(flakinessRepository.findScoresByRepositoryId(repositoryId));
+    log.debug(
+        "Loaded flakiness snapshot of repository {}: tests={}, took={} ms",
+        repositoryId,
+        snapshot.size(),
+        (System.nanoTime() - start) / 1_000_000);
+    return snapshot;
+  }
+}
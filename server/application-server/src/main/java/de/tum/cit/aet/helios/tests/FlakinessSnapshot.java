@@ -0,0 +1,117 @@
+package de.tum.cit.aet.helios.tests;
+
+import java.util.Collection;
+
+/**
+ * Immutable, compact copy of the {@code test_case_flakiness} rows of one repository.
+ *
+ * <p>Rows are stored in an open-addressing hash table keyed by a 64-bit hash of (test name, class
+ * name, suite name), with the scores in parallel primitive arrays, so a snapshot keeps no strings
+ * and a lookup is a few array reads. Two different tests share a key with a probability of about
+ * n^2 / 2^65, i.e. practically never for the few hundred thousand tests of a repository.
+ */
+final class FlakinessSnapshot {
+  // 0 marks an empty slot; a test whose hash is 0 is stored under 1 instead
+  private static final long EMPTY_SLOT = 0L;
+
+  private final long[] keys;
+  private final double[] flakinessScores;
+  private final double[] defaultBranchFailureRates;
+  private final double[] combinedFailureRates;
+  private final int size;
+
+  private FlakinessSnapshot(
+      long[] keys,
+      double[] flakinessScores,
+      double[] defaultBranchFailureRates,
+      double[] combinedFailureRates,
+      int size) {
+    this.keys = keys;
+    this.flakinessScores = flakinessScores;
+    this.defaultBranchFailureRates = defaultBranchFailureRates;
+    this.combinedFailureRates = combinedFailureRates;
+    this.size = size;
+  }
+
+  /**
+   * Builds a snapshot of the given rows. If a test appears more than once, the highest score wins,
+   * as with the per-test query this replaces.
+   */
+  static FlakinessSnapshot of(Collection<TestFlakinessScoreDto> rows) {
+    // At most half full, so that probe sequences stay short
+    int capacity = Integer.highestOneBit(Math.max(8, rows.size() * 2 - 1)) << 1;
+    long[] keys = new long[capacity];
+    double[] flakinessScores = new double[capacity];
+    double[] defaultBranchFailureRates = new double[capacity];
+    double[] combinedFailureRates = new double[capacity];
+    int size = 0;
+    for (TestFlakinessScoreDto row : rows) {
+      long key = key(row.testName(), row.className(), row.testSuiteName());
+      int slot = slotOf(keys, key);
+      if (keys[slot] == EMPTY_SLOT) {
+        keys[slot] = key;
+        size++;
+      } else if (flakinessScores[slot] >= row.flakinessScore()) {
+        continue;
+      }
+      flakinessScores[slot] = row.flakinessScore();
+      defaultBranchFailureRates[slot] = row.defaultBranchFailureRate();
+      combinedFailureRates[slot] = row.combinedFailureRate();
+    }
+    return new FlakinessSnapshot(
+        keys, flakinessScores, defaultBranchFailureRates, combinedFailureRates, size);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** The scores of the test, or all zeros if it has none, like a test that never failed. */
+  TestFlakinessScoreDto lookup(String testName, String className, String testSuiteName) {
+    int slot = slotOf(keys, key(testName, className, testSuiteName));
+    if (keys[slot] == EMPTY_SLOT) {
+      return new TestFlakinessScoreDto(testName, className, testSuiteName, 0.0, 0.0, 0.0);
+    }
+    return new TestFlakinessScoreDto(
+        testName,
+        className,
+        testSuiteName,
+        flakinessScores[slot],
+        defaultBranchFailureRates[slot],
+        combinedFailureRates[slot]);
+  }
+
+  /** The slot holding the key, or the empty slot where it would be inserted. */
+  private static int slotOf(long[] keys, long key) {
+    int mask = keys.length - 1;
+    int slot = (int) key & mask;
+    while (keys[slot] != EMPTY_SLOT && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /** FNV-1a over the three names, finished with the MurmurHash3 mixer to spread the low bits. */
+  static long key(String testName, String className, String testSuiteName) {
+    long hash = 0xcbf29ce484222325L;
+    hash = fnv1a(hash, testName);
+    hash = fnv1a(hash, className);
+    hash = fnv1a(hash, testSuiteName);
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash == EMPTY_SLOT ? 1L : hash;
+  }
+
+  private static long fnv1a(long hash, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    // Separator, so that ("ab", "c") and ("a", "bc") differ
+    hash ^= 0xffff;
+    return hash * 0x100000001b3L;
+  }
+}
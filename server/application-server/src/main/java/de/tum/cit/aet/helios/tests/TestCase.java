@@ -10,7 +10,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.Transient;
+import jakarta.persistence.SequenceGenerator;
+import java.time.OffsetDateTime;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -23,7 +24,11 @@ import lombok.ToString;
 @ToString
 public class TestCase {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "test_case_id_seq")
+  @SequenceGenerator(
+      name = "test_case_id_seq",
+      sequenceName = "test_case_id_seq",
+      allocationSize = 50)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -53,41 +58,20 @@ public class TestCase {
   @Column(columnDefinition = "TEXT")
   private String message;
 
-  @Column(name = "stack_trace", columnDefinition = "TEXT")
-  private String stackTrace;
+  /** Hash of the stack trace in {@link TestOutput}, if any. */
+  @Column(name = "stack_trace_hash", length = 64)
+  private String stackTraceHash;
 
   @Column(name = "error_type")
   private String errorType;
 
-  @Column(name = "system_out")
-  private String systemOut;
+  /** Hash of the system out in {@link TestOutput}, kept for failed and errored test cases only. */
+  @Column(name = "system_out_hash", length = 64)
+  private String systemOutHash;
 
-  /**
-   * Transient field indicating whether this test is flaky. Determined based on test case
-   * statistics.
-   */
-  @Transient private double flakinessScore;
-
-  /**
-   * Transient field for the failure rate of this test on its branch. Retrieved from test case
-   * statistics.
-   */
-  @Transient private double failureRate;
-
-  /**
-   * Transient field for the failure rate of this test on all branches combined. Retrieved from test
-   * case statistics.
-   */
-  @Transient private double combinedFailureRate;
-
-  /** Transient field indicating whether this test also fails in the default branch. */
-  @Transient private boolean failsInDefaultBranch;
-
-  /**
-   * Transient field indicating the previous status of this test case. Used for change detection
-   * purposes.
-   */
-  @Transient TestStatus previousStatus;
+  /** Same as the suite's, the partition key, see {@link TestResultPartitions}. */
+  @Column(name = "run_created_at", nullable = false, updatable = false)
+  private OffsetDateTime runCreatedAt;
 
   public static enum TestStatus {
     PASSED,
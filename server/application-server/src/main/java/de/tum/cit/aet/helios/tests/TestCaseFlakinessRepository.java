@@ -1,7 +1,6 @@
 package de.tum.cit.aet.helios.tests;
 
 import java.time.OffsetDateTime;
-import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -34,16 +33,79 @@ public interface TestCaseFlakinessRepository
       Long repositoryId, double minScore, double maxScore);
 
   /**
-   * Batch-fetches all flakiness records that belong to any of the given suite names in a
-   * repository. Used to pre-index flakiness data before per-test annotation loops.
+   * Recomputes and upserts the flakiness rows of the given test cases in one statement. The arrays
+   * are parallel: element {@code i} of each identifies one test case, and each test case may appear
+   * only once. Failure rates are read from the default-branch and combined statistics; the score
+   * formula matches {@link TestCaseStatisticsService#calculateFlakinessScore}. Uses PostgreSQL
+   * {@code ON CONFLICT DO UPDATE} so concurrent calls for the same test are safe — the last writer
+   * simply overwrites with the latest computed score rather than failing.
+   *
+   * @return the number of inserted or updated rows
    */
-  List<TestCaseFlakiness> findByTestSuiteNameInAndRepositoryRepositoryId(
-      Collection<String> suiteNames, Long repositoryId);
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO test_case_flakiness
+              (repository_id, test_name, class_name, test_suite_name,
+               flakiness_score, default_branch_failure_rate, combined_failure_rate, last_updated)
+          SELECT :repositoryId, r.test_name, r.class_name, r.test_suite_name,
+                 (CASE WHEN r.default_rate > :minRate AND r.default_rate < :maxRate
+                       THEN (:maxRate - r.default_rate) / :maxRate ELSE 0.0 END * :defaultWeight
+                  + CASE WHEN r.combined_rate > :minRate AND r.combined_rate < :maxRate
+                       THEN (:maxRate - r.combined_rate) / :maxRate ELSE 0.0 END * :combinedWeight)
+                  * 100,
+                 r.default_rate, r.combined_rate, :lastUpdated
+          FROM (
+              SELECT k.test_name, k.class_name, k.test_suite_name,
+                     COALESCE(CAST(d.failed_runs AS double precision) / NULLIF(d.total_runs, 0),
+                              0.0) AS default_rate,
+                     COALESCE(CAST(c.failed_runs AS double precision) / NULLIF(c.total_runs, 0),
+                              0.0) AS combined_rate
+              FROM unnest(
+                  CAST(:testNames AS varchar[]),
+                  CAST(:classNames AS varchar[]),
+                  CAST(:suiteNames AS varchar[]))
+                  AS k(test_name, class_name, test_suite_name)
+              LEFT JOIN test_case_statistics d
+                  ON d.repository_id = :repositoryId
+                 AND d.branch_name = :defaultBranch
+                 AND d.test_name = k.test_name
+                 AND d.class_name = k.class_name
+                 AND d.test_suite_name = k.test_suite_name
+              LEFT JOIN test_case_statistics c
+                  ON c.repository_id = :repositoryId
+                 AND c.branch_name = 'combined'
+                 AND c.test_name = k.test_name
+                 AND c.class_name = k.class_name
+                 AND c.test_suite_name = k.test_suite_name
+          ) r
+          ON CONFLICT ON CONSTRAINT uk_test_case_flakiness
+          DO UPDATE SET
+              flakiness_score             = EXCLUDED.flakiness_score,
+              default_branch_failure_rate = EXCLUDED.default_branch_failure_rate,
+              combined_failure_rate       = EXCLUDED.combined_failure_rate,
+              last_updated                = EXCLUDED.last_updated
+          """,
+      nativeQuery = true)
+  int upsertFlakinessForTests(
+      @Param("repositoryId") Long repositoryId,
+      @Param("defaultBranch") String defaultBranch,
+      @Param("testNames") String[] testNames,
+      @Param("classNames") String[] classNames,
+      @Param("suiteNames") String[] suiteNames,
+      @Param("minRate") double minRate,
+      @Param("maxRate") double maxRate,
+      @Param("defaultWeight") double defaultWeight,
+      @Param("combinedWeight") double combinedWeight,
+      @Param("lastUpdated") OffsetDateTime lastUpdated);
 
   /**
-   * Inserts or updates a flakiness row for a single test case. Uses PostgreSQL
-   * {@code ON CONFLICT DO UPDATE} so concurrent calls for the same test are safe — the second
-   * writer simply overwrites with the latest computed score rather than failing.
+   * Recomputes and upserts the flakiness rows of every test of a repository that has
+   * default-branch or combined statistics, with the same formula as
+   * {@link #upsertFlakinessForTests}.
+   *
+   * @return the number of inserted or updated rows
    */
   @Modifying
   @Query(
@@ -52,8 +114,26 @@ public interface TestCaseFlakinessRepository
           INSERT INTO test_case_flakiness
               (repository_id, test_name, class_name, test_suite_name,
                flakiness_score, default_branch_failure_rate, combined_failure_rate, last_updated)
-          VALUES (:repositoryId, :testName, :className, :suiteName,
-                  :flakinessScore, :defaultRate, :combinedRate, :lastUpdated)
+          SELECT :repositoryId, r.test_name, r.class_name, r.test_suite_name,
+                 (CASE WHEN r.default_rate > :minRate AND r.default_rate < :maxRate
+                       THEN (:maxRate - r.default_rate) / :maxRate ELSE 0.0 END * :defaultWeight
+                  + CASE WHEN r.combined_rate > :minRate AND r.combined_rate < :maxRate
+                       THEN (:maxRate - r.combined_rate) / :maxRate ELSE 0.0 END * :combinedWeight)
+                  * 100,
+                 r.default_rate, r.combined_rate, :lastUpdated
+          FROM (
+              SELECT s.test_name, s.class_name, s.test_suite_name,
+                     COALESCE(MAX(CASE WHEN s.branch_name = :defaultBranch
+                         THEN CAST(s.failed_runs AS double precision)
+                              / NULLIF(s.total_runs, 0) END), 0.0) AS default_rate,
+                     COALESCE(MAX(CASE WHEN s.branch_name = 'combined'
+                         THEN CAST(s.failed_runs AS double precision)
+                              / NULLIF(s.total_runs, 0) END), 0.0) AS combined_rate
+              FROM test_case_statistics s
+              WHERE s.repository_id = :repositoryId
+                AND s.branch_name IN (:defaultBranch, 'combined')
+              GROUP BY s.test_name, s.class_name, s.test_suite_name
+          ) r
           ON CONFLICT ON CONSTRAINT uk_test_case_flakiness
           DO UPDATE SET
               flakiness_score             = EXCLUDED.flakiness_score,
@@ -62,31 +142,24 @@ public interface TestCaseFlakinessRepository
               last_updated                = EXCLUDED.last_updated
           """,
       nativeQuery = true)
-  void upsertFlakiness(
+  int recomputeFlakinessForRepository(
       @Param("repositoryId") Long repositoryId,
-      @Param("testName") String testName,
-      @Param("className") String className,
-      @Param("suiteName") String suiteName,
-      @Param("flakinessScore") double flakinessScore,
-      @Param("defaultRate") double defaultRate,
-      @Param("combinedRate") double combinedRate,
+      @Param("defaultBranch") String defaultBranch,
+      @Param("minRate") double minRate,
+      @Param("maxRate") double maxRate,
+      @Param("defaultWeight") double defaultWeight,
+      @Param("combinedWeight") double combinedWeight,
       @Param("lastUpdated") OffsetDateTime lastUpdated);
 
   /**
-   * Finds flakiness records matching a test name and class name for a repository, ordered by
-   * flakiness score descending. Used by the CI per-test flakiness endpoint where the test suite
-   * name is not known.
+   * All flakiness scores of a repository, without loading the entities. Used to build the
+   * in-memory {@link FlakinessSnapshot}.
    */
   @Query(
-      "SELECT t FROM TestCaseFlakiness t"
-          + " WHERE t.repository.repositoryId = :repositoryId"
-          + "   AND t.testName = :testName"
-          + "   AND t.className = :className"
-          + "   AND t.testSuiteName = :suiteName"
-          + " ORDER BY t.flakinessScore DESC")
-  List<TestCaseFlakiness> findByRepositoryIdAndTestNameAndClassNameAndSuiteName(
-      @Param("repositoryId") Long repositoryId,
-      @Param("testName") String testName,
-      @Param("className") String className,
-      @Param("suiteName") String suiteName);
+      "SELECT new de.tum.cit.aet.helios.tests.TestFlakinessScoreDto("
+          + "t.testName, t.className, t.testSuiteName,"
+          + " t.flakinessScore, t.defaultBranchFailureRate, t.combinedFailureRate)"
+          + " FROM TestCaseFlakiness t"
+          + " WHERE t.repository.repositoryId = :repositoryId")
+  List<TestFlakinessScoreDto> findScoresByRepositoryId(@Param("repositoryId") Long repositoryId);
 }
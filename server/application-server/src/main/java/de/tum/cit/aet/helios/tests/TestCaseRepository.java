@@ -1,5 +1,6 @@
 package de.tum.cit.aet.helios.tests;
 
+import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -10,28 +11,160 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TestCaseRepository extends JpaRepository<TestCase, Long> {
-  @Query(
-      "SELECT tc FROM TestCase tc "
-          + "JOIN FETCH tc.testSuite ts "
-          + "WHERE ts.workflowRun.id = :workflowRunId "
-          + "AND ts.name IN :classNames "
-          + "AND ts.testType.id = :testTypeId")
-  List<TestCase> findByTestSuiteWorkflowIdAndClassNamesAndTestTypeId(
-      @Param("workflowRunId") Long workflowId,
-      @Param("classNames") Collection<String> classNames,
-      @Param("testTypeId") Long testTypeId);
 
+  /** One test case of a test result page, flattened together with its annotations. */
+  interface TestCaseRow {
+    Long getId();
+
+    Long getTestSuiteId();
+
+    String getName();
+
+    String getClassName();
+
+    String getStatus();
+
+    String getPreviousStatus();
+
+    Double getTime();
+
+    String getMessage();
+
+    /** Hash of the stack trace, see {@link TestOutput}. */
+    String getStackTraceHash();
+
+    /** Hash of the system out, see {@link TestOutput}. */
+    String getSystemOutHash();
+
+    String getErrorType();
+
+    Double getFlakinessScore();
+
+    Double getDefaultBranchFailureRate();
+
+    Double getCombinedFailureRate();
+
+    Boolean getFailsInDefaultBranch();
+  }
+
+  /**
+   * Retrieves the test cases of the given suites as flat rows, without loading any entity. Each row
+   * carries the precomputed flakiness of the test (zero if it has none), its status in the previous
+   * run and whether it also fails in the latest default-branch run; both runs are matched by test
+   * type, suite name, class name and test name. Every run is also matched by its partition key
+   * (see {@link TestResultPartitions#runCreatedAt}), so only the partitions of the three runs'
+   * months are read.
+   *
+   * <p>Rows are ordered by suite, then: test cases whose status changed compared to the previous
+   * run first, then failed or errored ones, among those the ones not failing in the default branch
+   * and then the ones not flaky (score above {@code flakyThreshold}) first, and finally by name.
+   *
+   * @param suiteIds The IDs of the test suites to read
+   * @param runCreatedAt The partition key of the run the suites belong to
+   * @param repositoryId The repository the flakiness scores belong to
+   * @param prevWorkflowRunId The previous run of the same branch or pull request, may be null
+   * @param prevRunCreatedAt The partition key of the previous run, may be null
+   * @param defaultWorkflowRunId The latest run of the default branch, may be null
+   * @param defaultRunCreatedAt The partition key of the default branch run, may be null
+   * @param searchPattern Lower-case {@code LIKE} pattern on test and class name with {@code !} as
+   *     escape character, {@code %} for all
+   * @param onlyFailed Whether to return failed and errored test cases only
+   * @param flakyThreshold Flakiness score above which a test counts as flaky for the ordering
+   * @return The matching test cases, grouped by suite and in display order
+   */
   @Query(
-      "SELECT tc FROM TestCase tc "
-          + "JOIN FETCH tc.testSuite ts "
-          + "WHERE ts.workflowRun.id = :workflowRunId "
-          + "AND ts.name IN :classNames "
-          + "AND ts.testType.id = :testTypeId "
-          + "AND (tc.status = 'FAILED' OR tc.status = 'ERROR')")
-  List<TestCase> findFailedByTestSuiteWorkflowIdAndClassNamesAndTestTypeId(
-      @Param("workflowRunId") Long workflowId,
-      @Param("classNames") Collection<String> classNames,
-      @Param("testTypeId") Long testTypeId);
+      value =
+          """
+          SELECT r.*
+          FROM (
+              SELECT tc.id AS "id",
+                     tc.test_suite_id AS "testSuiteId",
+                     tc.name AS "name",
+                     tc.class_name AS "className",
+                     tc.status AS "status",
+                     prev.status AS "previousStatus",
+                     tc.time AS "time",
+                     tc.message AS "message",
+                     tc.stack_trace_hash AS "stackTraceHash",
+                     tc.system_out_hash AS "systemOutHash",
+                     tc.error_type AS "errorType",
+                     COALESCE(f.flakiness_score, 0.0) AS "flakinessScore",
+                     COALESCE(f.default_branch_failure_rate, 0.0)
+                         AS "defaultBranchFailureRate",
+                     COALESCE(f.combined_failure_rate, 0.0) AS "combinedFailureRate",
+                     EXISTS (
+                         SELECT 1
+                         FROM test_case d
+                         JOIN test_suite ds
+                             ON ds.id = d.test_suite_id
+                            AND ds.run_created_at = d.run_created_at
+                         WHERE ds.workflow_run_id = CAST(:defaultWorkflowRunId AS BIGINT)
+                           AND ds.run_created_at = CAST(:defaultRunCreatedAt AS TIMESTAMPTZ)
+                           AND d.run_created_at = CAST(:defaultRunCreatedAt AS TIMESTAMPTZ)
+                           AND ds.test_type_id = ts.test_type_id
+                           AND ds.name = ts.name
+                           AND d.class_name = tc.class_name
+                           AND d.name = tc.name
+                           AND d.status IN ('FAILED', 'ERROR')
+                     ) AS "failsInDefaultBranch"
+              FROM test_case tc
+              JOIN test_suite ts
+                  ON ts.id = tc.test_suite_id
+                 AND ts.run_created_at = tc.run_created_at
+              LEFT JOIN test_case_flakiness f
+                  ON f.repository_id = :repositoryId
+                 AND f.test_suite_name = ts.name
+                 AND f.class_name = tc.class_name
+                 AND f.test_name = tc.name
+              LEFT JOIN LATERAL (
+                  SELECT p.status
+                  FROM test_case p
+                  JOIN test_suite ps
+                      ON ps.id = p.test_suite_id
+                     AND ps.run_created_at = p.run_created_at
+                  WHERE ps.workflow_run_id = CAST(:prevWorkflowRunId AS BIGINT)
+                    AND ps.run_created_at = CAST(:prevRunCreatedAt AS TIMESTAMPTZ)
+                    AND p.run_created_at = CAST(:prevRunCreatedAt AS TIMESTAMPTZ)
+                    AND ps.test_type_id = ts.test_type_id
+                    AND ps.name = ts.name
+                    AND p.class_name = tc.class_name
+                    AND p.name = tc.name
+                  ORDER BY p.id
+                  LIMIT 1
+              ) prev ON TRUE
+              WHERE tc.test_suite_id IN (:suiteIds)
+                AND tc.run_created_at = :runCreatedAt
+                AND ts.run_created_at = :runCreatedAt
+                AND (LOWER(tc.name) LIKE :searchPattern ESCAPE '!'
+                     OR LOWER(tc.class_name) LIKE :searchPattern ESCAPE '!')
+                AND (:onlyFailed = FALSE OR tc.status IN ('FAILED', 'ERROR'))
+          ) r
+          ORDER BY
+              r."testSuiteId",
+              CASE WHEN r."previousStatus" IS NOT NULL
+                        AND r."previousStatus" IS DISTINCT FROM r."status"
+                   THEN 0 ELSE 1 END,
+              CASE WHEN r."status" IN ('FAILED', 'ERROR') THEN 0 ELSE 1 END,
+              CASE WHEN r."status" IN ('FAILED', 'ERROR') AND r."failsInDefaultBranch"
+                   THEN 1 ELSE 0 END,
+              CASE WHEN r."status" IN ('FAILED', 'ERROR')
+                        AND r."flakinessScore" > :flakyThreshold
+                   THEN 1 ELSE 0 END,
+              r."name" COLLATE "C",
+              r."id"
+          """,
+      nativeQuery = true)
+  List<TestCaseRow> findRowsByTestSuiteIds(
+      @Param("suiteIds") Collection<Long> suiteIds,
+      @Param("runCreatedAt") OffsetDateTime runCreatedAt,
+      @Param("repositoryId") Long repositoryId,
+      @Param("prevWorkflowRunId") Long prevWorkflowRunId,
+      @Param("prevRunCreatedAt") OffsetDateTime prevRunCreatedAt,
+      @Param("defaultWorkflowRunId") Long defaultWorkflowRunId,
+      @Param("defaultRunCreatedAt") OffsetDateTime defaultRunCreatedAt,
+      @Param("searchPattern") String searchPattern,
+      @Param("onlyFailed") boolean onlyFailed,
+      @Param("flakyThreshold") double flakyThreshold);
 
   @Query(
       """
@@ -1,9 +1,10 @@
 package de.tum.cit.aet.helios.tests;
 
-import java.util.Collection;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,18 +15,6 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface TestCaseStatisticsRepository extends JpaRepository<TestCaseStatistics, Long> {
-  interface FailureRateRow {
-    String getTestName();
-
-    String getClassName();
-
-    String getTestSuiteName();
-
-    int getTotalRuns();
-
-    int getFailedRuns();
-  }
-
   /**
    * Find statistics for a specific test case on a specific branch.
    *
@@ -55,26 +44,44 @@ public interface TestCaseStatisticsRepository extends JpaRepository<TestCaseStat
       String branchName, Long repositoryId);
 
   /**
-   * Find all statistics for test cases that belong to specific test suites on a branch in a
-   * repository.
+   * Adds runs to the statistics of many test cases of one branch in a single statement. The
+   * arrays are parallel: element {@code i} of each describes one test case. Missing rows are
+   * created, existing ones have their counters incremented via PostgreSQL
+   * {@code ON CONFLICT DO UPDATE}, bypassing the persistence context entirely. Each test case may
+   * appear only once per call.
    *
-   * @param testSuiteNames collection of test suite names to search for
-   * @param branchName the branch name
-   * @param repositoryId the repository ID
-   * @return list of statistics for matching test cases
+   * @return the number of inserted or updated rows
    */
-  List<TestCaseStatistics> findByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-      Collection<String> testSuiteNames, String branchName, Long repositoryId);
-
+  @Modifying
   @Query(
-      "SELECT s.testName AS testName, s.className AS className, s.testSuiteName AS testSuiteName,"
-          + " s.totalRuns AS totalRuns, s.failedRuns AS failedRuns"
-          + " FROM TestCaseStatistics s"
-          + " WHERE s.testSuiteName IN :testSuiteNames"
-          + " AND s.branchName = :branchName"
-          + " AND s.repository.repositoryId = :repositoryId")
-  List<FailureRateRow> findFailureRateRowsByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-      @Param("testSuiteNames") Collection<String> testSuiteNames,
+      value =
+          """
+          INSERT INTO test_case_statistics
+              (repository_id, branch_name, test_name, class_name, test_suite_name,
+               total_runs, failed_runs, last_updated)
+          SELECT :repositoryId, :branchName, t.test_name, t.class_name, t.test_suite_name,
+                 t.total_runs, t.failed_runs, :lastUpdated
+          FROM unnest(
+              CAST(:testNames AS varchar[]),
+              CAST(:classNames AS varchar[]),
+              CAST(:suiteNames AS varchar[]),
+              CAST(:totalRuns AS integer[]),
+              CAST(:failedRuns AS integer[]))
+              AS t(test_name, class_name, test_suite_name, total_runs, failed_runs)
+          ON CONFLICT ON CONSTRAINT uk_test_case_statistics
+          DO UPDATE SET
+              total_runs   = test_case_statistics.total_runs + EXCLUDED.total_runs,
+              failed_runs  = test_case_statistics.failed_runs + EXCLUDED.failed_runs,
+              last_updated = EXCLUDED.last_updated
+          """,
+      nativeQuery = true)
+  int upsertRuns(
+      @Param("repositoryId") Long repositoryId,
       @Param("branchName") String branchName,
-      @Param("repositoryId") Long repositoryId);
+      @Param("testNames") String[] testNames,
+      @Param("classNames") String[] classNames,
+      @Param("suiteNames") String[] suiteNames,
+      @Param("totalRuns") Integer[] totalRuns,
+      @Param("failedRuns") Integer[] failedRuns,
+      @Param("lastUpdated") OffsetDateTime lastUpdated);
 }
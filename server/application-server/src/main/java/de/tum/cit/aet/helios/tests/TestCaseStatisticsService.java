@@ -6,13 +6,12 @@ import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.data.domain.Page;
@@ -21,6 +20,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /** Service for managing test case statistics and detecting flaky tests. */
 @Service
@@ -34,226 +34,142 @@ public class TestCaseStatisticsService {
   private static final double COMBINED_BRANCH_WEIGHT = 0.3;
   private static final double MIN_FLAKY_RATE = 0.01; // 1%
   private static final double MAX_FLAKY_RATE = 0.5; // 50%
-  private static final int SUITE_NAME_QUERY_CHUNK_SIZE = 128;
+  private static final int UPSERT_CHUNK_SIZE = 1000;
+  private static final Comparator<String> NULLS_FIRST =
+      Comparator.nullsFirst(Comparator.naturalOrder());
+  // Write order of upserted rows, so concurrent upserts lock shared rows in the same order
+  static final Comparator<StatsKey> STATS_KEY_ORDER =
+      Comparator.comparing(StatsKey::testSuiteName, NULLS_FIRST)
+          .thenComparing(StatsKey::className, NULLS_FIRST)
+          .thenComparing(StatsKey::testName, NULLS_FIRST);
 
   private final TestCaseStatisticsRepository statisticsRepository;
   private final TestCaseFlakinessRepository flakinessRepository;
+  private final FlakinessScoreIndex flakinessScoreIndex;
+  private final TransactionTemplate transactionTemplate;
 
-  /**
-   * Composite key uniquely identifying one test case within a suite.
-   * Package-private so {@link TestResultService} can build index keys without an extra lookup.
-   */
+  /** Composite key uniquely identifying one test case within a suite. */
   record StatsKey(String testName, String className, String testSuiteName) {}
 
   /**
-   * Converts a flat list of {@link TestCaseStatistics} into a {@code Map} keyed by
-   * {@link StatsKey} for O(1) per-test lookups.
+   * Records the runs of a workflow run's test cases for a branch.
    *
-   * @param stats the statistics rows to index
-   * @return map of composite key to failure rate
-   */
-  public static Map<StatsKey, Double> indexFailureRates(List<TestCaseStatistics> stats) {
-    return stats.stream()
-        .collect(
-            Collectors.toMap(
-                s -> new StatsKey(s.getTestName(), s.getClassName(), s.getTestSuiteName()),
-                TestCaseStatistics::getFailureRate,
-                (a, b) -> a));
-  }
-
-  /**
-   * Updates statistics for a test case, creating a new entry if it doesn't exist.
+   * <p>The occurrences are already aggregated per test case by the tally and are written with one
+   * native {@code INSERT ... ON CONFLICT DO UPDATE} per chunk of {@value #UPSERT_CHUNK_SIZE}
+   * test cases that adds to the existing counters. Nothing is loaded into the persistence
+   * context, so the session stays small regardless of the run size. Rows are written in key
+   * order, so concurrent runs touching the same tests lock them in the same order. Each chunk is
+   * committed in its own transaction, so a large run holds the row locks of one chunk at a time.
    *
-   * @param testName the name of the test
-   * @param className the class name of the test
-   * @param testSuiteName the test suite name
+   * @param tally the runs and failures per test case
    * @param branchName the branch name
-   * @param hasFailed whether the test failed in this run
    * @param repository the repository
-   * @return the updated statistics
    */
-  @Transactional
-  public TestCaseStatistics updateStatistics(
-      String testName,
-      String className,
-      String testSuiteName,
-      String branchName,
-      boolean hasFailed,
-      GitRepository repository) {
-    Optional<TestCaseStatistics> existingStats =
-        statisticsRepository
-            .findByTestNameAndClassNameAndTestSuiteNameAndBranchNameAndRepositoryRepositoryId(
-                testName, className, testSuiteName, branchName, repository.getRepositoryId());
-
-    TestCaseStatistics statistics;
-    if (existingStats.isPresent()) {
-      statistics = existingStats.get();
-    } else {
-      statistics = new TestCaseStatistics();
-      statistics.setTestName(testName);
-      statistics.setClassName(className);
-      statistics.setTestSuiteName(testSuiteName);
-      statistics.setBranchName(branchName);
-      statistics.setTotalRuns(0);
-      statistics.setFailedRuns(0);
-      statistics.setLastUpdated(OffsetDateTime.now());
-      statistics.setRepository(repository);
+  public void updateStatistics(TestRunTally tally, String branchName, GitRepository repository) {
+    Map<StatsKey, int[]> runs = tally.runs();
+    if (runs.isEmpty()) {
+      return;
     }
 
-    statistics.addRun(hasFailed);
-    return statisticsRepository.save(statistics);
-  }
-
-  /**
-   * Updates statistics for multiple test cases from a test suite.
-   *
-   * @param testSuite the test suite containing test cases
-   * @param branchName the branch name
-   * @param repository the repository
-   */
-  @Transactional
-  public void updateStatisticsForTestSuite(
-      TestSuite testSuite, String branchName, GitRepository repository) {
-    String testSuiteName = testSuite.getName();
-
-    for (TestCase testCase : testSuite.getTestCases()) {
-      boolean hasFailed =
-          testCase.getStatus() == TestCase.TestStatus.FAILED
-              || testCase.getStatus() == TestCase.TestStatus.ERROR;
-
-      updateStatistics(
-          testCase.getName(),
-          testCase.getClassName(),
-          testSuiteName,
-          branchName,
-          hasFailed,
-          repository);
+    OffsetDateTime now = OffsetDateTime.now();
+    List<Map.Entry<StatsKey, int[]>> entries = new ArrayList<>(runs.entrySet());
+    for (List<Map.Entry<StatsKey, int[]>> chunk :
+        chunked(entries, UPSERT_CHUNK_SIZE)) {
+      int size = chunk.size();
+      String[] testNames = new String[size];
+      String[] classNames = new String[size];
+      String[] suiteNames = new String[size];
+      Integer[] totalRuns = new Integer[size];
+      Integer[] failedRuns = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        StatsKey key = chunk.get(i).getKey();
+        int[] counts = chunk.get(i).getValue();
+        testNames[i] = key.testName();
+        classNames[i] = key.className();
+        suiteNames[i] = key.testSuiteName();
+        totalRuns[i] = counts[0];
+        failedRuns[i] = counts[1];
+      }
+      transactionTemplate.executeWithoutResult(
+          status ->
+              statisticsRepository.upsertRuns(
+                  repository.getRepositoryId(),
+                  branchName,
+                  testNames,
+                  classNames,
+                  suiteNames,
+                  totalRuns,
+                  failedRuns,
+                  now));
     }
+    log.debug(
+        "Updated test statistics for repository {} branch {}: tests={}",
+        repository.getRepositoryId(),
+        branchName,
+        runs.size());
   }
 
   /**
-   * Recomputes and persists flakiness scores for all test cases in the given suites.
+   * Recomputes and persists flakiness scores for all test cases of a workflow run.
    *
-   * <p>Failure rates are loaded and indexed per suite chunk (default branch + combined) so only a
-   * bounded working set is kept in memory. Each score is written via a native
-   * {@code INSERT ... ON CONFLICT DO UPDATE} that bypasses the Hibernate first-level cache
-   * entirely, preventing session growth and handling concurrent calls safely.
+   * <p>Scores are computed by the database from the current default-branch and combined
+   * statistics, using the same formula as {@link #calculateFlakinessScore}. Each chunk of
+   * {@value #UPSERT_CHUNK_SIZE} test cases is written by one native
+   * {@code INSERT ... SELECT ... ON CONFLICT DO UPDATE}, so neither statistics nor flakiness rows
+   * pass through the Hibernate first-level cache.
    *
-   * @param testSuites the suites processed in this run
+   * @param tally the test cases of the run
    * @param defaultBranch the repository's default branch name
    * @param repository the repository
    */
   @Transactional
-  public void updateFlakinessForTestSuite(
-      List<TestSuite> testSuites, String defaultBranch, GitRepository repository) {
+  public void updateFlakiness(TestRunTally tally, String defaultBranch, GitRepository repository) {
+    Set<StatsKey> keys = tally.runs().keySet();
 
     OffsetDateTime now = OffsetDateTime.now();
     int count = 0;
-    for (List<TestSuite> suiteChunk : chunked(testSuites, SUITE_NAME_QUERY_CHUNK_SIZE)) {
-      Set<String> suiteNamesInChunk =
-          suiteChunk.stream().map(TestSuite::getName).collect(Collectors.toSet());
-      Set<StatsKey> chunkKeys = collectChunkKeys(suiteChunk);
-      Map<StatsKey, Double> defaultRates =
-          loadFailureRateIndex(
-              suiteNamesInChunk,
-              defaultBranch,
-              repository.getRepositoryId(),
-              chunkKeys);
-      Map<StatsKey, Double> combinedRates =
-          loadFailureRateIndex(
-              suiteNamesInChunk,
-              "combined",
+    for (List<StatsKey> chunk : chunked(new ArrayList<>(keys), UPSERT_CHUNK_SIZE)) {
+      count +=
+          flakinessRepository.upsertFlakinessForTests(
               repository.getRepositoryId(),
-              chunkKeys);
-
-      for (TestSuite suite : suiteChunk) {
-        for (TestCase testCase : suite.getTestCases()) {
-          var info = computeFlakinessInfo(
-              testCase.getName(),
-              testCase.getClassName(),
-              suite.getName(),
-              defaultRates,
-              combinedRates);
-          flakinessRepository.upsertFlakiness(
-              repository.getRepositoryId(),
-              testCase.getName(),
-              testCase.getClassName(),
-              suite.getName(),
-              info.flakinessScore(),
-              info.defaultBranchFailureRate(),
-              info.combinedFailureRate(),
+              defaultBranch,
+              chunk.stream().map(StatsKey::testName).toArray(String[]::new),
+              chunk.stream().map(StatsKey::className).toArray(String[]::new),
+              chunk.stream().map(StatsKey::testSuiteName).toArray(String[]::new),
+              MIN_FLAKY_RATE,
+              MAX_FLAKY_RATE,
+              DEFAULT_BRANCH_WEIGHT,
+              COMBINED_BRANCH_WEIGHT,
               now);
-          count++;
-        }
-      }
     }
+    flakinessScoreIndex.invalidateAfterCommit(repository.getRepositoryId());
     log.info("Finished flakiness upsert for repository {}: rows={}",
         repository.getRepositoryId(), count);
   }
 
   /**
-   * Batch-fetches all {@link TestCaseFlakiness} rows for the given suite names and indexes them
-   * by {@link StatsKey} for O(1) lookup. Exposed so {@link TestResultService} can pre-load
-   * flakiness data before annotating per-run test cases.
+   * Recomputes the flakiness score of every test of a repository that has default-branch or
+   * combined statistics, in a single statement. Used off-peak so stored scores follow changes to
+   * the weights or thresholds without replaying any runs.
    *
-   * @param suiteNames suite names to scope the query
-   * @param repositoryId the repository ID
-   * @return map of composite key to the matching flakiness record
+   * @param repository the repository
+   * @return the number of flakiness rows written
    */
-  public Map<StatsKey, TestCaseFlakiness> loadFlakinessIndex(
-      List<String> suiteNames, Long repositoryId) {
-    return flakinessRepository
-        .findByTestSuiteNameInAndRepositoryRepositoryId(suiteNames, repositoryId)
-        .stream()
-        .collect(
-            Collectors.toMap(
-                f -> new StatsKey(f.getTestName(), f.getClassName(), f.getTestSuiteName()),
-                f -> f,
-                (a, b) -> a));
-  }
-
-  private Map<StatsKey, Double> loadFailureRateIndex(
-      Collection<String> suiteNames,
-      String branchName,
-      Long repositoryId,
-      Set<StatsKey> expectedKeys) {
-    if (suiteNames.isEmpty() || expectedKeys.isEmpty()) {
-      return Map.of();
-    }
-
-    Map<StatsKey, Double> rates = new HashMap<>();
-    List<TestCaseStatisticsRepository.FailureRateRow> rows =
-        statisticsRepository
-            .findFailureRateRowsByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-                suiteNames,
-                branchName,
-                repositoryId);
-    for (TestCaseStatisticsRepository.FailureRateRow row : rows) {
-      StatsKey key = new StatsKey(row.getTestName(), row.getClassName(), row.getTestSuiteName());
-      if (!expectedKeys.contains(key)) {
-        continue;
-      }
-      rates.put(
-          key,
-          row.getTotalRuns() > 0 ? (double) row.getFailedRuns() / row.getTotalRuns() : 0.0);
-    }
-    log.info(
-        "Loaded failure rates for repository {} branch {} chunkSuites={} matchedRows={}",
-        repositoryId,
-        branchName,
-        suiteNames.size(),
-        rates.size());
-    return rates;
-  }
-
-  private static Set<StatsKey> collectChunkKeys(List<TestSuite> suiteChunk) {
-    return suiteChunk.stream()
-        .flatMap(
-            suite ->
-                suite.getTestCases().stream()
-                    .map(testCase -> new StatsKey(
-                        testCase.getName(), testCase.getClassName(), suite.getName())))
-        .collect(Collectors.toSet());
+  @Transactional
+  public int recomputeFlakinessForRepository(GitRepository repository) {
+    int count =
+        flakinessRepository.recomputeFlakinessForRepository(
+            repository.getRepositoryId(),
+            repository.getDefaultBranch(),
+            MIN_FLAKY_RATE,
+            MAX_FLAKY_RATE,
+            DEFAULT_BRANCH_WEIGHT,
+            COMBINED_BRANCH_WEIGHT,
+            OffsetDateTime.now());
+    flakinessScoreIndex.invalidateAfterCommit(repository.getRepositoryId());
+    log.info("Recomputed flakiness for repository {}: rows={}",
+        repository.getRepositoryId(), count);
+    return count;
   }
 
   private static <T> List<List<T>> chunked(List<T> items, int chunkSize) {
@@ -268,8 +184,9 @@ public class TestCaseStatisticsService {
   }
 
   /**
-   * Returns flakiness scores for the requested test cases identified by testName + className.
-   * Reads directly from the precomputed {@code test_case_flakiness} table.
+   * Returns flakiness scores for the requested test cases, in request order. Test cases without a
+   * flakiness record get all-zero scores. All lookups go to the in-memory snapshot of the
+   * repository, see {@link FlakinessScoreIndex}.
    *
    * @param repositoryId the repository ID
    * @param testIdentifiers the list of test case identifiers to look up
@@ -277,31 +194,35 @@ public class TestCaseStatisticsService {
    */
   public List<TestFlakinessScoreDto> getFlakinessScoresForTests(
       Long repositoryId, List<TestFlakinessScoreRequest.TestCaseIdentifier> testIdentifiers) {
-    return testIdentifiers.stream()
-        .map(
-            identifier -> {
-              List<TestCaseFlakiness> matches =
-                  flakinessRepository.findByRepositoryIdAndTestNameAndClassNameAndSuiteName(
-                      repositoryId,
-                      identifier.testName(),
-                      identifier.className(),
-                      identifier.testSuiteName());
-
-              if (!matches.isEmpty()) {
-                TestCaseFlakiness best = matches.getFirst();
-                return new TestFlakinessScoreDto(
-                    identifier.testName(),
-                    identifier.className(),
-                    identifier.testSuiteName(),
-                    best.getFlakinessScore(),
-                    best.getDefaultBranchFailureRate(),
-                    best.getCombinedFailureRate());
-              }
-              return new TestFlakinessScoreDto(
-                  identifier.testName(), identifier.className(), identifier.testSuiteName(),
-                  0.0, 0.0, 0.0);
-            })
-        .toList();
+    List<TestFlakinessScoreDto> scores = new ArrayList<>(testIdentifiers.size());
+    forEachFlakinessScore(repositoryId, testIdentifiers.iterator(), scores::add);
+    return scores;
+  }
+
+  /**
+   * Streaming variant of {@link #getFlakinessScoresForTests}: hands the score of each identifier
+   * to the sink as soon as it is read, so neither the request nor the response has to be held in
+   * memory.
+   *
+   * @param repositoryId the repository ID
+   * @param testIdentifiers the test case identifiers to look up, read once
+   * @param sink receives one score per identifier, in order
+   * @return the number of identifiers looked up
+   */
+  public int forEachFlakinessScore(
+      Long repositoryId,
+      Iterator<TestFlakinessScoreRequest.TestCaseIdentifier> testIdentifiers,
+      Consumer<TestFlakinessScoreDto> sink) {
+    FlakinessSnapshot snapshot = flakinessScoreIndex.snapshot(repositoryId);
+    int count = 0;
+    while (testIdentifiers.hasNext()) {
+      TestFlakinessScoreRequest.TestCaseIdentifier identifier = testIdentifiers.next();
+      sink.accept(
+          snapshot.lookup(
+              identifier.testName(), identifier.className(), identifier.testSuiteName()));
+      count++;
+    }
+    return count;
   }
 
   /**
@@ -354,35 +275,6 @@ public class TestCaseStatisticsService {
         lowFlakinessCount);
   }
 
-  /** Holds computed flakiness information for a single test case. */
-  public record FlakinessInfo(
-      double flakinessScore, double defaultBranchFailureRate, double combinedFailureRate) {}
-
-  /**
-   * Computes flakiness information for a single test case using pre-indexed failure-rate maps.
-   * Both maps should be built via {@link #indexFailureRates} before entering any per-test loop
-   * so that each call here is O(1).
-   *
-   * @param testName the test name to look up
-   * @param className the class name to look up
-   * @param suiteName the test suite name to look up
-   * @param defaultRates failure-rate index for the default branch
-   * @param combinedRates failure-rate index for the combined pseudo-branch
-   * @return computed flakiness info
-   */
-  public FlakinessInfo computeFlakinessInfo(
-      String testName,
-      String className,
-      String suiteName,
-      Map<StatsKey, Double> defaultRates,
-      Map<StatsKey, Double> combinedRates) {
-    var key = new StatsKey(testName, className, suiteName);
-    double defaultFailureRate = defaultRates.getOrDefault(key, 0.0);
-    double combinedFailureRate = combinedRates.getOrDefault(key, 0.0);
-    double flakinessScore = calculateFlakinessScore(defaultFailureRate, combinedFailureRate);
-    return new FlakinessInfo(flakinessScore, defaultFailureRate, combinedFailureRate);
-  }
-
   /**
    * Calculates a flakiness score based on weighted default and combined branch failure rates. The
    * score ranges from 0 to 100 (not flaky to highly flaky).
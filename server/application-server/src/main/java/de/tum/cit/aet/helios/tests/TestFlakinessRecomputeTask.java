@@ -0,0 +1,38 @@
+package de.tum.cit.aet.helios.tests;
+
+import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
+import de.tum.cit.aet.helios.gitrepo.GitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes the stored flakiness score of every test, one repository at a time. Runs off-peak so
+ * that scores stay consistent with the current weights and thresholds of
+ * {@link TestCaseStatisticsService} without replaying any workflow runs.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class TestFlakinessRecomputeTask {
+
+  private final GitRepoRepository gitRepoRepository;
+  private final TestCaseStatisticsService statisticsService;
+
+  @Scheduled(cron = "${helios.tests.flakiness.recompute-cron:0 30 4 * * *}")
+  public void recompute() {
+    int repositories = 0;
+    int rows = 0;
+    for (GitRepository repository : gitRepoRepository.findAll()) {
+      try {
+        rows += statisticsService.recomputeFlakinessForRepository(repository);
+        repositories++;
+      } catch (Exception e) {
+        log.error(
+            "Failed to recompute flakiness for repository {}", repository.getNameWithOwner(), e);
+      }
+    }
+    log.info("Flakiness recompute finished. repositories={} rows={}", repositories, rows);
+  }
+}
@@ -0,0 +1,16 @@
+package de.tum.cit.aet.helios.tests;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.lang.NonNull;
+
+@Schema(
+    description =
+        "Last line of an NDJSON flakiness score response whose request had a malformed line. The"
+            + " scores of the lines before it are still valid; no further lines follow.")
+public record TestFlakinessScoreStreamError(
+    @Schema(description = "Why the request line was rejected")
+    @NonNull String error,
+
+    @Schema(description = "The 1-based number of the rejected test case in the request")
+    int line) {
+}
@@ -0,0 +1,126 @@
+package de.tum.cit.aet.helios.tests;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * A stack trace or system out of a test result, stored once per distinct content.
+ *
+ * <p>The {@link #hash} is the hex SHA-256 of the UTF-8 bytes of the text, so identical outputs of
+ * any number of test cases and suites share one row. The content is deflate-compressed unless that
+ * does not make it smaller.
+ */
+@Entity
+@Table(name = "test_output")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "content")
+public class TestOutput {
+
+  @Id
+  @Column(length = 64)
+  private String hash;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private Encoding encoding;
+
+  /** Size of the text in UTF-8 bytes. */
+  @Column(name = "raw_size", nullable = false)
+  private int rawSize;
+
+  @Column(nullable = false)
+  private byte[] content;
+
+  /** When a test result last stored this output; set by the database. */
+  @Column(name = "stored_at", nullable = false, insertable = false, updatable = false)
+  private OffsetDateTime storedAt;
+
+  public enum Encoding {
+    PLAIN,
+    DEFLATE
+  }
+
+  /**
+   * Encodes a text for storage.
+   *
+   * @param text the text to store
+   * @return the output, or {@code null} for a {@code null} text
+   */
+  public static TestOutput of(String text) {
+    if (text == null) {
+      return null;
+    }
+    byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+    byte[] deflated = deflate(raw);
+
+    TestOutput output = new TestOutput();
+    output.hash = hash(raw);
+    output.rawSize = raw.length;
+    if (deflated.length < raw.length) {
+      output.encoding = Encoding.DEFLATE;
+      output.content = deflated;
+    } else {
+      output.encoding = Encoding.PLAIN;
+      output.content = raw;
+    }
+    return output;
+  }
+
+  /** Decodes the stored text. */
+  public String text() {
+    byte[] raw = encoding == Encoding.DEFLATE ? inflate(content) : content;
+    return new String(raw, StandardCharsets.UTF_8);
+  }
+
+  private static String hash(byte[] raw) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(raw));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] deflate(byte[] raw) {
+    var out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+    var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try (var deflate = new DeflaterOutputStream(out, deflater)) {
+      deflate.write(raw);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      deflater.end();
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] inflate(byte[] deflated) {
+    try (var inflate = new InflaterInputStream(new ByteArrayInputStream(deflated))) {
+      return inflate.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
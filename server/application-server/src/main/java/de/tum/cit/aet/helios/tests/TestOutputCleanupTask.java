@@ -0,0 +1,45 @@
+package de.tum.cit.aet.helios.tests;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes stored test outputs no test case or test suite refers to anymore. Deleting test results
+ * (workflow run cleanup, dropped partitions) leaves their outputs behind, as other results may
+ * share them.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class TestOutputCleanupTask {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private final TestOutputRepository testOutputRepository;
+
+  /** Outputs stored more recently are kept, their test results may still be on the way. */
+  @Value("${helios.tests.outputs.cleanup.min-age:1d}")
+  private Duration minAge;
+
+  @Scheduled(cron = "${helios.tests.outputs.cleanup.cron:0 45 3 * * *}")
+  public void purge() {
+    OffsetDateTime cutoff = OffsetDateTime.now().minus(minAge);
+    int deleted = 0;
+    try {
+      int batch;
+      do {
+        batch = testOutputRepository.deleteUnreferencedStoredBefore(cutoff, BATCH_SIZE);
+        deleted += batch;
+      } while (batch == BATCH_SIZE);
+    } catch (Exception e) {
+      // A test result started referring to an output of the batch; the next run catches up
+      log.error("Failed to delete unreferenced test outputs", e);
+    }
+    log.info("Test output cleanup finished. deleted={} storedBefore={}", deleted, cutoff);
+  }
+}
@@ -0,0 +1,6 @@
+package de.tum.cit.aet.helios.tests;
+
+import org.springframework.lang.NonNull;
+
+/** The text of a stored stack trace or system out, see {@link TestOutput}. */
+public record TestOutputDto(@NonNull String hash, @NonNull String text) {}
@@ -0,0 +1,104 @@
+package de.tum.cit.aet.helios.tests;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface TestOutputRepository extends JpaRepository<TestOutput, String> {
+
+  /**
+   * Stores many outputs in a single statement, skipping ones whose hash exists already; of those
+   * only {@code stored_at} is refreshed (at most once an hour), so the cleanup leaves them alone
+   * while new test results start referring to them. Concurrent runs storing the same output do not
+   * conflict. The arrays are parallel: element {@code i} of each describes one output, and each
+   * hash may appear only once per call. Contents are passed Base64-encoded, as a text array binds
+   * the same way as the other arrays.
+   *
+   * <p>Runs in the caller's transaction.
+   */
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO test_output (hash, encoding, raw_size, content)
+          SELECT t.hash, t.encoding, t.raw_size, decode(t.content, 'base64')
+          FROM unnest(
+              CAST(:hashes AS varchar[]),
+              CAST(:encodings AS varchar[]),
+              CAST(:rawSizes AS integer[]),
+              CAST(:contents AS text[]))
+              AS t(hash, encoding, raw_size, content)
+          ON CONFLICT (hash) DO UPDATE SET stored_at = now()
+          WHERE test_output.stored_at < now() - INTERVAL '1 hour'
+          """,
+      nativeQuery = true)
+  void insertAllIfAbsent(
+      @Param("hashes") String[] hashes,
+      @Param("encodings") String[] encodings,
+      @Param("rawSizes") Integer[] rawSizes,
+      @Param("contents") String[] contents);
+
+  /**
+   * Finds an output that a test case or test suite of the given repository refers to. Outputs are
+   * shared across repositories, so the reference is what grants access to one.
+   */
+  @Query(
+      value =
+          """
+          SELECT o.*
+          FROM test_output o
+          WHERE o.hash = :hash
+            AND (EXISTS (
+                     SELECT 1
+                     FROM test_case tc
+                     JOIN test_suite ts
+                         ON ts.id = tc.test_suite_id
+                        AND ts.run_created_at = tc.run_created_at
+                     JOIN workflow_run wr ON wr.id = ts.workflow_run_id
+                     WHERE (tc.stack_trace_hash = :hash OR tc.system_out_hash = :hash)
+                       AND wr.repository_id = :repositoryId)
+                 OR EXISTS (
+                     SELECT 1
+                     FROM test_suite ts
+                     JOIN workflow_run wr ON wr.id = ts.workflow_run_id
+                     WHERE ts.system_out_hash = :hash
+                       AND wr.repository_id = :repositoryId))
+          """,
+      nativeQuery = true)
+  Optional<TestOutput> findReferencedInRepository(
+      @Param("hash") String hash, @Param("repositoryId") Long repositoryId);
+
+  /**
+   * Deletes outputs no test case or test suite refers to anymore, e.g. after their workflow runs
+   * were purged. Outputs stored after {@code storedBefore} are left alone, as the test results
+   * referring to them may still be in the middle of being stored. The outer delete checks {@code
+   * stored_at} again, so an output refreshed after it was selected is kept.
+   *
+   * @return the number of deleted outputs
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          """
+          DELETE FROM test_output
+          WHERE stored_at < :storedBefore
+            AND hash IN (
+              SELECT o.hash
+              FROM test_output o
+              WHERE o.stored_at < :storedBefore
+                AND NOT EXISTS (SELECT 1 FROM test_case tc WHERE tc.stack_trace_hash = o.hash)
+                AND NOT EXISTS (SELECT 1 FROM test_case tc WHERE tc.system_out_hash = o.hash)
+                AND NOT EXISTS (SELECT 1 FROM test_suite ts WHERE ts.system_out_hash = o.hash)
+              LIMIT :limit)
+          """,
+      nativeQuery = true)
+  int deleteUnreferencedStoredBefore(
+      @Param("storedBefore") OffsetDateTime storedBefore, @Param("limit") int limit);
+}
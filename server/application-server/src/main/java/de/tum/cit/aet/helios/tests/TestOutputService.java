@@ -0,0 +1,80 @@
+package de.tum.cit.aet.helios.tests;
+
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stores and loads the stack traces and system outs of test results, see {@link TestOutput}. Test
+ * cases and suites only carry the hashes of their outputs; the texts are loaded when a view
+ * actually shows them.
+ */
+@Service
+@RequiredArgsConstructor
+public class TestOutputService {
+
+  private final TestOutputRepository testOutputRepository;
+
+  /**
+   * Stores the given outputs with one statement, skipping ones already stored. Must be called in
+   * a transaction, typically the one storing the test results that refer to the outputs.
+   *
+   * @param outputs the outputs to store; {@code null} entries and duplicates are ignored
+   */
+  public void storeAll(Collection<TestOutput> outputs) {
+    Map<String, TestOutput> distinct = new HashMap<>();
+    for (TestOutput output : outputs) {
+      if (output != null) {
+        distinct.putIfAbsent(output.getHash(), output);
+      }
+    }
+    if (distinct.isEmpty()) {
+      return;
+    }
+    List<TestOutput> rows = List.copyOf(distinct.values());
+    Base64.Encoder base64 = Base64.getEncoder();
+    testOutputRepository.insertAllIfAbsent(
+        rows.stream().map(TestOutput::getHash).toArray(String[]::new),
+        rows.stream().map(output -> output.getEncoding().name()).toArray(String[]::new),
+        rows.stream().map(TestOutput::getRawSize).toArray(Integer[]::new),
+        rows.stream()
+            .map(output -> base64.encodeToString(output.getContent()))
+            .toArray(String[]::new));
+  }
+
+  /**
+   * Loads the texts of several outputs with one query, decoding each distinct output once.
+   *
+   * @param hashes the hashes of the outputs; {@code null} entries are ignored
+   * @return the texts by hash; hashes without an output are missing
+   */
+  public Map<String, String> loadAll(Collection<String> hashes) {
+    Set<String> distinct = hashes.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+    if (distinct.isEmpty()) {
+      return Map.of();
+    }
+    return testOutputRepository.findAllById(distinct).stream()
+        .collect(Collectors.toMap(TestOutput::getHash, TestOutput::text));
+  }
+
+  /**
+   * Loads the text of one output, provided a test result of the given repository refers to it.
+   *
+   * @param hash the hash of the output
+   * @param repositoryId the repository whose test results are shown
+   * @return the text, or empty if no test result of the repository refers to the output
+   */
+  public Optional<String> load(String hash, Long repositoryId) {
+    return testOutputRepository
+        .findReferencedInRepository(hash, repositoryId)
+        .map(TestOutput::text);
+  }
+}
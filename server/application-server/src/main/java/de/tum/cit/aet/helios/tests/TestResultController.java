@@ -1,11 +1,23 @@
 package de.tum.cit.aet.helios.tests;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import de.tum.cit.aet.helios.filters.RepositoryContext;
 import de.tum.cit.aet.helios.gitreposettings.GitRepoSettings;
 import de.tum.cit.aet.helios.tests.pagination.FlakyTestsFilterType;
 import de.tum.cit.aet.helios.tests.pagination.FlakyTestsPageRequest;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,8 +33,11 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/tests")
 @RequiredArgsConstructor
 public class TestResultController {
+  private static final String NDJSON = "application/x-ndjson";
+
   private final TestResultService testResultService;
   private final TestCaseStatisticsService testCaseStatisticsService;
+  private final ObjectMapper objectMapper;
 
   /**
    * Get the latest test results for a pull request, grouped by workflow. This enables separate
@@ -82,6 +97,21 @@ public class TestResultController {
             new TestResultService.TestSearchCriteria(page, size, search, onlyFailed)));
   }
 
+  /**
+   * Get a stack trace or system out of a test result by its hash, as referenced by the test result
+   * DTOs. The texts are immutable, so clients may cache them for good.
+   *
+   * @param hash the hash of the output
+   * @return the output, or 404 if no test result of the current repository refers to it
+   */
+  @GetMapping("/outputs/{hash}")
+  public ResponseEntity<TestOutputDto> getTestOutput(@PathVariable String hash) {
+    return testResultService
+        .getTestOutput(hash)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
   /**
    * Look up historical flakiness scores for a list of test cases.
    * Authenticated via repository shared secret.
@@ -101,6 +131,127 @@ public class TestResultController {
         testCaseStatisticsService.getFlakinessScoresForTests(repositoryId, request.testCases()));
   }
 
+  /**
+   * NDJSON variant of {@link #getFlakinessScores} for requests with many thousands of test cases:
+   * one {@link TestFlakinessScoreRequest.TestCaseIdentifier} per request line, answered by one
+   * {@link TestFlakinessScoreDto} per response line, in the same order. Lines are read and written
+   * one at a time, so neither side is held in memory.
+   *
+   * <p>The scores of earlier lines may already be sent when a malformed line is read, so the
+   * status stays 200 and the response ends with a {@link TestFlakinessScoreStreamError} line
+   * instead of a score.
+   *
+   * @param repo the repository settings, populated by {@code RepoSecretFilter}
+   * @param requestBody the NDJSON request body
+   * @param response the response the NDJSON scores are written to
+   */
+  @PostMapping(value = "/flakiness-scores", consumes = NDJSON, produces = NDJSON)
+  @ApiResponse(
+      responseCode = "200",
+      description = "One score per request line; a malformed line ends the response with an error",
+      content =
+          @Content(
+              mediaType = NDJSON,
+              schema =
+                  @Schema(
+                      oneOf = {TestFlakinessScoreDto.class, TestFlakinessScoreStreamError.class})))
+  public void streamFlakinessScores(
+      @RequestAttribute("repository") GitRepoSettings repo,
+      InputStream requestBody,
+      HttpServletResponse response) throws IOException {
+    Long repositoryId = repo.getRepository().getRepositoryId();
+    response.setContentType(NDJSON);
+    try (MappingIterator<TestFlakinessScoreRequest.TestCaseIdentifier> identifiers =
+            objectMapper
+                .readerFor(TestFlakinessScoreRequest.TestCaseIdentifier.class)
+                .readValues(requestBody);
+        SequenceWriter scores =
+            objectMapper
+                .writer()
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+      int count;
+      try {
+        count = testCaseStatisticsService.forEachFlakinessScore(
+            repositoryId,
+            new ValidatingIterator(identifiers),
+            score -> {
+              try {
+                scores.write(score);
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+      } catch (MalformedLineException e) {
+        scores.write(new TestFlakinessScoreStreamError(e.getMessage(), e.line));
+        count = e.line;
+      }
+      if (count > 0) {
+        // The separator only goes between values, but every NDJSON line ends with one
+        scores.flush();
+        response.getOutputStream().write('\n');
+      }
+    }
+  }
+
+  /** A request line that is not valid JSON or lacks a name. */
+  private static final class MalformedLineException extends RuntimeException {
+    private final int line;
+
+    MalformedLineException(int line, String message) {
+      super(message);
+      this.line = line;
+    }
+  }
+
+  /**
+   * Rejects unparsable lines and identifiers with missing names, which {@code @Valid} checks for
+   * the JSON body, with a {@link MalformedLineException}.
+   */
+  private static final class ValidatingIterator
+      implements Iterator<TestFlakinessScoreRequest.TestCaseIdentifier> {
+    private final Iterator<TestFlakinessScoreRequest.TestCaseIdentifier> identifiers;
+    private int line;
+
+    ValidatingIterator(Iterator<TestFlakinessScoreRequest.TestCaseIdentifier> identifiers) {
+      this.identifiers = identifiers;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        return identifiers.hasNext();
+      } catch (RuntimeException e) {
+        // The parser reads ahead, so a broken next line already shows up here
+        throw new MalformedLineException(line + 1, "Invalid JSON: " + e.getMessage());
+      }
+    }
+
+    @Override
+    public TestFlakinessScoreRequest.TestCaseIdentifier next() {
+      line++;
+      TestFlakinessScoreRequest.TestCaseIdentifier identifier;
+      try {
+        identifier = identifiers.next();
+      } catch (NoSuchElementException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        throw new MalformedLineException(line, "Invalid JSON: " + e.getMessage());
+      }
+      if (isBlank(identifier.testName())
+          || isBlank(identifier.className())
+          || isBlank(identifier.testSuiteName())) {
+        throw new MalformedLineException(
+            line, "Every test case needs a testName, className and testSuiteName");
+      }
+      return identifier;
+    }
+
+    private static boolean isBlank(String value) {
+      return value == null || value.isBlank();
+    }
+  }
+
   /**
    * Get a paginated, optionally filtered overview of flaky tests for the current repository.
    *
@@ -0,0 +1,26 @@
+package de.tum.cit.aet.helios.tests;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning for {@link TestResultPartitions}.
+ *
+ * <p>{@code monthsAhead} is the number of months after the current one whose partitions are
+ * created in advance. {@code retentionMonths} is the number of months, including the current one,
+ * whose test results are kept; older partitions are dropped. {@code 0} keeps everything.
+ */
+@ConfigurationProperties(prefix = "helios.tests.partitions")
+public record TestResultPartitionProperties(
+    @DefaultValue("2") int monthsAhead, @DefaultValue("0") int retentionMonths) {
+
+  public TestResultPartitionProperties {
+    if (monthsAhead < 1) {
+      throw new IllegalArgumentException("helios.tests.partitions.months-ahead must be at least 1");
+    }
+    if (retentionMonths < 0) {
+      throw new IllegalArgumentException(
+          "helios.tests.partitions.retention-months must not be negative");
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package de.tum.cit.aet.helios.tests;
+
+import de.tum.cit.aet.helios.workflow.WorkflowRun;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the monthly partitions of {@code test_suite} and {@code test_case}.
+ *
+ * <p>Both tables are range-partitioned by {@code run_created_at}, the creation time of the
+ * workflow run the results belong to (see {@link #runCreatedAt}), one partition per UTC month.
+ * Partitions for the coming months are created in advance: rows of a month without a partition
+ * land in the default partition, which then keeps that month from being created. With {@code
+ * helios.tests.partitions.retention-months} set, test results of older months are dropped a whole
+ * partition at a time instead of being deleted row by row; only expired rows that ended up in the
+ * default partition are deleted individually.
+ *
+ * <p>{@code test_failure_analysis} has no foreign key to the partitioned {@code test_case}, so
+ * whoever deletes test cases deletes their cached analyses, too.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class TestResultPartitions {
+
+  /** Partition key of runs without a creation time; their results live in the default partition. */
+  static final OffsetDateTime UNKNOWN_RUN_CREATED_AT =
+      OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+
+  static final List<String> TABLES = List.of("test_suite", "test_case");
+
+  private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+  private static final Pattern PARTITION_NAME =
+      Pattern.compile("^(?:test_suite|test_case)_(\\d{4})_(\\d{2})$");
+
+  @PersistenceContext private EntityManager entityManager;
+
+  private final TransactionTemplate transactionTemplate;
+  private final TestResultPartitionProperties properties;
+
+  /**
+   * The partition key of the test results of a workflow run. Queries for a run's results pass it
+   * along, so that only the partition of the run's month is read.
+   *
+   * @param run the workflow run
+   * @return the run's creation time, or the epoch if it has none
+   */
+  public static OffsetDateTime runCreatedAt(WorkflowRun run) {
+    return run.getCreatedAt() != null ? run.getCreatedAt() : UNKNOWN_RUN_CREATED_AT;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${helios.tests.partitions.cron:0 15 3 * * *}")
+  public void maintain() {
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    Set<String> existing = findPartitionNames();
+
+    int created = 0;
+    for (YearMonth month : monthsToCreate(current, properties.monthsAhead())) {
+      for (String table : TABLES) {
+        if (!existing.contains(partitionName(table, month)) && createPartition(table, month)) {
+          created++;
+        }
+      }
+    }
+
+    int dropped = 0;
+    if (properties.retentionMonths() > 0) {
+      YearMonth firstKept = current.minusMonths(properties.retentionMonths() - 1L);
+      for (YearMonth month : expiredMonths(existing, firstKept)) {
+        if (dropMonth(month, existing)) {
+          dropped++;
+        }
+      }
+      purgeExpiredDefaultRows(firstKept);
+    }
+    log.info(
+        "Test result partition maintenance finished. created={} droppedMonths={}",
+        created,
+        dropped);
+  }
+
+  private boolean createPartition(String table, YearMonth month) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> execute(createPartitionSql(table, month)));
+      log.info("Created partition {}", partitionName(table, month));
+      return true;
+    } catch (Exception e) {
+      // Typically rows of that month already sit in the default partition
+      log.error("Failed to create partition {}", partitionName(table, month), e);
+      return false;
+    }
+  }
+
+  /**
+   * Drops the test results of one month. The test case partition goes first, so that detaching
+   * the test suite partition finds no referencing rows; cached failure analyses of the dropped
+   * test cases go with it.
+   */
+  private boolean dropMonth(YearMonth month, Set<String> existing) {
+    String testSuite = partitionName("test_suite", month);
+    String testCase = partitionName("test_case", month);
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            // Dropping and detaching lock the parent table; rather fail than queue up readers
+            execute("SET LOCAL lock_timeout = '5s'");
+            if (existing.contains(testCase)) {
+              execute(
+                  "DELETE FROM test_failure_analysis a USING %s tc WHERE a.test_case_id = tc.id"
+                      .formatted(testCase));
+              execute("DROP TABLE " + testCase);
+            }
+            if (existing.contains(testSuite)) {
+              execute("ALTER TABLE test_suite DETACH PARTITION " + testSuite);
+              execute("DROP TABLE " + testSuite);
+            }
+          });
+      log.info("Dropped test results of {}", month);
+      return true;
+    } catch (Exception e) {
+      log.error("Failed to drop test result partitions of {}", month, e);
+      return false;
+    }
+  }
+
+  /**
+   * Deletes the expired test results that sit in the default partitions, row by row: results of
+   * runs created before the first monthly partition, or in a month whose partition was never
+   * created. Results keyed by {@link #UNKNOWN_RUN_CREATED_AT} have no known age and stay until
+   * their workflow run is deleted.
+   */
+  private void purgeExpiredDefaultRows(YearMonth firstKept) {
+    String expired =
+        "run_created_at > '%s' AND run_created_at < '%s'"
+            .formatted(UNKNOWN_RUN_CREATED_AT, startOf(firstKept));
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            execute(
+                ("DELETE FROM test_failure_analysis a USING test_case_default tc "
+                        + "WHERE a.test_case_id = tc.id AND tc.%s")
+                    .formatted(expired));
+            execute("DELETE FROM test_case_default WHERE " + expired);
+            execute("DELETE FROM test_suite_default WHERE " + expired);
+          });
+    } catch (Exception e) {
+      log.error("Failed to delete expired test results of the default partitions", e);
+    }
+  }
+
+  private void execute(String sql) {
+    entityManager.createNativeQuery(sql).executeUpdate();
+  }
+
+  private Set<String> findPartitionNames() {
+    List<?> names =
+        entityManager
+            .createNativeQuery(
+                """
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent IN ('test_suite'::regclass, 'test_case'::regclass)
+                """)
+            .getResultList();
+    Set<String> result = new TreeSet<>();
+    for (Object name : names) {
+      result.add(name.toString());
+    }
+    return result;
+  }
+
+  static String partitionName(String table, YearMonth month) {
+    return table + "_" + month.format(SUFFIX);
+  }
+
+  static String createPartitionSql(String table, YearMonth month) {
+    return "CREATE TABLE %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')"
+        .formatted(
+            partitionName(table, month), table, startOf(month), startOf(month.plusMonths(1)));
+  }
+
+  private static OffsetDateTime startOf(YearMonth month) {
+    return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+  }
+
+  /** The current month and the given number of months after it. */
+  static List<YearMonth> monthsToCreate(YearMonth current, int monthsAhead) {
+    List<YearMonth> months = new ArrayList<>();
+    for (int i = 0; i <= monthsAhead; i++) {
+      months.add(current.plusMonths(i));
+    }
+    return months;
+  }
+
+  /** The months before {@code firstKept} that still have a partition, oldest first. */
+  static List<YearMonth> expiredMonths(Collection<String> partitionNames, YearMonth firstKept) {
+    Set<YearMonth> months = new TreeSet<>();
+    for (String name : partitionNames) {
+      Matcher matcher = PARTITION_NAME.matcher(name);
+      if (matcher.matches()) {
+        YearMonth month =
+            YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+        if (month.isBefore(firstKept)) {
+          months.add(month);
+        }
+      }
+    }
+    return new ArrayList<>(months);
+  }
+}
@@ -0,0 +1,26 @@
+package de.tum.cit.aet.helios.tests;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning for {@link TestResultProcessor}.
+ *
+ * <p>{@code parseParallelism} bounds how many report files of one artifact are parsed at the same
+ * time (and therefore how many parsed files are held in memory). {@code batchSize} is the number of
+ * test suites persisted, and fed into the statistics/flakiness update, per round trip.
+ */
+@ConfigurationProperties(prefix = "helios.tests.processing")
+public record TestResultProcessingProperties(
+    @DefaultValue("4") int parseParallelism, @DefaultValue("100") int batchSize) {
+
+  public TestResultProcessingProperties {
+    if (parseParallelism < 1) {
+      throw new IllegalArgumentException(
+          "helios.tests.processing.parse-parallelism must be at least 1");
+    }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("helios.tests.processing.batch-size must be at least 1");
+    }
+  }
+}
@@ -3,22 +3,35 @@ package de.tum.cit.aet.helios.tests;
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.tests.parsers.JunitParser;
 import de.tum.cit.aet.helios.tests.parsers.TestResultParseException;
 import de.tum.cit.aet.helios.tests.parsers.TestResultParser;
 import de.tum.cit.aet.helios.tests.type.TestType;
 import de.tum.cit.aet.helios.workflow.WorkflowRun;
 import de.tum.cit.aet.helios.workflow.WorkflowRunRepository;
-import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.kohsuke.github.GHArtifact;
@@ -34,8 +47,12 @@ public class TestResultProcessor {
   private final GitHubService gitHubService;
   private final WorkflowRunRepository workflowRunRepository;
   private final GitRepoRepository gitRepoRepository;
+  private final TestSuiteRepository testSuiteRepository;
+  private final TestSuiteStore testSuiteStore;
   private final JunitParser junitParser;
   private final TestCaseStatisticsService statisticsService;
+  private final TestResultProcessingProperties properties;
+  private final LiveUpdatePublisher liveUpdatePublisher;
 
   /**
    * Determines if a workflow run's test results should be processed.
@@ -66,6 +83,12 @@ public class TestResultProcessor {
   /**
    * Processes a workflow run's test results asynchronously.
    *
+   * <p>Suites are persisted in batches of {@code helios.tests.processing.batch-size} as they are
+   * parsed, so the memory needed does not grow with the size of the run. Only the runs and
+   * failures per test case are kept until the end and then folded into the test statistics and
+   * flakiness scores. If processing fails midway, the suites persisted so far are removed again
+   * and the statistics are left untouched, so a FAILED run never carries partial results.
+   *
    * @param workflowRun the workflow run to process
    */
   @Async("testResultProcessorExecutor")
@@ -73,36 +96,45 @@ public class TestResultProcessor {
     log.debug("Processing test results for workflow run {}", workflowRun.getName());
 
     workflowRun.setTestProcessingStatus(WorkflowRun.TestProcessingStatus.PROCESSING);
-    this.workflowRunRepository.save(workflowRun);
+    saveProcessingStatus(workflowRun);
 
+    TestSuiteBatchWriter writer = new TestSuiteBatchWriter(workflowRun);
     try {
-      List<TestSuite> testSuites = this.processRunSync(workflowRun);
-      workflowRun.setTestSuites(testSuites);
+      this.processRunSync(workflowRun, writer);
+      writer.flush();
+      writer.updateStatistics();
       workflowRun.setTestProcessingStatus(WorkflowRun.TestProcessingStatus.PROCESSED);
       log.debug(
-          "Successfully persisted test results for workflow run, workflow name: {}",
+          "Successfully persisted {} test suites for workflow run, workflow name: {}",
+          writer.getPersistedCount(),
           workflowRun.getName());
-
-      // Update test statistics if the workflow run is on the default branch
-      updateTestStatisticsIfDefaultBranch(testSuites, workflowRun);
-      updateFlakiness(testSuites, workflowRun);
     } catch (Exception e) {
       log.error("Failed to process test results for workflow run {}", workflowRun.getName(), e);
       workflowRun.setTestProcessingStatus(WorkflowRun.TestProcessingStatus.FAILED);
       workflowRun.setTestSuites(null);
+      writer.discard();
     } finally {
-      this.workflowRunRepository.save(workflowRun);
+      saveProcessingStatus(workflowRun);
     }
   }
 
+  /** Saves the run and announces it, since its pipeline shows the test processing status. */
+  private void saveProcessingStatus(WorkflowRun workflowRun) {
+    this.workflowRunRepository.save(workflowRun);
+    liveUpdatePublisher.publish(
+        workflowRun.getRepository(),
+        LiveUpdateEvent.workflowRun(
+            workflowRun.getId(), workflowRun.getHeadBranch(), workflowRun.getHeadSha()));
+  }
+
   /**
-   * Processes a workflow run's test results synchronously.
+   * Processes a workflow run's test results synchronously, handing every parsed test suite to the
+   * given writer.
    *
    * @param workflowRun the workflow run to process
-   * @return the test suites extracted from the workflow run's artifacts
+   * @param writer the writer receiving the test suites extracted from the run's artifacts
    */
-  private List<TestSuite> processRunSync(WorkflowRun workflowRun) {
-    List<TestSuite> allTestSuites = new ArrayList<>();
+  private void processRunSync(WorkflowRun workflowRun, TestSuiteBatchWriter writer) {
     // Names of every artifact seen on the run; used to make a no-match diagnosable (see below).
     List<String> seenArtifactNames = new ArrayList<>();
 
@@ -119,25 +151,19 @@ public class TestResultProcessor {
         seenArtifactNames.add(artifact.getName());
         TestType matchingTestType = findMatchingTestType(testTypes, artifact.getName());
         if (matchingTestType != null) {
-          List<TestSuite> testSuites = processTestResultArtifact(artifact);
-          // Set the test type relationship for each test suite
-          testSuites.forEach(
-              testSuite -> {
-                testSuite.setWorkflowRun(workflowRun);
-                testSuite.setTestType(matchingTestType);
-              });
-          allTestSuites.addAll(testSuites);
+          int suiteCount = processTestResultArtifact(artifact, matchingTestType, writer);
           log.debug(
-              "Processed artifact {} for test type {}",
+              "Processed artifact {} for test type {} ({} test suites)",
               artifact.getName(),
-              matchingTestType.getName());
+              matchingTestType.getName(),
+              suiteCount);
         }
       }
     } catch (IOException e) {
       throw new TestResultException("Failed to fetch or process artifacts", e);
     }
 
-    if (allTestSuites.isEmpty()) {
+    if (writer.getAcceptedCount() == 0) {
       // Artemis's single conditional CI workflow (ci.yml) gates the test/e2e jobs on changed
       // areas, so a COMPLETED run legitimately carries no matching test artifact (e.g. a docs-only
       // PR, or a skipped job). That is "no results", not a failure: returning empty lets it be
@@ -153,11 +179,10 @@ public class TestResultProcessor {
           workflowRun.getName(),
           seenArtifactNames,
           testTypes.stream().map(TestType::getArtifactName).toList());
-      return allTestSuites;
+      return;
     }
 
-    log.debug("Parsed {} test suites across all artifacts. Persisting...", allTestSuites.size());
-    return allTestSuites;
+    log.debug("Parsed {} test suites across all artifacts", writer.getAcceptedCount());
   }
 
   private TestType findMatchingTestType(Set<TestType> testTypes, String artifactName) {
@@ -200,7 +225,16 @@ public class TestResultProcessor {
     return Pattern.compile(regex.toString());
   }
 
-  private List<TestSuite> convertToTestSuites(List<TestResultParser.TestSuite> results) {
+  /**
+   * Test suites parsed from one report file, along with the outputs their hashes refer to. The
+   * outputs are encoded on the parsing threads and stored right before the suites.
+   */
+  private record ParsedSuites(List<TestSuite> suites, List<TestOutput> outputs) {
+    static final ParsedSuites EMPTY = new ParsedSuites(List.of(), List.of());
+  }
+
+  private List<TestSuite> convertToTestSuites(
+      List<TestResultParser.TestSuite> results, List<TestOutput> outputs) {
     return results.stream()
         .map(
             result -> {
@@ -214,18 +248,31 @@ public class TestResultProcessor {
               testSuite.setTimestamp(result.timestamp());
               // We don't want to store system out for passed test suites, as it can be quite large
               if (result.failures() > 0 || result.errors() > 0) {
-                testSuite.setSystemOut(result.systemOut());
+                testSuite.setSystemOutHash(addOutput(result.systemOut(), outputs));
               } else {
-                testSuite.setSystemOut(null);
+                testSuite.setSystemOutHash(null);
               }
               testSuite.setTestCases(
-                  result.testCases().stream().map(tc -> createTestCase(tc, testSuite)).toList());
+                  result.testCases().stream()
+                      .map(tc -> createTestCase(tc, testSuite, outputs))
+                      .toList());
               return testSuite;
             })
         .toList();
   }
 
-  private TestCase createTestCase(TestResultParser.TestCase tc, TestSuite testSuite) {
+  /** Encodes an output for storage and returns its hash, or {@code null} without an output. */
+  private static String addOutput(String text, List<TestOutput> outputs) {
+    TestOutput output = TestOutput.of(text);
+    if (output == null) {
+      return null;
+    }
+    outputs.add(output);
+    return output.getHash();
+  }
+
+  private TestCase createTestCase(
+      TestResultParser.TestCase tc, TestSuite testSuite, List<TestOutput> outputs) {
     TestCase testCase = new TestCase();
     testCase.setTestSuite(testSuite);
     testCase.setName(tc.name());
@@ -238,14 +285,14 @@ public class TestResultProcessor {
                 ? TestCase.TestStatus.ERROR
                 : tc.skipped() ? TestCase.TestStatus.SKIPPED : TestCase.TestStatus.PASSED);
     testCase.setMessage(tc.message());
-    testCase.setStackTrace(tc.stackTrace());
+    testCase.setStackTraceHash(addOutput(tc.stackTrace(), outputs));
     testCase.setErrorType(tc.errorType());
 
     // We don't want to store system out for passed tests, as it can be quite large
     if (tc.failed() || tc.error()) {
-      testCase.setSystemOut(tc.systemOut());
+      testCase.setSystemOutHash(addOutput(tc.systemOut(), outputs));
     } else {
-      testCase.setSystemOut(null);
+      testCase.setSystemOutHash(null);
     }
     return testCase;
   }
@@ -253,62 +300,186 @@ public class TestResultProcessor {
   /**
    * Processes a test result artifact.
    *
+   * <p>The ZIP is spooled to a temporary file first, so its entries can be read independently of
+   * each other. Parsable report files are then parsed concurrently on virtual threads, at most
+   * {@code parseParallelism} at a time, and handed to the writer in archive order.
+   *
    * @param artifact the artifact to process
-   * @return the test suites extracted from the artifact
+   * @param testType the test type the artifact's suites belong to
+   * @param writer the writer receiving the parsed test suites
+   * @return the number of test suites extracted from the artifact
    * @throws IOException if an I/O error occurs
    */
-  private List<TestSuite> processTestResultArtifact(GHArtifact artifact) throws IOException {
-    // Download the ZIP artifact, find all parsable XML files and parse them
-    return artifact.download(
-        stream -> {
-          if (stream.available() == 0) {
-            throw new TestResultException("Empty artifact stream");
-          }
+  private int processTestResultArtifact(
+      GHArtifact artifact, TestType testType, TestSuiteBatchWriter writer) throws IOException {
+    Path archive = Files.createTempFile("helios-test-results-", ".zip");
+    try {
+      long size =
+          artifact.download(
+              stream -> Files.copy(stream, archive, StandardCopyOption.REPLACE_EXISTING));
+      if (size == 0) {
+        throw new TestResultException("Empty artifact stream");
+      }
 
-          List<TestSuite> testSuites = new ArrayList<>();
-
-          try (ZipInputStream zipInput = new ZipInputStream(stream)) {
-            ZipEntry entry;
-
-            while ((entry = zipInput.getNextEntry()) != null) {
-              if (!entry.isDirectory()) {
-                if (this.junitParser.supports(entry.getName())) {
-                  var nonClosingStream =
-                      new FilterInputStream(zipInput) {
-                        @Override
-                        public void close() throws IOException {
-                          // Do nothing, so the underlying stream stays open.
-                        }
-                      };
-
-                  try {
-                    List<TestResultParser.TestSuite> parsedSuites =
-                        this.junitParser.parse(nonClosingStream);
-                    testSuites.addAll(convertToTestSuites(parsedSuites));
-                  } catch (TestResultParseException e) {
-                    log.error("Failed to parse JUnit XML file {}", entry.getName(), e);
-                  }
-                }
-              }
+      try (ZipFile zipFile = new ZipFile(archive.toFile());
+          ExecutorService parsers = Executors.newVirtualThreadPerTaskExecutor()) {
+        Deque<Future<ParsedSuites>> inFlight = new ArrayDeque<>();
+        int suiteCount = 0;
 
-              zipInput.closeEntry();
-            }
+        for (ZipEntry entry : Collections.list(zipFile.entries())) {
+          if (entry.isDirectory() || !this.junitParser.supports(entry.getName())) {
+            continue;
+          }
+          if (inFlight.size() >= properties.parseParallelism()) {
+            suiteCount += writer.accept(awaitParsed(inFlight.poll()), testType);
           }
+          inFlight.add(parsers.submit(() -> parseEntry(zipFile, entry)));
+        }
+        while (!inFlight.isEmpty()) {
+          suiteCount += writer.accept(awaitParsed(inFlight.poll()), testType);
+        }
+        return suiteCount;
+      }
+    } finally {
+      Files.deleteIfExists(archive);
+    }
+  }
+
+  private ParsedSuites parseEntry(ZipFile zipFile, ZipEntry entry) throws IOException {
+    try (InputStream input = zipFile.getInputStream(entry)) {
+      List<TestOutput> outputs = new ArrayList<>();
+      return new ParsedSuites(
+          convertToTestSuites(this.junitParser.parse(input), outputs), outputs);
+    } catch (TestResultParseException e) {
+      log.error("Failed to parse JUnit XML file {}", entry.getName(), e);
+      return ParsedSuites.EMPTY;
+    }
+  }
+
+  private static ParsedSuites awaitParsed(Future<ParsedSuites> parsed) throws IOException {
+    try {
+      return parsed.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TestResultException("Interrupted while parsing test results", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new TestResultException("Failed to parse test results", e.getCause());
+    }
+  }
+
+  /**
+   * Collects parsed test suites and persists them in batches. Only the current batch and the
+   * {@link TestRunTally} of the batches persisted so far are kept in memory.
+   */
+  private class TestSuiteBatchWriter {
+    private final WorkflowRun workflowRun;
+    private List<TestSuite> pending = new ArrayList<>();
+    private List<TestOutput> pendingOutputs = new ArrayList<>();
+    // Hashes of the outputs stored for this run, so repeated outputs are not sent again
+    private final Set<String> storedOutputs = new HashSet<>();
+    private final TestRunTally tally = new TestRunTally();
+    private int acceptedCount;
+    private int persistedCount;
+
+    TestSuiteBatchWriter(WorkflowRun workflowRun) {
+      this.workflowRun = workflowRun;
+    }
 
-          return testSuites;
-        });
+    int accept(ParsedSuites parsed, TestType testType) {
+      OffsetDateTime runCreatedAt = TestResultPartitions.runCreatedAt(workflowRun);
+      for (TestOutput output : parsed.outputs()) {
+        if (!storedOutputs.contains(output.getHash())) {
+          pendingOutputs.add(output);
+        }
+      }
+      for (TestSuite testSuite : parsed.suites()) {
+        testSuite.setWorkflowRun(workflowRun);
+        testSuite.setTestType(testType);
+        testSuite.setRunCreatedAt(runCreatedAt);
+        testSuite.getTestCases().forEach(testCase -> testCase.setRunCreatedAt(runCreatedAt));
+        pending.add(testSuite);
+        acceptedCount++;
+        if (pending.size() >= properties.batchSize()) {
+          flush();
+        }
+      }
+      return parsed.suites().size();
+    }
+
+    void flush() {
+      if (pending.isEmpty()) {
+        return;
+      }
+      List<TestSuite> batch = pending;
+      pending = new ArrayList<>();
+
+      List<TestOutput> outputs = pendingOutputs;
+      pendingOutputs = new ArrayList<>();
+      testSuiteStore.saveBatch(batch, outputs);
+      outputs.forEach(output -> storedOutputs.add(output.getHash()));
+      persistedCount += batch.size();
+      tally.add(batch);
+    }
+
+    /** Folds the whole run into the test statistics and flakiness scores. */
+    void updateStatistics() {
+      if (persistedCount == 0) {
+        return;
+      }
+      Optional<GitRepository> repository =
+          gitRepoRepository.findById(workflowRun.getRepository().getRepositoryId());
+      updateTestStatisticsIfDefaultBranch(tally, workflowRun, repository);
+      updateFlakiness(tally, workflowRun, repository);
+    }
+
+    /**
+     * Removes everything persisted so far, so a failed run is left without partial results. The
+     * statistics are only written for completed runs and need no undo.
+     */
+    void discard() {
+      pending = new ArrayList<>();
+      pendingOutputs = new ArrayList<>();
+      if (persistedCount == 0) {
+        return;
+      }
+      try {
+        workflowRunRepository.deleteTestFailureAnalysesByWorkflowRunIdIn(
+            List.of(workflowRun.getId()));
+        testSuiteRepository.deleteByWorkflowRunId(workflowRun.getId());
+      } catch (Exception e) {
+        log.error(
+            "Failed to remove partially persisted test suites of workflow run {}",
+            workflowRun.getName(),
+            e);
+      }
+    }
+
+    int getAcceptedCount() {
+      return acceptedCount;
+    }
+
+    int getPersistedCount() {
+      return persistedCount;
+    }
   }
 
   /**
    * Updates test statistics if the workflow run is on the default branch. This method safely
    * retrieves the repository and default branch information.
    *
-   * @param testSuites the test suites containing test cases
+   * @param tally the runs and failures per test case of the workflow run
    * @param workflowRun the workflow run
+   * @param repository the workflow run's repository, if it still exists
    */
   @Transactional
   protected void updateTestStatisticsIfDefaultBranch(
-      List<TestSuite> testSuites, WorkflowRun workflowRun) {
+      TestRunTally tally, WorkflowRun workflowRun, Optional<GitRepository> repository) {
     try {
       String headBranch = workflowRun.getHeadBranch();
       if (headBranch == null) {
@@ -316,10 +487,6 @@ public class TestResultProcessor {
         return;
       }
 
-      // Safely retrieve repository with its properties in a transaction
-      Optional<GitRepository> repository =
-          gitRepoRepository.findById(workflowRun.getRepository().getRepositoryId());
-
       if (repository.isEmpty()) {
         log.debug("Skipping test statistics update: repository not found");
         return;
@@ -330,7 +497,7 @@ public class TestResultProcessor {
       if (headBranch.equals(defaultBranch)) {
         log.debug("Updating test statistics for default branch: {}", headBranch);
         updateTestStatistics(
-            testSuites, headBranch, repository.get()); // update statistics for the default branch
+            tally, headBranch, repository.get()); // update statistics for the default branch
       } else {
         log.debug(
             "Skipping test statistics update for non-default branch: {}, default branch: {}",
@@ -339,7 +506,7 @@ public class TestResultProcessor {
       }
 
       updateTestStatistics(
-          testSuites,
+          tally,
           "combined",
           repository.get()); // update statistics for all the branches combined
       log.debug("Successfully updated test statistics for all branches combined");
@@ -350,18 +517,16 @@ public class TestResultProcessor {
   }
 
   /**
-   * Updates test case statistics for all test cases in the given test suites.
+   * Updates test case statistics for all test cases of the workflow run.
    *
-   * @param testSuites the test suites containing test cases
+   * @param tally the runs and failures per test case of the workflow run
    * @param branchName the branch name where the tests were run
    * @param repository the repository
    */
   private void updateTestStatistics(
-      List<TestSuite> testSuites, String branchName, GitRepository repository) {
+      TestRunTally tally, String branchName, GitRepository repository) {
     try {
-      for (TestSuite testSuite : testSuites) {
-        statisticsService.updateStatisticsForTestSuite(testSuite, branchName, repository);
-      }
+      statisticsService.updateStatistics(tally, branchName, repository);
       log.debug("Successfully updated test statistics for branch: {}", branchName);
     } catch (Exception e) {
       log.error("Failed to update test statistics for branch: {}", branchName, e);
@@ -370,21 +535,20 @@ public class TestResultProcessor {
   }
 
   /**
-   * Recomputes and persists flakiness scores for all tests belonging to the given suites.
-   * Called from {@link #processRun} after the statistics transaction has
-   * already committed, so that the flakiness update runs in its own fresh Hibernate session.
+   * Recomputes and persists flakiness scores for all tests of the workflow run. Called after the
+   * statistics transaction has already committed, so that the flakiness update runs in its own
+   * fresh Hibernate session.
    *
-   * @param testSuites the test suites processed in this run
+   * @param tally the test cases of the workflow run
    * @param workflowRun the workflow run
+   * @param repositoryRef the workflow run's repository, if it still exists
    */
-  private void updateFlakiness(List<TestSuite> testSuites, WorkflowRun workflowRun) {
+  private void updateFlakiness(
+      TestRunTally tally, WorkflowRun workflowRun, Optional<GitRepository> repositoryRef) {
     try {
-      GitRepository repository = gitRepoRepository
-          .findById(workflowRun.getRepository().getRepositoryId())
-          .orElseThrow();
+      GitRepository repository = repositoryRef.orElseThrow();
 
-      statisticsService.updateFlakinessForTestSuite(
-          testSuites, repository.getDefaultBranch(), repository);
+      statisticsService.updateFlakiness(tally, repository.getDefaultBranch(), repository);
     } catch (Exception e) {
       log.error("Failed to update flakiness scores for workflow run {}", workflowRun.getName(), e);
     }
@@ -4,21 +4,20 @@ import de.tum.cit.aet.helios.branch.BranchRepository;
 import de.tum.cit.aet.helios.filters.RepositoryContext;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
 import de.tum.cit.aet.helios.pullrequest.PullRequestRepository;
-import de.tum.cit.aet.helios.tests.TestCase.TestStatus;
 import de.tum.cit.aet.helios.tests.TestResultsDto.TestCaseDto;
 import de.tum.cit.aet.helios.tests.TestResultsDto.TestTypeResults;
 import de.tum.cit.aet.helios.tests.type.TestType;
 import de.tum.cit.aet.helios.workflow.WorkflowRun;
 import de.tum.cit.aet.helios.workflow.WorkflowRunRepository;
 import jakarta.persistence.EntityNotFoundException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.data.domain.PageRequest;
@@ -34,91 +33,14 @@ public class TestResultService {
   private final PullRequestRepository pullRequestRepository;
   private final TestSuiteRepository testSuiteRepository;
   private final TestCaseRepository testCaseRepository;
-  private final TestCaseStatisticsRepository testCaseStatisticsRepository;
-  private final TestCaseStatisticsService testCaseStatisticsService;
+  private final TestOutputService testOutputService;
 
   public static record TestSearchCriteria(int page, int size, String search, boolean onlyFailed) {}
 
   private record TestRunContext(
       List<WorkflowRun> latestRuns,
       List<WorkflowRun> previousRuns,
-      String defaultBranchName,
-      Map<TestType, Long> defaultWorkflowRunByTestType) {}
-
-  /**
-   * Sort test cases with the following priority: 1. Test cases with updated status 2. Failed or
-   * error test cases 3. Alphabetical order by name for stable sorting
-   *
-   * @param testCases the test cases to sort
-   * @param previousStatusProvider function to get previous status
-   * @return sorted list of test cases
-   */
-  private List<TestCase> sortTestCases(List<TestCase> testCases) {
-
-    return testCases.stream()
-        .sorted(
-            (a, b) -> {
-              // Get previous statuses
-              Optional<TestStatus> prevStatusA = Optional.ofNullable(a.getPreviousStatus());
-              Optional<TestStatus> prevStatusB = Optional.ofNullable(b.getPreviousStatus());
-
-              // Check for status changes
-              boolean statusChangedA =
-                  prevStatusA.isPresent() && a.getStatus() != prevStatusA.get();
-              boolean statusChangedB =
-                  prevStatusB.isPresent() && b.getStatus() != prevStatusB.get();
-
-              // 1. First priority: Status changed
-              if (statusChangedA && !statusChangedB) {
-                return -1;
-              }
-              if (!statusChangedA && statusChangedB) {
-                return 1;
-              }
-
-              // 2. Second priority: Failed or error status
-              boolean failedA =
-                  a.getStatus() == TestStatus.FAILED || a.getStatus() == TestStatus.ERROR;
-              boolean failedB =
-                  b.getStatus() == TestStatus.FAILED || b.getStatus() == TestStatus.ERROR;
-
-              if (failedA && !failedB) {
-                return -1;
-              }
-              if (!failedA && failedB) {
-                return 1;
-              }
-
-              // If both failed, prioritize non-flaky failures and non-default branch failures
-              if (failedA && failedB) {
-                // Check if one is failing in default branch and the other is not
-                boolean failsInDefault = a.isFailsInDefaultBranch();
-                boolean otherFailsInDefault = b.isFailsInDefaultBranch();
-
-                if (!failsInDefault && otherFailsInDefault) {
-                  return -1; // a is more important (user's fault)
-                }
-                if (failsInDefault && !otherFailsInDefault) {
-                  return 1; // b is more important (user's fault)
-                }
-
-                // Check if one is flaky and the other is not
-                boolean flaky = a.getFlakinessScore() > 30.0;
-                boolean otherFlaky = b.getFlakinessScore() > 30.0;
-
-                if (!flaky && otherFlaky) {
-                  return -1; // a is more important (not flaky)
-                }
-                if (flaky && !otherFlaky) {
-                  return 1; // b is more important (not flaky)
-                }
-              }
-
-              // 3. Third priority: Alphabetical sort for stable ordering
-              return a.getName().compareTo(b.getName());
-            })
-        .collect(Collectors.toList());
-  }
+      Map<TestType, WorkflowRun> defaultWorkflowRunByTestType) {}
 
   private TestRunContext getDefaultBranchContext(GitRepository repository) {
     var defaultBranch =
@@ -130,16 +52,15 @@ public class TestResultService {
         workflowRunRepository.findByHeadBranchAndHeadShaAndRepositoryRepositoryId(
             defaultBranch.getName(), defaultBranch.getCommitSha(), repository.getRepositoryId());
 
-    Map<TestType, Long> defaultWorkflowRunByTestType = new HashMap<>();
+    Map<TestType, WorkflowRun> defaultWorkflowRunByTestType = new HashMap<>();
 
     for (WorkflowRun run : defaultRuns) {
       for (TestType type : run.getWorkflow().getTestTypes()) {
-        defaultWorkflowRunByTestType.put(type, run.getId());
+        defaultWorkflowRunByTestType.put(type, run);
       }
     }
 
-    return new TestRunContext(
-        defaultRuns, List.of(), defaultBranch.getName(), defaultWorkflowRunByTestType);
+    return new TestRunContext(defaultRuns, List.of(), defaultWorkflowRunByTestType);
   }
 
   /**
@@ -178,7 +99,6 @@ public class TestResultService {
         new TestRunContext(
             latestRuns,
             previousRuns,
-            defaultContext.defaultBranchName(),
             defaultContext.defaultWorkflowRunByTestType());
 
     return processTestResults(context, criteria);
@@ -221,7 +141,6 @@ public class TestResultService {
         new TestRunContext(
             latestRuns,
             previousRuns,
-            defaultContext.defaultBranchName(),
             defaultContext.defaultWorkflowRunByTestType());
 
     return processTestResults(context, criteria);
@@ -284,18 +203,17 @@ public class TestResultService {
         new TestRunContext(
             List.of(run),
             previousRuns,
-            defaultContext.defaultBranchName(),
             defaultContext.defaultWorkflowRunByTestType());
 
     return processTestResults(context, criteria);
   }
 
   private TestResultsDto processTestResults(TestRunContext context, TestSearchCriteria criteria) {
-    Map<TestType, Long> previousWorkflowRunByTestType = new HashMap<>();
+    Map<TestType, WorkflowRun> previousWorkflowRunByTestType = new HashMap<>();
 
     for (WorkflowRun run : context.previousRuns()) {
       for (TestType type : run.getWorkflow().getTestTypes()) {
-        previousWorkflowRunByTestType.put(type, run.getId());
+        previousWorkflowRunByTestType.put(type, run);
       }
     }
 
@@ -310,7 +228,6 @@ public class TestResultService {
                 run,
                 previousWorkflowRunByTestType.get(type),
                 PageRequest.of(criteria.page(), criteria.size()),
-                context.defaultBranchName(),
                 context.defaultWorkflowRunByTestType().get(type),
                 criteria.search(),
                 criteria.onlyFailed());
@@ -322,41 +239,44 @@ public class TestResultService {
     return new TestResultsDto(results, anyProcessing);
   }
 
-  private List<TestCase> filterTestCases(
-      List<TestCase> testCases, String search, boolean onlyFailed) {
-    return testCases.stream()
-        .filter(
-            testCase -> {
-              // Filter by failed status if onlyFailed is true
-              if (onlyFailed) {
-                if (testCase.getStatus() != TestStatus.FAILED
-                    && testCase.getStatus() != TestStatus.ERROR) {
-                  return false;
-                }
-              }
-
-              // Filter by search term if search is not null or empty
-              if (search != null && !search.trim().isEmpty()) {
-                String searchLower = search.toLowerCase();
-                return testCase.getName().toLowerCase().contains(searchLower)
-                    || testCase.getClassName().toLowerCase().contains(searchLower);
-              }
-
-              return true;
-            })
-        .collect(Collectors.toList());
+  /**
+   * Get a stack trace or system out the test results of the current repository refer to. Test
+   * result pages only carry the hashes, the texts are loaded when a test case is opened.
+   *
+   * @param hash the hash of the output
+   * @return the output, or empty if no test result of the repository refers to it
+   */
+  public Optional<TestOutputDto> getTestOutput(String hash) {
+    return testOutputService
+        .load(hash, RepositoryContext.getRepositoryId())
+        .map(text -> new TestOutputDto(hash, text));
+  }
+
+  /**
+   * The lower-case {@code LIKE} pattern of a search term, matching everything for a blank one. The
+   * wildcards {@code %} and {@code _} and the escape character {@code !} in the term match
+   * themselves; the queries declare {@code ESCAPE '!'}.
+   */
+  static String toSearchPattern(String search) {
+    if (search == null || search.isBlank()) {
+      return "%";
+    }
+    String escaped =
+        search.toLowerCase().replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    return "%" + escaped + "%";
   }
 
   private TestTypeResults getTestTypeResultsForRun(
       Long repositoryId,
       TestType type,
       WorkflowRun run,
-      Long prevWorkflowRunId,
+      WorkflowRun prevRun,
       Pageable pageable,
-      String defaultBranch,
-      Long defaultWorkflowRunId,
+      WorkflowRun defaultRun,
       String search,
       boolean onlyFailed) {
+    Long prevWorkflowRunId = prevRun != null ? prevRun.getId() : null;
+    OffsetDateTime runCreatedAt = TestResultPartitions.runCreatedAt(run);
 
     log.debug(
         "Getting test results for type {} in workflow run {} with previous run {}",
@@ -367,7 +287,13 @@ public class TestResultService {
 
     var suites =
         testSuiteRepository.findByWorkflowRunIdAndTestTypeId(
-            run.getId(), type.getId(), prevWorkflowRunId, search, onlyFailed, pageable);
+            run.getId(),
+            runCreatedAt,
+            type.getId(),
+            prevWorkflowRunId,
+            toSearchPattern(search),
+            onlyFailed,
+            pageable);
 
     log.debug(
         "Found {} test suites in {} ms",
@@ -376,89 +302,40 @@ public class TestResultService {
 
     var summary =
         testSuiteRepository.findSummaryByWorkflowRunIdAndTestTypeId(
-            run.getId(), type.getId(), prevWorkflowRunId);
-
-    var suiteClassNames = suites.stream().map(TestSuite::getName).distinct().toList();
-
-    var failedTestsInDefault =
-        testCaseRepository.findFailedByTestSuiteWorkflowIdAndClassNamesAndTestTypeId(
-            defaultWorkflowRunId, suiteClassNames, type.getId());
-
-    List<TestCaseStatistics> defaultBranchStats =
-        testCaseStatisticsRepository.findByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-            suiteClassNames, defaultBranch, RepositoryContext.getRepositoryId());
-
-    List<TestCaseStatistics> combinedStats =
-        testCaseStatisticsRepository.findByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-            suiteClassNames, "combined", RepositoryContext.getRepositoryId());
-
-    var prevStateCandidates =
-        testCaseRepository.findByTestSuiteWorkflowIdAndClassNamesAndTestTypeId(
-            prevWorkflowRunId, suiteClassNames, type.getId());
-
-    // Pre-index everything fetched above so the per-test-case loop below runs in O(1) per test
-    // instead of O(n) linear scans or individual DB queries.
-
-    // Precomputed flakiness table - one bulk fetch instead of N+1 individual SELECTs
-    Map<TestCaseStatisticsService.StatsKey, TestCaseFlakiness> flakinessIndex =
-        testCaseStatisticsService.loadFlakinessIndex(suiteClassNames, repositoryId);
-
-    // Fallback failure-rate indexes for tests that have no precomputed flakiness record yet
-    Map<TestCaseStatisticsService.StatsKey, Double> defaultRates =
-        TestCaseStatisticsService.indexFailureRates(defaultBranchStats);
-    Map<TestCaseStatisticsService.StatsKey, Double> combinedRates =
-        TestCaseStatisticsService.indexFailureRates(combinedStats);
-
-    // "test failed on default branch" set - O(1) contains() instead of O(n) anyMatch()
-    Set<TestCaseStatisticsService.StatsKey> failedInDefaultKeys =
-        failedTestsInDefault.stream()
-            .map(t -> new TestCaseStatisticsService.StatsKey(
-                t.getName(), t.getClassName(), t.getTestSuite().getName()))
-            .collect(Collectors.toSet());
-
-    // Previous-status map - O(1) get() instead of O(n) filter().findFirst()
-    Map<TestCaseStatisticsService.StatsKey, TestStatus> prevStatusByKey =
-        prevStateCandidates.stream()
-            .collect(
-                Collectors.toMap(
-                    t -> new TestCaseStatisticsService.StatsKey(
-                        t.getName(), t.getClassName(), t.getTestSuite().getName()),
-                    TestCase::getStatus,
-                    (a, b) -> a));
-
-    for (TestSuite suite : suites) {
-      for (TestCase testCase : suite.getTestCases()) {
-        var key = new TestCaseStatisticsService.StatsKey(
-            testCase.getName(), testCase.getClassName(), suite.getName());
-        TestCaseFlakiness flakiness = flakinessIndex.get(key);
-        if (flakiness != null) {
-          testCase.setFlakinessScore(flakiness.getFlakinessScore());
-          testCase.setFailureRate(flakiness.getDefaultBranchFailureRate());
-          testCase.setCombinedFailureRate(flakiness.getCombinedFailureRate());
-        } else {
-          var flakinessInfo = testCaseStatisticsService.computeFlakinessInfo(
-              testCase.getName(), testCase.getClassName(), suite.getName(),
-              defaultRates, combinedRates);
-          testCase.setFlakinessScore(flakinessInfo.flakinessScore());
-          testCase.setFailureRate(flakinessInfo.defaultBranchFailureRate());
-          testCase.setCombinedFailureRate(flakinessInfo.combinedFailureRate());
-        }
-
-        testCase.setFailsInDefaultBranch(failedInDefaultKeys.contains(key));
-        testCase.setPreviousStatus(prevStatusByKey.get(key));
-      }
+            run.getId(), runCreatedAt, type.getId(), prevWorkflowRunId);
+
+    List<TestCaseRepository.TestCaseRow> rows = List.of();
+    if (suites.hasContent()) {
+      time = System.currentTimeMillis();
+      rows =
+          testCaseRepository.findRowsByTestSuiteIds(
+              suites.map(TestSuite::getId).toList(),
+              runCreatedAt,
+              repositoryId,
+              prevWorkflowRunId,
+              prevRun != null ? TestResultPartitions.runCreatedAt(prevRun) : null,
+              defaultRun != null ? defaultRun.getId() : null,
+              defaultRun != null ? TestResultPartitions.runCreatedAt(defaultRun) : null,
+              toSearchPattern(search),
+              onlyFailed,
+              TestCaseStatisticsService.LOW_FLAKINESS_THRESHOLD);
+      log.debug("Found {} test cases in {} ms", rows.size(), System.currentTimeMillis() - time);
+    }
+
+    Map<Long, List<TestCaseDto>> testCasesBySuite = new HashMap<>();
+    // Rows arrive grouped by suite and already in display order
+    for (TestCaseRepository.TestCaseRow row : rows) {
+      testCasesBySuite
+          .computeIfAbsent(row.getTestSuiteId(), id -> new ArrayList<>())
+          .add(TestCaseDto.fromRow(row));
     }
 
     var suiteDtos =
         suites.stream()
             .map(
-                suite -> {
-                  var filteredTestCases = filterTestCases(suite.getTestCases(), search, onlyFailed);
-                  var testCases = sortTestCases(filteredTestCases);
-                  var testCaseDtos = testCases.stream().map(TestCaseDto::fromTestCase).toList();
-
-                  return TestResultsDto.TestSuiteDto.fromTestSuite(suite, testCaseDtos);
-                })
+                suite ->
+                    TestResultsDto.TestSuiteDto.fromTestSuite(
+                        suite, testCasesBySuite.getOrDefault(suite.getId(), List.of())))
             .toList();
 
     return new TestTypeResults(
@@ -7,7 +7,8 @@ import org.springframework.lang.NonNull;
 
 /**
  * DTO for grouped test results. Test suites are grouped by workflow, enabling separate display of
- * different test types.
+ * different test types. Stack traces and system outs are referenced by the hash of their stored
+ * output; views load the ones they show via {@code /api/tests/outputs/{hash}}.
  */
 public record TestResultsDto(@NonNull List<TestTypeResults> testResults, boolean isProcessing) {
 
@@ -44,7 +45,7 @@ public record TestResultsDto(@NonNull List<TestTypeResults> testResults, boolean
       @NonNull Integer errors,
       @NonNull Integer skipped,
       @NonNull Double time,
-      String systemOut,
+      String systemOutHash,
       @NonNull List<TestCaseDto> testCases) {
     public static TestSuiteDto fromTestSuite(TestSuite testSuite, List<TestCaseDto> testCases) {
       return new TestSuiteDto(
@@ -56,7 +57,7 @@ public record TestResultsDto(@NonNull List<TestTypeResults> testResults, boolean
           testSuite.getErrors(),
           testSuite.getSkipped(),
           testSuite.getTime(),
-          testSuite.getSystemOut(),
+          testSuite.getSystemOutHash(),
           testCases);
     }
   }
@@ -69,29 +70,29 @@ public record TestResultsDto(@NonNull List<TestTypeResults> testResults, boolean
       TestStatus previousStatus,
       @NonNull Double time,
       String message,
-      String stackTrace,
-      String systemOut,
+      String stackTraceHash,
+      String systemOutHash,
       String errorType,
       Double flakinessScore,
       Double defaultBranchFailureRate,
       Double combinedFailureRate,
       Boolean failsInDefaultBranch) {
-    public static TestCaseDto fromTestCase(TestCase testCase) {
+    public static TestCaseDto fromRow(TestCaseRepository.TestCaseRow row) {
       return new TestCaseDto(
-          testCase.getId(),
-          testCase.getName(),
-          testCase.getClassName(),
-          testCase.getStatus(),
-          testCase.getPreviousStatus(),
-          testCase.getTime(),
-          testCase.getMessage(),
-          testCase.getStackTrace(),
-          testCase.getSystemOut(),
-          testCase.getErrorType(),
-          testCase.getFlakinessScore(),
-          testCase.getFailureRate(),
-          testCase.getCombinedFailureRate(),
-          testCase.isFailsInDefaultBranch());
+          row.getId(),
+          row.getName(),
+          row.getClassName(),
+          TestStatus.valueOf(row.getStatus()),
+          row.getPreviousStatus() == null ? null : TestStatus.valueOf(row.getPreviousStatus()),
+          row.getTime(),
+          row.getMessage(),
+          row.getStackTraceHash(),
+          row.getSystemOutHash(),
+          row.getErrorType(),
+          row.getFlakinessScore(),
+          row.getDefaultBranchFailureRate(),
+          row.getCombinedFailureRate(),
+          row.getFailsInDefaultBranch());
     }
   }
 }
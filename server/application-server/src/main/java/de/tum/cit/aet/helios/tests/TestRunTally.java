@@ -0,0 +1,53 @@
+package de.tum.cit.aet.helios.tests;
+
+import de.tum.cit.aet.helios.tests.TestCaseStatisticsService.StatsKey;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs and failures per test case of one workflow run. Filled batch by batch while the run's test
+ * suites are persisted and written to the statistics once the whole run is stored, so a run that
+ * fails midway leaves the statistics untouched. Holds one entry per distinct test case, not the
+ * suites themselves. Test cases without a name or class name, which the JUnit parser allows, are
+ * not counted: the statistics and flakiness rows are keyed on both.
+ */
+public class TestRunTally {
+
+  private final Map<StatsKey, int[]> runs =
+      new TreeMap<>(TestCaseStatisticsService.STATS_KEY_ORDER);
+
+  /**
+   * Counts one run of every test case in the given suites.
+   *
+   * @param testSuites the test suites containing test cases
+   * @return this tally
+   */
+  public TestRunTally add(List<TestSuite> testSuites) {
+    for (TestSuite testSuite : testSuites) {
+      for (TestCase testCase : testSuite.getTestCases()) {
+        if (testCase.getName() == null || testCase.getClassName() == null) {
+          continue;
+        }
+        boolean hasFailed =
+            testCase.getStatus() == TestCase.TestStatus.FAILED
+                || testCase.getStatus() == TestCase.TestStatus.ERROR;
+        int[] counts =
+            runs.computeIfAbsent(
+                new StatsKey(testCase.getName(), testCase.getClassName(), testSuite.getName()),
+                key -> new int[2]);
+        counts[0]++;
+        if (hasFailed) {
+          counts[1]++;
+        }
+      }
+    }
+    return this;
+  }
+
+  /** Returns total and failed runs per test case, in the write order of the statistics. */
+  Map<StatsKey, int[]> runs() {
+    return Collections.unmodifiableMap(runs);
+  }
+}
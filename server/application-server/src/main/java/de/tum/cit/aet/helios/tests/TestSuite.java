@@ -13,8 +13,10 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.validation.constraints.Min;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
@@ -29,7 +31,11 @@ import lombok.ToString;
 @ToString(exclude = "workflowRun")
 public class TestSuite {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "test_suite_id_seq")
+  @SequenceGenerator(
+      name = "test_suite_id_seq",
+      sequenceName = "test_suite_id_seq",
+      allocationSize = 50)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -69,6 +75,11 @@ public class TestSuite {
   @JoinColumn(name = "test_type_id")
   private TestType testType;
 
-  @Column(name = "system_out")
-  private String systemOut;
+  /** Hash of the system out in {@link TestOutput}, kept for suites with failures only. */
+  @Column(name = "system_out_hash", length = 64)
+  private String systemOutHash;
+
+  /** Creation time of the workflow run, the partition key, see {@link TestResultPartitions}. */
+  @Column(name = "run_created_at", nullable = false, updatable = false)
+  private OffsetDateTime runCreatedAt;
 }
@@ -1,17 +1,32 @@
 package de.tum.cit.aet.helios.tests;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface TestSuiteRepository extends JpaRepository<TestSuite, Long> {
   List<TestSuite> findByWorkflowRunId(long workflowRunId);
 
+  /**
+   * Deletes all test suites of a workflow run. Their test cases are removed by the database
+   * through the {@code on delete cascade} foreign key.
+   *
+   * @param workflowRunId The ID of the workflow run
+   * @return the number of deleted test suites
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM TestSuite ts WHERE ts.workflowRun.id = :workflowRunId")
+  int deleteByWorkflowRunId(@Param("workflowRunId") long workflowRunId);
+
   /**
    * Retrieves test suites for a specific workflow run and test type, ordered by significance.
    *
@@ -21,9 +36,14 @@ public interface TestSuiteRepository extends JpaRepository<TestSuite, Long> {
    * test suites are ordered alphabetically by name
    *
    * @param workflowRunId The ID of the current workflow run
+   * @param runCreatedAt The partition key of the current workflow run, see {@link
+   *     TestResultPartitions#runCreatedAt}
    * @param testTypeId The ID of the test type to filter by
    * @param prevWorkflowRunId The ID of the previous workflow run for status change comparison. This
    *     can be null if no previous run is available.
+   * @param searchPattern Lower-case {@code LIKE} pattern on test and class name with {@code !} as
+   *     escape character, {@code %} for all suites
+   * @param onlyFailed Whether to return suites with failed or errored tests only
    * @param pageable Pagination information
    * @return A page of TestSuite objects meeting the specified criteria and ordering
    */
@@ -32,13 +52,15 @@ public interface TestSuiteRepository extends JpaRepository<TestSuite, Long> {
       SELECT ts
       FROM TestSuite ts
       WHERE ts.workflowRun.id = :workflowRunId
+      AND ts.runCreatedAt = :runCreatedAt
       AND ts.testType.id = :testTypeId
-      AND (:search IS NULL OR EXISTS (
+      AND (:searchPattern = '%' OR EXISTS (
           SELECT 1
           FROM TestCase tc
           WHERE tc.testSuite = ts
-          AND (LOWER(tc.name) LIKE LOWER(CONCAT('%', :search, '%'))
-               OR LOWER(tc.className) LIKE LOWER(CONCAT('%', :search, '%')))
+          AND tc.runCreatedAt = :runCreatedAt
+          AND (LOWER(tc.name) LIKE :searchPattern ESCAPE '!'
+               OR LOWER(tc.className) LIKE :searchPattern ESCAPE '!')
       ))
       AND (:onlyFailed = false OR ts.failures > 0 OR ts.errors > 0)
       ORDER BY
@@ -47,9 +69,10 @@ public interface TestSuiteRepository extends JpaRepository<TestSuite, Long> {
       """)
   Page<TestSuite> findByWorkflowRunIdAndTestTypeId(
       @Param("workflowRunId") long workflowRunId,
+      @Param("runCreatedAt") OffsetDateTime runCreatedAt,
       @Param("testTypeId") long testTypeId,
       @Param("prevWorkflowRunId") Long prevWorkflowRunId,
-      @Param("search") String search,
+      @Param("searchPattern") String searchPattern,
       @Param("onlyFailed") boolean onlyFailed,
       Pageable pageable);
 
@@ -58,6 +81,7 @@ public interface TestSuiteRepository extends JpaRepository<TestSuite, Long> {
    * summary includes aggregated test statistics and change detection compared to a previous run.
    *
    * @param workflowRunId The ID of the current workflow run
+   * @param runCreatedAt The partition key of the current workflow run
    * @param testTypeId The ID of the test type to filter results
    * @param prevWorkflowRunId The ID of the previous workflow run for comparison (can be null)
    * @return TestSuiteSummaryDto containing some aggregated test statistics and change detection
@@ -75,10 +99,12 @@ public interface TestSuiteRepository extends JpaRepository<TestSuite, Long> {
           )
           FROM TestSuite ts
           WHERE ts.workflowRun.id = :workflowRunId
+          AND ts.runCreatedAt = :runCreatedAt
           AND ts.testType.id = :testTypeId
       """)
   TestSuiteSummaryDto findSummaryByWorkflowRunIdAndTestTypeId(
       @Param("workflowRunId") long workflowRunId,
+      @Param("runCreatedAt") OffsetDateTime runCreatedAt,
       @Param("testTypeId") long testTypeId,
       @Param("prevWorkflowRunId") Long prevWorkflowRunId);
 }
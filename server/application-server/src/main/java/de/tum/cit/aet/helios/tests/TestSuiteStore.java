@@ -0,0 +1,44 @@
+package de.tum.cit.aet.helios.tests;
+
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes one batch of parsed test suites, their test cases and the outputs they refer to in a
+ * single transaction.
+ *
+ * <p>JDBC batching is enabled for this session only: suites and cases draw their ids from pooled
+ * sequences, so their inserts are sent in batches of {@value #JDBC_BATCH_SIZE} instead of one
+ * round-trip per row. Inserts are not reordered, so each suite's cases form one batch and the
+ * suite rows in between are sent on their own.
+ */
+@Component
+@RequiredArgsConstructor
+public class TestSuiteStore {
+
+  static final int JDBC_BATCH_SIZE = 50;
+
+  private final TestSuiteRepository testSuiteRepository;
+  private final TestOutputService testOutputService;
+  private final EntityManager entityManager;
+
+  /**
+   * Stores the outputs, then the suites with their test cases.
+   *
+   * @param testSuites the suites to insert
+   * @param outputs the outputs the suites' and cases' hashes refer to
+   */
+  @Transactional
+  public void saveBatch(List<TestSuite> testSuites, Collection<TestOutput> outputs) {
+    entityManager.unwrap(Session.class).setJdbcBatchSize(JDBC_BATCH_SIZE);
+    // The suites' hashes refer to the outputs, so those go first
+    testOutputService.storeAll(outputs);
+    testSuiteRepository.saveAll(testSuites);
+    entityManager.flush();
+  }
+}
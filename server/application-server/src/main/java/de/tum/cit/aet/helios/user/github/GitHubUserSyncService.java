@@ -4,23 +4,34 @@ import de.tum.cit.aet.helios.user.User;
 import de.tum.cit.aet.helios.user.UserRepository;
 import de.tum.cit.aet.helios.util.DateUtil;
 import java.io.IOException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.hibernate.exception.ConstraintViolationException;
 import org.kohsuke.github.GHUser;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Log4j2
-@RequiredArgsConstructor
 public class GitHubUserSyncService {
 
   private final UserRepository userRepository;
   private final GitHubUserConverter userConverter;
+  private final TransactionTemplate userTransaction;
 
+  public GitHubUserSyncService(
+      UserRepository userRepository,
+      GitHubUserConverter userConverter,
+      PlatformTransactionManager transactionManager) {
+    this.userRepository = userRepository;
+    this.userConverter = userConverter;
+    this.userTransaction = new TransactionTemplate(transactionManager);
+    this.userTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
 
   @Transactional(propagation = Propagation.REQUIRES_NEW)
   public User getAnonymousUser() {
@@ -52,14 +63,26 @@ public class GitHubUserSyncService {
 
   /**
    * Processes a GitHub user by either updating the existing user in the repository or creating a
-   * new one.
+   * new one, in a transaction of its own.
+   *
+   * <p>Users are shared by all repositories, whose events and sync steps run concurrently, so two
+   * callers may try to create the same new user at once. The loser of that race runs again and
+   * then updates the user the winner created.
    *
    * @param ghUser The GitHub user data to process.
    * @return The updated or newly created User entity, or {@code null} if an error occurred during
    *      update.
    */
-  @Transactional(propagation = Propagation.REQUIRES_NEW)
   public User processUser(GHUser ghUser) {
+    try {
+      return userTransaction.execute(status -> upsertUser(ghUser));
+    } catch (DataIntegrityViolationException e) {
+      log.debug("Concurrent insert of user {}, retrying: {}", ghUser.getId(), e.getMessage());
+      return userTransaction.execute(status -> upsertUser(ghUser));
+    }
+  }
+
+  private User upsertUser(GHUser ghUser) {
     var result =
         userRepository
             .findById(ghUser.getId())
@@ -70,7 +93,8 @@ public class GitHubUserSyncService {
       return null;
     }
 
-    return userRepository.save(result);
+    // Flushed right away, so a lost insert race surfaces here and not on commit
+    return userRepository.saveAndFlush(result);
   }
 
   private User updateExistingUser(GHUser ghUser, User user) {
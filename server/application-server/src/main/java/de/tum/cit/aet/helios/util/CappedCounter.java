@@ -0,0 +1,50 @@
+package de.tum.cit.aet.helios.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the rows matching a {@link Specification}, but stops after a cap.
+ *
+ * <p>An exact {@code COUNT(*)} has to visit every matching row, which is what makes offset
+ * pagination slow on large tables. A UI only needs "about how many" beyond a few thousand, so
+ * this reads at most {@code cap + 1} ids and reports whether the count is exact.
+ */
+@Component
+public class CappedCounter {
+  public static final int DEFAULT_CAP = 10_000;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  /**
+   * The result of a capped count.
+   *
+   * @param count the number of matching rows, or the cap if there are more
+   * @param exact false if there are more rows than {@code count}
+   */
+  public record CappedCount(long count, boolean exact) {}
+
+  public <T> CappedCount count(Class<T> type, Specification<T> spec) {
+    return count(type, spec, DEFAULT_CAP);
+  }
+
+  public <T> CappedCount count(Class<T> type, Specification<T> spec, int cap) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Object> query = cb.createQuery();
+    Root<T> root = query.from(type);
+    Predicate predicate = spec.toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    query.select(root.get("id"));
+
+    int found = entityManager.createQuery(query).setMaxResults(cap + 1).getResultList().size();
+    return found > cap ? new CappedCount(cap, false) : new CappedCount(found, true);
+  }
+}
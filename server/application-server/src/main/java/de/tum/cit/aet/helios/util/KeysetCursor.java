@@ -0,0 +1,145 @@
+package de.tum.cit.aet.helios.util;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaExpression;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Position after the last row of a keyset ("seek") page.
+ *
+ * <p>Keyset pages are ordered by one or more nullable timestamp columns, all descending, with the
+ * id as the final tiebreaker. Instead of skipping {@code OFFSET} rows, the next page continues
+ * strictly after the cursor, so every page costs the same index range scan no matter how deep it
+ * is, and no {@code COUNT(*)} is needed to page through the results.
+ *
+ * <p>Descending columns sort their NULLs first in PostgreSQL, which {@link #seekAfter(String...)}
+ * mirrors: after a NULL key come all non-NULL values of that column. Once the remaining keys are
+ * non-NULL, which is the common case, the seek is a single row-value comparison that an index on
+ * the sort columns serves as one range scan.
+ *
+ * @param keys the values of the sort columns of the last row, in sort order; may contain nulls
+ * @param id the id of the last row
+ */
+public record KeysetCursor(List<OffsetDateTime> keys, long id) {
+  private static final String SEPARATOR = "|";
+
+  public static KeysetCursor of(long id, OffsetDateTime... keys) {
+    // Arrays.asList, unlike List.of, permits null keys
+    return new KeysetCursor(Arrays.asList(keys), id);
+  }
+
+  /** The sort order a keyset page over the given columns has to be fetched in. */
+  public static Sort sort(String... keyFields) {
+    Sort sort = Sort.unsorted();
+    for (String keyField : keyFields) {
+      sort = sort.and(Sort.by(Sort.Direction.DESC, keyField));
+    }
+    return sort.and(Sort.by(Sort.Direction.DESC, "id"));
+  }
+
+  /** Opaque, URL-safe representation handed to clients. */
+  public String encode() {
+    String raw =
+        keys.stream()
+                .map(key -> key == null ? "" : key.toInstant().toString())
+                .collect(Collectors.joining(SEPARATOR))
+            + SEPARATOR
+            + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Parses a cursor produced by {@link #encode()}.
+   *
+   * @throws IllegalArgumentException if the cursor is malformed or has the wrong number of keys
+   */
+  public static KeysetCursor decode(String cursor, int keyCount) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\|", -1);
+      if (parts.length != keyCount + 1) {
+        throw new IllegalArgumentException("Malformed cursor");
+      }
+      List<OffsetDateTime> keys = new ArrayList<>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+        keys.add(parts[i].isEmpty() ? null : Instant.parse(parts[i]).atOffset(ZoneOffset.UTC));
+      }
+      return new KeysetCursor(keys, Long.parseLong(parts[keyCount]));
+    } catch (IllegalArgumentException | DateTimeException e) {
+      throw new IllegalArgumentException("Malformed cursor", e);
+    }
+  }
+
+  /**
+   * Restricts a query to the rows that come after this cursor in {@link #sort(String...)} order.
+   *
+   * @param keyFields the entity attributes the keys belong to, in sort order
+   */
+  public <T> Specification<T> seekAfter(String... keyFields) {
+    if (keyFields.length != keys.size()) {
+      throw new IllegalArgumentException(
+          "Expected %d key fields, got %d".formatted(keys.size(), keyFields.length));
+    }
+    return (root, query, cb) -> after(root, cb, keyFields, 0);
+  }
+
+  private Predicate after(Root<?> root, CriteriaBuilder cb, String[] keyFields, int index) {
+    if (keys.subList(index, keys.size()).stream().allMatch(Objects::nonNull)) {
+      return rowBefore(root, cb, keyFields, index);
+    }
+
+    Path<OffsetDateTime> field = root.get(keyFields[index]);
+    OffsetDateTime key = keys.get(index);
+    Predicate tiebreak = after(root, cb, keyFields, index + 1);
+    if (key == null) {
+      return cb.or(cb.isNotNull(field), cb.and(cb.isNull(field), tiebreak));
+    }
+    return cb.or(cb.lessThan(field, key), cb.and(cb.equal(field, key), tiebreak));
+  }
+
+  /**
+   * {@code (field_from, ..., id) < (key_from, ..., id)} as one row-value comparison, which
+   * PostgreSQL turns into a single range condition on the keyset index instead of a nested OR it
+   * can only filter with. The keys compared here are never NULL; a row with a NULL column compares
+   * as unknown and drops out, which is right, because NULLs sort before the cursor's value.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Predicate rowBefore(Root<?> root, CriteriaBuilder cb, String[] keyFields, int from) {
+    if (from == keyFields.length) {
+      return cb.lessThan(root.<Long>get("id"), id);
+    }
+
+    HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+    List<JpaExpression<?>> columns = new ArrayList<>();
+    List<JpaExpression<?>> values = new ArrayList<>();
+    for (int i = from; i < keyFields.length; i++) {
+      columns.add((JpaExpression<?>) root.get(keyFields[i]));
+      values.add(hcb.literal(keys.get(i)));
+    }
+    columns.add((JpaExpression<?>) root.get("id"));
+    values.add(hcb.literal(id));
+
+    Expression row = hcb.tuple(Object[].class, columns.toArray(new JpaExpression<?>[0]));
+    Expression cursor = hcb.tuple(Object[].class, values.toArray(new JpaExpression<?>[0]));
+    return hcb.lessThan(row, cursor);
+  }
+}
@@ -1,15 +1,22 @@
 package de.tum.cit.aet.helios.workflow;
 
 import de.tum.cit.aet.helios.config.security.annotations.EnforceAtLeastWritePermission;
+import de.tum.cit.aet.helios.workflow.logs.WorkflowRunLogLinesResponse;
 import de.tum.cit.aet.helios.workflow.logs.WorkflowRunLogReaderService;
+import de.tum.cit.aet.helios.workflow.logs.WorkflowRunLogSearchResponse;
 import de.tum.cit.aet.helios.workflow.logs.WorkflowRunLogsResponse;
 import de.tum.cit.aet.helios.workflow.pagination.PaginatedWorkflowRunsResponse;
+import de.tum.cit.aet.helios.workflow.pagination.WorkflowRunCursorPage;
 import de.tum.cit.aet.helios.workflow.pagination.WorkflowRunFilterType;
 import de.tum.cit.aet.helios.workflow.pagination.WorkflowRunPageRequest;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -47,6 +54,24 @@ public class WorkflowRunController {
     return ResponseEntity.ok(workflowRunService.getPaginatedWorkflowRuns(pageRequest));
   }
 
+  @GetMapping("/runs/cursor")
+  public ResponseEntity<WorkflowRunCursorPage> getWorkflowRunsAfterCursor(
+      @RequestParam(defaultValue = "20") int size,
+      @RequestParam(required = false) WorkflowRunFilterType filterType,
+      @RequestParam(required = false) String searchTerm,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "false") boolean includeTotal) {
+    WorkflowRunPageRequest pageRequest =
+        WorkflowRunPageRequest.builder()
+            .size(size)
+            .filterType(filterType != null ? filterType : WorkflowRunFilterType.ALL)
+            .searchTerm(searchTerm)
+            .cursor(cursor)
+            .includeTotal(includeTotal)
+            .build();
+    return ResponseEntity.ok(workflowRunService.getWorkflowRunsAfterCursor(pageRequest));
+  }
+
   @GetMapping("/pr/{pullRequestId}")
   public ResponseEntity<List<WorkflowRunDto>> getLatestWorkflowRunsByPullRequestIdAndHeadCommit(
       @PathVariable Long pullRequestId) {
@@ -101,4 +126,65 @@ public class WorkflowRunController {
           HttpStatus.INTERNAL_SERVER_ERROR, "Failed to load workflow logs", e);
     }
   }
+
+  @EnforceAtLeastWritePermission
+  @GetMapping("/runs/{workflowRunId}/logs/outline")
+  public ResponseEntity<WorkflowRunLogsResponse> getWorkflowRunLogOutline(
+      @PathVariable Long workflowRunId,
+      @RequestParam(defaultValue = "false") boolean forceRefresh) {
+    try {
+      return ResponseEntity.ok(
+          workflowRunLogReaderService.getLogOutline(workflowRunId, forceRefresh));
+    } catch (IOException e) {
+      throw new ResponseStatusException(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Failed to load workflow logs", e);
+    }
+  }
+
+  @EnforceAtLeastWritePermission
+  @GetMapping("/runs/{workflowRunId}/logs/lines")
+  public ResponseEntity<WorkflowRunLogLinesResponse> getWorkflowRunLogLines(
+      @PathVariable Long workflowRunId,
+      @RequestParam String path,
+      @RequestParam(defaultValue = "0") int fromLine,
+      @RequestParam(defaultValue = "1000") int limit) {
+    try {
+      return ResponseEntity.ok(
+          workflowRunLogReaderService.getLogLines(workflowRunId, path, fromLine, limit));
+    } catch (IOException e) {
+      throw new ResponseStatusException(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Failed to load workflow logs", e);
+    }
+  }
+
+  @EnforceAtLeastWritePermission
+  @GetMapping("/runs/{workflowRunId}/logs/search")
+  public ResponseEntity<WorkflowRunLogSearchResponse> searchWorkflowRunLogs(
+      @PathVariable Long workflowRunId,
+      @RequestParam String query,
+      @RequestParam(defaultValue = "100") int limit) {
+    try {
+      return ResponseEntity.ok(workflowRunLogReaderService.search(workflowRunId, query, limit));
+    } catch (IOException e) {
+      throw new ResponseStatusException(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Failed to search workflow logs", e);
+    }
+  }
+
+  /** Serves one unprocessed log file; byte ranges can be requested with a Range header. */
+  @EnforceAtLeastWritePermission
+  @GetMapping("/runs/{workflowRunId}/logs/raw")
+  public ResponseEntity<Resource> getWorkflowRunLogFile(
+      @PathVariable Long workflowRunId, @RequestParam String path) {
+    try {
+      Resource logFile =
+          new FileSystemResource(workflowRunLogReaderService.getLogFile(workflowRunId, path));
+      return ResponseEntity.ok()
+          .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+          .body(logFile);
+    } catch (IOException e) {
+      throw new ResponseStatusException(
+          HttpStatus.INTERNAL_SERVER_ERROR, "Failed to load workflow logs", e);
+    }
+  }
 }
@@ -19,6 +19,10 @@ public interface WorkflowRunRepository
 
   Optional<WorkflowRun> findByIdAndRepositoryRepositoryId(long id, Long repositoryId);
 
+  /** Loads a run together with its repository, for use outside of a transaction. */
+  @Query("SELECT wr FROM WorkflowRun wr JOIN FETCH wr.repository WHERE wr.id = :id")
+  Optional<WorkflowRun> findByIdWithRepository(@Param("id") long id);
+
   @Query(
       "SELECT DISTINCT wr FROM WorkflowRun wr "
           + "JOIN wr.pullRequests pr "
@@ -257,47 +261,81 @@ public interface WorkflowRunRepository
                                    @Param("tps") String tps);
 
   /**
-   * Custom database clean-up for workflow runs.
+   * Workflow runs that the keep-N policy deletes, in ascending id order.
+   *
+   * <ul>
+   *   <li>For every (repository_id, workflow_id, head_branch) combination the newest
+   *       {@code keep} runs with the given test processing status are kept.</li>
+   *   <li>Of the remainder, runs at least {@code ageDays} old with an id above
+   *       {@code afterId} are returned.</li>
+   * </ul>
+   *
+   * <p>The purge ranks once and deletes the returned ids batch by batch, so the window function
+   * scans the table once per purge rather than once per batch. Runs that become obsolete while
+   * the purge runs are left to the next one.
+   */
+  @Query(value = """
+      SELECT id
+      FROM (
+          SELECT id,
+                 created_at,
+                 row_number() OVER (
+                     PARTITION BY repository_id, workflow_id, head_branch
+                     ORDER BY created_at DESC
+                 ) AS rn
+          FROM workflow_run
+          WHERE test_processing_status IS NOT DISTINCT FROM :tps
+      ) ranked
+      WHERE rn > :keep
+        AND created_at < now() - (:ageDays * interval '1 day')
+        AND id > :afterId
+      ORDER BY id
+      """, nativeQuery = true)
+  List<Long> findObsoleteRunIdsAfter(@Param("keep") int keepPerCombo,
+                                     @Param("ageDays") int ageDays,
+                                     @Param("tps") String testProcessingStatus,
+                                     @Param("afterId") long afterId);
+
+  /**
+   * Deletes the cached failure analyses of the test cases of the given workflow runs. The analyses
+   * have no foreign key to the partitioned {@code test_case} table, so nothing cascades to them;
+   * call this before deleting the runs' test cases.
    */
   @Modifying
   @Transactional
   @Query(value = """
-      /* ---------------------------------------------------------------
-       * Custom database clean-up for workflow runs.
-       *
-       *   • For every (repository_id, workflow_id, head_branch) combination
-       *     keep the newest :keep rows.
-       *   • Of the remainder, delete those whose
-       *     created_at is at least :ageDays old.
-       *
-       * All child rows in test_suite → test_case are removed
-       * automatically via ON DELETE CASCADE.
-       * ------------------------------------------------------------- */
-      WITH deletable AS (
-          SELECT id
-          FROM (
-              SELECT id,
-                     repository_id,
-                     workflow_id,
-                     head_branch,
-                     created_at,
-                     row_number() OVER (
-                         PARTITION BY repository_id, workflow_id, head_branch
-                         ORDER BY created_at DESC
-                     ) AS rn
-              FROM workflow_run
-              WHERE test_processing_status IS NOT DISTINCT FROM :tps
-          ) ranked
-          WHERE rn > :keep
-            AND created_at < now() - (:ageDays * interval '1 day')
-      )
-      DELETE FROM workflow_run wr
-      USING  deletable d
-      WHERE  wr.id = d.id
+      DELETE FROM test_failure_analysis a
+      USING test_case tc, test_suite ts
+      WHERE a.test_case_id = tc.id
+        AND tc.test_suite_id = ts.id
+        AND tc.run_created_at = ts.run_created_at
+        AND ts.workflow_run_id IN (:ids)
       """, nativeQuery = true)
-  int purgeObsoleteRuns(@Param("keep") int keepPerCombo,
-                        @Param("ageDays") int ageDays,
-                        @Param("tps") String testProcessingStatus);
+  int deleteTestFailureAnalysesByWorkflowRunIdIn(@Param("ids") List<Long> workflowRunIds);
+
+  /**
+   * Deletes the test cases of the given workflow runs. Called before
+   * {@link #deleteTestSuitesByWorkflowRunIdIn} so the purge can count the rows the
+   * {@code ON DELETE CASCADE} would otherwise remove silently.
+   */
+  @Modifying
+  @Query(value = """
+      DELETE FROM test_case tc
+      USING test_suite ts
+      WHERE tc.test_suite_id = ts.id
+        AND tc.run_created_at = ts.run_created_at
+        AND ts.workflow_run_id IN (:ids)
+      """, nativeQuery = true)
+  int deleteTestCasesByWorkflowRunIdIn(@Param("ids") List<Long> workflowRunIds);
+
+  @Modifying
+  @Query(value = "DELETE FROM test_suite WHERE workflow_run_id IN (:ids)", nativeQuery = true)
+  int deleteTestSuitesByWorkflowRunIdIn(@Param("ids") List<Long> workflowRunIds);
+
+  /** Deletes the given workflow runs; remaining child rows go via {@code ON DELETE CASCADE}. */
+  @Modifying
+  @Query(value = "DELETE FROM workflow_run WHERE id IN (:ids)", nativeQuery = true)
+  int deleteByIdIn(@Param("ids") List<Long> workflowRunIds);
 
   /**
    * Distinct repository ids that currently have at least one orphan-branch
@@ -343,7 +381,7 @@ public interface WorkflowRunRepository
    * of being swept.
    *
    * <p>Runs with a {@code NULL head_branch} are excluded — they have no branch
-   * identity; the keep-N policy in {@link #purgeObsoleteRuns} handles them.
+   * identity; the keep-N policy in {@link #findObsoleteRunIdsAfter} handles them.
    */
   @Query(value = """
       SELECT wr.id          AS "id",
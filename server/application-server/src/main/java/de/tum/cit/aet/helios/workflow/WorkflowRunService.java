@@ -4,9 +4,15 @@ import de.tum.cit.aet.helios.branch.BranchRepository;
 import de.tum.cit.aet.helios.filters.RepositoryContext;
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.pullrequest.PullRequestRepository;
 import de.tum.cit.aet.helios.tests.TestSuiteRepository;
+import de.tum.cit.aet.helios.util.CappedCounter;
+import de.tum.cit.aet.helios.util.CappedCounter.CappedCount;
+import de.tum.cit.aet.helios.util.KeysetCursor;
 import de.tum.cit.aet.helios.workflow.pagination.PaginatedWorkflowRunsResponse;
+import de.tum.cit.aet.helios.workflow.pagination.WorkflowRunCursorPage;
 import de.tum.cit.aet.helios.workflow.pagination.WorkflowRunPageRequest;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.criteria.Predicate;
@@ -39,6 +45,10 @@ public class WorkflowRunService {
   private final GitHubService gitHubService;
   private final GitRepoRepository gitRepoRepository;
   private final TestSuiteRepository testSuiteRepository;
+  private final CappedCounter cappedCounter;
+  private final LiveUpdatePublisher liveUpdatePublisher;
+
+  private static final String[] RUN_KEYSET = {"runStartedAt", "createdAt"};
 
   private Stream<WorkflowRun> getLatestWorkflowRuns(List<WorkflowRun> runs) {
     return runs.stream()
@@ -241,6 +251,48 @@ public class WorkflowRunService {
         resultPage.getTotalPages());
   }
 
+  /**
+   * Keyset variant of {@link #getPaginatedWorkflowRuns(WorkflowRunPageRequest)}: always ordered
+   * newest first by (runStartedAt, createdAt, id), continues after {@code request.getCursor()} and
+   * only counts the matching runs, capped, if {@code request.isIncludeTotal()}.
+   */
+  public WorkflowRunCursorPage getWorkflowRunsAfterCursor(WorkflowRunPageRequest request) {
+    Long repositoryId = RepositoryContext.getRepositoryId();
+    int size = Math.max(request.getSize(), 1);
+
+    Specification<WorkflowRun> filter = buildWorkflowRunSpecification(request, repositoryId);
+    Specification<WorkflowRun> spec =
+        request.getCursor() == null
+            ? filter
+            : filter.and(
+                KeysetCursor.decode(request.getCursor(), RUN_KEYSET.length)
+                    .seekAfter(RUN_KEYSET));
+
+    // One extra row tells whether there is a next page
+    List<WorkflowRun> rows =
+        workflowRunRepository.findBy(
+            spec, query -> query.sortBy(KeysetCursor.sort(RUN_KEYSET)).limit(size + 1).all());
+    boolean hasNext = rows.size() > size;
+    List<WorkflowRun> page = hasNext ? rows.subList(0, size) : rows;
+
+    String nextCursor = null;
+    if (hasNext) {
+      WorkflowRun last = page.getLast();
+      nextCursor =
+          KeysetCursor.of(last.getId(), last.getRunStartedAt(), last.getCreatedAt()).encode();
+    }
+
+    CappedCount total =
+        request.isIncludeTotal() ? cappedCounter.count(WorkflowRun.class, filter) : null;
+
+    return new WorkflowRunCursorPage(
+        page.stream().map(WorkflowRunDto::fromWorkflowRun).toList(),
+        size,
+        nextCursor,
+        total != null ? total.count() : null,
+        total != null && total.exact());
+  }
+
   private Specification<WorkflowRun> buildWorkflowRunSpecification(
       WorkflowRunPageRequest request, Long repositoryId) {
     return (root, query, cb) -> {
@@ -415,11 +467,17 @@ public class WorkflowRunService {
 
     var existingTestSuites = testSuiteRepository.findByWorkflowRunId(workflowRun.getId());
     if (!existingTestSuites.isEmpty()) {
+      workflowRunRepository.deleteTestFailureAnalysesByWorkflowRunIdIn(
+          List.of(workflowRun.getId()));
       testSuiteRepository.deleteAll(existingTestSuites);
     }
 
     workflowRun.setTestSuites(null);
     workflowRun.setTestProcessingStatus(null);
     workflowRunRepository.save(workflowRun);
+    liveUpdatePublisher.publish(
+        workflowRun.getRepository(),
+        LiveUpdateEvent.workflowRun(
+            workflowRun.getId(), workflowRun.getHeadBranch(), workflowRun.getHeadSha()));
   }
 }
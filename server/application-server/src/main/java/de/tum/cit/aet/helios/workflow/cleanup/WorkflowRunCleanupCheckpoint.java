@@ -0,0 +1,82 @@
+package de.tum.cit.aet.helios.workflow.cleanup;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Progress of the batched keep-N purge of one retention policy.
+ *
+ * <p>Runs are deleted in ascending id order; {@link #lastRunId} is the highest id of the last
+ * committed batch. As long as {@link #finishedAt} is {@code null} the purge is incomplete and the
+ * next run continues after {@link #lastRunId}, adding to the counters.
+ */
+@Entity
+@Table(name = "workflow_run_cleanup_checkpoint")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class WorkflowRunCleanupCheckpoint {
+
+  /** Identifies the policy by its settings, see {@code WorkflowRunCleanupTask#policyKey}. */
+  @Id
+  @Column(name = "policy_key")
+  private String policyKey;
+
+  @Column(name = "last_run_id", nullable = false)
+  private long lastRunId;
+
+  @Column(nullable = false)
+  private int batches;
+
+  @Column(name = "deleted_runs", nullable = false)
+  private long deletedRuns;
+
+  @Column(name = "deleted_test_suites", nullable = false)
+  private long deletedTestSuites;
+
+  @Column(name = "deleted_test_cases", nullable = false)
+  private long deletedTestCases;
+
+  /** Runs, test suites and test cases deleted by the last batch. */
+  @Column(name = "last_batch_rows", nullable = false)
+  private long lastBatchRows;
+
+  /** Duration of the last batch, from selecting its runs until it was written. */
+  @Column(name = "last_batch_millis", nullable = false)
+  private long lastBatchMillis;
+
+  @Column(name = "started_at", nullable = false)
+  private OffsetDateTime startedAt;
+
+  @Column(name = "updated_at", nullable = false)
+  private OffsetDateTime updatedAt;
+
+  @Column(name = "finished_at")
+  private OffsetDateTime finishedAt;
+
+  public WorkflowRunCleanupCheckpoint(String policyKey) {
+    this.policyKey = policyKey;
+  }
+
+  /** Starts over from the lowest id with zeroed counters. */
+  public void restart(OffsetDateTime now) {
+    lastRunId = 0;
+    batches = 0;
+    deletedRuns = 0;
+    deletedTestSuites = 0;
+    deletedTestCases = 0;
+    lastBatchRows = 0;
+    lastBatchMillis = 0;
+    startedAt = now;
+    updatedAt = now;
+    finishedAt = null;
+  }
+}
@@ -0,0 +1,8 @@
+package de.tum.cit.aet.helios.workflow.cleanup;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WorkflowRunCleanupCheckpointRepository
+    extends JpaRepository<WorkflowRunCleanupCheckpoint, String> {}
@@ -1,5 +1,6 @@
 package de.tum.cit.aet.helios.workflow.cleanup;
 
+import java.time.Duration;
 import java.util.List;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -51,6 +52,28 @@ public class WorkflowRunCleanupProps {
    */
   private List<Policy> policies = List.of();
 
+  /**
+   * Maximum number of {@code workflow_run} rows the keep-N purge deletes per
+   * transaction, together with their test suites and test cases.  The actual
+   * batch size adapts to {@link #batchTimeBudget} between 1/50 of this and
+   * this value.
+   */
+  private int batchSize = 2000;
+
+  /**
+   * Pause between two purge batches, giving replication and concurrent
+   * writers room to catch up.
+   */
+  private Duration batchPause = Duration.ofMillis(500);
+
+  /**
+   * Target duration of one purge batch, from selecting its runs until its
+   * commit.  A slower batch halves the size of the next one, a batch faster
+   * than half of it doubles it again (up to {@link #batchSize}), so locks are
+   * held for about this long at most.
+   */
+  private Duration batchTimeBudget = Duration.ofSeconds(2);
+
   /**
    * Settings for the orphan-branch sweep — deletes workflow runs whose
    * {@code head_branch} no longer exists in the {@code branch} table,
@@ -6,6 +6,7 @@ import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
 import de.tum.cit.aet.helios.workflow.WorkflowRunRepository;
 import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -19,7 +20,7 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * This class is responsible for cleaning up obsolete workflow runs based on configured policies.
@@ -33,11 +34,16 @@ import org.springframework.transaction.annotation.Transactional;
 @Log4j2
 public class WorkflowRunCleanupTask {
 
+  // The adaptive batch size never drops below batchSize / 50
+  private static final int MIN_BATCH_SIZE_DIVISOR = 50;
+
   private final WorkflowRunRepository repo;
   private final WorkflowRunCleanupProps props;
   private final GitHubService gitHubService;
   private final GitHubBranchSyncService branchSyncService;
   private final GitRepoRepository gitRepoRepository;
+  private final WorkflowRunCleanupCheckpointRepository checkpointRepository;
+  private final TransactionTemplate transactionTemplate;
 
   /**
    * This method is called when the application is ready. It logs the current mode of operation
@@ -56,12 +62,27 @@ public class WorkflowRunCleanupTask {
   /**
    * This method is scheduled to run every day at 1 AM. It purges workflow runs based on the
    * configured policies.
+   *
+   * <p>Each policy is applied in batches of at most {@link WorkflowRunCleanupProps#getBatchSize()}
+   * runs, see {@link #purgeInBatches}. The method itself is not transactional, so locks are only
+   * held for the duration of one batch.
    */
   @Scheduled(cron = "${cleanup.workflow-run.cron:0 0 1 * * *}")
-  @Transactional
   public void purge() {
+    if (!props.isDryRun()
+        && (props.getBatchSize() < 1
+            || props.getBatchPause().isNegative()
+            || !props.getBatchTimeBudget().isPositive())) {
+      log.warn(
+          "Workflow-run cleanup skipped: invalid configuration (batchSize={}, batchPause={}, "
+              + "batchTimeBudget={}). Require batchSize >= 1, batchPause >= 0 and "
+              + "batchTimeBudget > 0.",
+          props.getBatchSize(), props.getBatchPause(), props.getBatchTimeBudget());
+      return;
+    }
+
     log.info("Workflow-run cleanup started.");
-    int totalDeleted = 0;
+    long totalDeleted = 0;
 
     for (WorkflowRunCleanupProps.Policy policy : props.getPolicies()) {
 
@@ -70,7 +91,7 @@ public class WorkflowRunCleanupTask {
         tps = null;
       }
 
-      int deleted = 0;
+      long deleted = 0;
 
       if (props.isDryRun()) {
         List<Long> ids = repo.previewObsoleteRunIds(
@@ -91,23 +112,169 @@ public class WorkflowRunCleanupTask {
             idsOfSurvivingRuns);
 
       } else {
-        deleted = repo.purgeObsoleteRuns(
-            policy.getKeep(),
-            policy.getAgeDays(),
-            tps
-        );
-
-        log.info("DELETE: Cleanup policy  tps={}  keep={}  ageDays={}  →  {} rows deleted",
-            tps, policy.getKeep(),
-            policy.getAgeDays(), deleted);
+        deleted = purgeInBatches(policy, tps);
       }
 
       totalDeleted += deleted;
+
+      if (Thread.currentThread().isInterrupted()) {
+        log.info("Workflow-run cleanup interrupted; the remaining policies resume next run.");
+        break;
+      }
     }
 
     log.info("Workflow-run cleanup finished.  Total rows deleted: {}", totalDeleted);
   }
 
+  /**
+   * Deletes the obsolete runs of one policy in ascending id order, one short transaction per
+   * batch. The runs are ranked once, up front; the batches then work through that id list. Test
+   * cases and test suites of a batch are deleted explicitly before the runs so that their counts
+   * can be recorded.
+   *
+   * <p>Progress is checkpointed in {@link WorkflowRunCleanupCheckpoint} within each batch's
+   * transaction. If the purge is interrupted or a batch fails, the next run continues after the
+   * last committed batch instead of starting over.
+   *
+   * <p>The batch size adapts to {@link WorkflowRunCleanupProps#getBatchTimeBudget()}, measured from
+   * selecting a batch's runs until its commit, so the first batch also pays for the ranking. The
+   * task pauses for {@link WorkflowRunCleanupProps#getBatchPause()} between batches.
+   *
+   * @return the number of runs deleted by this call
+   */
+  private long purgeInBatches(WorkflowRunCleanupProps.Policy policy, String tps) {
+    String key = policyKey(policy, tps);
+    WorkflowRunCleanupCheckpoint checkpoint =
+        checkpointRepository.findById(key).orElseGet(() -> new WorkflowRunCleanupCheckpoint(key));
+    if (checkpoint.getStartedAt() == null || checkpoint.getFinishedAt() != null) {
+      checkpoint.restart(OffsetDateTime.now());
+    } else {
+      log.info(
+          "DELETE: Resuming cleanup policy {} after run id {} ({} runs deleted so far).",
+          key, checkpoint.getLastRunId(), checkpoint.getDeletedRuns());
+    }
+
+    int maxBatchSize = props.getBatchSize();
+    int minBatchSize = Math.max(1, maxBatchSize / MIN_BATCH_SIZE_DIVISOR);
+    long budgetMillis = props.getBatchTimeBudget().toMillis();
+    int batchSize = maxBatchSize;
+    long deleted = 0;
+
+    long start = System.nanoTime();
+    List<Long> obsoleteIds;
+    try {
+      obsoleteIds = repo.findObsoleteRunIdsAfter(
+          policy.getKeep(), policy.getAgeDays(), tps, checkpoint.getLastRunId());
+    } catch (RuntimeException e) {
+      log.error(
+          "DELETE: Cleanup policy {} failed to rank its runs; it resumes after run id {} on the "
+              + "next run.",
+          key, checkpoint.getLastRunId(), e);
+      return 0;
+    }
+    log.info(
+        "DELETE: Cleanup policy {} ranked {} obsolete runs in {} ms.",
+        key, obsoleteIds.size(), (System.nanoTime() - start) / 1_000_000);
+
+    int offset = 0;
+    while (checkpoint.getFinishedAt() == null) {
+      final WorkflowRunCleanupCheckpoint current = checkpoint;
+      final long batchStart = start;
+      final List<Long> ids =
+          obsoleteIds.subList(offset, Math.min(obsoleteIds.size(), offset + batchSize));
+      final boolean last = offset + ids.size() == obsoleteIds.size();
+      try {
+        checkpoint =
+            transactionTemplate.execute(status -> deleteBatch(current, ids, last, batchStart));
+      } catch (RuntimeException e) {
+        log.error(
+            "DELETE: Cleanup policy {} failed; it resumes after run id {} on the next run.",
+            key, current.getLastRunId(), e);
+        break;
+      }
+      if (ids.isEmpty()) {
+        break;
+      }
+      offset += ids.size();
+      deleted += ids.size();
+
+      long millis = (System.nanoTime() - start) / 1_000_000;
+      log.info(
+          "DELETE: Cleanup policy {} batch {}: runs={} up to id {}, rows={}, took {} ms "
+              + "({} rows/s)",
+          key, checkpoint.getBatches(), ids.size(), checkpoint.getLastRunId(),
+          checkpoint.getLastBatchRows(), millis,
+          checkpoint.getLastBatchRows() * 1000 / Math.max(1, millis));
+
+      if (millis > budgetMillis) {
+        batchSize = Math.max(minBatchSize, batchSize / 2);
+      } else if (millis < budgetMillis / 2) {
+        batchSize = Math.min(maxBatchSize, batchSize * 2);
+      }
+
+      if (checkpoint.getFinishedAt() == null && !pauseBetweenBatches()) {
+        break;
+      }
+      start = System.nanoTime();
+    }
+
+    log.info(
+        "DELETE: Cleanup policy {}  →  {} rows deleted ({} test suites, {} test cases since {})",
+        key, deleted, checkpoint.getDeletedTestSuites(), checkpoint.getDeletedTestCases(),
+        checkpoint.getStartedAt());
+    return deleted;
+  }
+
+  /**
+   * Deletes one batch of runs and records it in the checkpoint; runs in the caller's transaction.
+   * The last batch of the ranked runs completes the checkpoint.
+   *
+   * @param start when selecting the batch began, in {@link System#nanoTime()}
+   */
+  private WorkflowRunCleanupCheckpoint deleteBatch(
+      WorkflowRunCleanupCheckpoint checkpoint, List<Long> ids, boolean last, long start) {
+    OffsetDateTime now = OffsetDateTime.now();
+    if (!ids.isEmpty()) {
+      repo.deleteTestFailureAnalysesByWorkflowRunIdIn(ids);
+      int testCases = repo.deleteTestCasesByWorkflowRunIdIn(ids);
+      int testSuites = repo.deleteTestSuitesByWorkflowRunIdIn(ids);
+      int runs = repo.deleteByIdIn(ids);
+
+      checkpoint.setLastRunId(ids.getLast());
+      checkpoint.setBatches(checkpoint.getBatches() + 1);
+      checkpoint.setDeletedRuns(checkpoint.getDeletedRuns() + runs);
+      checkpoint.setDeletedTestSuites(checkpoint.getDeletedTestSuites() + testSuites);
+      checkpoint.setDeletedTestCases(checkpoint.getDeletedTestCases() + testCases);
+      checkpoint.setLastBatchRows((long) runs + testSuites + testCases);
+      checkpoint.setLastBatchMillis((System.nanoTime() - start) / 1_000_000);
+    }
+    if (last) {
+      checkpoint.setFinishedAt(now);
+    }
+    checkpoint.setUpdatedAt(now);
+    return checkpointRepository.save(checkpoint);
+  }
+
+  /** Sleeps between two batches; returns {@code false} if the thread was interrupted. */
+  private boolean pauseBetweenBatches() {
+    try {
+      Thread.sleep(props.getBatchPause());
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Identifies a policy by its settings, so that a changed policy starts over instead of resuming
+   * the checkpoint of the old one.
+   */
+  static String policyKey(WorkflowRunCleanupProps.Policy policy, String tps) {
+    return (tps == null ? "*" : tps) + "/keep=" + policy.getKeep()
+        + "/ageDays=" + policy.getAgeDays();
+  }
+
 
   /**
    * Sweeps workflow runs whose {@code head_branch} no longer exists — typically
@@ -132,8 +299,9 @@ public class WorkflowRunCleanupTask {
    *
    * <p>Confirmed orphans are deleted by id in batches of
    * {@link WorkflowRunCleanupProps.OrphanBranches#getBatchSize()} (cascading to
-   * {@code test_suite}/{@code test_case}/junction rows via FK constraints); each
-   * batch is its own short transaction and the outer loop is non-transactional.
+   * {@code test_suite}/{@code test_case}/junction rows via FK constraints, while
+   * the failure analyses of the test cases are deleted explicitly); each batch is
+   * its own short transaction and the outer loop is non-transactional.
    */
   @Scheduled(cron = "${cleanup.workflow-run.orphan-branches.cron:0 30 3 * * *}")
   public void purgeOrphanBranchRuns() {
@@ -219,7 +387,11 @@ public class WorkflowRunCleanupTask {
       }
 
       if (!confirmedOrphanIds.isEmpty()) {
-        repo.deleteAllByIdInBatch(confirmedOrphanIds);
+        transactionTemplate.executeWithoutResult(
+            status -> {
+              repo.deleteTestFailureAnalysesByWorkflowRunIdIn(confirmedOrphanIds);
+              repo.deleteAllByIdInBatch(confirmedOrphanIds);
+            });
         deleted += confirmedOrphanIds.size();
       }
 
@@ -2,7 +2,10 @@ package de.tum.cit.aet.helios.workflow.github;
 
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.nats.JacksonMessageHandler;
+import io.nats.client.Message;
 import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -17,6 +20,7 @@ public class GitHubWorkflowJobMessageHandler
   private final GitHubService gitHubService;
   private final GitHubWorkflowJobTimingService gitHubWorkflowJobTimingService;
   private final GitHubWorkflowJobSyncService gitHubWorkflowJobSyncService;
+  private final WorkflowEventCoalescer eventCoalescer;
 
   @Override
   protected Class<GitHubWorkflowJobPayload> getPayloadClass() {
@@ -28,6 +32,11 @@ public class GitHubWorkflowJobMessageHandler
     return "github.*.*.workflow_job";
   }
 
+  @Override
+  public void onQueued(Message msg) {
+    eventCoalescer.announceJob(msg.getData());
+  }
+
   @Override
   protected void handleMessage(GitHubWorkflowJobPayload payload) {
     if (payload.repository() == null || payload.repository().fullName() == null) {
@@ -47,7 +56,25 @@ public class GitHubWorkflowJobMessageHandler
       return;
     }
 
+    // Deployment timing reacts to individual transitions, so it always sees every event
     gitHubWorkflowJobTimingService.persistDurations(payload);
-    gitHubWorkflowJobSyncService.syncFromPayload(payload);
+
+    if (payload.workflowJob() == null || payload.workflowJob().id() == null) {
+      return;
+    }
+    final GitHubWorkflowJobPayload.WorkflowJob job = payload.workflowJob();
+    eventCoalescer.apply(
+        "job:" + job.id(),
+        latestTimestamp(job),
+        () -> "completed".equalsIgnoreCase(payload.action()),
+        () -> gitHubWorkflowJobSyncService.syncFromPayload(payload));
+  }
+
+  private static Instant latestTimestamp(GitHubWorkflowJobPayload.WorkflowJob job) {
+    OffsetDateTime latest =
+        job.completedAt() != null
+            ? job.completedAt()
+            : job.startedAt() != null ? job.startedAt() : job.createdAt();
+    return latest != null ? latest.toInstant() : null;
   }
 }
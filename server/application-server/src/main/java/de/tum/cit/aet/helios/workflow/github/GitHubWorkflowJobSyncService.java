@@ -1,5 +1,7 @@
 package de.tum.cit.aet.helios.workflow.github;
 
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.workflow.WorkflowJob;
 import de.tum.cit.aet.helios.workflow.WorkflowJobRepository;
 import de.tum.cit.aet.helios.workflow.WorkflowRun;
@@ -24,6 +26,7 @@ public class GitHubWorkflowJobSyncService {
 
   private final WorkflowJobRepository workflowJobRepository;
   private final WorkflowRunRepository workflowRunRepository;
+  private final LiveUpdatePublisher liveUpdatePublisher;
 
   /**
    * Upserts the job carried by the payload. Transactional because it reads the parent run's LAZY
@@ -70,6 +73,11 @@ public class GitHubWorkflowJobSyncService {
     entity.setUpdatedAt(job.completedAt() != null ? job.completedAt() : job.startedAt());
 
     workflowJobRepository.save(entity);
+    // The run's head, not the job's: a run ingested with a workflow context is shown under the
+    // commit it was triggered for
+    liveUpdatePublisher.publish(
+        entity.getRepository(),
+        LiveUpdateEvent.workflowJob(entity.getId(), run.getHeadBranch(), run.getHeadSha()));
   }
 
   /**
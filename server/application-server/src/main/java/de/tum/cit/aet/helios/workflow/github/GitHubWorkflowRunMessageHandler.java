@@ -1,16 +1,26 @@
 package de.tum.cit.aet.helios.workflow.github;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import de.tum.cit.aet.helios.github.GitHubMessageHandler;
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.gitrepo.github.GitHubRepositorySyncService;
 import de.tum.cit.aet.helios.tests.TestResultProcessor;
 import de.tum.cit.aet.helios.workflow.GitHubWorkflowContext;
 import de.tum.cit.aet.helios.workflow.WorkflowRun;
+import de.tum.cit.aet.helios.workflow.Workflow;
+import de.tum.cit.aet.helios.workflow.WorkflowService;
+import io.nats.client.Message;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.kohsuke.github.GHEvent;
 import org.kohsuke.github.GHEventPayload;
+import org.kohsuke.github.GHWorkflowRun;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
@@ -26,6 +36,12 @@ public class GitHubWorkflowRunMessageHandler
   private final GitHubService gitHubService;
   @Qualifier("workflowRunTaskScheduler")
   private final TaskScheduler taskScheduler;
+  private final WorkflowService workflowService;
+  private final WorkflowEventCoalescer eventCoalescer;
+
+  /** Deployment workflow ids per repository, asked for every run update that could be skipped. */
+  private final Cache<Long, Set<Long>> deploymentWorkflowIds =
+      Caffeine.newBuilder().maximumSize(1_000).expireAfterWrite(Duration.ofMinutes(1)).build();
 
   @Override
   protected Class<GHEventPayload.WorkflowRun> getPayloadClass() {
@@ -37,6 +53,11 @@ public class GitHubWorkflowRunMessageHandler
     return GHEvent.WORKFLOW_RUN;
   }
 
+  @Override
+  public void onQueued(Message msg) {
+    eventCoalescer.announceRun(msg.getData());
+  }
+
   @Override
   protected void handleInstalledRepositoryEvent(GHEventPayload.WorkflowRun eventPayload) {
     var action = eventPayload.getAction();
@@ -81,8 +102,42 @@ public class GitHubWorkflowRunMessageHandler
       return;
     }
 
-    var run = workflowSyncService.processRun(githubRun);
-    processTestResult(run);
+    // Intermediate queued/in_progress updates superseded by a newer queued update of the same run
+    // are skipped; completed runs (test processing) and deployment workflow runs (HeliosDeployment
+    // timing) are always applied.
+    eventCoalescer.apply(
+        "run:" + githubRun.getId(),
+        updatedAtOf(githubRun),
+        () -> hasSideEffects(githubRun),
+        () -> {
+          var run = workflowSyncService.processRun(githubRun);
+          processTestResult(run);
+        });
+  }
+
+  private boolean hasSideEffects(GHWorkflowRun githubRun) {
+    if (githubRun.getStatus() == GHWorkflowRun.Status.COMPLETED) {
+      return true;
+    }
+    if (githubRun.getRepository() == null) {
+      return true;
+    }
+    return deploymentWorkflowIds
+        .get(
+            githubRun.getRepository().getId(),
+            repositoryId ->
+                workflowService.getDeploymentWorkflowsForAllEnv(repositoryId).stream()
+                    .map(Workflow::getId)
+                    .collect(Collectors.toSet()))
+        .contains(githubRun.getWorkflowId());
+  }
+
+  private static Instant updatedAtOf(GHWorkflowRun githubRun) {
+    try {
+      return githubRun.getUpdatedAt() != null ? githubRun.getUpdatedAt().toInstant() : null;
+    } catch (IOException e) {
+      return null;
+    }
   }
 
   private void handleWorkflowRunEvent(GHEventPayload.WorkflowRun eventPayload) {
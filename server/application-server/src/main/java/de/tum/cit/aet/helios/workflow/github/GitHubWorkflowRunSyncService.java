@@ -5,6 +5,8 @@ import de.tum.cit.aet.helios.github.GitHubFacade;
 import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
 import de.tum.cit.aet.helios.heliosdeployment.HeliosDeployment;
 import de.tum.cit.aet.helios.heliosdeployment.HeliosDeploymentRepository;
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.nats.NatsNotificationPublisherService;
 import de.tum.cit.aet.helios.notification.email.DeploymentFailurePayload;
 import de.tum.cit.aet.helios.pullrequest.PullRequest;
@@ -46,6 +48,7 @@ public class GitHubWorkflowRunSyncService {
   private final NatsNotificationPublisherService notificationPublisherService;
   private final GitHubFacade github;
   private final GitHubClientManager clientManager;
+  private final LiveUpdatePublisher liveUpdatePublisher;
 
   @Transactional
   public WorkflowRun processRun(GHWorkflowRun ghWorkflowRun) {
@@ -167,6 +170,9 @@ public class GitHubWorkflowRunSyncService {
     }
 
     workflowRunRepository.save(result);
+    liveUpdatePublisher.publish(
+        result.getRepository(),
+        LiveUpdateEvent.workflowRun(result.getId(), result.getHeadBranch(), result.getHeadSha()));
 
     return result;
   }
@@ -0,0 +1,163 @@
+package de.tum.cit.aet.helios.workflow.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+/**
+ * Skips workflow run and job updates that a newer update for the same run or job supersedes.
+ *
+ * <p>A busy CI run emits {@code queued}, {@code in_progress} and {@code completed} transitions in
+ * quick succession, and a NATS replay delivers all of them back to back. Every update is keyed
+ * ({@code run:<id>} or {@code job:<id>}) and carries the timestamp GitHub reported. When a message
+ * is queued on its repository's dispatch lane, its key and timestamp are announced; when the lane
+ * gets to an update and a newer one for the same key is already queued behind it, the older one
+ * is skipped. Both run on the same lane, so the newer update is applied after the skipped one and
+ * before either message is acknowledged. Updates that trigger side effects (test processing on
+ * completion, deployment timing) are never skipped. Updates older than what was already applied
+ * are skipped as well.
+ */
+@Log4j2
+@Component
+public class WorkflowEventCoalescer {
+
+  private final WorkflowEventCoalescingProperties properties;
+  private final ObjectMapper objectMapper;
+
+  private final Cache<String, Instant> newestQueued =
+      Caffeine.newBuilder().maximumSize(50_000).expireAfterWrite(Duration.ofHours(1)).build();
+  private final Cache<String, Instant> lastApplied =
+      Caffeine.newBuilder().maximumSize(50_000).expireAfterWrite(Duration.ofHours(6)).build();
+  private final LongAdder coalesced = new LongAdder();
+
+  public WorkflowEventCoalescer(
+      WorkflowEventCoalescingProperties properties, ObjectMapper objectMapper) {
+    this.properties = properties;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Announces a queued {@code workflow_run} message.
+   *
+   * @param data the raw event payload
+   */
+  public void announceRun(byte[] data) {
+    JsonNode run = readEntity(data, "workflow_run");
+    if (run != null) {
+      announce("run:" + run.path("id").asText(), parseTimestamp(run.path("updated_at")));
+    }
+  }
+
+  /**
+   * Announces a queued {@code workflow_job} message.
+   *
+   * @param data the raw event payload
+   */
+  public void announceJob(byte[] data) {
+    JsonNode job = readEntity(data, "workflow_job");
+    if (job != null) {
+      Instant latest = parseTimestamp(job.path("completed_at"));
+      if (latest == null) {
+        latest = parseTimestamp(job.path("started_at"));
+      }
+      if (latest == null) {
+        latest = parseTimestamp(job.path("created_at"));
+      }
+      announce("job:" + job.path("id").asText(), latest);
+    }
+  }
+
+  /**
+   * Announces that an update for the given key is queued.
+   *
+   * @param key identifies the run or job the update belongs to
+   * @param updatedAt when GitHub last changed the entity; {@code null} is ignored
+   */
+  public void announce(String key, Instant updatedAt) {
+    if (properties.enabled() && updatedAt != null) {
+      newestQueued.asMap().merge(key, updatedAt, WorkflowEventCoalescer::later);
+    }
+  }
+
+  /**
+   * Applies an update on the calling lane thread unless a newer update for the same key is queued
+   * or was already applied.
+   *
+   * @param key identifies the run or job the update belongs to
+   * @param updatedAt when GitHub last changed the entity; {@code null} disables coalescing
+   * @param mustApply whether the update triggers work beyond writing the entity and therefore
+   *     must not be skipped; only evaluated for updates that could be skipped
+   * @param task applies the update
+   */
+  public void apply(String key, Instant updatedAt, BooleanSupplier mustApply, Runnable task) {
+    if (!properties.enabled() || updatedAt == null) {
+      task.run();
+      return;
+    }
+
+    Instant queued = newestQueued.getIfPresent(key);
+    Instant applied = lastApplied.getIfPresent(key);
+    boolean superseded = queued != null && queued.isAfter(updatedAt);
+    boolean stale = applied != null && applied.isAfter(updatedAt);
+    if ((superseded || stale) && !mustApply.getAsBoolean()) {
+      coalesced.increment();
+      log.debug(
+          "Skipping update for {} at {} (newest queued {}, last applied {})",
+          key,
+          updatedAt,
+          queued,
+          applied);
+      return;
+    }
+
+    try {
+      task.run();
+    } finally {
+      lastApplied.asMap().merge(key, updatedAt, WorkflowEventCoalescer::later);
+      newestQueued.asMap().computeIfPresent(
+          key, (k, newest) -> newest.isAfter(updatedAt) ? newest : null);
+    }
+  }
+
+  /** Returns how many updates were skipped because a newer one superseded them. */
+  public long getCoalescedCount() {
+    return coalesced.sum();
+  }
+
+  private JsonNode readEntity(byte[] data, String field) {
+    if (!properties.enabled() || data == null) {
+      return null;
+    }
+    try {
+      JsonNode entity = objectMapper.readTree(data).path(field);
+      return entity.hasNonNull("id") ? entity : null;
+    } catch (Exception e) {
+      // Not announced: the update is simply applied when its turn comes
+      return null;
+    }
+  }
+
+  private static Instant parseTimestamp(JsonNode node) {
+    if (!node.isTextual()) {
+      return null;
+    }
+    try {
+      return OffsetDateTime.parse(node.asText()).toInstant();
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private static Instant later(Instant a, Instant b) {
+    return a.isAfter(b) ? a : b;
+  }
+}
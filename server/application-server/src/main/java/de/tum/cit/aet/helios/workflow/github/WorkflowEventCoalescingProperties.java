@@ -0,0 +1,12 @@
+package de.tum.cit.aet.helios.workflow.github;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for {@link WorkflowEventCoalescer}. When enabled, a {@code workflow_run} or {@code
+ * workflow_job} update is skipped if a newer update for the same run or job is already queued on
+ * the repository's dispatch lane.
+ */
+@ConfigurationProperties(prefix = "nats.coalescing")
+public record WorkflowEventCoalescingProperties(@DefaultValue("true") boolean enabled) {}
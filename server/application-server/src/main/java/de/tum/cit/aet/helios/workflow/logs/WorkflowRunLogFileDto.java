@@ -34,5 +34,13 @@ public record WorkflowRunLogFileDto(
             "The GitHub step completion timestamp matched to this log file when available")
         OffsetDateTime stepCompletedAt,
 
-    @Schema(description = "The processed text content of the log file")
-    @NonNull String content) {}
+    @Schema(description = "The size of the log file in bytes")
+    long size,
+
+    @Schema(description = "The number of lines in the log file")
+    int lineCount,
+
+    @Schema(
+        description =
+            "The processed text content of the log file; not included in the log outline")
+        String content) {}
@@ -110,7 +110,7 @@ public class WorkflowRunLogFileResolver {
 
   // Strips the GitHub Actions timestamp and ANSI codes from each line, then rewrites
   // "##[type]..." markers to "[type]..." (dropping the leading "##" but preserving the brackets).
-  private String normalizeLine(String line) {
+  String normalizeLine(String line) {
     String normalizedLine = TIMESTAMP_PREFIX_PATTERN.matcher(line).replaceFirst("");
     normalizedLine = ANSI_ESCAPE_PATTERN.matcher(normalizedLine).replaceAll("");
 
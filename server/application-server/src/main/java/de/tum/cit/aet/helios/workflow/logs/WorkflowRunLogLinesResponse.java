@@ -0,0 +1,21 @@
+package de.tum.cit.aet.helios.workflow.logs;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import org.springframework.lang.NonNull;
+
+public record WorkflowRunLogLinesResponse(
+    @Schema(description = "The relative path of the log file inside the workflow log archive")
+    @NonNull String path,
+
+    @Schema(description = "The 0-based number of the first returned line")
+    int fromLine,
+
+    @Schema(description = "The total number of lines in the log file")
+    int totalLineCount,
+
+    @Schema(description = "Whether the log file has more lines after the returned ones")
+    boolean hasMore,
+
+    @Schema(description = "The processed log lines")
+    @NonNull List<String> lines) {}
@@ -4,12 +4,18 @@ import de.tum.cit.aet.helios.deployment.DeploymentService;
 import de.tum.cit.aet.helios.deployment.WorkflowJobDto;
 import de.tum.cit.aet.helios.deployment.WorkflowStepDto;
 import de.tum.cit.aet.helios.workflow.logs.storage.WorkflowRunLogCacheResult;
-import de.tum.cit.aet.helios.workflow.logs.storage.WorkflowRunLogManifest;
+import de.tum.cit.aet.helios.workflow.logs.storage.WorkflowRunLogLineIndex;
+import de.tum.cit.aet.helios.workflow.logs.storage.WorkflowRunLogSearchIndex;
 import de.tum.cit.aet.helios.workflow.logs.storage.WorkflowRunLogStorageService;
+import jakarta.persistence.EntityNotFoundException;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
@@ -27,26 +33,131 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class WorkflowRunLogReaderService {
 
+  static final int MAX_LINES_PER_REQUEST = 5000;
+  static final int MAX_SEARCH_HITS = 1000;
+  static final int MAX_SNIPPET_LENGTH = 300;
+
   private final WorkflowRunLogStorageService workflowRunLogStorageService;
   private final DeploymentService deploymentService;
   private final WorkflowRunLogFileResolver resolver;
 
   public WorkflowRunLogsResponse getLogs(Long workflowRunId) throws IOException {
     return buildResponse(
-        workflowRunLogStorageService.ensureLogsCached(workflowRunId), workflowRunId);
+        workflowRunLogStorageService.ensureLogsCached(workflowRunId), workflowRunId, true);
   }
 
   public WorkflowRunLogsResponse getLogs(Long workflowRunId, boolean forceRefresh)
       throws IOException {
     return buildResponse(
         workflowRunLogStorageService.ensureLogsCached(workflowRunId, forceRefresh),
-        workflowRunId);
+        workflowRunId,
+        true);
+  }
+
+  /**
+   * Returns the group, file and step structure of the logs with file sizes and line counts, but
+   * without any file content. The content is fetched per file with {@link #getLogLines} or {@link
+   * #getLogFile}.
+   */
+  public WorkflowRunLogsResponse getLogOutline(Long workflowRunId, boolean forceRefresh)
+      throws IOException {
+    return buildResponse(
+        workflowRunLogStorageService.ensureLogsCached(workflowRunId, forceRefresh),
+        workflowRunId,
+        false);
+  }
+
+  /**
+   * Reads up to {@code limit} processed lines of one log file, starting at line {@code fromLine}
+   * (0-based). Only the requested range is read: the line index points at a byte offset at most
+   * {@link WorkflowRunLogLineIndex#CHECKPOINT_INTERVAL} lines before {@code fromLine}.
+   */
+  public WorkflowRunLogLinesResponse getLogLines(
+      Long workflowRunId, String path, int fromLine, int limit) throws IOException {
+    if (fromLine < 0) {
+      throw new IllegalArgumentException("fromLine must not be negative");
+    }
+    if (limit < 1 || limit > MAX_LINES_PER_REQUEST) {
+      throw new IllegalArgumentException(
+          "limit must be between 1 and " + MAX_LINES_PER_REQUEST);
+    }
+
+    Path runDirectory = workflowRunLogStorageService.ensureLogsCached(workflowRunId).runDirectory();
+    Path logFile = resolveLogFile(runDirectory, path);
+    WorkflowRunLogLineIndex.FileEntry entry =
+        fileEntry(loadLineIndex(runDirectory), runDirectory, logFile);
+    int toLine = (int) Math.min((long) fromLine + limit, entry.lineCount());
+    List<String> lines = readLines(logFile, entry, fromLine, toLine);
+
+    return new WorkflowRunLogLinesResponse(
+        WorkflowRunLogLineIndex.key(runDirectory, logFile),
+        fromLine,
+        entry.lineCount(),
+        fromLine + lines.size() < entry.lineCount(),
+        lines);
+  }
+
+  /**
+   * Resolves one cached, unprocessed log file, e.g. to serve byte ranges of it.
+   *
+   * @throws EntityNotFoundException if {@code path} does not name a log file of the run
+   */
+  public Path getLogFile(Long workflowRunId, String path) throws IOException {
+    Path runDirectory = workflowRunLogStorageService.ensureLogsCached(workflowRunId).runDirectory();
+    return resolveLogFile(runDirectory, path);
+  }
+
+  /**
+   * Finds the lines of the cached log files that contain {@code query}, ignoring ASCII case. The
+   * trigram search index narrows the search down to a few blocks of lines, and only those blocks
+   * are read from disk.
+   */
+  public WorkflowRunLogSearchResponse search(Long workflowRunId, String query, int limit)
+      throws IOException {
+    if (!WorkflowRunLogSearchIndex.isSearchable(query)) {
+      throw new IllegalArgumentException("query must be at least 3 bytes long");
+    }
+    if (limit < 1 || limit > MAX_SEARCH_HITS) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_SEARCH_HITS);
+    }
+
+    Path runDirectory = workflowRunLogStorageService.ensureLogsCached(workflowRunId).runDirectory();
+    WorkflowRunLogLineIndex lineIndex = loadLineIndex(runDirectory);
+    String lowerCaseQuery = WorkflowRunLogSearchIndex.lowerCaseAscii(query);
+    List<WorkflowRunLogSearchHitDto> hits = new ArrayList<>();
+    boolean truncated = false;
+    for (WorkflowRunLogSearchIndex.Block block :
+        loadSearchIndex(runDirectory).candidateBlocks(query)) {
+      Path logFile = runDirectory.resolve(block.path());
+      WorkflowRunLogLineIndex.FileEntry entry = fileEntry(lineIndex, runDirectory, logFile);
+      long blockEnd = (long) block.firstLine() + WorkflowRunLogSearchIndex.BLOCK_LINES;
+      int toLine = (int) Math.min(blockEnd, entry.lineCount());
+      List<String> lines = readRawLines(logFile, entry, block.firstLine(), toLine);
+      for (int i = 0; i < lines.size(); i++) {
+        if (!WorkflowRunLogSearchIndex.lowerCaseAscii(lines.get(i)).contains(lowerCaseQuery)) {
+          continue;
+        }
+        if (hits.size() == limit) {
+          truncated = true;
+          break;
+        }
+        hits.add(
+            new WorkflowRunLogSearchHitDto(
+                block.path(), block.firstLine() + i, snippet(lines.get(i), lowerCaseQuery)));
+      }
+      if (truncated) {
+        break;
+      }
+    }
+    return new WorkflowRunLogSearchResponse(query, hits, truncated);
   }
 
   private WorkflowRunLogsResponse buildResponse(
-      WorkflowRunLogCacheResult cacheResult, Long workflowRunId) throws IOException {
+      WorkflowRunLogCacheResult cacheResult, Long workflowRunId, boolean includeContent)
+      throws IOException {
     List<WorkflowJobDto> jobs = loadWorkflowJobs(workflowRunId);
-    List<WorkflowRunLogGroupDto> groups = readGroups(cacheResult.runDirectory(), jobs);
+    List<WorkflowRunLogGroupDto> groups =
+        readGroups(cacheResult.runDirectory(), jobs, includeContent);
 
     return new WorkflowRunLogsResponse(
         cacheResult.workflowRun().getId(),
@@ -78,11 +189,11 @@ public class WorkflowRunLogReaderService {
     }
   }
 
-  private List<WorkflowRunLogGroupDto> readGroups(Path runDirectory, List<WorkflowJobDto> jobs)
-      throws IOException {
+  private List<WorkflowRunLogGroupDto> readGroups(
+      Path runDirectory, List<WorkflowJobDto> jobs, boolean includeContent) throws IOException {
     List<Path> logFiles = listLogFiles(runDirectory);
     Map<String, List<RawWorkflowRunLogFile>> groupedFiles =
-        groupFilesByName(logFiles, runDirectory);
+        groupFilesByName(logFiles, runDirectory, loadLineIndex(runDirectory), includeContent);
     Map<Long, Integer> jobOrderById = buildJobOrderById(jobs);
     List<WorkflowRunLogGroupView> groupViews = buildGroupViews(groupedFiles, jobs, jobOrderById);
 
@@ -107,9 +218,7 @@ public class WorkflowRunLogReaderService {
     try (var walk = Files.walk(runDirectory)) {
       return walk.filter(Files::isRegularFile)
           .filter(
-              path ->
-                  !WorkflowRunLogManifest.FILE_NAME.equals(
-                      path.getFileName().toString()))
+              path -> !WorkflowRunLogLineIndex.isMetadataFile(path.getFileName().toString()))
           .sorted(Comparator.comparing(path -> resolver.normalize(runDirectory.relativize(path))))
           .toList();
     }
@@ -119,23 +228,132 @@ public class WorkflowRunLogReaderService {
    * Groups log files by their resolved group name (typically the job name derived from the
    * directory structure). A LinkedHashMap is used so that insertion order — which reflects the
    * sorted file traversal — is preserved as the {@code sourceOrder} tiebreaker during sorting.
+   * File contents are only read when {@code includeContent} is set; sizes and line counts come
+   * from the line index.
    */
   private Map<String, List<RawWorkflowRunLogFile>> groupFilesByName(
-      List<Path> logFiles, Path runDirectory) throws IOException {
+      List<Path> logFiles,
+      Path runDirectory,
+      WorkflowRunLogLineIndex lineIndex,
+      boolean includeContent)
+      throws IOException {
     Map<String, List<RawWorkflowRunLogFile>> groupedFiles = new LinkedHashMap<>();
     for (Path logFile : logFiles) {
       Path relativePath = runDirectory.relativize(logFile);
       String groupName = resolver.resolveGroupName(relativePath);
       String filePath = resolver.normalize(relativePath);
       String displayName = resolver.resolveDisplayName(relativePath, groupName);
-      String content = resolver.normalizeContent(Files.readString(logFile, StandardCharsets.UTF_8));
+      WorkflowRunLogLineIndex.FileEntry entry = fileEntry(lineIndex, runDirectory, logFile);
+      String content =
+          includeContent
+              ? resolver.normalizeContent(Files.readString(logFile, StandardCharsets.UTF_8))
+              : null;
       groupedFiles
           .computeIfAbsent(groupName, ignored -> new ArrayList<>())
-          .add(new RawWorkflowRunLogFile(filePath, displayName, content));
+          .add(
+              new RawWorkflowRunLogFile(
+                  filePath, displayName, entry.size(), entry.lineCount(), content));
     }
     return groupedFiles;
   }
 
+  /**
+   * Loads the line index of a cached run. Caches written before the index existed get one built
+   * on first use; failing to store it only costs a rescan on the next request.
+   */
+  private WorkflowRunLogLineIndex loadLineIndex(Path runDirectory) throws IOException {
+    Optional<WorkflowRunLogLineIndex> existing = WorkflowRunLogLineIndex.read(runDirectory);
+    if (existing.isPresent()) {
+      return existing.get();
+    }
+
+    WorkflowRunLogLineIndex lineIndex = WorkflowRunLogLineIndex.build(runDirectory);
+    try {
+      lineIndex.write(runDirectory);
+    } catch (IOException e) {
+      log.warn("Failed to store workflow log line index in {}", runDirectory, e);
+    }
+    return lineIndex;
+  }
+
+  private WorkflowRunLogSearchIndex loadSearchIndex(Path runDirectory) throws IOException {
+    Optional<WorkflowRunLogSearchIndex> existing = WorkflowRunLogSearchIndex.open(runDirectory);
+    if (existing.isPresent()) {
+      return existing.get();
+    }
+
+    // Caches written before the search index existed get one on first search
+    WorkflowRunLogSearchIndex.build(runDirectory);
+    return WorkflowRunLogSearchIndex.open(runDirectory)
+        .orElseThrow(() -> new IOException("Workflow log search index missing after build"));
+  }
+
+  /**
+   * Normalizes a matching line and, if it is long, cuts it down to a window around the match.
+   */
+  private String snippet(String rawLine, String lowerCaseQuery) {
+    String line = resolver.normalizeLine(rawLine);
+    if (line.length() <= MAX_SNIPPET_LENGTH) {
+      return line;
+    }
+    int match = Math.max(0, WorkflowRunLogSearchIndex.lowerCaseAscii(line).indexOf(lowerCaseQuery));
+    int start =
+        Math.max(0, Math.min(match - MAX_SNIPPET_LENGTH / 3, line.length() - MAX_SNIPPET_LENGTH));
+    return line.substring(start, start + MAX_SNIPPET_LENGTH);
+  }
+
+  private WorkflowRunLogLineIndex.FileEntry fileEntry(
+      WorkflowRunLogLineIndex lineIndex, Path runDirectory, Path logFile) throws IOException {
+    Optional<WorkflowRunLogLineIndex.FileEntry> entry =
+        lineIndex.find(WorkflowRunLogLineIndex.key(runDirectory, logFile));
+    return entry.isPresent() ? entry.get() : WorkflowRunLogLineIndex.scan(logFile);
+  }
+
+  private Path resolveLogFile(Path runDirectory, String path) {
+    Path normalizedRunDirectory = runDirectory.normalize();
+    Path logFile = normalizedRunDirectory.resolve(path).normalize();
+    if (!logFile.startsWith(normalizedRunDirectory)
+        || logFile.equals(normalizedRunDirectory)
+        || WorkflowRunLogLineIndex.isMetadataFile(logFile.getFileName().toString())
+        || !Files.isRegularFile(logFile)) {
+      throw new EntityNotFoundException("Workflow log file not found: " + path);
+    }
+    return logFile;
+  }
+
+  private List<String> readLines(
+      Path logFile, WorkflowRunLogLineIndex.FileEntry entry, int fromLine, int toLine)
+      throws IOException {
+    return readRawLines(logFile, entry, fromLine, toLine).stream()
+        .map(resolver::normalizeLine)
+        .toList();
+  }
+
+  private List<String> readRawLines(
+      Path logFile, WorkflowRunLogLineIndex.FileEntry entry, int fromLine, int toLine)
+      throws IOException {
+    if (fromLine >= toLine) {
+      return List.of();
+    }
+
+    List<String> lines = new ArrayList<>(toLine - fromLine);
+    try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+      channel.position(entry.checkpointOffset(fromLine));
+      BufferedReader reader =
+          new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+      for (int line = entry.checkpointLine(fromLine); line < toLine; line++) {
+        String value = reader.readLine();
+        if (value == null) {
+          break;
+        }
+        if (line >= fromLine) {
+          lines.add(value);
+        }
+      }
+    }
+    return lines;
+  }
+
   /**
    * Records the position of each job in the GitHub API response so that groups without a
    * {@code startedAt} timestamp can still be ordered consistently with the GitHub UI.
@@ -220,6 +438,8 @@ public class WorkflowRunLogReaderService {
         step.map(WorkflowStepDto::getConclusion).orElse(null),
         step.map(WorkflowStepDto::getStartedAt).orElse(null),
         step.map(WorkflowStepDto::getCompletedAt).orElse(null),
+        file.size(),
+        file.lineCount(),
         file.content());
   }
 
@@ -285,7 +505,8 @@ public class WorkflowRunLogReaderService {
   }
 
   /** Intermediate representation of a log file before it is enriched with GitHub step metadata. */
-  private record RawWorkflowRunLogFile(String path, String displayName, String content) {}
+  private record RawWorkflowRunLogFile(
+      String path, String displayName, long size, int lineCount, String content) {}
 
   /**
    * Wraps a log group with the sort keys needed to order groups before the final DTO is produced.
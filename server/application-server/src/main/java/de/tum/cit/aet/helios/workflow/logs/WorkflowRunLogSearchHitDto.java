@@ -0,0 +1,14 @@
+package de.tum.cit.aet.helios.workflow.logs;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.lang.NonNull;
+
+public record WorkflowRunLogSearchHitDto(
+    @Schema(description = "The relative path of the log file inside the workflow log archive")
+    @NonNull String path,
+
+    @Schema(description = "The 0-based number of the matching line")
+    int line,
+
+    @Schema(description = "The processed matching line, shortened around the match if long")
+    @NonNull String snippet) {}
@@ -0,0 +1,15 @@
+package de.tum.cit.aet.helios.workflow.logs;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import org.springframework.lang.NonNull;
+
+public record WorkflowRunLogSearchResponse(
+    @Schema(description = "The search query")
+    @NonNull String query,
+
+    @Schema(description = "The matching lines in file and line order")
+    @NonNull List<WorkflowRunLogSearchHitDto> hits,
+
+    @Schema(description = "Whether more lines matched than were returned")
+    boolean truncated) {}
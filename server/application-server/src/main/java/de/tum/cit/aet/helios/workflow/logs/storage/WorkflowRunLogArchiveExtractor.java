@@ -1,36 +1,78 @@
 package de.tum.cit.aet.helios.workflow.logs.storage;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 import org.springframework.stereotype.Component;
 
 @Component
 public class WorkflowRunLogArchiveExtractor {
 
-  int extractArchive(byte[] archive, Path tempDirectory) throws IOException {
+  /**
+   * Extracts a log archive from disk into {@code tempDirectory}. Entries are read through the
+   * archive's central directory and written with {@link FileChannel#transferFrom}, so no entry is
+   * ever buffered in memory as a whole. Afterwards the {@link WorkflowRunLogLineIndex} of the
+   * extracted files is written next to them.
+   *
+   * @param archive the ZIP archive to extract
+   * @param tempDirectory the directory to extract into
+   * @param maxEntries the largest number of entries accepted; bigger archives are rejected before
+   *     anything is extracted
+   * @return the number of extracted files
+   * @throws IOException if the archive cannot be read, has too many entries or contains an entry
+   *     escaping {@code tempDirectory}
+   */
+  int extractArchive(Path archive, Path tempDirectory, int maxEntries) throws IOException {
     int fileCount = 0;
-    try (ZipInputStream zipInput = new ZipInputStream(new ByteArrayInputStream(archive))) {
-      ZipEntry entry;
-      while ((entry = zipInput.getNextEntry()) != null) {
+    try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+      if (zipFile.size() > maxEntries) {
+        throw new IOException(
+            "Workflow log archive has " + zipFile.size() + " entries, more than the limit of "
+                + maxEntries);
+      }
+
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
         Path targetPath = resolveZipEntry(tempDirectory, entry);
         if (entry.isDirectory()) {
           Files.createDirectories(targetPath);
         } else {
           Files.createDirectories(targetPath.getParent());
-          Files.copy(zipInput, targetPath, StandardCopyOption.REPLACE_EXISTING);
+          extractEntry(zipFile, entry, targetPath);
           fileCount++;
         }
-        zipInput.closeEntry();
       }
     }
+    WorkflowRunLogLineIndex.build(tempDirectory).write(tempDirectory);
     return fileCount;
   }
 
+  private void extractEntry(ZipFile zipFile, ZipEntry entry, Path targetPath) throws IOException {
+    try (InputStream input = zipFile.getInputStream(entry);
+        ReadableByteChannel source = Channels.newChannel(input);
+        FileChannel sink =
+            FileChannel.open(
+                targetPath,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+      long position = 0;
+      long transferred;
+      while ((transferred = sink.transferFrom(source, position, Long.MAX_VALUE)) > 0) {
+        position += transferred;
+      }
+    }
+  }
+
   private Path resolveZipEntry(Path tempDirectory, ZipEntry entry) throws IOException {
     Path resolvedPath = tempDirectory.resolve(entry.getName()).normalize();
     if (!resolvedPath.startsWith(tempDirectory)) {
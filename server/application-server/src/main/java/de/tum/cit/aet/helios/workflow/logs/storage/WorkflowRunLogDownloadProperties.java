@@ -0,0 +1,13 @@
+package de.tum.cit.aet.helios.workflow.logs.storage;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Limits for downloading workflow log archives from GitHub. Archives larger than
+ * {@code maxArchiveSize} or with more than {@code maxEntries} entries are rejected.
+ */
+@ConfigurationProperties(prefix = "helios.logs.download")
+public record WorkflowRunLogDownloadProperties(
+    @DefaultValue("512MB") DataSize maxArchiveSize, @DefaultValue("10000") int maxEntries) {}
@@ -0,0 +1,220 @@
+package de.tum.cit.aet.helios.workflow.logs.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Sidecar index of the line structure of every cached log file of a workflow run.
+ *
+ * <p>For each file it records the byte size, the line count and the byte offset of every {@link
+ * #CHECKPOINT_INTERVAL}th line, so a line range can be read by seeking to the nearest checkpoint
+ * instead of reading the file from the start. Lines are split the same way as {@link
+ * String#lines()}: on {@code \n}, {@code \r} and {@code \r\n}, without a trailing empty line.
+ */
+public record WorkflowRunLogLineIndex(Map<String, FileEntry> files) {
+
+  public static final String FILE_NAME = "_line-index.bin";
+  public static final int CHECKPOINT_INTERVAL = 256;
+
+  private static final int FORMAT_VERSION = 1;
+  private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Line structure of a single log file.
+   *
+   * @param size the file size in bytes
+   * @param lineCount the number of lines
+   * @param checkpoints byte offsets of the lines {@code 0, CHECKPOINT_INTERVAL, 2 *
+   *     CHECKPOINT_INTERVAL, ...}
+   */
+  public record FileEntry(long size, int lineCount, long[] checkpoints) {
+
+    /** Byte offset of the closest checkpointed line at or before {@code line}. */
+    public long checkpointOffset(int line) {
+      return checkpoints.length == 0 ? 0 : checkpoints[line / CHECKPOINT_INTERVAL];
+    }
+
+    /** Line number of the checkpoint returned by {@link #checkpointOffset(int)}. */
+    public int checkpointLine(int line) {
+      return line / CHECKPOINT_INTERVAL * CHECKPOINT_INTERVAL;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof FileEntry entry
+          && size == entry.size
+          && lineCount == entry.lineCount
+          && Arrays.equals(checkpoints, entry.checkpoints);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * Long.hashCode(size) + lineCount) + Arrays.hashCode(checkpoints);
+    }
+
+    @Override
+    public String toString() {
+      return "FileEntry[size=" + size + ", lineCount=" + lineCount + "]";
+    }
+  }
+
+  public Optional<FileEntry> find(String relativePath) {
+    return Optional.ofNullable(files.get(relativePath));
+  }
+
+  /** The key of a file in the index: its path below the run directory with '/' separators. */
+  public static String key(Path runDirectory, Path file) {
+    return runDirectory.relativize(file).toString().replace('\\', '/');
+  }
+
+  /** Returns whether {@code fileName} is one of the cache's own metadata files. */
+  public static boolean isMetadataFile(String fileName) {
+    return WorkflowRunLogManifest.FILE_NAME.equals(fileName)
+        || fileName.startsWith(FILE_NAME)
+        || fileName.startsWith(WorkflowRunLogSearchIndex.FILE_NAME);
+  }
+
+  /** Lists the log files below {@code runDirectory} in a stable order, skipping metadata. */
+  public static List<Path> listLogFiles(Path runDirectory) throws IOException {
+    try (Stream<Path> walk = Files.walk(runDirectory)) {
+      return walk.filter(Files::isRegularFile)
+          .filter(path -> !isMetadataFile(path.getFileName().toString()))
+          .sorted()
+          .toList();
+    }
+  }
+
+  /** Scans all log files below {@code runDirectory}. */
+  public static WorkflowRunLogLineIndex build(Path runDirectory) throws IOException {
+    Map<String, FileEntry> files = new LinkedHashMap<>();
+    for (Path logFile : listLogFiles(runDirectory)) {
+      files.put(key(runDirectory, logFile), scan(logFile));
+    }
+    return new WorkflowRunLogLineIndex(files);
+  }
+
+  /** Computes the line structure of a single file in one sequential pass. */
+  public static FileEntry scan(Path file) throws IOException {
+    long[] checkpoints = new long[16];
+    int checkpointCount = 0;
+    int lineCount = 0;
+    long position = 0;
+    boolean atLineStart = true;
+    boolean previousWasCarriageReturn = false;
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(SCAN_BUFFER_SIZE);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (channel.read(buffer) > 0) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          byte value = buffer.get();
+          if (previousWasCarriageReturn && value == '\n') {
+            // Second half of a \r\n terminator
+            previousWasCarriageReturn = false;
+            position++;
+            continue;
+          }
+          previousWasCarriageReturn = false;
+
+          if (atLineStart) {
+            if (lineCount % CHECKPOINT_INTERVAL == 0) {
+              if (checkpointCount == checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, checkpointCount * 2);
+              }
+              checkpoints[checkpointCount++] = position;
+            }
+            lineCount++;
+            atLineStart = false;
+          }
+
+          if (value == '\n') {
+            atLineStart = true;
+          } else if (value == '\r') {
+            atLineStart = true;
+            previousWasCarriageReturn = true;
+          }
+          position++;
+        }
+        buffer.clear();
+      }
+    }
+    return new FileEntry(position, lineCount, Arrays.copyOf(checkpoints, checkpointCount));
+  }
+
+  /**
+   * Reads the index stored in {@code runDirectory}.
+   *
+   * @return the index, or empty when the directory has none or it was written in another format
+   */
+  public static Optional<WorkflowRunLogLineIndex> read(Path runDirectory) throws IOException {
+    try (DataInputStream input =
+        new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(runDirectory.resolve(FILE_NAME))))) {
+      if (input.readInt() != FORMAT_VERSION) {
+        return Optional.empty();
+      }
+      int fileCount = input.readInt();
+      Map<String, FileEntry> files = new LinkedHashMap<>();
+      for (int i = 0; i < fileCount; i++) {
+        String path = input.readUTF();
+        long size = input.readLong();
+        int lineCount = input.readInt();
+        long[] checkpoints = new long[input.readInt()];
+        for (int j = 0; j < checkpoints.length; j++) {
+          checkpoints[j] = input.readLong();
+        }
+        files.put(path, new FileEntry(size, lineCount, checkpoints));
+      }
+      return Optional.of(new WorkflowRunLogLineIndex(files));
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Writes the index into {@code runDirectory}. The file is written next to its final name and
+   * moved into place, so concurrent readers never see a partial index.
+   */
+  public void write(Path runDirectory) throws IOException {
+    Path tempFile = Files.createTempFile(runDirectory, FILE_NAME + ".", ".tmp");
+    try {
+      try (DataOutputStream output =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(files.size());
+        for (Map.Entry<String, FileEntry> file : files.entrySet()) {
+          output.writeUTF(file.getKey());
+          output.writeLong(file.getValue().size());
+          output.writeInt(file.getValue().lineCount());
+          output.writeInt(file.getValue().checkpoints().length);
+          for (long checkpoint : file.getValue().checkpoints()) {
+            output.writeLong(checkpoint);
+          }
+        }
+      }
+      Files.move(
+          tempFile,
+          runDirectory.resolve(FILE_NAME),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+}
@@ -0,0 +1,379 @@
+package de.tum.cit.aet.helios.workflow.logs.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Trigram index over the cached log files of a workflow run, stored as a sidecar next to the
+ * manifest.
+ *
+ * <p>Every file is cut into blocks of {@link #BLOCK_LINES} lines. For each trigram of
+ * (ASCII-lowercased) bytes that occurs within a line, the index lists the blocks containing it. A
+ * search intersects the block lists of the query's trigrams and only the remaining blocks have to
+ * be read and checked line by line. {@link #BLOCK_LINES} is a multiple of {@link
+ * WorkflowRunLogLineIndex#CHECKPOINT_INTERVAL}, so every block starts at a line index checkpoint.
+ *
+ * <p>The file is memory-mapped for searching, so the index is never loaded into the heap.
+ */
+public final class WorkflowRunLogSearchIndex {
+
+  public static final String FILE_NAME = "_search-index.bin";
+  public static final int BLOCK_LINES = 4 * WorkflowRunLogLineIndex.CHECKPOINT_INTERVAL;
+
+  private static final int FORMAT_VERSION = 1;
+  private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+  private static final int TABLE_ENTRY_BYTES = 3 * Integer.BYTES;
+
+  private final String[] paths;
+  private final int[] firstBlocks;
+  private final ByteBuffer table;
+  private final ByteBuffer postings;
+  private final int trigramCount;
+
+  private WorkflowRunLogSearchIndex(
+      String[] paths, int[] firstBlocks, ByteBuffer table, ByteBuffer postings) {
+    this.paths = paths;
+    this.firstBlocks = firstBlocks;
+    this.table = table;
+    this.postings = postings;
+    this.trigramCount = table.capacity() / TABLE_ENTRY_BYTES;
+  }
+
+  /** A block of {@link #BLOCK_LINES} lines of one log file. */
+  public record Block(String path, int firstLine) {}
+
+  /**
+   * Returns whether {@code query} is long enough to be looked up; shorter queries have no
+   * trigrams.
+   */
+  public static boolean isSearchable(String query) {
+    return query != null && query.getBytes(StandardCharsets.UTF_8).length >= 3;
+  }
+
+  /**
+   * Returns the blocks that contain every trigram of {@code query}, in file and line order. These
+   * are candidates: a block contains all trigrams but not necessarily the query itself.
+   */
+  public List<Block> candidateBlocks(String query) {
+    int[] trigrams = trigramsOf(lowerCaseAscii(query.getBytes(StandardCharsets.UTF_8)));
+    List<int[]> postingLists = new ArrayList<>(trigrams.length);
+    for (int trigram : trigrams) {
+      int entry = findTableEntry(trigram);
+      if (entry < 0) {
+        return List.of();
+      }
+      postingLists.add(readPostings(entry));
+    }
+    postingLists.sort((left, right) -> Integer.compare(left.length, right.length));
+
+    int[] candidates = postingLists.getFirst();
+    for (int i = 1; i < postingLists.size() && candidates.length > 0; i++) {
+      candidates = intersect(candidates, postingLists.get(i));
+    }
+
+    List<Block> blocks = new ArrayList<>(candidates.length);
+    for (int globalBlock : candidates) {
+      int file = Arrays.binarySearch(firstBlocks, globalBlock);
+      if (file < 0) {
+        file = -file - 2;
+      } else {
+        // Empty files share their first block id with the next file
+        while (file + 1 < firstBlocks.length && firstBlocks[file + 1] == globalBlock) {
+          file++;
+        }
+      }
+      blocks.add(new Block(paths[file], (globalBlock - firstBlocks[file]) * BLOCK_LINES));
+    }
+    return blocks;
+  }
+
+  /** Lowercases ASCII letters only, matching how the index was built. */
+  public static String lowerCaseAscii(String value) {
+    byte[] lowerCase = lowerCaseAscii(value.getBytes(StandardCharsets.UTF_8));
+    return new String(lowerCase, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Opens the index stored in {@code runDirectory}.
+   *
+   * @return the index, or empty when the directory has none or it was written in another format
+   */
+  public static Optional<WorkflowRunLogSearchIndex> open(Path runDirectory) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel =
+        FileChannel.open(runDirectory.resolve(FILE_NAME), StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    }
+
+    if (buffer.getInt() != FORMAT_VERSION) {
+      return Optional.empty();
+    }
+    int fileCount = buffer.getInt();
+    String[] paths = new String[fileCount];
+    int[] firstBlocks = new int[fileCount];
+    for (int i = 0; i < fileCount; i++) {
+      byte[] path = new byte[buffer.getShort() & 0xFFFF];
+      buffer.get(path);
+      paths[i] = new String(path, StandardCharsets.UTF_8);
+      firstBlocks[i] = buffer.getInt();
+    }
+    int trigramCount = buffer.getInt();
+    int tableStart = buffer.position();
+    ByteBuffer table = buffer.slice(tableStart, trigramCount * TABLE_ENTRY_BYTES);
+    int postingsStart = tableStart + trigramCount * TABLE_ENTRY_BYTES;
+    ByteBuffer postings = buffer.slice(postingsStart, buffer.capacity() - postingsStart);
+    return Optional.of(new WorkflowRunLogSearchIndex(paths, firstBlocks, table, postings));
+  }
+
+  /**
+   * Scans all log files below {@code runDirectory} and writes their index into it. The file is
+   * written next to its final name and moved into place, so concurrent searches never see a
+   * partial index.
+   */
+  public static void build(Path runDirectory) throws IOException {
+    List<Path> logFiles = WorkflowRunLogLineIndex.listLogFiles(runDirectory);
+    String[] paths = new String[logFiles.size()];
+    int[] firstBlocks = new int[logFiles.size()];
+    Map<Integer, PostingList> postingLists = new HashMap<>();
+    int nextBlock = 0;
+    for (int i = 0; i < logFiles.size(); i++) {
+      paths[i] = WorkflowRunLogLineIndex.key(runDirectory, logFiles.get(i));
+      firstBlocks[i] = nextBlock;
+      int lineCount = scan(logFiles.get(i), nextBlock, postingLists);
+      nextBlock += (lineCount + BLOCK_LINES - 1) / BLOCK_LINES;
+    }
+
+    Path tempFile = Files.createTempFile(runDirectory, FILE_NAME + ".", ".tmp");
+    try {
+      write(tempFile, paths, firstBlocks, postingLists);
+      Files.move(
+          tempFile,
+          runDirectory.resolve(FILE_NAME),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Adds the trigrams of one file to {@code postingLists}, splitting lines the same way as {@link
+   * WorkflowRunLogLineIndex#scan}.
+   *
+   * @return the number of lines of the file
+   */
+  private static int scan(Path file, int firstBlock, Map<Integer, PostingList> postingLists)
+      throws IOException {
+    int line = -1;
+    boolean atLineStart = true;
+    boolean previousWasCarriageReturn = false;
+    int secondToLast = -1;
+    int last = -1;
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(SCAN_BUFFER_SIZE);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (channel.read(buffer) > 0) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          int value = lowerCaseAscii(buffer.get()) & 0xFF;
+          if (previousWasCarriageReturn && value == '\n') {
+            previousWasCarriageReturn = false;
+            continue;
+          }
+          previousWasCarriageReturn = false;
+
+          if (atLineStart) {
+            line++;
+            atLineStart = false;
+            secondToLast = -1;
+            last = -1;
+          }
+          if (value == '\n' || value == '\r') {
+            atLineStart = true;
+            previousWasCarriageReturn = value == '\r';
+            continue;
+          }
+
+          if (secondToLast >= 0) {
+            int trigram = (secondToLast << 16) | (last << 8) | value;
+            postingLists
+                .computeIfAbsent(trigram, ignored -> new PostingList())
+                .add(firstBlock + line / BLOCK_LINES);
+          }
+          secondToLast = last;
+          last = value;
+        }
+        buffer.clear();
+      }
+    }
+    return line + 1;
+  }
+
+  private static void write(
+      Path file, String[] paths, int[] firstBlocks, Map<Integer, PostingList> postingLists)
+      throws IOException {
+    int[] trigrams = postingLists.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    try (DataOutputStream output =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+      output.writeInt(FORMAT_VERSION);
+      output.writeInt(paths.length);
+      for (int i = 0; i < paths.length; i++) {
+        byte[] path = paths[i].getBytes(StandardCharsets.UTF_8);
+        output.writeShort(path.length);
+        output.write(path);
+        output.writeInt(firstBlocks[i]);
+      }
+
+      output.writeInt(trigrams.length);
+      int offset = 0;
+      for (int trigram : trigrams) {
+        PostingList postingList = postingLists.get(trigram);
+        output.writeInt(trigram);
+        output.writeInt(offset);
+        output.writeInt(postingList.size);
+        offset += postingList.encodedSize();
+      }
+      for (int trigram : trigrams) {
+        postingLists.get(trigram).writeTo(output);
+      }
+    }
+  }
+
+  private int findTableEntry(int trigram) {
+    int low = 0;
+    int high = trigramCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int value = table.getInt(middle * TABLE_ENTRY_BYTES);
+      if (value < trigram) {
+        low = middle + 1;
+      } else if (value > trigram) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  private int[] readPostings(int entry) {
+    int position = table.getInt(entry * TABLE_ENTRY_BYTES + Integer.BYTES);
+    int[] blocks = new int[table.getInt(entry * TABLE_ENTRY_BYTES + 2 * Integer.BYTES)];
+    int previous = 0;
+    for (int i = 0; i < blocks.length; i++) {
+      int delta = 0;
+      int shift = 0;
+      byte value;
+      do {
+        value = postings.get(position++);
+        delta |= (value & 0x7F) << shift;
+        shift += 7;
+      } while (value < 0);
+      previous += delta;
+      blocks[i] = previous;
+    }
+    return blocks;
+  }
+
+  private static int[] intersect(int[] left, int[] right) {
+    int[] result = new int[Math.min(left.length, right.length)];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < left.length && j < right.length) {
+      if (left[i] < right[j]) {
+        i++;
+      } else if (left[i] > right[j]) {
+        j++;
+      } else {
+        result[size++] = left[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  private static int[] trigramsOf(byte[] value) {
+    int[] trigrams = new int[Math.max(0, value.length - 2)];
+    for (int i = 0; i < trigrams.length; i++) {
+      trigrams[i] =
+          ((value[i] & 0xFF) << 16) | ((value[i + 1] & 0xFF) << 8) | (value[i + 2] & 0xFF);
+    }
+    return Arrays.stream(trigrams).distinct().toArray();
+  }
+
+  private static byte[] lowerCaseAscii(byte[] value) {
+    byte[] result = new byte[value.length];
+    for (int i = 0; i < value.length; i++) {
+      result[i] = lowerCaseAscii(value[i]);
+    }
+    return result;
+  }
+
+  private static byte lowerCaseAscii(byte value) {
+    return value >= 'A' && value <= 'Z' ? (byte) (value + ('a' - 'A')) : value;
+  }
+
+  /** Ascending block ids of one trigram, varint delta encoded when written. */
+  private static final class PostingList {
+    private int[] blocks = new int[4];
+    private int size;
+
+    void add(int block) {
+      // Files are scanned in block order, so a repeated block can only be the last one
+      if (size > 0 && blocks[size - 1] == block) {
+        return;
+      }
+      if (size == blocks.length) {
+        blocks = Arrays.copyOf(blocks, size * 2);
+      }
+      blocks[size++] = block;
+    }
+
+    int encodedSize() {
+      int bytes = 0;
+      int previous = 0;
+      for (int i = 0; i < size; i++) {
+        int delta = blocks[i] - previous;
+        previous = blocks[i];
+        do {
+          bytes++;
+          delta >>>= 7;
+        } while (delta != 0);
+      }
+      return bytes;
+    }
+
+    void writeTo(DataOutputStream output) throws IOException {
+      int previous = 0;
+      for (int i = 0; i < size; i++) {
+        int delta = blocks[i] - previous;
+        previous = blocks[i];
+        while ((delta & ~0x7F) != 0) {
+          output.writeByte((delta & 0x7F) | 0x80);
+          delta >>>= 7;
+        }
+        output.writeByte(delta);
+      }
+    }
+  }
+}
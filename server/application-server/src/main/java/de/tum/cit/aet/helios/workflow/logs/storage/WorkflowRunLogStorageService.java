@@ -15,11 +15,14 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.time.OffsetDateTime;
 import java.util.Comparator;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Log4j2
 @Service
@@ -31,13 +34,21 @@ public class WorkflowRunLogStorageService {
   private final WorkflowRunLogStorageProperties properties;
   private final ObjectMapper objectMapper;
   private final WorkflowRunLogArchiveExtractor archiveExtractor;
+  private final WorkflowRunLogDownloadProperties downloadProperties;
+
+  // Cache fills currently running per workflow run id; concurrent viewers wait for these instead
+  // of fetching the same archive again
+  private final Map<Long, InFlightDownload> inFlightDownloads = new ConcurrentHashMap<>();
 
-  @Transactional
   public WorkflowRunLogCacheResult ensureLogsCached(Long workflowRunId) throws IOException {
     return ensureLogsCached(workflowRunId, false);
   }
 
-  @Transactional
+  /**
+   * Returns the cached logs of a run, downloading them first if needed. Runs outside of a
+   * transaction: the run is loaded with its repository up front, so waiting for a download does
+   * not hold a database connection.
+   */
   public WorkflowRunLogCacheResult ensureLogsCached(Long workflowRunId, boolean forceRefresh)
       throws IOException {
     return cacheLogs(loadAccessibleCompletedRun(workflowRunId), forceRefresh);
@@ -45,6 +56,46 @@ public class WorkflowRunLogStorageService {
 
   private WorkflowRunLogCacheResult cacheLogs(WorkflowRun workflowRun, boolean forceRefresh)
       throws IOException {
+    InFlightDownload download = new InFlightDownload(new CompletableFuture<>(), forceRefresh);
+    InFlightDownload inFlight = inFlightDownloads.putIfAbsent(workflowRun.getId(), download);
+    if (inFlight != null) {
+      awaitInFlightDownload(workflowRun, inFlight.done());
+      if (forceRefresh && !inFlight.forceRefresh()) {
+        // The other request may have served the existing cache; a refresh downloads on its own
+        return cacheLogs(workflowRun, true);
+      }
+      // The other request was a refresh itself, or this one accepts any current cache
+      return cacheLogs(workflowRun, false);
+    }
+
+    try {
+      WorkflowRunLogCacheResult result = cacheLogsExclusively(workflowRun, forceRefresh);
+      download.done().complete(null);
+      return result;
+    } catch (IOException | RuntimeException e) {
+      download.done().completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlightDownloads.remove(workflowRun.getId(), download);
+    }
+  }
+
+  private void awaitInFlightDownload(WorkflowRun workflowRun, CompletableFuture<Void> inFlight)
+      throws IOException {
+    try {
+      inFlight.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(
+          "Interrupted while waiting for workflow logs of run " + workflowRun.getId(), e);
+    } catch (ExecutionException e) {
+      throw new IOException(
+          "Downloading workflow logs failed for run " + workflowRun.getId(), e.getCause());
+    }
+  }
+
+  private WorkflowRunLogCacheResult cacheLogsExclusively(
+      WorkflowRun workflowRun, boolean forceRefresh) throws IOException {
     Long repositoryId = requireRepositoryId(workflowRun);
     Path runDirectory = getRunDirectory(workflowRun);
     Optional<WorkflowRunLogManifest> existingManifest = readManifest(runDirectory);
@@ -92,6 +143,7 @@ public class WorkflowRunLogStorageService {
               currentTime(),
               fileCount,
               workflowRun.getRunAttempt());
+      writeSearchIndex(workflowRun, tempDirectory);
       writeManifest(tempDirectory, manifest);
       promoteTempDirectory(tempDirectory, runDirectory);
       WorkflowRunLogManifest finalManifest = readManifest(runDirectory).orElse(manifest);
@@ -119,7 +171,7 @@ public class WorkflowRunLogStorageService {
   private WorkflowRun loadCompletedRun(Long workflowRunId) {
     WorkflowRun workflowRun =
         workflowRunRepository
-            .findById(workflowRunId)
+            .findByIdWithRepository(workflowRunId)
             .orElseThrow(
                 () ->
                     new EntityNotFoundException(
@@ -145,11 +197,37 @@ public class WorkflowRunLogStorageService {
     return OffsetDateTime.now();
   }
 
+  /**
+   * Builds the search index before the directory is promoted, so it is never visible without it.
+   * The index only speeds up searches, which build a missing one themselves, so failing to write it
+   * does not fail caching.
+   */
+  private void writeSearchIndex(WorkflowRun workflowRun, Path tempDirectory) {
+    try {
+      WorkflowRunLogSearchIndex.build(tempDirectory);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to build workflow log search index for run {}", workflowRun.getId(), e);
+    }
+  }
+
   private int downloadLogs(WorkflowRun workflowRun, Path tempDirectory) throws IOException {
-    byte[] archive =
-        gitHubService.downloadWorkflowRunLogs(
-            workflowRun.getRepository().getNameWithOwner(), workflowRun.getId());
-    return archiveExtractor.extractArchive(archive, tempDirectory);
+    // Spool the archive next to (not inside) the extraction directory, so it is never promoted
+    Path archive =
+        Files.createTempFile(
+            tempDirectory.getParent(),
+            workflowRun.getId().toString() + "-workflow-log-archive-",
+            ".zip");
+    try {
+      gitHubService.downloadWorkflowRunLogs(
+          workflowRun.getRepository().getNameWithOwner(),
+          workflowRun.getId(),
+          archive,
+          downloadProperties.maxArchiveSize().toBytes());
+      return archiveExtractor.extractArchive(
+          archive, tempDirectory, downloadProperties.maxEntries());
+    } finally {
+      Files.deleteIfExists(archive);
+    }
   }
 
   private Path getRunDirectory(WorkflowRun workflowRun) {
@@ -241,4 +319,7 @@ public class WorkflowRunLogStorageService {
       log.warn("Failed to clean up workflow log path {}", path, cleanupFailure);
     }
   }
+
+  /** A running cache fill and whether it replaces the existing cache regardless of its age. */
+  private record InFlightDownload(CompletableFuture<Void> done, boolean forceRefresh) {}
 }
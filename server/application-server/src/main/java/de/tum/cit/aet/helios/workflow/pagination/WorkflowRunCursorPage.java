@@ -0,0 +1,13 @@
+package de.tum.cit.aet.helios.workflow.pagination;
+
+import de.tum.cit.aet.helios.workflow.WorkflowRunDto;
+import java.util.List;
+
+public record WorkflowRunCursorPage(
+    List<WorkflowRunDto> runs,
+    int size,
+    // null on the last page
+    String nextCursor,
+    // only set when requested; capped, see totalIsExact
+    Long approximateTotal,
+    boolean totalIsExact) {}
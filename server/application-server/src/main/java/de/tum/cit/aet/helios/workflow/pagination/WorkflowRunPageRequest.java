@@ -17,4 +17,8 @@ public class WorkflowRunPageRequest {
   @Builder.Default
   private WorkflowRunFilterType filterType = WorkflowRunFilterType.ALL;
   private String searchTerm;
+  // Keyset pagination only: position after the previous page, null for the first page
+  private String cursor;
+  // Keyset pagination only: whether to compute the (capped) total
+  private boolean includeTotal;
 }
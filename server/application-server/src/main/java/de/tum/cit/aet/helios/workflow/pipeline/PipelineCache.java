@@ -0,0 +1,81 @@
+package de.tum.cit.aet.helios.workflow.pipeline;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdateListener;
+import de.tum.cit.aet.helios.live.LiveUpdateType;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computed canonical pipelines, so that the pipeline of a busy pull request page is built once per
+ * change of its CI state instead of once per poll.
+ *
+ * <p>A pipeline is keyed by the commits it was built from. Workflow run and workflow job changes
+ * (see {@link LiveUpdateListener}) evict every pipeline showing their commit, as displayed or as
+ * previous commit. Every write of a run publishes one: webhook syncs, the stale run
+ * reconciliation, rerun resets and test processing status changes. A head commit that gets its
+ * first run resolves to a new key anyway. The TTL only bounds what no event reports, such as a
+ * commit message synced later.
+ */
+@Component
+class PipelineCache implements LiveUpdateListener {
+
+  record Key(long repositoryId, String displayedSha, boolean upToDate, String previousSha) {}
+
+  private final Cache<Key, PipelineDto> pipelines;
+
+  // Guarded by this. Bumped on every eviction, so that a pipeline built from data read before an
+  // eviction is not cached after it.
+  private long generation;
+
+  PipelineCache(
+      @Value("${helios.pipeline.cache.ttl:10m}") Duration ttl,
+      @Value("${helios.pipeline.cache.max-size:2000}") long maxSize) {
+    this.pipelines = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+  }
+
+  /** The cached pipeline for the key, or the built one, which is cached unless evicted since. */
+  PipelineDto get(Key key, Supplier<PipelineDto> builder) {
+    final PipelineDto cached = pipelines.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    final long before;
+    synchronized (this) {
+      before = generation;
+    }
+    final PipelineDto built = builder.get();
+    synchronized (this) {
+      if (generation == before) {
+        pipelines.put(key, built);
+      }
+    }
+    return built;
+  }
+
+  @Override
+  public void onLiveUpdate(long repositoryId, LiveUpdateEvent event) {
+    if (event.type() == LiveUpdateType.WORKFLOW_RUN
+        || event.type() == LiveUpdateType.WORKFLOW_JOB) {
+      invalidate(repositoryId, event.headSha());
+    }
+  }
+
+  /** Evicts the pipelines showing the commit, or all pipelines of the repository if it is null. */
+  synchronized void invalidate(long repositoryId, String sha) {
+    generation++;
+    pipelines.asMap().keySet().removeIf(
+        key -> key.repositoryId() == repositoryId
+            && (sha == null || sha.equals(key.displayedSha()) || sha.equals(key.previousSha())));
+  }
+
+  synchronized void invalidateAll() {
+    generation++;
+    pipelines.invalidateAll();
+  }
+}
@@ -0,0 +1,104 @@
+package de.tum.cit.aet.helios.workflow.pipeline;
+
+import de.tum.cit.aet.helios.workflow.WorkflowJob;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code jobNameMatchers} of every configured pipeline node and of the gate, compiled once into
+ * a single prefix trie over the lower-cased matchers. Mapping a job to its nodes walks the trie
+ * along the job name once, instead of testing every matcher of every node against every job.
+ *
+ * <p>Matching is the one documented on {@link PipelineProperties}: the job name starts with one of
+ * the node's matchers (case-insensitive) and, if set, the job's workflow name contains the node's
+ * {@code workflowNameMatcher}.
+ */
+@Component
+class PipelineNodeMatcher {
+
+  private final TrieNode root = new TrieNode();
+
+  /** A node reachable through a trie node, with its workflow-name matcher already lower-cased. */
+  private record Target(PipelineProperties.Node node, String workflowNeedle) {}
+
+  private static final class TrieNode {
+    private final Map<Character, TrieNode> children = new HashMap<>();
+    // Nodes with a job-name matcher ending here
+    private final List<Target> targets = new ArrayList<>();
+  }
+
+  PipelineNodeMatcher(PipelineProperties properties) {
+    properties.categories().forEach(category -> category.nodes().forEach(this::add));
+    if (properties.gate() != null) {
+      add(properties.gate());
+    }
+  }
+
+  private void add(PipelineProperties.Node node) {
+    final String matcher = node.workflowNameMatcher();
+    final Target target =
+        new Target(
+            node,
+            matcher == null || matcher.isBlank() ? null : matcher.toLowerCase(Locale.ROOT));
+    for (String prefix : node.jobNameMatchers()) {
+      TrieNode current = root;
+      for (char c : prefix.toLowerCase(Locale.ROOT).toCharArray()) {
+        current = current.children.computeIfAbsent(c, key -> new TrieNode());
+      }
+      current.targets.add(target);
+    }
+  }
+
+  /**
+   * Groups the jobs by the nodes they match, in one pass. Jobs keep their order within a node, a
+   * job matching several nodes is listed under each, and nodes without a match are absent.
+   */
+  Map<PipelineProperties.Node, List<WorkflowJob>> match(List<WorkflowJob> jobs) {
+    final Map<PipelineProperties.Node, List<WorkflowJob>> matched = new HashMap<>();
+    for (WorkflowJob job : jobs) {
+      for (PipelineProperties.Node node : nodesOf(job)) {
+        matched.computeIfAbsent(node, key -> new ArrayList<>()).add(job);
+      }
+    }
+    return matched;
+  }
+
+  /** The nodes the job matches. */
+  Set<PipelineProperties.Node> nodesOf(WorkflowJob job) {
+    if (job.getName() == null) {
+      return Set.of();
+    }
+    final String jobName = job.getName().toLowerCase(Locale.ROOT);
+    final String workflowName =
+        job.getWorkflowName() == null ? null : job.getWorkflowName().toLowerCase(Locale.ROOT);
+
+    // Every trie node on the path spells a prefix of the job name
+    final Set<PipelineProperties.Node> nodes = new LinkedHashSet<>();
+    TrieNode current = root;
+    collect(current, workflowName, nodes);
+    for (int i = 0; i < jobName.length(); i++) {
+      current = current.children.get(jobName.charAt(i));
+      if (current == null) {
+        break;
+      }
+      collect(current, workflowName, nodes);
+    }
+    return nodes;
+  }
+
+  private static void collect(
+      TrieNode trieNode, String workflowName, Set<PipelineProperties.Node> into) {
+    for (Target target : trieNode.targets) {
+      if (target.workflowNeedle() == null
+          || (workflowName != null && workflowName.contains(target.workflowNeedle()))) {
+        into.add(target.node());
+      }
+    }
+  }
+}
@@ -32,10 +32,11 @@ import org.springframework.stereotype.Service;
  *
  * <p>For repositories listed in {@code helios.pipeline.repositories} the canonical, always-visible
  * node catalog (see {@link PipelineProperties}) is used: the head-commit runs' {@link WorkflowJob}s
- * are matched against each configured node and aggregated. Every other repository falls back to
- * the previous behaviour — its {@code WorkflowGroup}s rendered as categories of workflow-run nodes
- * — so a repository whose CI job names don't match the (Artemis-shaped) catalog keeps a meaningful
- * pipeline instead of an all-pending skeleton.
+ * are matched against the configured nodes (see {@link PipelineNodeMatcher}) and aggregated, and
+ * the result is cached per commit until a run or job of it changes (see {@link PipelineCache}).
+ * Every other repository falls back to the previous behaviour — its {@code WorkflowGroup}s rendered
+ * as categories of workflow-run nodes — so a repository whose CI job names don't match the
+ * (Artemis-shaped) catalog keeps a meaningful pipeline instead of an all-pending skeleton.
  */
 @Service
 @RequiredArgsConstructor
@@ -54,6 +55,8 @@ public class PipelineService {
   private final WorkflowGroupService workflowGroupService;
   private final GitRepoRepository gitRepoRepository;
   private final CommitRepository commitRepository;
+  private final PipelineNodeMatcher nodeMatcher;
+  private final PipelineCache pipelineCache;
 
   public PipelineDto getPipelineForBranch(String branchName) {
     return buildFor(workflowRunService.getPipelineRunContextForBranch(branchName));
@@ -65,9 +68,17 @@ public class PipelineService {
 
   private PipelineDto buildFor(PipelineRunContext context) {
     final Long repositoryId = RepositoryContext.getRepositoryId();
-    return isCanonicalRepository(repositoryId)
-        ? buildCanonical(repositoryId, context)
-        : buildGrouped(repositoryId, context.currentRuns());
+    if (!isCanonicalRepository(repositoryId)) {
+      return buildGrouped(repositoryId, context.currentRuns());
+    }
+    if (context.displayedSha() == null) {
+      // Nothing ran yet: the skeleton needs no job lookup, so there is nothing worth caching
+      return buildCanonical(repositoryId, context);
+    }
+    return pipelineCache.get(
+        new PipelineCache.Key(
+            repositoryId, context.displayedSha(), context.upToDate(), context.previousSha()),
+        () -> buildCanonical(repositoryId, context));
   }
 
   /** Whether the current repository uses the canonical node catalog (vs. the group fallback). */
@@ -92,6 +103,7 @@ public class PipelineService {
         runIds.isEmpty()
             ? List.of()
             : latestAttemptPerJob(workflowJobRepository.findByWorkflowRunIdIn(runIds));
+    final Map<PipelineProperties.Node, List<WorkflowJob>> jobsByNode = nodeMatcher.match(jobs);
 
     final List<PipelineDto.Category> categories =
         properties.categories().stream()
@@ -100,13 +112,15 @@ public class PipelineService {
                     new PipelineDto.Category(
                         category.name(),
                         category.nodes().stream()
-                            .map(node -> buildNode(node, jobs, currentRuns))
+                            .map(node -> buildNode(node, jobsByNode, currentRuns))
                             .toList()))
             .toList();
     // Optional overall merge-gate node (e.g. Artemis' "All required CI Passed"), surfaced as a
     // header badge on the client. Absent for the group fallback.
     final PipelineDto.Node gate =
-        properties.gate() == null ? null : buildNode(properties.gate(), jobs, currentRuns);
+        properties.gate() == null
+            ? null
+            : buildNode(properties.gate(), jobsByNode, currentRuns);
 
     final PipelineDto.Head head =
         context.displayedSha() == null
@@ -244,8 +258,10 @@ public class PipelineService {
    * legs run, so the earliest actionable signal is never hidden behind the spinner.
    */
   private PipelineDto.Node buildNode(
-      PipelineProperties.Node node, List<WorkflowJob> jobs, List<WorkflowRunDto> currentRuns) {
-    final List<WorkflowJob> matched = jobs.stream().filter(job -> matches(node, job)).toList();
+      PipelineProperties.Node node,
+      Map<PipelineProperties.Node, List<WorkflowJob>> jobsByNode,
+      List<WorkflowRunDto> currentRuns) {
+    final List<WorkflowJob> matched = jobsByNode.getOrDefault(node, List.of());
     if (matched.isEmpty()) {
       // No job yet — infer a meaningful state from the node's CI run instead of a dead "pending".
       return emptyNode(node, currentRuns);
@@ -340,23 +356,6 @@ public class PipelineService {
         .orElse(null);
   }
 
-  private static boolean matches(PipelineProperties.Node node, WorkflowJob job) {
-    if (job.getName() == null) {
-      return false;
-    }
-    final String matcher = node.workflowNameMatcher();
-    if (matcher != null && !matcher.isBlank()) {
-      final String workflowName = job.getWorkflowName();
-      if (workflowName == null
-          || !workflowName.toLowerCase(Locale.ROOT).contains(matcher.toLowerCase(Locale.ROOT))) {
-        return false;
-      }
-    }
-    final String jobName = job.getName().toLowerCase(Locale.ROOT);
-    return node.jobNameMatchers().stream()
-        .anyMatch(prefix -> jobName.startsWith(prefix.toLowerCase(Locale.ROOT)));
-  }
-
   /**
    * State for a node that has no matching job yet, inferred from the CI run it belongs to so the
    * view stays honest rather than showing a permanent "not running yet".
@@ -0,0 +1,35 @@
+-- environment_current_state: denormalized read model of what the environment list shows per
+-- environment — the latest Helios deployment, the latest GitHub deployment and the latest status
+-- check. The write paths that insert those rows refresh the environment's row, so listing the
+-- environments of a repository is a single index scan instead of three "latest row per
+-- environment" lookups. The pointer columns deliberately have no foreign keys: a dangling id
+-- reads as "none" and is repaired by the consistency check / admin rebuild.
+CREATE TABLE public.environment_current_state (
+    environment_id bigint NOT NULL,
+    repository_id bigint NOT NULL,
+    latest_helios_deployment_id bigint,
+    latest_deployment_id bigint,
+    latest_status_id bigint,
+    refreshed_at timestamp(6) with time zone NOT NULL,
+    CONSTRAINT environment_current_state_pkey PRIMARY KEY (environment_id),
+    CONSTRAINT fk_environment_current_state_environment FOREIGN KEY (environment_id)
+        REFERENCES public.environment(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_environment_current_state_repository
+    ON public.environment_current_state (repository_id);
+
+INSERT INTO public.environment_current_state (
+    environment_id, repository_id, latest_helios_deployment_id, latest_deployment_id,
+    latest_status_id, refreshed_at)
+SELECT e.id,
+       e.repository_id,
+       (SELECT hd.id FROM public.helios_deployment hd WHERE hd.environment_id = e.id
+        ORDER BY hd.created_at DESC, hd.id DESC LIMIT 1),
+       (SELECT d.id FROM public.deployment d WHERE d.environment_id = e.id
+        ORDER BY d.created_at DESC, d.id DESC LIMIT 1),
+       (SELECT es.id FROM public.environment_status es WHERE es.environment_id = e.id
+        ORDER BY es.check_timestamp DESC, es.id DESC LIMIT 1),
+       now()
+FROM public.environment e
+WHERE e.repository_id IS NOT NULL;
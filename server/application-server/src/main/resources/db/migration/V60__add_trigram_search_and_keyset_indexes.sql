@@ -0,0 +1,25 @@
+-- Runs outside a transaction (see the .conf next to this file) so the indexes are built
+-- CONCURRENTLY, without blocking writes to these tables. A concurrent build that fails leaves an
+-- INVALID index behind, which IF NOT EXISTS would skip: drop it before retrying the migration.
+
+-- Search: the workflow run and pull request search predicates are lower(column) LIKE '%term%',
+-- which no B-tree can serve. Trigram GIN indexes on exactly those expressions can.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_workflow_run_name_trgm
+    ON public.workflow_run USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_workflow_run_display_title_trgm
+    ON public.workflow_run USING gin (lower(display_title) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_workflow_run_head_branch_trgm
+    ON public.workflow_run USING gin (lower(head_branch) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_workflow_run_head_sha_trgm
+    ON public.workflow_run USING gin (lower(head_sha) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_issue_title_trgm
+    ON public.issue USING gin (lower(title) gin_trgm_ops);
+
+-- Keyset pagination: match the cursor order (newest first, id as tiebreaker) per repository,
+-- so the row-value seek of every page is a single index range scan.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_workflow_run_repository_keyset
+    ON public.workflow_run (repository_id, run_started_at DESC, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_issue_repository_keyset
+    ON public.issue (repository_id, updated_at DESC, id DESC);
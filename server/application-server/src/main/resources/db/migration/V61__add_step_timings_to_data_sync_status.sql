@@ -0,0 +1,5 @@
+-- Per-step timings of a repository sync. Steps now run concurrently, so the total duration no
+-- longer tells which step was slow.
+ALTER TABLE data_sync_status
+    ADD COLUMN step_durations JSONB,
+    ADD COLUMN failed_steps JSONB;
@@ -0,0 +1,24 @@
+-- Runs outside a transaction (see the .conf next to this file) so the index on workflow_run is
+-- built CONCURRENTLY, without blocking writes to it. Every statement is safe to rerun; a concurrent
+-- build that fails leaves an INVALID index behind, which has to be dropped before retrying.
+
+-- Progress of the batched keep-N workflow-run purge, one row per retention policy. A purge that
+-- was interrupted (restart, failed batch) resumes after last_run_id on its next run.
+CREATE TABLE IF NOT EXISTS workflow_run_cleanup_checkpoint (
+    policy_key          VARCHAR(255) PRIMARY KEY,
+    last_run_id         BIGINT NOT NULL DEFAULT 0,
+    batches             INTEGER NOT NULL DEFAULT 0,
+    deleted_runs        BIGINT NOT NULL DEFAULT 0,
+    deleted_test_suites BIGINT NOT NULL DEFAULT 0,
+    deleted_test_cases  BIGINT NOT NULL DEFAULT 0,
+    last_batch_rows     BIGINT NOT NULL DEFAULT 0,
+    last_batch_millis   BIGINT NOT NULL DEFAULT 0,
+    started_at          TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at          TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at         TIMESTAMP WITH TIME ZONE
+);
+
+-- Serves the keep-N ranking (partition + order) that every purge evaluates once
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_workflow_run_cleanup_rank
+    ON workflow_run (test_processing_status, repository_id, workflow_id, head_branch,
+                     created_at DESC);
@@ -0,0 +1,125 @@
+-- Range-partitions test_suite and test_case by the creation time of their workflow run
+-- (run_created_at), one partition per UTC month. Reads of a run only touch the partition of its
+-- month, and retention can drop whole months instead of cascading row deletes.
+--
+-- Both tables carry the same key and test_case references test_suite through
+-- (id, run_created_at), so a test case always lives in the month of its suite. Runs without a
+-- created_at are keyed by the epoch and end up in the default partition. Later months are
+-- created ahead of time by TestResultPartitions.
+
+ALTER SEQUENCE test_suite_id_seq OWNED BY NONE;
+ALTER SEQUENCE test_case_id_seq OWNED BY NONE;
+
+CREATE TABLE test_suite_partitioned (
+    id              BIGINT NOT NULL DEFAULT nextval('test_suite_id_seq'),
+    workflow_run_id BIGINT NOT NULL,
+    name            VARCHAR(500) NOT NULL,
+    timestamp       TIMESTAMP(6) NOT NULL,
+    tests           INTEGER NOT NULL CHECK (tests >= 0),
+    failures        INTEGER NOT NULL CHECK (failures >= 0),
+    errors          INTEGER NOT NULL CHECK (errors >= 0),
+    skipped         INTEGER NOT NULL CHECK (skipped >= 0),
+    time            DOUBLE PRECISION NOT NULL,
+    test_type_id    BIGINT,
+    system_out      TEXT,
+    run_created_at  TIMESTAMP WITH TIME ZONE NOT NULL
+) PARTITION BY RANGE (run_created_at);
+
+CREATE TABLE test_case_partitioned (
+    id             BIGINT NOT NULL DEFAULT nextval('test_case_id_seq'),
+    test_suite_id  BIGINT NOT NULL,
+    name           VARCHAR(255) NOT NULL,
+    class_name     VARCHAR(255),
+    time           DOUBLE PRECISION NOT NULL,
+    status         VARCHAR(20) NOT NULL,
+    error_type     VARCHAR(255),
+    message        TEXT,
+    stack_trace    TEXT,
+    system_out     TEXT,
+    run_created_at TIMESTAMP WITH TIME ZONE NOT NULL
+) PARTITION BY RANGE (run_created_at);
+
+-- One partition per month from the oldest run with test results up to two months ahead
+DO
+$$
+    DECLARE
+        partition_month TIMESTAMP;
+        last_month      TIMESTAMP :=
+            date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '2 months';
+        suffix          TEXT;
+    BEGIN
+        SELECT date_trunc('month', COALESCE(min(wr.created_at), now()) AT TIME ZONE 'UTC')
+        INTO partition_month
+        FROM workflow_run wr
+        WHERE wr.created_at IS NOT NULL
+          AND EXISTS (SELECT 1 FROM test_suite ts WHERE ts.workflow_run_id = wr.id);
+
+        WHILE partition_month <= last_month
+            LOOP
+                suffix := to_char(partition_month, 'YYYY_MM');
+                EXECUTE format(
+                        'CREATE TABLE %I PARTITION OF test_suite_partitioned '
+                            || 'FOR VALUES FROM (%L) TO (%L)',
+                        'test_suite_' || suffix, partition_month || '+00',
+                        (partition_month + INTERVAL '1 month') || '+00');
+                EXECUTE format(
+                        'CREATE TABLE %I PARTITION OF test_case_partitioned '
+                            || 'FOR VALUES FROM (%L) TO (%L)',
+                        'test_case_' || suffix, partition_month || '+00',
+                        (partition_month + INTERVAL '1 month') || '+00');
+                partition_month := partition_month + INTERVAL '1 month';
+            END LOOP;
+    END
+$$;
+
+CREATE TABLE test_suite_default PARTITION OF test_suite_partitioned DEFAULT;
+CREATE TABLE test_case_default PARTITION OF test_case_partitioned DEFAULT;
+
+INSERT INTO test_suite_partitioned (id, workflow_run_id, name, timestamp, tests, failures, errors,
+                                    skipped, time, test_type_id, system_out, run_created_at)
+SELECT ts.id, ts.workflow_run_id, ts.name, ts.timestamp, ts.tests, ts.failures, ts.errors,
+       ts.skipped, ts.time, ts.test_type_id, ts.system_out,
+       COALESCE(wr.created_at, 'epoch')
+FROM test_suite ts
+JOIN workflow_run wr ON wr.id = ts.workflow_run_id;
+
+INSERT INTO test_case_partitioned (id, test_suite_id, name, class_name, time, status, error_type,
+                                   message, stack_trace, system_out, run_created_at)
+SELECT tc.id, tc.test_suite_id, tc.name, tc.class_name, tc.time, tc.status, tc.error_type,
+       tc.message, tc.stack_trace, tc.system_out, ts.run_created_at
+FROM test_case tc
+JOIN test_suite_partitioned ts ON ts.id = tc.test_suite_id;
+
+-- A foreign key to a partitioned table has to include the partition key, which the analysis cache
+-- does not know. Its rows expire on their own and are removed with a dropped partition.
+ALTER TABLE test_failure_analysis DROP CONSTRAINT fk_test_failure_analysis_test_case;
+
+DROP TABLE test_case;
+DROP TABLE test_suite;
+
+ALTER TABLE test_suite_partitioned RENAME TO test_suite;
+ALTER TABLE test_case_partitioned RENAME TO test_case;
+
+ALTER SEQUENCE test_suite_id_seq OWNED BY test_suite.id;
+ALTER SEQUENCE test_case_id_seq OWNED BY test_case.id;
+
+ALTER TABLE test_suite ADD CONSTRAINT test_suite_pkey PRIMARY KEY (id, run_created_at);
+ALTER TABLE test_suite
+    ADD CONSTRAINT fk_test_suite_workflow_run
+        FOREIGN KEY (workflow_run_id) REFERENCES workflow_run (id) ON DELETE CASCADE;
+ALTER TABLE test_suite
+    ADD CONSTRAINT fk_test_suite_test_type
+        FOREIGN KEY (test_type_id) REFERENCES test_type (id) ON DELETE SET NULL;
+
+ALTER TABLE test_case ADD CONSTRAINT test_case_pkey PRIMARY KEY (id, run_created_at);
+ALTER TABLE test_case
+    ADD CONSTRAINT fk_test_case_test_suite
+        FOREIGN KEY (test_suite_id, run_created_at) REFERENCES test_suite (id, run_created_at)
+            ON DELETE CASCADE;
+
+CREATE INDEX idx_test_suite_run ON test_suite (workflow_run_id);
+CREATE INDEX idx_test_suite_test_type_id ON test_suite (test_type_id);
+CREATE INDEX idx_test_suite_workflow_type ON test_suite (workflow_run_id, test_type_id);
+CREATE INDEX idx_test_case_suite ON test_case (test_suite_id);
+CREATE INDEX idx_test_case_name_class ON test_case (name, class_name);
+CREATE INDEX idx_test_case_status ON test_case (status);
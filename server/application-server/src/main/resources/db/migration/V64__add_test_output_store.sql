@@ -0,0 +1,63 @@
+-- Content-addressed store for the large outputs of test results: stack trace and system out of
+-- test cases, system out of test suites. Identical outputs are stored once, keyed by the SHA-256
+-- of their UTF-8 bytes. The application deflates the content when that makes it smaller.
+CREATE TABLE test_output (
+    hash       VARCHAR(64) PRIMARY KEY,
+    encoding   VARCHAR(16) NOT NULL CHECK (encoding IN ('PLAIN', 'DEFLATE')),
+    raw_size   INTEGER NOT NULL,
+    content    BYTEA NOT NULL,
+    -- Refreshed whenever a test result stores the same output again, see the cleanup task
+    stored_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+-- Existing outputs move over uncompressed (TOAST still compresses the large ones)
+INSERT INTO test_output (hash, encoding, raw_size, content)
+SELECT encode(sha256(o.content), 'hex'), 'PLAIN', octet_length(o.content), o.content
+FROM (
+    SELECT convert_to(stack_trace, 'UTF8') AS content FROM test_case WHERE stack_trace IS NOT NULL
+    UNION
+    SELECT convert_to(system_out, 'UTF8') FROM test_case WHERE system_out IS NOT NULL
+    UNION
+    SELECT convert_to(system_out, 'UTF8') FROM test_suite WHERE system_out IS NOT NULL
+) o;
+
+ALTER TABLE test_case
+    ADD COLUMN stack_trace_hash VARCHAR(64),
+    ADD COLUMN system_out_hash  VARCHAR(64);
+ALTER TABLE test_suite ADD COLUMN system_out_hash VARCHAR(64);
+
+UPDATE test_case
+SET stack_trace_hash = encode(sha256(convert_to(stack_trace, 'UTF8')), 'hex'),
+    system_out_hash  = encode(sha256(convert_to(system_out, 'UTF8')), 'hex')
+WHERE stack_trace IS NOT NULL
+   OR system_out IS NOT NULL;
+
+UPDATE test_suite
+SET system_out_hash = encode(sha256(convert_to(system_out, 'UTF8')), 'hex')
+WHERE system_out IS NOT NULL;
+
+ALTER TABLE test_case
+    DROP COLUMN stack_trace,
+    DROP COLUMN system_out;
+ALTER TABLE test_suite DROP COLUMN system_out;
+
+-- Only failed tests carry outputs, so the indexes serving the foreign keys (and the cleanup of
+-- unreferenced outputs) skip the rest
+CREATE INDEX idx_test_case_stack_trace_hash
+    ON test_case (stack_trace_hash) WHERE stack_trace_hash IS NOT NULL;
+CREATE INDEX idx_test_case_system_out_hash
+    ON test_case (system_out_hash) WHERE system_out_hash IS NOT NULL;
+CREATE INDEX idx_test_suite_system_out_hash
+    ON test_suite (system_out_hash) WHERE system_out_hash IS NOT NULL;
+
+ALTER TABLE test_case
+    ADD CONSTRAINT fk_test_case_stack_trace
+        FOREIGN KEY (stack_trace_hash) REFERENCES test_output (hash);
+ALTER TABLE test_case
+    ADD CONSTRAINT fk_test_case_system_out
+        FOREIGN KEY (system_out_hash) REFERENCES test_output (hash);
+ALTER TABLE test_suite
+    ADD CONSTRAINT fk_test_suite_system_out
+        FOREIGN KEY (system_out_hash) REFERENCES test_output (hash);
+
+CREATE INDEX idx_test_output_stored_at ON test_output (stored_at);
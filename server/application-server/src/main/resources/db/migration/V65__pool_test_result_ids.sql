@@ -0,0 +1,6 @@
+-- Hibernate draws test suite and test case ids in blocks of 50 (pooled sequence generator), so
+-- the rows of a test result batch can be inserted with JDBC batching instead of one round-trip
+-- per row for an IDENTITY value. Inserts that rely on the column default still work: each of
+-- them takes a whole block for a single row.
+ALTER SEQUENCE test_suite_id_seq INCREMENT BY 50;
+ALTER SEQUENCE test_case_id_seq INCREMENT BY 50;
@@ -16,6 +16,7 @@ import static org.mockito.Mockito.when;
 import de.tum.cit.aet.helios.auth.AuthService;
 import de.tum.cit.aet.helios.branch.BranchService;
 import de.tum.cit.aet.helios.environment.Environment;
+import de.tum.cit.aet.helios.environment.EnvironmentCurrentStateService;
 import de.tum.cit.aet.helios.environment.EnvironmentLockHistory;
 import de.tum.cit.aet.helios.environment.EnvironmentLockHistoryRepository;
 import de.tum.cit.aet.helios.environment.EnvironmentRepository;
@@ -65,6 +66,7 @@ public class DeploymentServiceTest {
   @Mock private GitRepoRepository gitRepoRepository;
   @Mock private HeliosDeploymentWorkflowRunSyncService heliosDeploymentWorkflowRunSyncService;
   @Mock private WorkflowRunRepository workflowRunRepository;
+  @Mock private EnvironmentCurrentStateService environmentCurrentStateService;
 
   private Deployment deployment;
   private GitRepository gitRepository;
@@ -10,9 +10,11 @@ import static org.mockito.Mockito.when;
 import de.tum.cit.aet.helios.deployment.Deployment;
 import de.tum.cit.aet.helios.deployment.DeploymentRepository;
 import de.tum.cit.aet.helios.environment.Environment;
+import de.tum.cit.aet.helios.environment.EnvironmentCurrentStateService;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
 import de.tum.cit.aet.helios.heliosdeployment.HeliosDeployment;
 import de.tum.cit.aet.helios.heliosdeployment.HeliosDeploymentRepository;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.pullrequest.PullRequestRepository;
 import java.time.OffsetDateTime;
 import java.util.Optional;
@@ -29,6 +31,8 @@ class GitHubDeploymentSyncServiceTest {
   @Mock private PullRequestRepository pullRequestRepository;
   @Mock private DeploymentConverter deploymentConverter;
   @Mock private HeliosDeploymentRepository heliosDeploymentRepository;
+  @Mock private EnvironmentCurrentStateService environmentCurrentStateService;
+  @Mock private LiveUpdatePublisher liveUpdatePublisher;
 
   @InjectMocks private GitHubDeploymentSyncService gitHubDeploymentSyncService;
 
@@ -0,0 +1,150 @@
+package de.tum.cit.aet.helios.environment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration test for the {@link EnvironmentCurrentState} read model: the native upserts in
+ * {@link EnvironmentCurrentStateRepository} and the consistency check in {@link
+ * EnvironmentCurrentStateService}, run against an embedded PostgreSQL with the real Flyway schema.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.flyway.enabled=true",
+      "spring.jpa.hibernate.ddl-auto=none",
+      "reconciliation.enabled=true"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(
+    type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+    provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.DOCKER)
+@Import({
+  EnvironmentCurrentStateService.class,
+  EnvironmentCurrentStateIntegrationTest.CacheTestConfig.class
+})
+class EnvironmentCurrentStateIntegrationTest {
+
+  /** See {@code WorkflowRunOrphanSweepIntegrationTest.CacheTestConfig}. */
+  @TestConfiguration
+  static class CacheTestConfig {
+    @Bean
+    CacheManager cacheManager() {
+      return new ConcurrentMapCacheManager();
+    }
+  }
+
+  private static final long ALPHA = 1L;
+  private static final long BETA = 2L;
+
+  @Autowired private EnvironmentCurrentStateService currentStateService;
+  @Autowired private EnvironmentCurrentStateRepository currentStateRepository;
+  @Autowired private EntityManager entityManager;
+  @Autowired private DataSource dataSource;
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void seed() {
+    jdbc = new JdbcTemplate(dataSource);
+
+    jdbc.update(
+        "INSERT INTO repository (repository_id, has_issues, has_projects, has_wiki, is_archived, "
+            + "is_disabled, is_private, stargazers_count, watchers_count, name_with_owner) "
+            + "VALUES (1, false, false, false, false, false, false, 0, 0, 'ls1intum/Helios')");
+    jdbc.update(
+        "INSERT INTO environment (id, repository_id, enabled, locked, name) "
+            + "VALUES (?, 1, true, false, 'alpha'), (?, 1, true, false, 'beta')",
+        ALPHA,
+        BETA);
+
+    insertDeployment(11L, ALPHA, 2);
+    insertDeployment(12L, ALPHA, 1);
+    insertStatus(ALPHA, 5);
+  }
+
+  @Test
+  void rebuildPointsEveryEnvironmentAtItsLatestRows() {
+    assertThat(currentStateService.rebuild()).isEqualTo(2);
+
+    EnvironmentCurrentState alpha = find(ALPHA);
+    assertThat(alpha.getRepositoryId()).isEqualTo(1L);
+    assertThat(alpha.getLatestDeploymentId()).isEqualTo(12L);
+    assertThat(alpha.getLatestHeliosDeploymentId()).isNull();
+    assertThat(alpha.getLatestStatusId()).isNotNull();
+
+    EnvironmentCurrentState beta = find(BETA);
+    assertThat(beta.getLatestDeploymentId()).isNull();
+    assertThat(beta.getLatestStatusId()).isNull();
+  }
+
+  @Test
+  void refreshOnlyTouchesTheGivenEnvironment() {
+    currentStateService.rebuild();
+    insertDeployment(13L, ALPHA, 0);
+    insertDeployment(21L, BETA, 0);
+
+    currentStateService.refresh(ALPHA);
+
+    assertThat(find(ALPHA).getLatestDeploymentId()).isEqualTo(13L);
+    assertThat(find(BETA).getLatestDeploymentId()).isNull();
+  }
+
+  @Test
+  void consistencyCheckRepairsMissingAndStaleRows() {
+    currentStateService.rebuild();
+    assertThat(currentStateRepository.findInconsistentEnvironmentIds()).isEmpty();
+
+    insertDeployment(21L, BETA, 0);
+    jdbc.update("DELETE FROM environment_current_state WHERE environment_id = ?", ALPHA);
+    assertThat(currentStateRepository.findInconsistentEnvironmentIds())
+        .containsExactly(ALPHA, BETA);
+
+    currentStateService.checkConsistency();
+
+    assertThat(currentStateRepository.findInconsistentEnvironmentIds()).isEmpty();
+    assertThat(find(ALPHA).getLatestDeploymentId()).isEqualTo(12L);
+    assertThat(find(BETA).getLatestDeploymentId()).isEqualTo(21L);
+  }
+
+  private EnvironmentCurrentState find(long environmentId) {
+    entityManager.clear();
+    List<EnvironmentCurrentState> states = currentStateRepository.findByRepositoryId(1L);
+    return states.stream()
+        .filter(state -> state.getEnvironmentId() == environmentId)
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private void insertDeployment(long id, long environmentId, int hoursAgo) {
+    jdbc.update(
+        "INSERT INTO deployment (id, environment_id, repository_id, state, sha, ref, created_at, "
+            + "updated_at) VALUES (?, ?, 1, 'SUCCESS', 'abc', 'main', "
+            + "now() - INTERVAL '1 hour' * ?, now())",
+        id,
+        environmentId,
+        hoursAgo);
+  }
+
+  private void insertStatus(long environmentId, int minutesAgo) {
+    jdbc.update(
+        "INSERT INTO environment_status (environment_id, success, http_status_code, check_type, "
+            + "check_timestamp) VALUES (?, true, 200, 'HTTP_STATUS', "
+            + "now() - INTERVAL '1 minute' * ?)",
+        environmentId,
+        minutesAgo);
+  }
+}
@@ -0,0 +1,246 @@
+package de.tum.cit.aet.helios.environment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+import de.tum.cit.aet.helios.deployment.LatestDeploymentUnion.DeploymentType;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Regression test for the set-based environment dashboard read path in {@link
+ * EnvironmentDashboardLoader}.
+ *
+ * <p>Runs against an embedded PostgreSQL (zonky) with the real Flyway schema, so the {@code
+ * DISTINCT ON} and window-function queries are executed for real, and counts the JDBC statements
+ * Hibernate prepares: the count must not depend on the number of environments.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.flyway.enabled=true",
+      "spring.jpa.hibernate.ddl-auto=none",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(
+    type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+    provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.DOCKER)
+@Import({
+  EnvironmentDashboardLoader.class,
+  EnvironmentDashboardLoaderIntegrationTest.CacheTestConfig.class
+})
+class EnvironmentDashboardLoaderIntegrationTest {
+
+  /** See {@code WorkflowRunOrphanSweepIntegrationTest.CacheTestConfig}. */
+  @TestConfiguration
+  static class CacheTestConfig {
+    @Bean
+    CacheManager cacheManager() {
+      return new ConcurrentMapCacheManager();
+    }
+  }
+
+  private static final long REPOSITORY_ID = 1L;
+  private static final long ALPHA = 1L;
+  private static final long BETA = 2L;
+  private static final long GAMMA = 3L;
+  private static final long ALPHA_DEPLOYMENT_ID = 11L;
+
+  // One statement per part of the dashboard, plus the lazily loaded repository
+  private static final int MAX_STATEMENTS = 12;
+  private static final Duration LATENCY_BUDGET = Duration.ofSeconds(2);
+
+  @Autowired private EnvironmentDashboardLoader loader;
+  @Autowired private EnvironmentCurrentStateRepository currentStateRepository;
+  @Autowired private EntityManager entityManager;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private DataSource dataSource;
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void seed() {
+    jdbc = new JdbcTemplate(dataSource);
+
+    jdbc.update(
+        "INSERT INTO repository (repository_id, has_issues, has_projects, has_wiki, is_archived, "
+            + "is_disabled, is_private, stargazers_count, watchers_count, name_with_owner) "
+            + "VALUES (1, false, false, false, false, false, false, 0, 0, 'ls1intum/Helios')");
+    insertEnvironment(ALPHA, "alpha", true);
+    insertEnvironment(BETA, "beta", true);
+    insertEnvironment(GAMMA, "gamma", false);
+
+    // alpha: a real deployment newer than its latest Helios deployment, two successful Helios
+    // deployments for the estimate, a release candidate and two status checks
+    insertHeliosDeployment(ALPHA, "DEPLOYMENT_SUCCESS", "abc", 3, 300, 400);
+    insertHeliosDeployment(ALPHA, "DEPLOYMENT_SUCCESS", "abc", 2, 100, 200);
+    insertDeployment(ALPHA_DEPLOYMENT_ID, ALPHA, "abc", 1);
+    jdbc.update("INSERT INTO commit (repository_id, sha) VALUES (1, 'abc')");
+    jdbc.update(
+        "INSERT INTO release_candidate (repository_id, name, commit_repository_id, commit_sha) "
+            + "VALUES (1, 'rc-1', 1, 'abc')");
+    insertStatus(ALPHA, false, 10);
+    insertStatus(ALPHA, true, 1);
+    jdbc.update(
+        "INSERT INTO installed_apps (environment_id, app_name) VALUES (?, 'artemis')", ALPHA);
+
+    // beta: a running Helios deployment newer than its real deployment
+    insertDeployment(12L, BETA, "old", 3);
+    insertHeliosDeployment(BETA, "IN_PROGRESS", "def", 1, null, null);
+    currentStateRepository.rebuildAll();
+  }
+
+  @Test
+  void assemblesLatestDeploymentStatusEstimateAndReleaseCandidatesPerEnvironment() {
+    List<EnvironmentDto> result = loader.loadEnvironments(REPOSITORY_ID, false);
+
+    assertThat(result).extracting(EnvironmentDto::name).containsExactly("alpha", "beta", "gamma");
+
+    EnvironmentDto alpha = result.get(0);
+    assertThat(alpha.latestDeployment().getType()).isEqualTo(DeploymentType.GITHUB);
+    assertThat(alpha.latestDeployment().getId()).isEqualTo(ALPHA_DEPLOYMENT_ID);
+    assertThat(alpha.latestDeployment().getReleaseCandidateNames()).containsExactly("rc-1");
+    assertThat(alpha.latestDeployment().getEstimatedPreDeployDurationSeconds()).isEqualTo(200);
+    assertThat(alpha.latestDeployment().getEstimatedDeployDurationSeconds()).isEqualTo(300);
+    assertThat(alpha.latestStatus().success()).isTrue();
+    assertThat(alpha.installedApps()).containsExactly("artemis");
+
+    EnvironmentDto beta = result.get(1);
+    assertThat(beta.latestDeployment().getType()).isEqualTo(DeploymentType.HELIOS);
+    assertThat(beta.latestDeployment().getSha()).isEqualTo("def");
+    assertThat(beta.latestDeployment().getReleaseCandidateNames()).isEmpty();
+    assertThat(beta.latestDeployment().getEstimatedPreDeployDurationSeconds()).isNull();
+    assertThat(beta.latestStatus()).isNull();
+
+    EnvironmentDto gamma = result.get(2);
+    assertThat(gamma.latestDeployment()).isNull();
+    assertThat(gamma.installedApps()).isEmpty();
+  }
+
+  @Test
+  void derivesTheLatestRowsOfEnvironmentsWithoutCurrentState() {
+    List<EnvironmentDto> fromReadModel = loader.loadEnvironments(REPOSITORY_ID, false);
+    jdbc.update(
+        "DELETE FROM environment_current_state WHERE environment_id IN (?, ?)", ALPHA, BETA);
+    entityManager.clear();
+
+    List<EnvironmentDto> derived = loader.loadEnvironments(REPOSITORY_ID, false);
+
+    assertThat(derived).usingRecursiveComparison().isEqualTo(fromReadModel);
+  }
+
+  @Test
+  void enabledOnlySkipsDisabledEnvironments() {
+    assertThat(loader.loadEnvironments(REPOSITORY_ID, true))
+        .extracting(EnvironmentDto::name)
+        .containsExactly("alpha", "beta");
+  }
+
+  @Test
+  void statementCountDoesNotGrowWithTheNumberOfEnvironments() {
+    long fewEnvironments = countStatements();
+
+    seedEnvironments(100, 50);
+    long manyEnvironments = countStatements();
+
+    assertThat(manyEnvironments).isEqualTo(fewEnvironments).isLessThanOrEqualTo(MAX_STATEMENTS);
+  }
+
+  @Test
+  void loadsManyEnvironmentsWithinTheLatencyBudget() {
+    seedEnvironments(100, 200);
+    // Warm up the query plans and entity metadata before measuring
+    loader.loadEnvironments(REPOSITORY_ID, false);
+    entityManager.clear();
+
+    List<EnvironmentDto> result =
+        assertTimeout(LATENCY_BUDGET, () -> loader.loadEnvironments(REPOSITORY_ID, false));
+
+    assertThat(result).hasSize(203);
+  }
+
+  private long countStatements() {
+    entityManager.clear();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    loader.loadEnvironments(REPOSITORY_ID, false);
+    return statistics.getPrepareStatementCount();
+  }
+
+  private void seedEnvironments(long firstId, int count) {
+    for (long id = firstId; id < firstId + count; id++) {
+      insertEnvironment(id, String.format("env-%04d", id), true);
+      insertHeliosDeployment(id, "DEPLOYMENT_SUCCESS", "sha-" + id, 2, 60, 120);
+      insertDeployment(10_000 + id, id, "sha-" + id, 1);
+      insertStatus(id, true, 1);
+      jdbc.update("INSERT INTO installed_apps (environment_id, app_name) VALUES (?, 'app')", id);
+    }
+    currentStateRepository.rebuildAll();
+  }
+
+  private void insertEnvironment(long id, String name, boolean enabled) {
+    jdbc.update(
+        "INSERT INTO environment (id, repository_id, enabled, locked, name) "
+            + "VALUES (?, 1, ?, false, ?)",
+        id,
+        enabled,
+        name);
+  }
+
+  private void insertHeliosDeployment(
+      long environmentId,
+      String status,
+      String sha,
+      int hoursAgo,
+      Integer preDeploySeconds,
+      Integer deploySeconds) {
+    jdbc.update(
+        "INSERT INTO helios_deployment (environment_id, status, status_updated_at, updated_at, "
+            + "created_at, triggering_user, sha, pre_deploy_duration_seconds, "
+            + "deploy_duration_seconds) "
+            + "VALUES (?, ?, now(), now(), now() - INTERVAL '1 hour' * ?, 'tester', ?, ?, ?)",
+        environmentId,
+        status,
+        hoursAgo,
+        sha,
+        preDeploySeconds,
+        deploySeconds);
+  }
+
+  private void insertDeployment(long id, long environmentId, String sha, int hoursAgo) {
+    jdbc.update(
+        "INSERT INTO deployment (id, environment_id, repository_id, state, sha, ref, created_at, "
+            + "updated_at) VALUES (?, ?, 1, 'SUCCESS', ?, 'main', "
+            + "now() - INTERVAL '1 hour' * ?, now())",
+        id,
+        environmentId,
+        sha,
+        hoursAgo);
+  }
+
+  private void insertStatus(long environmentId, boolean success, int minutesAgo) {
+    jdbc.update(
+        "INSERT INTO environment_status (environment_id, success, http_status_code, check_type, "
+            + "check_timestamp) VALUES (?, ?, 200, 'HTTP_STATUS', "
+            + "now() - INTERVAL '1 minute' * ?)",
+        environmentId,
+        success,
+        minutesAgo);
+  }
+}
@@ -65,6 +65,7 @@ public class EnvironmentServiceTest {
   @Mock private GitHubEnvironmentSyncService environmentSyncService;
   @Mock private GitRepoRepository gitRepoRepository;
   @Mock private GitHubService gitHubService;
+  @Mock private EnvironmentDashboardLoader dashboardLoader;
 
   @InjectMocks private EnvironmentService environmentService;
 
@@ -141,32 +142,33 @@ public class EnvironmentServiceTest {
   @Test
   public void testGetAllEnvironments() {
     RepositoryContext.setRepositoryId("1");
-    when(environmentRepository.findByRepositoryRepositoryIdOrderByNameAsc(1L))
-        .thenReturn(List.of(environment, environment));
+    EnvironmentDto dto = EnvironmentDto.fromEnvironment(environment);
+    when(dashboardLoader.loadEnvironments(1L, false)).thenReturn(List.of(dto, dto));
 
     List<EnvironmentDto> result = environmentService.getAllEnvironments();
 
-    EnvironmentDto dto = EnvironmentDto.fromEnvironment(environment);
-
-    assertEquals(2, result.size());
     assertEquals(List.of(dto, dto), result);
-    verify(environmentRepository, times(1)).findByRepositoryRepositoryIdOrderByNameAsc(1L);
+    verify(dashboardLoader, times(1)).loadEnvironments(1L, false);
   }
 
   @Test
   public void testGetAllEnabledEnvironments() {
     RepositoryContext.setRepositoryId("1");
-    when(environmentRepository.findByEnabledTrueAndRepositoryRepositoryIdOrderByNameAsc(1L))
-        .thenReturn(List.of(environment, environment));
+    EnvironmentDto dto = EnvironmentDto.fromEnvironment(environment);
+    when(dashboardLoader.loadEnvironments(1L, true)).thenReturn(List.of(dto));
 
     List<EnvironmentDto> result = environmentService.getAllEnabledEnvironments();
 
-    EnvironmentDto dto = EnvironmentDto.fromEnvironment(environment);
+    assertEquals(List.of(dto), result);
+    verify(dashboardLoader, times(1)).loadEnvironments(1L, true);
+  }
 
-    assertEquals(2, result.size());
-    assertEquals(List.of(dto, dto), result);
-    verify(environmentRepository, times(1))
-        .findByEnabledTrueAndRepositoryRepositoryIdOrderByNameAsc(1L);
+  @Test
+  public void testGetAllEnvironmentsWithoutRepositoryContext() {
+    RepositoryContext.clear();
+
+    assertTrue(environmentService.getAllEnvironments().isEmpty());
+    verify(dashboardLoader, never()).loadEnvironments(any(), eq(false));
   }
 
   @Test
@@ -0,0 +1,153 @@
+package de.tum.cit.aet.helios.environment.status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.tum.cit.aet.helios.environment.Environment;
+import de.tum.cit.aet.helios.environment.EnvironmentCurrentStateService;
+import de.tum.cit.aet.helios.environment.EnvironmentRepository;
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class EnvironmentStatusStoreTest {
+
+  private static final Instant NOW = Instant.parse("2026-04-23T10:00:00Z");
+  private static final StatusCheckResult UP = new StatusCheckResult(true, 200, Map.of());
+
+  @Mock private EnvironmentStatusRepository statusRepository;
+  @Mock private EnvironmentRepository environmentRepository;
+  @Mock private EnvironmentCurrentStateService environmentCurrentStateService;
+  @Mock private TransactionTemplate transactionTemplate;
+  @Mock private LiveUpdatePublisher liveUpdatePublisher;
+  @InjectMocks private EnvironmentStatusStore store;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(store, "keepCount", 10);
+    ReflectionTestUtils.setField(store, "heartbeatInterval", Duration.ofMinutes(5));
+  }
+
+  @Test
+  void coalescesRepeatedResultsWithinTheHeartbeatInterval() {
+    assertThat(store.record(outcome(1L, UP, NOW, false))).isTrue();
+    assertThat(store.record(outcome(1L, UP, NOW.plusSeconds(10), false))).isFalse();
+    assertThat(store.record(outcome(1L, UP, NOW.plusSeconds(299), false))).isFalse();
+    assertThat(store.record(outcome(1L, UP, NOW.plusSeconds(300), false))).isTrue();
+  }
+
+  @Test
+  void neverCoalescesPushUpdates() {
+    StatusCheckOutcome push = new StatusCheckOutcome(
+        1L, StatusCheckType.PUSH_UPDATE, UP, LifecycleState.RUNNING, NOW, false);
+
+    assertThat(store.record(push)).isTrue();
+    assertThat(store.record(new StatusCheckOutcome(
+        1L, StatusCheckType.PUSH_UPDATE, UP, LifecycleState.RUNNING, NOW.plusSeconds(30), false)))
+        .isTrue();
+  }
+
+  @Test
+  void persistsChangedResultsImmediately() {
+    store.record(outcome(1L, UP, NOW, false));
+
+    assertThat(store.record(outcome(1L, new StatusCheckResult(false, 503, Map.of()),
+        NOW.plusSeconds(10), true))).isTrue();
+    assertThat(store.record(outcome(1L, new StatusCheckResult(false, 503, Map.of("v", "2")),
+        NOW.plusSeconds(20), false))).isTrue();
+  }
+
+  @Test
+  void flushWritesTheBatchTrimsOnceAndBumpsChangedEnvironments() {
+    doAnswer(invocation -> {
+      invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+      return null;
+    }).when(transactionTemplate).executeWithoutResult(any());
+    Environment first = environment(1L);
+    Environment second = environment(2L);
+    when(environmentRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(first, second));
+
+    store.record(outcome(1L, UP, NOW, true));
+    store.record(outcome(2L, UP, NOW, false));
+    store.flush();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<EnvironmentStatus>> saved = ArgumentCaptor.forClass(List.class);
+    verify(statusRepository).saveAll(saved.capture());
+    assertThat(saved.getValue()).extracting(EnvironmentStatus::getEnvironment)
+        .containsExactly(first, second);
+    verify(statusRepository).deleteAllButLatestByEnvironmentIdIn(Set.of(1L, 2L), 10);
+    verify(environmentCurrentStateService).refreshAll(Set.of(1L, 2L));
+    verify(liveUpdatePublisher).publish(null, LiveUpdateEvent.environmentStatus(1L));
+    verify(liveUpdatePublisher).publish(null, LiveUpdateEvent.environmentStatus(2L));
+    assertThat(first.getStatusChangedAt()).isEqualTo(NOW);
+    assertThat(second.getStatusChangedAt()).isNull();
+  }
+
+  @Test
+  void pushBumpsStatusChangedAtToServerTimeAndKeepsItsOwnTimestampAsCheckTimestamp() {
+    doAnswer(invocation -> {
+      invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+      return null;
+    }).when(transactionTemplate).executeWithoutResult(any());
+    Environment environment = environment(1L);
+    when(environmentRepository.findAllById(Set.of(1L))).thenReturn(List.of(environment));
+    // The pushing server's clock is far ahead
+    Instant pushedAt = Instant.now().plus(Duration.ofDays(1));
+
+    Instant before = Instant.now();
+    store.record(new StatusCheckOutcome(
+        1L, StatusCheckType.PUSH_UPDATE, UP, LifecycleState.RUNNING, pushedAt, true));
+    Instant after = Instant.now();
+    store.flush();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<EnvironmentStatus>> saved = ArgumentCaptor.forClass(List.class);
+    verify(statusRepository).saveAll(saved.capture());
+    assertThat(saved.getValue()).extracting(EnvironmentStatus::getCheckTimestamp)
+        .containsExactly(pushedAt);
+    assertThat(environment.getStatusChangedAt()).isBetween(before, after);
+  }
+
+  @Test
+  void flushWithoutPendingResultsDoesNothing() {
+    store.flush();
+
+    verify(transactionTemplate, never()).executeWithoutResult(any());
+    verify(statusRepository, never()).deleteAllButLatestByEnvironmentIdIn(anyCollection(), eq(10));
+  }
+
+  private static StatusCheckOutcome outcome(
+      long environmentId, StatusCheckResult result, Instant checkedAt, boolean statusChanged) {
+    return new StatusCheckOutcome(
+        environmentId, StatusCheckType.HTTP_STATUS, result, null, checkedAt, statusChanged);
+  }
+
+  private static Environment environment(long id) {
+    Environment environment = new Environment();
+    environment.setId(id);
+    return environment;
+  }
+}
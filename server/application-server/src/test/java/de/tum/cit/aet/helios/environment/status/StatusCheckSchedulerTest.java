@@ -0,0 +1,174 @@
+package de.tum.cit.aet.helios.environment.status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.tum.cit.aet.helios.environment.Environment;
+import de.tum.cit.aet.helios.environment.EnvironmentRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class StatusCheckSchedulerTest {
+
+  private static final Duration CHECK_INTERVAL = Duration.ofMillis(300);
+  private static final StatusCheckResult UP = new StatusCheckResult(true, 200, Map.of());
+
+  @Mock private EnvironmentRepository environmentRepository;
+  @Mock private StatusCheckService statusCheckService;
+  @Mock private EnvironmentStatusStore statusStore;
+  @Mock private org.springframework.core.env.Environment springEnvironment;
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private StatusCheckScheduler scheduler;
+
+  @BeforeEach
+  void setUp() {
+    EnvironmentStatusConfig config = new EnvironmentStatusConfig();
+    ReflectionTestUtils.setField(config, "checkRecentInterval", CHECK_INTERVAL);
+    ReflectionTestUtils.setField(config, "checkStableInterval", CHECK_INTERVAL);
+    ReflectionTestUtils.setField(config, "checkRecentThreshold", Duration.ofMinutes(5));
+    ReflectionTestUtils.setField(config, "tick", Duration.ofMillis(10));
+    ReflectionTestUtils.setField(config, "resyncInterval", Duration.ofHours(1));
+    ReflectionTestUtils.setField(config, "jitter", 0.0);
+    ReflectionTestUtils.setField(config, "maxConcurrentChecksPerHost", 1);
+    scheduler = new StatusCheckScheduler(
+        environmentRepository, statusCheckService, statusStore, config, springEnvironment,
+        executor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void throttledCheckIsRescheduledWithoutBeingRecorded() throws Exception {
+    when(environmentRepository.findByStatusCheckTypeIsNotNullWithLatestStatus())
+        .thenReturn(List.of(environment(1L), environment(2L)));
+    CountDownLatch firstStarted = new CountDownLatch(1);
+    AtomicInteger probes = new AtomicInteger();
+    when(statusCheckService.runCheck(any())).thenAnswer(invocation -> {
+      probes.incrementAndGet();
+      firstStarted.countDown();
+      awaitReleaseIgnoringInterrupts();
+      return Optional.of(UP);
+    });
+
+    tickUntil(firstStarted);
+    // Long enough for the other check to give up waiting for the host permit, more than once
+    tickFor(CHECK_INTERVAL.multipliedBy(3));
+
+    assertThat(probes).hasValue(1);
+    verify(statusStore, never()).record(any());
+  }
+
+  @Test
+  void overrunningProbeIsInterruptedAndRecordedAsFailedOnceItReturned() throws Exception {
+    Environment slow = environment(1L);
+    when(environmentRepository.findByStatusCheckTypeIsNotNullWithLatestStatus())
+        .thenReturn(List.of(slow));
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean interrupted = new AtomicBoolean();
+    AtomicInteger probes = new AtomicInteger();
+    when(statusCheckService.runCheck(slow)).thenAnswer(invocation -> {
+      probes.incrementAndGet();
+      started.countDown();
+      interrupted.set(awaitReleaseIgnoringInterrupts());
+      return Optional.of(UP);
+    });
+
+    tickUntil(started);
+    tickFor(CHECK_INTERVAL.multipliedBy(3));
+
+    // Still running: neither recorded nor started again
+    verify(statusStore, never()).record(any());
+    assertThat(probes).hasValue(1);
+
+    release.countDown();
+    ArgumentCaptor<StatusCheckOutcome> outcome = ArgumentCaptor.forClass(StatusCheckOutcome.class);
+    verify(statusStore, timeout(5_000)).record(outcome.capture());
+    assertThat(interrupted).isTrue();
+    assertThat(outcome.getValue().result().success()).isFalse();
+    assertThat(outcome.getValue().result().httpStatusCode()).isZero();
+  }
+
+  @Test
+  void probeFinishingInTimeIsRecorded() throws Exception {
+    Environment healthy = environment(1L);
+    when(environmentRepository.findByStatusCheckTypeIsNotNullWithLatestStatus())
+        .thenReturn(List.of(healthy));
+    CountDownLatch checked = new CountDownLatch(1);
+    when(statusCheckService.runCheck(healthy)).thenAnswer(invocation -> {
+      checked.countDown();
+      return Optional.of(UP);
+    });
+
+    tickUntil(checked);
+
+    ArgumentCaptor<StatusCheckOutcome> outcome = ArgumentCaptor.forClass(StatusCheckOutcome.class);
+    verify(statusStore, timeout(5_000)).record(outcome.capture());
+    assertThat(outcome.getValue().result()).isEqualTo(UP);
+  }
+
+  private void tickUntil(CountDownLatch latch) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!latch.await(10, TimeUnit.MILLISECONDS)) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      scheduler.runScheduledChecks();
+    }
+  }
+
+  private void tickFor(Duration duration) throws InterruptedException {
+    long deadline = System.nanoTime() + duration.toNanos();
+    while (System.nanoTime() < deadline) {
+      scheduler.runScheduledChecks();
+      Thread.sleep(10);
+    }
+  }
+
+  /** Blocks like a probe that does not react to interrupts. Returns whether it was interrupted. */
+  private boolean awaitReleaseIgnoringInterrupts() {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        if (release.await(5, TimeUnit.SECONDS)) {
+          return interrupted;
+        }
+        throw new AssertionError("never released");
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+  }
+
+  private static Environment environment(long id) {
+    Environment environment = new Environment();
+    environment.setId(id);
+    environment.setStatusUrl("https://shared-host.example.com/health/" + id);
+    environment.setStatusCheckType(StatusCheckType.HTTP_STATUS);
+    return environment;
+  }
+}
@@ -0,0 +1,75 @@
+package de.tum.cit.aet.helios.environment.status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class StatusCheckTimerWheelTest {
+
+  private static final Instant START = Instant.parse("2026-04-23T10:00:00Z");
+  private static final Duration TICK = Duration.ofSeconds(1);
+
+  private final StatusCheckTimerWheel wheel = new StatusCheckTimerWheel(TICK, 8, START);
+
+  @Test
+  void returnsEnvironmentsOnceTheirTickHasPassed() {
+    wheel.schedule(1L, START.plusSeconds(2));
+    wheel.schedule(2L, START.plusSeconds(5));
+
+    assertThat(wheel.advance(START.plusSeconds(1))).isEmpty();
+    assertThat(wheel.advance(START.plusSeconds(3))).containsExactly(1L);
+    assertThat(wheel.advance(START.plusSeconds(3))).isEmpty();
+    assertThat(wheel.advance(START.plusSeconds(5))).containsExactly(2L);
+    assertThat(wheel.size()).isZero();
+  }
+
+  @Test
+  void keepsEntriesDueInALaterRotationInTheirSlot() {
+    // 2s and 10s share a slot on a wheel of 8 one-second slots
+    wheel.schedule(1L, START.plusSeconds(2));
+    wheel.schedule(2L, START.plusSeconds(10));
+
+    assertThat(wheel.advance(START.plusSeconds(2))).containsExactly(1L);
+    assertThat(wheel.advance(START.plusSeconds(9))).isEmpty();
+    assertThat(wheel.advance(START.plusSeconds(10))).containsExactly(2L);
+  }
+
+  @Test
+  void collectsEverythingDueWhenMoreThanARotationPassed() {
+    wheel.schedule(1L, START.plusSeconds(3));
+    wheel.schedule(2L, START.plusSeconds(12));
+    wheel.schedule(3L, START.plusSeconds(40));
+
+    assertThat(wheel.advance(START.plusSeconds(20))).containsExactlyInAnyOrder(1L, 2L);
+    assertThat(wheel.dueAt(3L)).contains(START.plusSeconds(40));
+  }
+
+  @Test
+  void reschedulingReplacesThePreviousDueTime() {
+    wheel.schedule(1L, START.plusSeconds(2));
+    wheel.schedule(1L, START.plusSeconds(6));
+
+    assertThat(wheel.advance(START.plusSeconds(4))).isEmpty();
+    assertThat(wheel.advance(START.plusSeconds(6))).containsExactly(1L);
+  }
+
+  @Test
+  void pastDueTimesBecomeDueOnTheNextAdvance() {
+    wheel.advance(START.plusSeconds(5));
+    wheel.schedule(1L, START);
+
+    assertThat(wheel.dueAt(1L)).contains(START.plusSeconds(6));
+    assertThat(wheel.advance(START.plusSeconds(6))).containsExactly(1L);
+  }
+
+  @Test
+  void cancelledEnvironmentsAreNeverReturned() {
+    wheel.schedule(1L, START.plusSeconds(2));
+
+    assertThat(wheel.cancel(1L)).isTrue();
+    assertThat(wheel.cancel(1L)).isFalse();
+    assertThat(wheel.advance(START.plusSeconds(10))).isEmpty();
+  }
+}
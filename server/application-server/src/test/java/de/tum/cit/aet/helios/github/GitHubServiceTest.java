@@ -37,6 +37,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +56,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.kohsuke.github.GHArtifact;
 import org.kohsuke.github.GHCommitPointer;
 import org.kohsuke.github.GHCommitState;
@@ -77,6 +80,8 @@ import org.springframework.test.util.ReflectionTestUtils;
 @ExtendWith(MockitoExtension.class)
 class GitHubServiceTest {
 
+  @TempDir Path tempDir;
+
   @Mock private GitHubFacade githubFacade;
 
   @Mock private GitHubConfig gitHubConfig;
@@ -290,12 +295,40 @@ class GitHubServiceTest {
     when(okHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
     when(mockCall.execute()).thenReturn(mockResponse);
 
-    byte[] result = gitHubService.downloadWorkflowRunLogs("owner/repo", 42L);
+    Path target = tempDir.resolve("logs.zip");
+    long written = gitHubService.downloadWorkflowRunLogs("owner/repo", 42L, target, 1024L);
 
-    assertArrayEquals(zipBytes, result);
+    assertEquals(zipBytes.length, written);
+    assertArrayEquals(zipBytes, Files.readAllBytes(target));
     verify(okHttpClient).newCall(any(Request.class));
   }
 
+  @Test
+  void downloadWorkflowRunLogsRejectsArchivesOverTheLimit() throws IOException {
+    when(clientManager.getCurrentToken()).thenReturn("test-token");
+
+    Response mockResponse =
+        new Response.Builder()
+            .request(new Request.Builder().url("http://dummyurl").build())
+            .protocol(Protocol.HTTP_1_1)
+            .code(200)
+            .message("OK")
+            .body(ResponseBody.create(new byte[16], MediaType.parse("application/zip")))
+            .build();
+    Call mockCall = mock(Call.class);
+    when(okHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+    when(mockCall.execute()).thenReturn(mockResponse);
+
+    IOException exception =
+        assertThrows(
+            IOException.class,
+            () ->
+                gitHubService.downloadWorkflowRunLogs(
+                    "owner/repo", 42L, tempDir.resolve("logs.zip"), 8L));
+
+    assertTrue(exception.getMessage().contains("exceeds the limit of 8 bytes"));
+  }
+
   @Test
   void downloadWorkflowRunLogsFailure() throws IOException {
     when(clientManager.getCurrentToken()).thenReturn("test-token");
@@ -314,7 +347,10 @@ class GitHubServiceTest {
 
     IOException exception =
         assertThrows(
-            IOException.class, () -> gitHubService.downloadWorkflowRunLogs("owner/repo", 42L));
+            IOException.class,
+            () ->
+                gitHubService.downloadWorkflowRunLogs(
+                    "owner/repo", 42L, tempDir.resolve("logs.zip"), 1024L));
 
     assertTrue(exception.getMessage().contains("GitHub API call failed with response code: 404"));
   }
@@ -0,0 +1,100 @@
+package de.tum.cit.aet.helios.github.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DataSyncPlanTest {
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final List<String> ran = new CopyOnWriteArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void runsStepsAfterTheirDependencies() {
+    DataSyncPlan.Result result =
+        new DataSyncPlan("test")
+            .step("labels", record("labels"))
+            .step("environments", record("environments"))
+            .step("pull requests", record("pull requests"), "labels")
+            .step("runs", record("runs"), "pull requests", "environments")
+            .run(executor);
+
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(result.durations())
+        .containsOnlyKeys("labels", "environments", "pull requests", "runs");
+    assertThat(ran.indexOf("pull requests")).isGreaterThan(ran.indexOf("labels"));
+    assertThat(ran.indexOf("runs"))
+        .isGreaterThan(ran.indexOf("pull requests"))
+        .isGreaterThan(ran.indexOf("environments"));
+  }
+
+  @Test
+  void runsIndependentStepsConcurrently() {
+    // Each step only finishes once the other one started, so running them one after the other
+    // would time out
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    Runnable awaitOther = () -> {
+      bothStarted.countDown();
+      try {
+        if (!bothStarted.await(5, TimeUnit.SECONDS)) {
+          throw new IllegalStateException("Steps did not run concurrently");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+
+    DataSyncPlan.Result result =
+        new DataSyncPlan("test")
+            .step("labels", awaitOther)
+            .step("environments", awaitOther)
+            .run(executor);
+
+    assertThat(result.isSuccess()).isTrue();
+  }
+
+  @Test
+  void skipsOnlyTheStepsDependingOnAFailedStep() {
+    DataSyncPlan.Result result =
+        new DataSyncPlan("test")
+            .step("environments", () -> {
+              throw new IllegalStateException("GitHub unavailable");
+            })
+            .step("workflows", record("workflows"))
+            .step("deployments", record("deployments"), "environments")
+            .step("commits", record("commits"), "deployments")
+            .step("runs", record("runs"), "workflows")
+            .run(executor);
+
+    assertThat(result.isSuccess()).isFalse();
+    assertThat(result.failed()).containsExactly("environments");
+    assertThat(result.skipped()).containsExactlyInAnyOrder("deployments", "commits");
+    assertThat(ran).containsExactlyInAnyOrder("workflows", "runs");
+    assertThat(result.durations()).containsOnlyKeys("environments", "workflows", "runs");
+  }
+
+  @Test
+  void rejectsDependenciesOnStepsNotAddedYet() {
+    DataSyncPlan plan = new DataSyncPlan("test");
+
+    assertThatThrownBy(() -> plan.step("pull requests", record("pull requests"), "labels"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private Runnable record(String step) {
+    return () -> ran.add(step);
+  }
+}
@@ -1,19 +1,29 @@
 package de.tum.cit.aet.helios.github.sync;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import de.tum.cit.aet.helios.pullrequest.github.GitHubPullRequestSyncService;
+import de.tum.cit.aet.helios.workflow.github.GitHubWorkflowRunSyncService;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.kohsuke.github.GHDirection;
+import org.kohsuke.github.GHEvent;
 import org.kohsuke.github.GHIssueState;
 import org.kohsuke.github.GHPullRequest;
 import org.kohsuke.github.GHPullRequestQueryBuilder;
 import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHWorkflowRun;
+import org.kohsuke.github.GHWorkflowRunQueryBuilder;
 import org.kohsuke.github.PagedIterable;
 import org.kohsuke.github.PagedIterator;
 import org.mockito.Mock;
@@ -23,14 +33,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class GitHubDataSyncOrchestratorTest {
 
   @Mock private GitHubPullRequestSyncService pullRequestSyncService;
+  @Mock private GitHubWorkflowRunSyncService workflowRunSyncService;
+  @Mock private SyncRateBudget rateBudget;
 
-  @Test
-  void syncPullRequestsOfRepositoryBuildsOpenPullRequestQuery() {
-    final GitHubDataSyncOrchestrator orchestrator =
+  private GitHubDataSyncOrchestrator orchestrator;
+
+  @BeforeEach
+  void setUp() {
+    orchestrator =
         new GitHubDataSyncOrchestrator(
             null,
             pullRequestSyncService,
             null,
+            workflowRunSyncService,
             null,
             null,
             null,
@@ -46,27 +61,85 @@ class GitHubDataSyncOrchestratorTest {
             null,
             null,
             null,
-            null);
+            rateBudget);
+  }
+
+  @Test
+  void syncPullRequestsOfRepositoryBuildsOpenPullRequestQuery() {
     GHRepository repository = mock(GHRepository.class);
-    GHPullRequestQueryBuilder builder = mock(GHPullRequestQueryBuilder.class);
+    GHPullRequestQueryBuilder builder = pullRequestQuery(repository);
+    PagedIterator<GHPullRequest> iterator = pagedIterator(builder);
+    lenient().when(iterator.hasNext()).thenReturn(false);
+
+    orchestrator.syncPullRequestsOfRepository(repository);
+
+    verify(builder).state(GHIssueState.OPEN);
+    verify(builder).sort(GHPullRequestQueryBuilder.Sort.UPDATED);
+    verify(builder).direction(GHDirection.DESC);
+  }
+
+  @Test
+  void syncPullRequestsOfRepositoryWaitsForTheRateBudgetBeforeEveryPage() {
+    GHRepository repository = mock(GHRepository.class);
+    PagedIterator<GHPullRequest> iterator = pagedIterator(pullRequestQuery(repository));
+    GHPullRequest first = mock(GHPullRequest.class);
+    GHPullRequest second = mock(GHPullRequest.class);
+    when(iterator.hasNext()).thenReturn(true, true, false);
+    when(iterator.nextPage()).thenReturn(List.of(first), List.of(second));
+
+    orchestrator.syncPullRequestsOfRepository(repository);
+
+    verify(rateBudget, times(3)).checkpoint(any());
+    verify(pullRequestSyncService).processPullRequest(first);
+    verify(pullRequestSyncService).processPullRequest(second);
+  }
+
+  @Test
+  void syncRunsOfRepositoryProcessesTheRemainingRunsAndThenFails() {
+    GHRepository repository = mock(GHRepository.class);
+    GHWorkflowRunQueryBuilder builder = mock(GHWorkflowRunQueryBuilder.class);
     @SuppressWarnings("unchecked")
-    PagedIterable<GHPullRequest> iterable = mock(PagedIterable.class);
+    PagedIterable<GHWorkflowRun> iterable = mock(PagedIterable.class);
     @SuppressWarnings("unchecked")
-    PagedIterator<GHPullRequest> iterator = mock(PagedIterator.class);
+    PagedIterator<GHWorkflowRun> iterator = mock(PagedIterator.class);
+    GHWorkflowRun failing = mock(GHWorkflowRun.class);
+    GHWorkflowRun healthy = mock(GHWorkflowRun.class);
+    when(repository.getFullName()).thenReturn("ls1intum/repo");
+    when(repository.queryWorkflowRuns()).thenReturn(builder);
+    when(builder.list()).thenReturn(iterable);
+    when(iterable.withPageSize(100)).thenReturn(iterable);
+    when(iterable.iterator()).thenReturn(iterator);
+    when(iterator.hasNext()).thenReturn(true, false);
+    when(iterator.nextPage()).thenReturn(List.of(failing, healthy));
+    when(failing.getEvent()).thenReturn(GHEvent.PUSH);
+    when(healthy.getEvent()).thenReturn(GHEvent.PUSH);
+    when(workflowRunSyncService.processRun(failing)).thenThrow(new IllegalStateException("boom"));
+
+    assertThatThrownBy(() -> orchestrator.syncRunsOfRepository(repository, Optional.empty()))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("boom");
+
+    verify(workflowRunSyncService).processRun(healthy);
+    verify(rateBudget, times(4)).checkpoint(anyString());
+  }
 
+  private static GHPullRequestQueryBuilder pullRequestQuery(GHRepository repository) {
+    GHPullRequestQueryBuilder builder = mock(GHPullRequestQueryBuilder.class);
     when(repository.queryPullRequests()).thenReturn(builder);
     when(builder.state(any())).thenReturn(builder);
     when(builder.sort(any())).thenReturn(builder);
     when(builder.direction(any())).thenReturn(builder);
+    return builder;
+  }
+
+  private static PagedIterator<GHPullRequest> pagedIterator(GHPullRequestQueryBuilder builder) {
+    @SuppressWarnings("unchecked")
+    PagedIterable<GHPullRequest> iterable = mock(PagedIterable.class);
+    @SuppressWarnings("unchecked")
+    PagedIterator<GHPullRequest> iterator = mock(PagedIterator.class);
     when(builder.list()).thenReturn(iterable);
     when(iterable.withPageSize(100)).thenReturn(iterable);
     when(iterable.iterator()).thenReturn(iterator);
-    lenient().when(iterator.hasNext()).thenReturn(false);
-
-    orchestrator.syncPullRequestsOfRepository(repository);
-
-    verify(builder).state(GHIssueState.OPEN);
-    verify(builder).sort(GHPullRequestQueryBuilder.Sort.UPDATED);
-    verify(builder).direction(GHDirection.DESC);
+    return iterator;
   }
 }
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -11,6 +12,8 @@ import static org.mockito.Mockito.when;
 
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.workflow.WorkflowRun;
 import de.tum.cit.aet.helios.workflow.WorkflowRunRepository;
 import java.time.OffsetDateTime;
@@ -35,6 +38,9 @@ class WorkflowRunReconciliationServiceTest {
   @Mock
   private GitHubService gitHubService;
 
+  @Mock
+  private LiveUpdatePublisher liveUpdatePublisher;
+
   @InjectMocks
   private WorkflowRunReconciliationService service;
 
@@ -77,6 +83,7 @@ class WorkflowRunReconciliationServiceTest {
     assertEquals(remoteUpdatedAt, workflowRun.getUpdatedAt());
 
     verify(workflowRunRepository).save(workflowRun);
+    verify(liveUpdatePublisher).publish(eq(repository), any(LiveUpdateEvent.class));
     verify(workflowRunRepository)
         .findStaleIncompleteRunsFirstPage(any(), anyList(), any(Pageable.class));
     verify(workflowRunRepository)
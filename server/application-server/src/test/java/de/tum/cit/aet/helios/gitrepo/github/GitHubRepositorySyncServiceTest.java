@@ -0,0 +1,92 @@
+package de.tum.cit.aet.helios.gitrepo.github;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.tum.cit.aet.helios.github.GitHubService;
+import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
+import de.tum.cit.aet.helios.gitrepo.GitRepository;
+import de.tum.cit.aet.helios.user.github.GitHubUserSyncService;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHUser;
+import org.kohsuke.github.PagedIterable;
+import org.kohsuke.github.PagedIterator;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class GitHubRepositorySyncServiceTest {
+
+  @Mock private GitRepoRepository gitRepoRepository;
+  @Mock private GitHubRepositoryConverter repositoryConverter;
+  @Mock private GitHubUserSyncService userSyncService;
+  @Mock private GitHubService gitHubService;
+
+  @InjectMocks private GitHubRepositorySyncService service;
+
+  private GHRepository ghRepository;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    ghRepository = mock(GHRepository.class);
+    lenient().when(ghRepository.getId()).thenReturn(42L);
+    lenient().when(ghRepository.getFullName()).thenReturn("owner/repo");
+    lenient().when(ghRepository.getUpdatedAt()).thenReturn(new Date(1_000L));
+
+    GitRepository stored = new GitRepository();
+    lenient().when(gitRepoRepository.findByRepositoryId(42L)).thenReturn(Optional.of(stored));
+    lenient().when(repositoryConverter.update(any(), any())).thenReturn(stored);
+
+    GHRepository current = mock(GHRepository.class);
+    @SuppressWarnings("unchecked")
+    PagedIterable<GHUser> contributors = mock(PagedIterable.class);
+    @SuppressWarnings("unchecked")
+    PagedIterator<GHUser> iterator = mock(PagedIterator.class);
+    lenient().when(gitHubService.getRepository("owner/repo")).thenReturn(current);
+    lenient().when(current.getBranches()).thenReturn(Map.of());
+    lenient().when(current.listContributors()).thenReturn(contributors);
+    lenient().when(contributors.withPageSize(6)).thenReturn(contributors);
+    lenient().when(contributors.iterator()).thenReturn(iterator);
+    lenient().when(iterator.nextPage()).thenReturn(List.of());
+    lenient().when(gitHubService.getEnvironments(current)).thenReturn(List.of());
+  }
+
+  @Test
+  void skipsUnchangedRepository() throws Exception {
+    service.processRepository(ghRepository);
+    service.processRepository(ghRepository);
+
+    verify(gitRepoRepository, times(1)).findByRepositoryId(42L);
+    verify(gitRepoRepository, times(1)).save(any());
+  }
+
+  @Test
+  void writesThroughWhenMetadataChanges() throws Exception {
+    service.processRepository(ghRepository);
+    when(ghRepository.getUpdatedAt()).thenReturn(new Date(2_000L));
+    service.processRepository(ghRepository);
+
+    verify(gitRepoRepository, times(2)).save(any());
+  }
+
+  @Test
+  void writesThroughAfterInvalidation() {
+    service.processRepository(ghRepository);
+    service.invalidate(42L);
+    service.processRepository(ghRepository);
+
+    verify(gitRepoRepository, times(2)).save(any());
+  }
+}
@@ -10,6 +10,7 @@ import static org.mockito.Mockito.when;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
 import de.tum.cit.aet.helios.gitreposettings.GitRepoSettings;
 import de.tum.cit.aet.helios.gitreposettings.GitRepoSettingsRepository;
+import java.time.Duration;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -37,7 +38,9 @@ class RepoSecretServiceTest {
             1,
             4096,
             3,
-            4);
+            4,
+            Duration.ofMinutes(5),
+            1000);
   }
 
   @Test
@@ -0,0 +1,55 @@
+package de.tum.cit.aet.helios.gitreposettings.secret;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class VerifiedSecretCacheTest {
+
+  private static final String TOKEN = "repo-42-abcdefghijklmnopqrstuvwxyzABCDEFGH1234567";
+  private static final String HASH = "$argon2id$v=19$m=16384,t=2,p=1$salt$hash";
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final VerifiedSecretCache cache =
+      new VerifiedSecretCache(Duration.ofMinutes(5), 100, nanos::get);
+
+  @Test
+  void acceptsAVerifiedTokenForTheSameHash() {
+    cache.markVerified(42L, HASH, TOKEN);
+
+    assertTrue(cache.isVerified(42L, HASH, TOKEN));
+    assertFalse(cache.isVerified(42L, HASH, TOKEN + "x"));
+    assertFalse(cache.isVerified(43L, HASH, TOKEN));
+  }
+
+  @Test
+  void rejectsTheTokenOnceTheStoredHashChanged() {
+    cache.markVerified(42L, HASH, TOKEN);
+
+    assertFalse(cache.isVerified(42L, HASH + "-rotated", TOKEN));
+  }
+
+  @Test
+  void expiresEntriesAfterTheTtl() {
+    cache.markVerified(42L, HASH, TOKEN);
+
+    nanos.addAndGet(Duration.ofMinutes(5).plusSeconds(1).toNanos());
+
+    assertFalse(cache.isVerified(42L, HASH, TOKEN));
+  }
+
+  @Test
+  void invalidatesOnlyTheRotatedRepository() {
+    String otherToken = "repo-7-abcdefghijklmnopqrstuvwxyzABCDEFGH7654321";
+    cache.markVerified(42L, HASH, TOKEN);
+    cache.markVerified(7L, HASH, otherToken);
+
+    cache.invalidateRepository(42L);
+
+    assertFalse(cache.isVerified(42L, HASH, TOKEN));
+    assertTrue(cache.isVerified(7L, HASH, otherToken));
+  }
+}
@@ -0,0 +1,102 @@
+package de.tum.cit.aet.helios.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+
+class ConditionalRequestCacheTest {
+
+  private static final String RUN_URL =
+      "https://api.github.com/repos/ls1intum/Helios/actions/runs/42";
+  private static final String RUN_JSON = "{\"id\":42,\"status\":\"completed\"}";
+
+  private final ConditionalRequestCache cache =
+      new ConditionalRequestCache(1024 * 1024, Duration.ofHours(1), 64 * 1024);
+  private final List<Request> sent = new ArrayList<>();
+
+  @Test
+  void servesA304FromTheStoredBody() throws Exception {
+    Response first = cache.intercept(chain(RUN_URL, response(200, "\"v1\"", RUN_JSON)));
+    assertThat(first.body().string()).isEqualTo(RUN_JSON);
+
+    Response second = cache.intercept(chain(RUN_URL, response(304, "\"v1\"", "")));
+
+    assertThat(sent.get(1).header("If-None-Match")).isEqualTo("\"v1\"");
+    assertThat(second.code()).isEqualTo(200);
+    assertThat(second.header("x-ratelimit-remaining")).isEqualTo("304");
+    assertThat(second.body().string()).isEqualTo(RUN_JSON);
+    assertThat(cache.getStats().get("repos/actions/runs"))
+        .isEqualTo(new ConditionalRequestCache.FamilyStatsSnapshot(1, 1));
+  }
+
+  @Test
+  void doesNotRevalidateResponsesWithoutEtag() throws Exception {
+    cache.intercept(chain(RUN_URL, response(200, null, RUN_JSON))).close();
+    cache.intercept(chain(RUN_URL, response(200, null, RUN_JSON))).close();
+
+    assertThat(sent.get(1).header("If-None-Match")).isNull();
+  }
+
+  @Test
+  void leavesOtherHostsAndMethodsAlone() throws Exception {
+    cache.intercept(chain("https://github.com/login/oauth", response(200, "\"v1\"", RUN_JSON)))
+        .close();
+    cache.intercept(chain("https://github.com/login/oauth", response(200, "\"v1\"", RUN_JSON)))
+        .close();
+
+    assertThat(sent.get(1).header("If-None-Match")).isNull();
+    assertThat(cache.getStats()).isEmpty();
+  }
+
+  @Test
+  void groupsUrlsIntoEndpointFamilies() {
+    assertThat(ConditionalRequestCache.family(HttpUrl.get(RUN_URL + "/jobs")))
+        .isEqualTo("repos/actions/runs");
+    assertThat(ConditionalRequestCache.family(
+        HttpUrl.get("https://api.github.com/repos/ls1intum/Helios/deployments/7/statuses")))
+        .isEqualTo("repos/deployments");
+    assertThat(ConditionalRequestCache.family(HttpUrl.get("https://api.github.com/users/octo")))
+        .isEqualTo("users");
+  }
+
+  private Interceptor.Chain chain(String url, Response.Builder response) throws Exception {
+    Request request = new Request.Builder().url(url).build();
+    Interceptor.Chain chain = mock(Interceptor.Chain.class);
+    when(chain.request()).thenReturn(request);
+    when(chain.proceed(any()))
+        .thenAnswer(
+            invocation -> {
+              Request actual = invocation.getArgument(0);
+              sent.add(actual);
+              return response.request(actual).build();
+            });
+    return chain;
+  }
+
+  private static Response.Builder response(int code, String etag, String body) {
+    Response.Builder builder =
+        new Response.Builder()
+            .protocol(Protocol.HTTP_1_1)
+            .code(code)
+            .message(code == 200 ? "OK" : "Not Modified")
+            .header("x-ratelimit-remaining", String.valueOf(code))
+            .body(ResponseBody.create(body, MediaType.parse("application/json; charset=utf-8")));
+    if (etag != null) {
+      builder.header("ETag", etag);
+    }
+    return builder;
+  }
+}
@@ -0,0 +1,84 @@
+package de.tum.cit.aet.helios.live;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class LiveUpdateSubscriberTest {
+
+  private static final Instant NOW = Instant.parse("2026-04-23T10:00:00Z");
+  private static final Duration HEARTBEAT = Duration.ofSeconds(25);
+
+  private final RecordingEmitter emitter = new RecordingEmitter();
+  private final LiveUpdateSubscriber subscriber = new LiveUpdateSubscriber(emitter, 3, NOW);
+
+  @Test
+  void coalescesChangesOfTheSameEntityIntoOneBatch() {
+    subscriber.offer(LiveUpdateEvent.workflowRun(1L, "main", "a"));
+    subscriber.offer(LiveUpdateEvent.workflowRun(1L, "main", "b"));
+    subscriber.offer(LiveUpdateEvent.environmentStatus(7L));
+
+    assertThat(subscriber.flush(NOW, HEARTBEAT)).isTrue();
+
+    assertThat(emitter.batches).containsExactly(
+        List.of(LiveUpdateEvent.workflowRun(1L, "main", "b"),
+            LiveUpdateEvent.environmentStatus(7L)));
+  }
+
+  @Test
+  void replacesTooManyPendingChangesWithAResync() {
+    for (long id = 1; id <= 4; id++) {
+      subscriber.offer(LiveUpdateEvent.workflowJob(id, "main", "a"));
+    }
+    subscriber.offer(LiveUpdateEvent.workflowJob(5L, "main", "a"));
+
+    subscriber.flush(NOW, HEARTBEAT);
+
+    assertThat(emitter.batches).containsExactly(List.of(LiveUpdateEvent.resync()));
+  }
+
+  @Test
+  void sendsHeartbeatsOnlyWhenIdle() {
+    assertThat(subscriber.needsFlush(NOW.plusSeconds(10), HEARTBEAT)).isFalse();
+    assertThat(subscriber.needsFlush(NOW.plus(HEARTBEAT), HEARTBEAT)).isTrue();
+
+    subscriber.flush(NOW.plus(HEARTBEAT), HEARTBEAT);
+
+    assertThat(emitter.sent).isEqualTo(1);
+    assertThat(emitter.batches).isEmpty();
+    assertThat(subscriber.needsFlush(NOW.plus(HEARTBEAT).plusSeconds(10), HEARTBEAT)).isFalse();
+  }
+
+  @Test
+  void reportsABrokenStream() {
+    emitter.broken = true;
+    subscriber.offer(LiveUpdateEvent.environmentStatus(7L));
+
+    assertThat(subscriber.flush(NOW, HEARTBEAT)).isFalse();
+  }
+
+  private static class RecordingEmitter extends SseEmitter {
+    private final List<Object> batches = new ArrayList<>();
+    private int sent;
+    private boolean broken;
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      if (broken) {
+        throw new IOException("Broken pipe");
+      }
+      sent++;
+      builder.build().stream()
+          .map(DataWithMediaType::getData)
+          .filter(List.class::isInstance)
+          .forEach(batches::add);
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package de.tum.cit.aet.helios.nats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.nats.client.Message;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NatsBatchConsumerTest {
+
+  private static final String RUN_SUBJECT = "github.ls1intum.Helios.workflow_run";
+  private static final String PR_SUBJECT = "github.ls1intum.Helios.pull_request";
+
+  private final List<String> handled = Collections.synchronizedList(new ArrayList<>());
+
+  @Test
+  void appliesMessagesInDeliveryOrderAcrossHandlers() {
+    NatsBatchConsumer consumer = consumer();
+    List<Message> batch =
+        List.of(
+            message(RUN_SUBJECT, "run-1"),
+            message(PR_SUBJECT, "pr-1"),
+            message(RUN_SUBJECT, "run-2"),
+            message(PR_SUBJECT, "pr-2"));
+
+    consumer.applyBatch(batch);
+
+    assertThat(handled)
+        .filteredOn(entry -> !entry.startsWith("queued"))
+        .containsExactly(
+            "workflow_run:run-1",
+            "pull_request:pr-1",
+            "workflow_run:run-2",
+            "pull_request:pr-2");
+    batch.forEach(msg -> verify(msg).ack());
+    assertThat(consumer.getMessagesDispatched()).isEqualTo(4);
+  }
+
+  @Test
+  void failingMessageDoesNotAffectTheOthers() {
+    NatsBatchConsumer consumer = consumer();
+    List<Message> batch =
+        List.of(
+            message(RUN_SUBJECT, "run-1"),
+            message(RUN_SUBJECT, "fail"),
+            message(RUN_SUBJECT, "run-2"));
+
+    consumer.applyBatch(batch);
+
+    assertThat(handled)
+        .filteredOn(entry -> !entry.startsWith("queued"))
+        .containsExactly("workflow_run:run-1", "workflow_run:run-2");
+    // Acknowledged like on the push path, so the broken event is not redelivered forever
+    batch.forEach(msg -> verify(msg).ack());
+    assertThat(consumer.getMessagesDispatched()).isEqualTo(3);
+    assertThat(consumer.getBatchSizeHistogram()).containsEntry("<=10", 1L);
+  }
+
+  @Test
+  void announcesTheWholeBatchBeforeApplyingIt() {
+    NatsBatchConsumer consumer = consumer();
+
+    consumer.applyBatch(List.of(message(RUN_SUBJECT, "run-1"), message(PR_SUBJECT, "pr-1")));
+
+    assertThat(handled)
+        .containsExactly(
+            "queued workflow_run",
+            "queued pull_request",
+            "workflow_run:run-1",
+            "pull_request:pr-1");
+  }
+
+  @Test
+  void handsTheBatchToTheDispatchLanes() {
+    NatsMessageDispatcher dispatcher = dispatcher(true);
+    NatsBatchConsumer consumer = consumer(dispatcher);
+    List<Message> batch =
+        List.of(
+            message(RUN_SUBJECT, "run-1"),
+            message(PR_SUBJECT, "pr-1"),
+            message(RUN_SUBJECT, "run-2"));
+
+    consumer.applyBatch(batch);
+    // Waits for the lanes to drain
+    dispatcher.shutdown();
+
+    // Same repository, so the same lane and still in delivery order
+    assertThat(handled)
+        .filteredOn(entry -> !entry.startsWith("queued"))
+        .containsExactly("workflow_run:run-1", "pull_request:pr-1", "workflow_run:run-2");
+    batch.forEach(msg -> verify(msg).ack());
+    assertThat(consumer.getMessagesDispatched()).isEqualTo(3);
+  }
+
+  @Test
+  void backsOffExponentiallyUpToTheMaximumAfterFailedFetches() {
+    Duration backoff = NatsBatchConsumer.nextBackoff(null);
+    assertThat(backoff).isEqualTo(NatsBatchConsumer.MIN_FETCH_BACKOFF);
+
+    backoff = NatsBatchConsumer.nextBackoff(backoff);
+    assertThat(backoff).isEqualTo(NatsBatchConsumer.MIN_FETCH_BACKOFF.multipliedBy(2));
+
+    for (int i = 0; i < 10; i++) {
+      backoff = NatsBatchConsumer.nextBackoff(backoff);
+    }
+    assertThat(backoff).isEqualTo(NatsBatchConsumer.MAX_FETCH_BACKOFF);
+  }
+
+  private NatsBatchConsumer consumer() {
+    return consumer(dispatcher(false));
+  }
+
+  private NatsBatchConsumer consumer(NatsMessageDispatcher dispatcher) {
+    return new NatsBatchConsumer(
+        new NatsBatchProperties(true, 200, Duration.ofMillis(500)), dispatcher);
+  }
+
+  private NatsMessageDispatcher dispatcher(boolean lanes) {
+    NatsMessageHandlerRegistry registry =
+        new NatsMessageHandlerRegistry(
+            new NatsMessageHandler<?>[] {
+              new RecordingHandler("workflow_run"), new RecordingHandler("pull_request")
+            });
+    return new NatsMessageDispatcher(
+        new NatsDispatchProperties(lanes, 2),
+        registry,
+        new NatsPartitionKeyResolver(new ObjectMapper()),
+        10);
+  }
+
+  private static Message message(String subject, String marker) {
+    Message msg = mock(Message.class);
+    when(msg.getSubject()).thenReturn(subject);
+    when(msg.getData())
+        .thenReturn(
+            ("{\"marker\":\"" + marker + "\",\"repository\":{\"id\":7}}")
+                .getBytes(StandardCharsets.UTF_8));
+    return msg;
+  }
+
+  private final class RecordingHandler extends NatsMessageHandler<String> {
+    private final String eventType;
+
+    RecordingHandler(String eventType) {
+      this.eventType = eventType;
+    }
+
+    @Override
+    public void onQueued(Message msg) {
+      handled.add("queued " + eventType);
+    }
+
+    @Override
+    protected String parsePayload(byte[] data) throws Exception {
+      return new ObjectMapper().readTree(data).path("marker").asText();
+    }
+
+    @Override
+    protected void handleMessage(String payload) {
+      if ("fail".equals(payload)) {
+        throw new IllegalStateException("broken event");
+      }
+      handled.add(eventType + ":" + payload);
+    }
+
+    @Override
+    public String getSubjectPattern() {
+      return "github.*.*." + eventType;
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package de.tum.cit.aet.helios.nats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.nats.client.Message;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class NatsMessageDispatcherTest {
+
+  private static final String SUBJECT = "github.ls1intum.Helios.workflow_run";
+
+  private NatsMessageDispatcher dispatcher;
+
+  @AfterEach
+  void tearDown() {
+    if (dispatcher != null) {
+      dispatcher.shutdown();
+    }
+  }
+
+  @Test
+  void preservesOrderWithinPartitionKey() throws Exception {
+    List<String> handled = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(20);
+    dispatcher = dispatcher(4, new RecordingHandler(handled, done));
+
+    for (int i = 0; i < 20; i++) {
+      dispatcher.dispatch(message(SUBJECT, runPayload(7, 42, "step-" + i)));
+    }
+
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      expected.add("step-" + i);
+    }
+    assertThat(handled).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void acknowledgesAfterHandlerCompletes() throws Exception {
+    CountDownLatch done = new CountDownLatch(1);
+    dispatcher = dispatcher(2, new RecordingHandler(new ArrayList<>(), done));
+    Message msg = message(SUBJECT, runPayload(7, 1, "only"));
+    CountDownLatch acked = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              // The handler has returned by the time the message is acknowledged
+              assertThat(done.getCount()).isZero();
+              acked.countDown();
+              return null;
+            })
+        .when(msg)
+        .ack();
+
+    dispatcher.dispatch(msg);
+
+    assertThat(acked.await(5, TimeUnit.SECONDS)).isTrue();
+    verify(msg, times(1)).ack();
+    // Shutting down waits for the lane to finish the task, including releasing its slot
+    dispatcher.shutdown();
+    assertThat(dispatcher.getInFlight()).isZero();
+    assertThat(dispatcher.getStats().get("workflow_run").handled()).isEqualTo(1);
+  }
+
+  @Test
+  void handlesInlineWhenDisabled() {
+    List<String> handled = new ArrayList<>();
+    NatsMessageHandlerRegistry registry =
+        new NatsMessageHandlerRegistry(
+            new NatsMessageHandler<?>[] {new RecordingHandler(handled, new CountDownLatch(1))});
+    dispatcher =
+        new NatsMessageDispatcher(
+            new NatsDispatchProperties(false, 4),
+            registry,
+            new NatsPartitionKeyResolver(new ObjectMapper()),
+            10);
+    Message msg = message(SUBJECT, runPayload(7, 1, "inline"));
+
+    dispatcher.dispatch(msg);
+
+    assertThat(handled).containsExactly("inline");
+    verify(msg).ack();
+  }
+
+  @Test
+  void keepsOrderAcrossEntitiesOfTheSameRepository() throws Exception {
+    List<String> handled = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(20);
+    dispatcher = dispatcher(8, new RecordingHandler(handled, done));
+
+    // Different runs of one repository share the repository row, so they must not run in parallel
+    for (int i = 0; i < 20; i++) {
+      dispatcher.dispatch(message(SUBJECT, runPayload(7, i, "run-" + i)));
+    }
+
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      expected.add("run-" + i);
+    }
+    assertThat(handled).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void resolvesPartitionKeyFromRepository() {
+    NatsPartitionKeyResolver resolver = new NatsPartitionKeyResolver(new ObjectMapper());
+
+    assertThat(resolver.resolve(SUBJECT, runPayload(7, 42, "x"))).isEqualTo("7");
+    assertThat(
+            resolver.resolve(
+                "github.ls1intum.Helios.workflow_job",
+                "{\"repository\":{\"id\":7},\"workflow_job\":{\"id\":1,\"run_id\":42}}"
+                    .getBytes(StandardCharsets.UTF_8)))
+        .isEqualTo("7");
+    assertThat(
+            resolver.resolve(
+                "github.ls1intum.Helios.push",
+                "{\"repository\":{\"id\":7}}".getBytes(StandardCharsets.UTF_8)))
+        .isEqualTo("7");
+    assertThat(resolver.resolve(SUBJECT, "not json".getBytes(StandardCharsets.UTF_8)))
+        .isEqualTo("github.ls1intum.Helios");
+  }
+
+  private NatsMessageDispatcher dispatcher(int workers, NatsMessageHandler<?> handler) {
+    return new NatsMessageDispatcher(
+        new NatsDispatchProperties(true, workers),
+        new NatsMessageHandlerRegistry(new NatsMessageHandler<?>[] {handler}),
+        new NatsPartitionKeyResolver(new ObjectMapper()),
+        100);
+  }
+
+  private static byte[] runPayload(long repositoryId, long runId, String marker) {
+    return String.format(
+            "{\"marker\":\"%s\",\"repository\":{\"id\":%d},\"workflow_run\":{\"id\":%d}}",
+            marker, repositoryId, runId)
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static Message message(String subject, byte[] data) {
+    Message msg = mock(Message.class);
+    when(msg.getSubject()).thenReturn(subject);
+    when(msg.getData()).thenReturn(data);
+    return msg;
+  }
+
+  private static final class RecordingHandler extends NatsMessageHandler<String> {
+    private final List<String> handled;
+    private final CountDownLatch done;
+
+    RecordingHandler(List<String> handled, CountDownLatch done) {
+      this.handled = handled;
+      this.done = done;
+    }
+
+    @Override
+    protected String parsePayload(byte[] data) throws Exception {
+      return new ObjectMapper().readTree(data).path("marker").asText();
+    }
+
+    @Override
+    protected void handleMessage(String payload) {
+      handled.add(payload);
+      done.countDown();
+    }
+
+    @Override
+    public String getSubjectPattern() {
+      return "github.*.*.workflow_run";
+    }
+  }
+}
@@ -16,6 +16,7 @@ import de.tum.cit.aet.helios.pullrequest.pagination.PullRequestPageRequest;
 import de.tum.cit.aet.helios.user.User;
 import de.tum.cit.aet.helios.userpreference.UserPreference;
 import de.tum.cit.aet.helios.userpreference.UserPreferenceRepository;
+import de.tum.cit.aet.helios.util.CappedCounter;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -41,6 +42,7 @@ public class PullRequestServiceTest {
   @Mock private PullRequestRepository pullRequestsRepository;
   @Mock private UserPreferenceRepository userPreferenceRepository;
   @Mock private AuthService authService;
+  @Mock private CappedCounter cappedCounter;
 
   @BeforeEach
   public void setUp() {
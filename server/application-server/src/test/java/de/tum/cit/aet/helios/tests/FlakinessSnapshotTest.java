@@ -0,0 +1,53 @@
+package de.tum.cit.aet.helios.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class FlakinessSnapshotTest {
+
+  @Test
+  void findsEveryStoredTest() {
+    List<TestFlakinessScoreDto> rows =
+        IntStream.range(0, 10_000)
+            .mapToObj(i -> new TestFlakinessScoreDto(
+                "test" + i, "pkg.Class" + (i % 100), "Suite" + (i % 7), i % 100, 0.01, 0.02))
+            .toList();
+
+    FlakinessSnapshot snapshot = FlakinessSnapshot.of(rows);
+
+    assertThat(snapshot.size()).isEqualTo(10_000);
+    for (TestFlakinessScoreDto row : rows) {
+      assertThat(snapshot.lookup(row.testName(), row.className(), row.testSuiteName()))
+          .isEqualTo(row);
+    }
+  }
+
+  @Test
+  void returnsZeroScoresForUnknownTests() {
+    FlakinessSnapshot snapshot = FlakinessSnapshot.of(
+        List.of(new TestFlakinessScoreDto("test", "pkg.Foo", "Suite", 88.2, 0.05, 0.08)));
+
+    assertThat(snapshot.lookup("test", "pkg.Foo", "OtherSuite"))
+        .isEqualTo(new TestFlakinessScoreDto("test", "pkg.Foo", "OtherSuite", 0.0, 0.0, 0.0));
+  }
+
+  @Test
+  void keepsTheHighestScoreOfDuplicateRows() {
+    FlakinessSnapshot snapshot = FlakinessSnapshot.of(List.of(
+        new TestFlakinessScoreDto("test", "pkg.Foo", "Suite", 40.0, 0.2, 0.2),
+        new TestFlakinessScoreDto("test", "pkg.Foo", "Suite", 88.2, 0.05, 0.08),
+        new TestFlakinessScoreDto("test", "pkg.Foo", "Suite", 10.0, 0.4, 0.4)));
+
+    assertThat(snapshot.size()).isEqualTo(1);
+    assertThat(snapshot.lookup("test", "pkg.Foo", "Suite").flakinessScore()).isEqualTo(88.2);
+  }
+
+  @Test
+  void distinguishesWhereOneNameEndsAndTheNextBegins() {
+    assertThat(FlakinessSnapshot.key("ab", "c", "Suite"))
+        .isNotEqualTo(FlakinessSnapshot.key("a", "bc", "Suite"));
+  }
+}
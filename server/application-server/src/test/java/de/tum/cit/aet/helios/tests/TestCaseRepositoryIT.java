@@ -0,0 +1,232 @@
+package de.tum.cit.aet.helios.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.tum.cit.aet.helios.HeliosIntegrationTest;
+import de.tum.cit.aet.helios.tests.TestCaseRepository.TestCaseRow;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs the test result page query against the real schema: filtering, the previous-run and
+ * default-branch annotations, the flakiness join and the display order all happen in SQL. The
+ * runs span several months, so the query reads from more than one partition.
+ */
+class TestCaseRepositoryIT extends HeliosIntegrationTest {
+
+  private static final long REPO = 1L;
+  private static final long WORKFLOW = 11L;
+  private static final long DEFAULT_RUN = 21L;
+  private static final long PREVIOUS_RUN = 22L;
+  private static final long RUN = 23L;
+
+  private static final OffsetDateTime NOW =
+      OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+  private static final Map<Long, OffsetDateTime> CREATED_AT =
+      Map.of(DEFAULT_RUN, NOW.minusDays(70), PREVIOUS_RUN, NOW.minusDays(1), RUN, NOW);
+
+  @Autowired private TestCaseRepository testCaseRepository;
+
+  private JdbcTemplate jdbc;
+  private long suiteId;
+
+  @BeforeEach
+  void seed() {
+    jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("TRUNCATE TABLE repository CASCADE");
+    jdbc.update(
+        "INSERT INTO repository (repository_id, has_issues, has_projects, has_wiki, is_archived, "
+            + "is_disabled, is_private, stargazers_count, watchers_count, name_with_owner) "
+            + "VALUES (?, false, false, false, false, false, false, 0, 0, 'ls1intum/repo')",
+        REPO);
+    jdbc.update(
+        "INSERT INTO workflow (id, repository_id, state, label, name) "
+            + "VALUES (?, ?, 'ACTIVE', 'TEST', 'tests')",
+        WORKFLOW,
+        REPO);
+    long testTypeId =
+        jdbc.queryForObject(
+            "INSERT INTO test_type (name, artifact_name, workflow_id, repository_id) "
+                + "VALUES ('Java', 'junit', ?, ?) RETURNING id",
+            Long.class,
+            WORKFLOW,
+            REPO);
+    for (long run : List.of(DEFAULT_RUN, PREVIOUS_RUN, RUN)) {
+      jdbc.update(
+          "INSERT INTO workflow_run (id, repository_id, workflow_id, run_attempt, run_number, "
+              + "status, head_branch, head_sha, created_at, updated_at) "
+              + "VALUES (?, ?, ?, 1, ?, 'COMPLETED', 'main', 'deadbeef', ?, now())",
+          run,
+          REPO,
+          WORKFLOW,
+          run,
+          CREATED_AT.get(run));
+    }
+
+    long defaultSuite = insertSuite(DEFAULT_RUN, testTypeId);
+    insertCase(defaultSuite, "echoTest", "FAILED");
+
+    long previousSuite = insertSuite(PREVIOUS_RUN, testTypeId);
+    insertCase(previousSuite, "alphaTest", "PASSED");
+    insertCase(previousSuite, "betaTest", "PASSED");
+    insertCase(previousSuite, "charlieTest", "FAILED");
+    insertCase(previousSuite, "echoTest", "FAILED");
+    insertCase(previousSuite, "foxtrotTest", "FAILED");
+
+    suiteId = insertSuite(RUN, testTypeId);
+    insertCase(suiteId, "deltaTest", "PASSED");
+    insertCase(suiteId, "foxtrotTest", "FAILED");
+    insertCase(suiteId, "echoTest", "FAILED");
+    insertCase(suiteId, "charlieTest", "FAILED");
+    insertCase(suiteId, "betaTest", "FAILED");
+    insertCase(suiteId, "alphaTest", "PASSED");
+
+    jdbc.update(
+        "INSERT INTO test_case_flakiness (repository_id, test_name, class_name, test_suite_name, "
+            + "flakiness_score, default_branch_failure_rate, combined_failure_rate, last_updated) "
+            + "VALUES (?, 'foxtrotTest', 'pkg.LoginTest', 'LoginTest', 50.0, 0.1, 0.2, now())",
+        REPO);
+  }
+
+  @Test
+  void ordersChangedThenRelevantFailuresFirst() {
+    List<TestCaseRow> rows = findRows("%", false);
+
+    // Status change, failure, flaky failure, failure also seen on the default branch, passed
+    assertThat(rows)
+        .extracting(TestCaseRow::getName)
+        .containsExactly(
+            "betaTest", "charlieTest", "foxtrotTest", "echoTest", "alphaTest", "deltaTest");
+  }
+
+  @Test
+  void annotatesRowsWithPreviousStatusFlakinessAndDefaultBranch() {
+    List<TestCaseRow> rows = findRows("%", false);
+
+    TestCaseRow beta = rows.getFirst();
+    assertThat(beta.getStatus()).isEqualTo("FAILED");
+    assertThat(beta.getPreviousStatus()).isEqualTo("PASSED");
+    assertThat(beta.getFlakinessScore()).isZero();
+    assertThat(beta.getFailsInDefaultBranch()).isFalse();
+
+    TestCaseRow foxtrot = rows.get(2);
+    assertThat(foxtrot.getFlakinessScore()).isEqualTo(50.0);
+    assertThat(foxtrot.getCombinedFailureRate()).isEqualTo(0.2);
+
+    assertThat(rows.get(3).getFailsInDefaultBranch()).isTrue();
+    assertThat(rows.getLast().getPreviousStatus()).isNull();
+  }
+
+  @Test
+  void filtersBySearchAndFailedStatus() {
+    assertThat(findRows("%", true))
+        .extracting(TestCaseRow::getName)
+        .containsExactly("betaTest", "charlieTest", "foxtrotTest", "echoTest");
+    assertThat(findRows("%echo%", true))
+        .extracting(TestCaseRow::getName)
+        .containsExactly("echoTest");
+    assertThat(findRows("%logintest%", false)).hasSize(6);
+    assertThat(findRows("%alpha%", true)).isEmpty();
+  }
+
+  @Test
+  void matchesWildcardsInTheSearchTermLiterally() {
+    assertThat(findRows(TestResultService.toSearchPattern("EchoTest"), false))
+        .extracting(TestCaseRow::getName)
+        .containsExactly("echoTest");
+    assertThat(findRows(TestResultService.toSearchPattern("echo_est"), false)).isEmpty();
+    assertThat(findRows(TestResultService.toSearchPattern("%"), false)).isEmpty();
+    assertThat(findRows(TestResultService.toSearchPattern("!"), false)).isEmpty();
+  }
+
+  @Test
+  void annotatesNothingWithoutPreviousAndDefaultBranchRun() {
+    List<TestCaseRow> rows =
+        testCaseRepository.findRowsByTestSuiteIds(
+            List.of(suiteId),
+            CREATED_AT.get(RUN),
+            REPO,
+            null,
+            null,
+            null,
+            null,
+            "%",
+            false,
+            TestCaseStatisticsService.LOW_FLAKINESS_THRESHOLD);
+
+    assertThat(rows).hasSize(6);
+    assertThat(rows).extracting(TestCaseRow::getPreviousStatus).containsOnlyNulls();
+    assertThat(rows).extracting(TestCaseRow::getFailsInDefaultBranch).containsOnly(false);
+  }
+
+  @Test
+  void readsOnlyRowsCarryingTheRunsPartitionKey() {
+    assertThat(
+            testCaseRepository.findRowsByTestSuiteIds(
+                List.of(suiteId),
+                NOW.minusMonths(1),
+                REPO,
+                PREVIOUS_RUN,
+                CREATED_AT.get(PREVIOUS_RUN),
+                DEFAULT_RUN,
+                CREATED_AT.get(DEFAULT_RUN),
+                "%",
+                false,
+                TestCaseStatisticsService.LOW_FLAKINESS_THRESHOLD))
+        .isEmpty();
+  }
+
+  @Test
+  void storesTestCasesInThePartitionOfTheirRunsMonth() {
+    String partition =
+        jdbc.queryForObject(
+            "SELECT DISTINCT tableoid::regclass::text FROM test_case WHERE test_suite_id = ?",
+            String.class,
+            suiteId);
+
+    assertThat(partition)
+        .isEqualTo(TestResultPartitions.partitionName("test_case", YearMonth.from(NOW)));
+  }
+
+  private List<TestCaseRow> findRows(String searchPattern, boolean onlyFailed) {
+    return testCaseRepository.findRowsByTestSuiteIds(
+        List.of(suiteId),
+        CREATED_AT.get(RUN),
+        REPO,
+        PREVIOUS_RUN,
+        CREATED_AT.get(PREVIOUS_RUN),
+        DEFAULT_RUN,
+        CREATED_AT.get(DEFAULT_RUN),
+        searchPattern,
+        onlyFailed,
+        TestCaseStatisticsService.LOW_FLAKINESS_THRESHOLD);
+  }
+
+  private long insertSuite(long workflowRunId, long testTypeId) {
+    return jdbc.queryForObject(
+        "INSERT INTO test_suite (workflow_run_id, test_type_id, name, timestamp, tests, failures, "
+            + "errors, skipped, time, run_created_at) "
+            + "VALUES (?, ?, 'LoginTest', now(), 0, 0, 0, 0, 0, ?) RETURNING id",
+        Long.class,
+        workflowRunId,
+        testTypeId,
+        CREATED_AT.get(workflowRunId));
+  }
+
+  private void insertCase(long testSuiteId, String name, String status) {
+    jdbc.update(
+        "INSERT INTO test_case (test_suite_id, name, class_name, time, status, run_created_at) "
+            + "SELECT id, ?, 'pkg.LoginTest', 0, ?, run_created_at FROM test_suite WHERE id = ?",
+        name,
+        status,
+        testSuiteId);
+  }
+}
@@ -3,9 +3,11 @@ package de.tum.cit.aet.helios.tests;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -13,12 +15,9 @@ import static org.mockito.Mockito.when;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
 import de.tum.cit.aet.helios.tests.pagination.FlakyTestsFilterType;
 import de.tum.cit.aet.helios.tests.pagination.FlakyTestsPageRequest;
-import java.lang.reflect.Field;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,17 +25,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @ExtendWith(MockitoExtension.class)
 class TestCaseStatisticsServiceTest {
 
   @Mock private TestCaseStatisticsRepository statisticsRepository;
   @Mock private TestCaseFlakinessRepository flakinessRepository;
+  @Mock private FlakinessScoreIndex flakinessScoreIndex;
+
+  @Spy
+  private TransactionTemplate transactionTemplate =
+      new TransactionTemplate(mock(PlatformTransactionManager.class));
 
   @InjectMocks private TestCaseStatisticsService service;
 
@@ -115,10 +122,9 @@ class TestCaseStatisticsServiceTest {
 
   @Test
   void getFlakinessScoresForTests_returnsScores() {
-    TestCaseFlakiness flakiness = createFlakiness("test1", "Class1", "Suite1", 88.2, 0.05, 0.08);
-    when(flakinessRepository.findByRepositoryIdAndTestNameAndClassNameAndSuiteName(
-        1L, "test1", "Class1", "Suite1"))
-        .thenReturn(List.of(flakiness));
+    when(flakinessScoreIndex.snapshot(1L))
+        .thenReturn(FlakinessSnapshot.of(List.of(
+            new TestFlakinessScoreDto("test1", "Class1", "Suite1", 88.2, 0.05, 0.08))));
 
     TestFlakinessScoreRequest.TestCaseIdentifier identifier =
         new TestFlakinessScoreRequest.TestCaseIdentifier("test1", "Class1", "Suite1");
@@ -136,9 +142,9 @@ class TestCaseStatisticsServiceTest {
 
   @Test
   void getFlakinessScoresForTests_returnsZeroDtoWhenNoMatchExists() {
-    when(flakinessRepository.findByRepositoryIdAndTestNameAndClassNameAndSuiteName(
-        1L, "missing", "Class1", "Suite1"))
-        .thenReturn(List.of());
+    when(flakinessScoreIndex.snapshot(1L))
+        .thenReturn(FlakinessSnapshot.of(List.of(
+            new TestFlakinessScoreDto("test1", "Class1", "Suite1", 88.2, 0.05, 0.08))));
 
     TestFlakinessScoreRequest.TestCaseIdentifier identifier =
         new TestFlakinessScoreRequest.TestCaseIdentifier("missing", "Class1", "Suite1");
@@ -169,78 +175,119 @@ class TestCaseStatisticsServiceTest {
   }
 
   @Test
-  void computeFlakinessInfo_withMatchingStats_returnsInfo() {
-    var defaultStat = createStat("test1", "Class1", "Suite1", "main", 100, 5);
-    var combinedStat = createStat("test1", "Class1", "Suite1", "combined", 200, 30);
-
-    var info =
-        service.computeFlakinessInfo(
-            "test1", "Class1", "Suite1",
-            TestCaseStatisticsService.indexFailureRates(List.of(defaultStat)),
-            TestCaseStatisticsService.indexFailureRates(List.of(combinedStat)));
-
-    assertEquals(0.05, info.defaultBranchFailureRate());
-    assertEquals(0.15, info.combinedFailureRate());
-    assertEquals(84.0, info.flakinessScore(), 0.1);
+  void updateStatistics_aggregatesOccurrencesIntoOneUpsert() {
+    TestSuite suiteA = createSuiteWithSingleTest("SuiteB", "sameTest", "SameClass");
+    TestSuite suiteB = createSuiteWithSingleTest("SuiteB", "sameTest", "SameClass");
+    suiteB.getTestCases().get(0).setStatus(TestCase.TestStatus.FAILED);
+    TestSuite suiteC = createSuiteWithSingleTest("SuiteA", "otherTest", "OtherClass");
+
+    service.updateStatistics(
+        new TestRunTally().add(List.of(suiteA, suiteB, suiteC)), "main", repository);
+
+    // One statement for the whole run; rows in key order, duplicates folded into their counters
+    verify(statisticsRepository)
+        .upsertRuns(
+            eq(1L),
+            eq("main"),
+            aryEq(new String[] {"otherTest", "sameTest"}),
+            aryEq(new String[] {"OtherClass", "SameClass"}),
+            aryEq(new String[] {"SuiteA", "SuiteB"}),
+            aryEq(new Integer[] {1, 2}),
+            aryEq(new Integer[] {0, 1}),
+            any());
+  }
+
+  @Test
+  void updateStatistics_chunksLargeRuns() {
+    List<TestSuite> testSuites =
+        IntStream.range(0, 2500)
+            .mapToObj(i -> createSuiteWithSingleTest("Suite-" + i, "test-" + i, "Class-" + i))
+            .toList();
+
+    service.updateStatistics(new TestRunTally().add(testSuites), "combined", repository);
+
+    verify(statisticsRepository, times(3))
+        .upsertRuns(eq(1L), eq("combined"), any(), any(), any(), any(), any(), any());
+    // One transaction per chunk
+    verify(transactionTemplate, times(3)).executeWithoutResult(any());
   }
 
   @Test
-  void computeFlakinessInfo_withNoMatchingStats_returnsZeroRates() {
-    var info = service.computeFlakinessInfo(
-        "unknown", "Unknown", "Unknown", Map.of(), Map.of());
+  void updateStatistics_skipsTestCasesWithoutClassName() {
+    TestSuite withClass = createSuiteWithSingleTest("Suite", "withClass", "SomeClass");
+    TestSuite withoutClass = createSuiteWithSingleTest("Suite", "withoutClass", null);
+
+    service.updateStatistics(
+        new TestRunTally().add(List.of(withClass, withoutClass)), "main", repository);
+
+    verify(statisticsRepository)
+        .upsertRuns(
+            eq(1L),
+            eq("main"),
+            aryEq(new String[] {"withClass"}),
+            aryEq(new String[] {"SomeClass"}),
+            aryEq(new String[] {"Suite"}),
+            aryEq(new Integer[] {1}),
+            aryEq(new Integer[] {0}),
+            any());
+  }
 
-    assertEquals(0.0, info.defaultBranchFailureRate());
-    assertEquals(0.0, info.combinedFailureRate());
-    assertEquals(0.0, info.flakinessScore());
+  @Test
+  void updateStatistics_writesNothingWhenNoTestCaseHasAClassName() {
+    service.updateStatistics(
+        new TestRunTally().add(List.of(createSuiteWithSingleTest("Suite", "test", null))),
+        "main",
+        repository);
+
+    verify(statisticsRepository, never())
+        .upsertRuns(any(), any(), any(), any(), any(), any(), any(), any());
   }
 
   @Test
-  void updateFlakinessForTestSuite_chunksQueriesAndBatchesWrites() throws Exception {
-    List<TestSuite> testSuites = new ArrayList<>();
-    for (int i = 0; i < 260; i++) {
-      testSuites.add(createSuiteWithSingleTest("Suite-" + i, "test-" + i, "Class-" + i));
-    }
-
-    when(statisticsRepository
-        .findFailureRateRowsByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-            anyCollection(), any(), any()))
-        .thenReturn(List.of());
-
-    service.updateFlakinessForTestSuite(testSuites, "main", repository);
-
-    Field chunkSizeField = TestCaseStatisticsService.class.getDeclaredField(
-        "SUITE_NAME_QUERY_CHUNK_SIZE");
-    chunkSizeField.setAccessible(true);
-    int chunkSize = (int) chunkSizeField.get(null);
-    int expectedChunks = (testSuites.size() + chunkSize - 1) / chunkSize;
-
-    verify(statisticsRepository, times(expectedChunks))
-        .findFailureRateRowsByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-            anyCollection(), eq("main"), any());
-    verify(statisticsRepository, times(expectedChunks))
-        .findFailureRateRowsByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-            anyCollection(), eq("combined"), any());
-    verify(flakinessRepository, times(260)).upsertFlakiness(
-        any(), any(), any(), any(), anyDouble(), anyDouble(), anyDouble(), any());
+  void updateFlakiness_writesOneStatementPerChunk() {
+    List<TestSuite> testSuites =
+        IntStream.range(0, 2500)
+            .mapToObj(i -> createSuiteWithSingleTest("Suite-" + i, "test-" + i, "Class-" + i))
+            .toList();
+
+    service.updateFlakiness(new TestRunTally().add(testSuites), "main", repository);
+
+    verify(flakinessRepository, times(3))
+        .upsertFlakinessForTests(
+            eq(1L), eq("main"), any(), any(), any(),
+            anyDouble(), anyDouble(), anyDouble(), anyDouble(), any());
   }
 
   @Test
-  void updateFlakinessForTestSuite_callsUpsertForEveryTestCaseOccurrence() {
-    // Two suites that share the same logical key — native ON CONFLICT handles duplicates in the DB
+  void updateFlakiness_deduplicatesTestCaseOccurrences() {
+    // Two suites that share the same logical key; one statement must not touch a row twice
     TestSuite suiteA = createSuiteWithSingleTest("SameSuite", "sameTest", "SameClass");
     TestSuite suiteB = createSuiteWithSingleTest("SameSuite", "sameTest", "SameClass");
-    List<TestSuite> testSuites = List.of(suiteA, suiteB);
 
-    when(statisticsRepository
-        .findFailureRateRowsByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-            anyCollection(), any(), any()))
-        .thenReturn(List.of());
+    service.updateFlakiness(new TestRunTally().add(List.of(suiteA, suiteB)), "main", repository);
+
+    verify(flakinessRepository)
+        .upsertFlakinessForTests(
+            eq(1L),
+            eq("main"),
+            aryEq(new String[] {"sameTest"}),
+            aryEq(new String[] {"SameClass"}),
+            aryEq(new String[] {"SameSuite"}),
+            eq(0.01),
+            eq(0.5),
+            eq(0.7),
+            eq(0.3),
+            any());
+  }
 
-    service.updateFlakinessForTestSuite(testSuites, "main", repository);
+  @Test
+  void recomputeFlakinessForRepository_usesDefaultBranchAndScoreParameters() {
+    repository.setDefaultBranch("develop");
+    when(flakinessRepository.recomputeFlakinessForRepository(
+            eq(1L), eq("develop"), eq(0.01), eq(0.5), eq(0.7), eq(0.3), any()))
+        .thenReturn(42);
 
-    // Called once per test-case occurrence; DB upsert safely overwrites on conflict
-    verify(flakinessRepository, times(2)).upsertFlakiness(
-        any(), any(), any(), any(), anyDouble(), anyDouble(), anyDouble(), any());
+    assertEquals(42, service.recomputeFlakinessForRepository(repository));
   }
 
   private TestCaseFlakiness createFlakiness(
@@ -262,20 +309,6 @@ class TestCaseStatisticsServiceTest {
     return flakiness;
   }
 
-  private static TestCaseStatistics createStat(
-      String testName, String className, String suiteName,
-      String branchName, int total, int failed) {
-    var stat = new TestCaseStatistics();
-    stat.setTestName(testName);
-    stat.setClassName(className);
-    stat.setTestSuiteName(suiteName);
-    stat.setBranchName(branchName);
-    stat.setTotalRuns(total);
-    stat.setFailedRuns(failed);
-    stat.setLastUpdated(OffsetDateTime.now());
-    return stat;
-  }
-
   private static TestSuite createSuiteWithSingleTest(
       String suiteName, String testName, String className) {
     TestCase testCase = new TestCase();
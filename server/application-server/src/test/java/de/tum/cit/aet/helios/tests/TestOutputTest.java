@@ -0,0 +1,45 @@
+package de.tum.cit.aet.helios.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TestOutputTest {
+
+  @Test
+  void deflatesRepetitiveOutputAndDecodesItAgain() {
+    String stackTrace =
+        "org.opentest4j.AssertionFailedError: expected: <1> but was: <2>\n"
+            + "\tat org.junit.jupiter.api.AssertionUtils.fail(AssertionUtils.java:55)\n".repeat(40);
+
+    TestOutput output = TestOutput.of(stackTrace);
+
+    assertThat(output.getEncoding()).isEqualTo(TestOutput.Encoding.DEFLATE);
+    assertThat(output.getContent().length).isLessThan(output.getRawSize());
+    assertThat(output.text()).isEqualTo(stackTrace);
+  }
+
+  @Test
+  void keepsOutputPlainWhenDeflatingDoesNotMakeItSmaller() {
+    TestOutput output = TestOutput.of("boom");
+
+    assertThat(output.getEncoding()).isEqualTo(TestOutput.Encoding.PLAIN);
+    assertThat(output.getRawSize()).isEqualTo(4);
+    assertThat(output.text()).isEqualTo("boom");
+  }
+
+  @Test
+  void identifiesOutputBySha256OfItsUtf8Bytes() {
+    assertThat(TestOutput.of("abc").getHash())
+        .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+    assertThat(TestOutput.of("ünïcödé ✓").getHash())
+        .isEqualTo(TestOutput.of("ünïcödé ✓").getHash())
+        .isNotEqualTo(TestOutput.of("unicode").getHash());
+    assertThat(TestOutput.of("ünïcödé ✓").getRawSize()).isEqualTo(15);
+  }
+
+  @Test
+  void storesNothingForMissingOutput() {
+    assertThat(TestOutput.of(null)).isNull();
+  }
+}
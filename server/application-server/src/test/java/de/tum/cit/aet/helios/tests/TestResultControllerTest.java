@@ -1,9 +1,11 @@
 package de.tum.cit.aet.helios.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -15,7 +17,10 @@ import de.tum.cit.aet.helios.gitreposettings.GitRepoSettings;
 import de.tum.cit.aet.helios.tests.pagination.FlakyTestsPageRequest;
 import java.time.OffsetDateTime;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -114,6 +119,86 @@ class TestResultControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$[1].flakinessScore").value(0.0));
   }
 
+  @Test
+  void streamFlakinessScores_answersEachNdjsonLineInOrder() throws Exception {
+    answerScoresInOrder();
+
+    String response = streamFlakinessScores("""
+        {"testName":"test1","className":"Class1","testSuiteName":"Suite1"}
+        {"testName":"test2","className":"Class2","testSuiteName":"Suite1"}
+        """);
+
+    String[] lines = response.split("\n");
+    assertEquals(2, lines.length);
+    assertEquals(63.0, objectMapper.readValue(lines[0], TestFlakinessScoreDto.class)
+        .flakinessScore());
+    assertEquals("test2", objectMapper.readValue(lines[1], TestFlakinessScoreDto.class)
+        .testName());
+  }
+
+  @Test
+  void streamFlakinessScores_endsWithAnErrorLineAtAMissingName() throws Exception {
+    answerScoresInOrder();
+
+    String response = streamFlakinessScores("""
+        {"testName":"test1","className":"Class1","testSuiteName":"Suite1"}
+        {"testName":"","className":"Class2","testSuiteName":"Suite1"}
+        {"testName":"test3","className":"Class3","testSuiteName":"Suite1"}
+        """);
+
+    String[] lines = response.split("\n");
+    assertEquals(2, lines.length);
+    assertEquals("test1", objectMapper.readValue(lines[0], TestFlakinessScoreDto.class)
+        .testName());
+    assertEquals(2, objectMapper.readValue(lines[1], TestFlakinessScoreStreamError.class).line());
+  }
+
+  @Test
+  void streamFlakinessScores_endsWithAnErrorLineAtInvalidJson() throws Exception {
+    answerScoresInOrder();
+
+    String response = streamFlakinessScores("""
+        {"testName":"test1","className":"Class1","testSuiteName":"Suite1"}
+        not json
+        """);
+
+    String[] lines = response.split("\n");
+    assertEquals(2, lines.length);
+    TestFlakinessScoreStreamError error =
+        objectMapper.readValue(lines[1], TestFlakinessScoreStreamError.class);
+    assertEquals(2, error.line());
+    assertTrue(error.error().startsWith("Invalid JSON"));
+  }
+
+  private void answerScoresInOrder() {
+    doAnswer(invocation -> {
+      Iterator<TestFlakinessScoreRequest.TestCaseIdentifier> identifiers =
+          invocation.getArgument(1);
+      Consumer<TestFlakinessScoreDto> sink = invocation.getArgument(2);
+      int count = 0;
+      while (identifiers.hasNext()) {
+        var identifier = identifiers.next();
+        sink.accept(new TestFlakinessScoreDto(identifier.testName(), identifier.className(),
+            identifier.testSuiteName(), count == 0 ? 63.0 : 0.0, 0.05, 0.0));
+        count++;
+      }
+      return count;
+    }).when(testCaseStatisticsService).forEachFlakinessScore(eq(1L), any(), any());
+  }
+
+  private String streamFlakinessScores(String ndjson) throws Exception {
+    return mockMvc
+        .perform(
+            post("/api/tests/flakiness-scores")
+                .contentType("application/x-ndjson")
+                .content(ndjson)
+                .requestAttr("repository", repoSettings))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+  }
+
   @Test
   void getFlakinessScores_withEmptyTestCases_returnsBadRequest() throws Exception {
     var request = new TestFlakinessScoreRequest(Collections.emptyList());
@@ -214,4 +299,20 @@ class TestResultControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$.flakyTests[0].testName").value("testFlaky"))
         .andExpect(MockMvcResultMatchers.jsonPath("$.flakyTests[0].flakinessScore").value(85.0));
   }
+
+  @Test
+  void getTestOutput_returnsOutputOrNotFound() throws Exception {
+    when(testResultService.getTestOutput("abc"))
+        .thenReturn(Optional.of(new TestOutputDto("abc", "stack trace")));
+    when(testResultService.getTestOutput("unknown")).thenReturn(Optional.empty());
+
+    mockMvc
+        .perform(get("/api/tests/outputs/abc"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.hash").value("abc"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.text").value("stack trace"));
+    mockMvc
+        .perform(get("/api/tests/outputs/unknown"))
+        .andExpect(MockMvcResultMatchers.status().isNotFound());
+  }
 }
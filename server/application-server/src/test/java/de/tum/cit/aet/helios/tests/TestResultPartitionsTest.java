@@ -0,0 +1,53 @@
+package de.tum.cit.aet.helios.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.tum.cit.aet.helios.workflow.WorkflowRun;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TestResultPartitionsTest {
+
+  @Test
+  void createsMonthlyPartitionBoundedByUtcMonthStarts() {
+    assertThat(TestResultPartitions.createPartitionSql("test_case", YearMonth.of(2025, 12)))
+        .isEqualTo(
+            "CREATE TABLE test_case_2025_12 PARTITION OF test_case "
+                + "FOR VALUES FROM ('2025-12-01T00:00Z') TO ('2026-01-01T00:00Z')");
+  }
+
+  @Test
+  void createsTheCurrentAndTheFollowingMonths() {
+    assertThat(TestResultPartitions.monthsToCreate(YearMonth.of(2025, 11), 2))
+        .containsExactly(YearMonth.of(2025, 11), YearMonth.of(2025, 12), YearMonth.of(2026, 1));
+  }
+
+  @Test
+  void expiresOnlyMonthlyPartitionsBeforeTheFirstKeptMonth() {
+    List<String> partitions =
+        List.of(
+            "test_case_2025_03",
+            "test_suite_2025_03",
+            "test_suite_2025_01",
+            "test_case_2025_04",
+            "test_case_default",
+            "test_suite_default");
+
+    assertThat(TestResultPartitions.expiredMonths(partitions, YearMonth.of(2025, 4)))
+        .containsExactly(YearMonth.of(2025, 1), YearMonth.of(2025, 3));
+  }
+
+  @Test
+  void keysRunsWithoutCreationTimeByTheEpoch() {
+    WorkflowRun run = new WorkflowRun();
+    assertThat(TestResultPartitions.runCreatedAt(run))
+        .isEqualTo(TestResultPartitions.UNKNOWN_RUN_CREATED_AT);
+
+    OffsetDateTime createdAt = OffsetDateTime.of(2025, 3, 14, 9, 0, 0, 0, ZoneOffset.UTC);
+    run.setCreatedAt(createdAt);
+    assertThat(TestResultPartitions.runCreatedAt(run)).isEqualTo(createdAt);
+  }
+}
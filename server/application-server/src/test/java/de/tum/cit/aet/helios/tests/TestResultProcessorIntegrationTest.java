@@ -1,6 +1,7 @@
 package de.tum.cit.aet.helios.tests;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
@@ -8,21 +9,29 @@ import static org.mockito.Mockito.when;
 
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.tests.parsers.JunitParser;
 import de.tum.cit.aet.helios.workflow.WorkflowRun;
 import de.tum.cit.aet.helios.workflow.WorkflowRunRepository;
 import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
 import org.kohsuke.github.GHArtifact;
 import org.kohsuke.github.PagedIterable;
 import org.kohsuke.github.PagedIterator;
@@ -36,6 +45,8 @@ import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Integration test for {@link TestResultProcessor} against an embedded PostgreSQL (zonky) with the
@@ -87,7 +98,11 @@ class TestResultProcessorIntegrationTest {
   @Autowired private GitRepoRepository gitRepoRepository;
   @Autowired private TestCaseStatisticsRepository statisticsRepository;
   @Autowired private TestCaseFlakinessRepository flakinessRepository;
+  @Autowired private TestSuiteRepository testSuiteRepository;
+  @Autowired private TestOutputRepository testOutputRepository;
   @Autowired private DataSource dataSource;
+  @Autowired private EntityManager entityManager;
+  @Autowired private PlatformTransactionManager transactionManager;
 
   private JdbcTemplate jdbc;
   private GitHubService gitHubService;
@@ -114,8 +129,17 @@ class TestResultProcessorIntegrationTest {
             gitHubService,
             workflowRunRepository,
             gitRepoRepository,
+            testSuiteRepository,
+            new TestSuiteStore(
+                testSuiteRepository, new TestOutputService(testOutputRepository), entityManager),
             new JunitParser(),
-            new TestCaseStatisticsService(statisticsRepository, flakinessRepository));
+            new TestCaseStatisticsService(
+                statisticsRepository,
+                flakinessRepository,
+                new FlakinessScoreIndex(flakinessRepository),
+                new TransactionTemplate(transactionManager)),
+            new TestResultProcessingProperties(4, 25),
+            new LiveUpdatePublisher(List.of()));
   }
 
   @Test
@@ -168,6 +192,12 @@ class TestResultProcessorIntegrationTest {
             jdbc.queryForObject(
                 "SELECT count(*) FROM test_case WHERE status = 'FAILED'", Integer.class))
         .isEqualTo(1);
+    // The stack trace went to the output store, the failed test case refers to it by hash.
+    String stackTraceHash =
+        jdbc.queryForObject(
+            "SELECT stack_trace_hash FROM test_case WHERE status = 'FAILED'", String.class);
+    assertThat(testOutputRepository.findById(stackTraceHash).orElseThrow().text())
+        .isEqualTo("stack trace");
     // The real TestCaseStatisticsService ran on the default branch and created rows.
     assertThat(statisticsRepository.count()).isGreaterThan(0L);
   }
@@ -199,6 +229,145 @@ class TestResultProcessorIntegrationTest {
         .isEqualTo(testTypeId);
   }
 
+  @Test
+  void largeArtifact_isParsedInParallelAndPersistedInBatches() throws IOException {
+    seedTestType("Server Tests", "Server JUnit Test Results");
+
+    // 250 report files with one suite each: spans ten persistence batches of 25 and many rounds
+    // of parallel parsing. Order must not matter for the result.
+    int suiteCount = 250;
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+      for (int i = 0; i < suiteCount; i++) {
+        zos.putNextEntry(new ZipEntry("TEST-pkg.Suite" + i + ".xml"));
+        zos.write(xml("Suite" + i).getBytes());
+        zos.closeEntry();
+      }
+    }
+    stubArtifacts(artifact("Server JUnit Test Results", baos.toByteArray()));
+
+    WorkflowRun run = workflowRunRepository.findById(RUN_ID).orElseThrow();
+    processor.processRun(run);
+
+    assertThat(run.getTestProcessingStatus()).isEqualTo(WorkflowRun.TestProcessingStatus.PROCESSED);
+    assertThat(countTestSuitesForRun()).isEqualTo(suiteCount);
+    assertThat(countTestCases()).isEqualTo(2L * suiteCount);
+    assertThat(
+            jdbc.queryForObject(
+                "SELECT count(DISTINCT name) FROM test_suite WHERE workflow_run_id = 1",
+                Integer.class))
+        .isEqualTo(suiteCount);
+    // The identical stack traces of all failed test cases are stored once.
+    assertThat(
+            jdbc.queryForObject(
+                "SELECT count(DISTINCT stack_trace_hash) FROM test_case WHERE status = 'FAILED'",
+                Integer.class))
+        .isEqualTo(1);
+    assertThat(
+            jdbc.queryForObject(
+                "SELECT count(*) FROM test_output o WHERE EXISTS "
+                    + "(SELECT 1 FROM test_case tc WHERE tc.stack_trace_hash = o.hash)",
+                Integer.class))
+        .isEqualTo(1);
+    // Every test case got its statistics and flakiness row once the run was stored.
+    assertThat(flakinessRepository.count()).isEqualTo(2L * suiteCount);
+  }
+
+  /**
+   * Throughput and peak heap for a run of 5000 suites (10,000 test cases, every second one failing
+   * with a distinct stack trace). The figures are published as report entries for comparison
+   * between changes; the assertions only check the run was stored completely. Tagged as a
+   * benchmark, so it only runs with {@code ./gradlew benchmark}.
+   */
+  @Test
+  @Tag("benchmark")
+  void fiveThousandSuites_throughputAndPeakMemory(TestReporter reporter) throws IOException {
+    seedTestType("Server Tests", "Server JUnit Test Results");
+    int suiteCount = 5000;
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+      for (int i = 0; i < suiteCount; i++) {
+        zos.putNextEntry(new ZipEntry("TEST-pkg.Suite" + i + ".xml"));
+        zos.write(xml("Suite" + i).replace("stack trace", "stack trace " + i).getBytes());
+        zos.closeEntry();
+      }
+    }
+    stubArtifacts(artifact("Server JUnit Test Results", baos.toByteArray()));
+    processor =
+        new TestResultProcessor(
+            gitHubService,
+            workflowRunRepository,
+            gitRepoRepository,
+            testSuiteRepository,
+            new TestSuiteStore(
+                testSuiteRepository, new TestOutputService(testOutputRepository), entityManager),
+            new JunitParser(),
+            new TestCaseStatisticsService(
+                statisticsRepository,
+                flakinessRepository,
+                new FlakinessScoreIndex(flakinessRepository),
+                new TransactionTemplate(transactionManager)),
+            new TestResultProcessingProperties(4, 500),
+            new LiveUpdatePublisher(List.of()));
+
+    WorkflowRun run = workflowRunRepository.findById(RUN_ID).orElseThrow();
+    List<MemoryPoolMXBean> heapPools =
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+    System.gc();
+    long baseline = heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    long start = System.nanoTime();
+
+    processor.processRun(run);
+
+    double seconds = (System.nanoTime() - start) / 1e9;
+    long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    reporter.publishEntry(
+        Map.of(
+            "seconds", String.format("%.2f", seconds),
+            "suitesPerSecond", String.format("%.0f", suiteCount / seconds),
+            "peakHeapAboveBaselineMiB", String.valueOf(Math.max(0, peak - baseline) >> 20),
+            "baselineHeapMiB", String.valueOf(baseline >> 20)));
+
+    assertThat(run.getTestProcessingStatus()).isEqualTo(WorkflowRun.TestProcessingStatus.PROCESSED);
+    assertThat(countTestSuitesForRun()).isEqualTo(suiteCount);
+    assertThat(countTestCases()).isEqualTo(2L * suiteCount);
+    assertThat(
+            jdbc.queryForObject(
+                "SELECT count(DISTINCT stack_trace_hash) FROM test_case", Integer.class))
+        .isEqualTo(suiteCount);
+    assertThat(flakinessRepository.count()).isEqualTo(2L * suiteCount);
+  }
+
+  @Test
+  void flakinessRecompute_scoresInSqlMatchTheJavaFormula() {
+    // 1 of 10 runs failed on the default branch, 1 of 4 across all branches.
+    jdbc.update(
+        "INSERT INTO test_case_statistics (repository_id, test_name, class_name, test_suite_name, "
+            + "branch_name, total_runs, failed_runs, last_updated) VALUES "
+            + "(1, 'flaky', 'pkg.Foo', 'Suite', 'main', 10, 1, now()), "
+            + "(1, 'flaky', 'pkg.Foo', 'Suite', 'combined', 4, 1, now())");
+    TestCaseStatisticsService statisticsService =
+        new TestCaseStatisticsService(
+            statisticsRepository,
+            flakinessRepository,
+            new FlakinessScoreIndex(flakinessRepository),
+            new TransactionTemplate(transactionManager));
+
+    int rows =
+        statisticsService.recomputeFlakinessForRepository(
+            gitRepoRepository.findById(REPO_ID).orElseThrow());
+
+    assertThat(rows).isEqualTo(1);
+    assertThat(
+            jdbc.queryForObject(
+                "SELECT flakiness_score FROM test_case_flakiness WHERE test_name = 'flaky'",
+                Double.class))
+        .isCloseTo(statisticsService.calculateFlakinessScore(0.1, 0.25), within(1e-9));
+  }
+
   // --- helpers ---
 
   private void seedTestType(String name, String artifactName) {
@@ -236,7 +405,11 @@ class TestResultProcessorIntegrationTest {
   /** A mocked artifact whose {@code download(...)} replays a real ZIP containing one XML entry. */
   private static GHArtifact artifact(String name, String entryName, String xmlContent)
       throws IOException {
-    byte[] zip = zip(entryName, xmlContent);
+    return artifact(name, zip(entryName, xmlContent));
+  }
+
+  /** A mocked artifact whose {@code download(...)} replays the given ZIP. */
+  private static GHArtifact artifact(String name, byte[] zip) throws IOException {
     GHArtifact artifact = mock(GHArtifact.class);
     when(artifact.getName()).thenReturn(name);
     when(artifact.download(any()))
@@ -2,16 +2,18 @@ package de.tum.cit.aet.helios.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -19,6 +21,8 @@ import static org.mockito.Mockito.when;
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
+import de.tum.cit.aet.helios.live.LiveUpdateEvent;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.tests.parsers.JunitParser;
 import de.tum.cit.aet.helios.tests.parsers.TestResultParseException;
 import de.tum.cit.aet.helios.tests.parsers.TestResultParser;
@@ -46,7 +50,8 @@ import org.kohsuke.github.GHArtifact;
 import org.kohsuke.github.PagedIterable;
 import org.kohsuke.github.PagedIterator;
 import org.kohsuke.github.function.InputStreamFunction;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -56,10 +61,14 @@ class TestResultProcessorTest {
   @Mock private GitHubService gitHubService;
   @Mock private WorkflowRunRepository workflowRunRepository;
   @Mock private GitRepoRepository gitRepoRepository;
+  @Mock private TestSuiteRepository testSuiteRepository;
+  @Mock private TestSuiteStore testSuiteStore;
   @Mock private JunitParser junitParser;
   @Mock private TestCaseStatisticsService statisticsService;
+  @Mock private LiveUpdatePublisher liveUpdatePublisher;
+  @Captor private ArgumentCaptor<List<TestSuite>> savedSuitesCaptor;
 
-  @InjectMocks private TestResultProcessor testResultProcessor;
+  private TestResultProcessor testResultProcessor;
 
   private WorkflowRun workflowRun;
   private Workflow workflow;
@@ -68,6 +77,18 @@ class TestResultProcessorTest {
 
   @BeforeEach
   void setUp() {
+    testResultProcessor =
+        new TestResultProcessor(
+            gitHubService,
+            workflowRunRepository,
+            gitRepoRepository,
+            testSuiteRepository,
+            testSuiteStore,
+            junitParser,
+            statisticsService,
+            new TestResultProcessingProperties(2, 1),
+            liveUpdatePublisher);
+
     gitRepository = new GitRepository();
     gitRepository.setRepositoryId(1L);
     gitRepository.setDefaultBranch("main");
@@ -160,12 +181,11 @@ class TestResultProcessorTest {
     // Verify save was called twice
     verify(workflowRunRepository, times(2)).save(any(WorkflowRun.class));
 
-    // No artifacts is "no results", not a failure: PROCESSING -> PROCESSED with empty suites.
+    // No artifacts is "no results", not a failure: PROCESSING -> PROCESSED without suites.
     assertEquals(2, capturedStatuses.size());
     assertEquals(WorkflowRun.TestProcessingStatus.PROCESSING, capturedStatuses.get(0));
     assertEquals(WorkflowRun.TestProcessingStatus.PROCESSED, capturedStatuses.get(1));
-    assertNotNull(workflowRun.getTestSuites());
-    assertTrue(workflowRun.getTestSuites().isEmpty());
+    verify(testSuiteStore, never()).saveBatch(anyList(), anyList());
   }
 
   @Test
@@ -211,11 +231,14 @@ class TestResultProcessorTest {
     testResultProcessor.processRun(workflowRun);
 
     assertEquals(WorkflowRun.TestProcessingStatus.PROCESSED, workflowRun.getTestProcessingStatus());
-    assertNotNull(workflowRun.getTestSuites());
-    assertFalse(workflowRun.getTestSuites().isEmpty());
-    assertEquals("TestSuite", workflowRun.getTestSuites().get(0).getName());
+    List<TestSuite> savedSuites = savedSuites();
+    assertEquals(1, savedSuites.size());
+    assertEquals("TestSuite", savedSuites.get(0).getName());
+    assertSame(workflowRun, savedSuites.get(0).getWorkflowRun());
     verify(statisticsService, atLeastOnce())
-        .updateStatisticsForTestSuite(any(TestSuite.class), anyString(), any(GitRepository.class));
+        .updateStatistics(any(TestRunTally.class), anyString(), any(GitRepository.class));
+    // PROCESSING and PROCESSED both change what the run's pipeline shows
+    verify(liveUpdatePublisher, times(2)).publish(eq(gitRepository), any(LiveUpdateEvent.class));
   }
 
   @Test
@@ -250,8 +273,7 @@ class TestResultProcessorTest {
 
     // No matching artifact is "no results" for this run, not a failure.
     assertEquals(WorkflowRun.TestProcessingStatus.PROCESSED, workflowRun.getTestProcessingStatus());
-    assertNotNull(workflowRun.getTestSuites());
-    assertTrue(workflowRun.getTestSuites().isEmpty());
+    verify(testSuiteStore, never()).saveBatch(anyList(), anyList());
     verify(workflowRunRepository, times(2)).save(workflowRun);
   }
 
@@ -311,14 +333,12 @@ class TestResultProcessorTest {
     testResultProcessor.processRun(workflowRun);
 
     assertEquals(WorkflowRun.TestProcessingStatus.PROCESSED, workflowRun.getTestProcessingStatus());
-    assertNotNull(workflowRun.getTestSuites());
     // Both phases parsed and aggregated under the single E2E test type; the non-matching artifact
     // is excluded (size stays 2), and each phase's suite is present.
-    assertEquals(2, workflowRun.getTestSuites().size());
-    assertTrue(
-        workflowRun.getTestSuites().stream().allMatch(ts -> ts.getTestType() == e2eTestType));
-    List<String> suiteNames =
-        workflowRun.getTestSuites().stream().map(TestSuite::getName).toList();
+    List<TestSuite> savedSuites = savedSuites();
+    assertEquals(2, savedSuites.size());
+    assertTrue(savedSuites.stream().allMatch(ts -> ts.getTestType() == e2eTestType));
+    List<String> suiteNames = savedSuites.stream().map(TestSuite::getName).toList();
     assertTrue(suiteNames.contains("P1"));
     assertTrue(suiteNames.contains("P2"));
   }
@@ -349,8 +369,7 @@ class TestResultProcessorTest {
 
     // No match (dot is literal) -> no results, but PROCESSED rather than FAILED.
     assertEquals(WorkflowRun.TestProcessingStatus.PROCESSED, workflowRun.getTestProcessingStatus());
-    assertNotNull(workflowRun.getTestSuites());
-    assertTrue(workflowRun.getTestSuites().isEmpty());
+    verify(testSuiteStore, never()).saveBatch(anyList(), anyList());
   }
 
   @Test
@@ -383,8 +402,56 @@ class TestResultProcessorTest {
     testResultProcessor.processRun(workflowRun);
 
     assertEquals(WorkflowRun.TestProcessingStatus.PROCESSED, workflowRun.getTestProcessingStatus());
-    assertNotNull(workflowRun.getTestSuites());
-    assertTrue(workflowRun.getTestSuites().isEmpty());
+    verify(testSuiteStore, never()).saveBatch(anyList(), anyList());
+  }
+
+  @Test
+  void processRun_removesPersistedSuites_whenLaterArtifactFails() throws IOException {
+    // Batch size 1: the first artifact's suite is already persisted when the second one fails.
+    TestType e2eTestType = new TestType();
+    e2eTestType.setId(2L);
+    e2eTestType.setName("E2E Tests");
+    e2eTestType.setArtifactName("JUnit Test Results Phase *");
+    workflow.setTestTypes(Set.of(e2eTestType));
+
+    GHArtifact phase1 = mock(GHArtifact.class);
+    when(phase1.getName()).thenReturn("JUnit Test Results Phase 1");
+    byte[] zip1 = createMockZip("results.xml", "<testsuite name='P1'></testsuite>".getBytes());
+    when(phase1.download(any()))
+        .thenAnswer(
+            invocation -> {
+              InputStreamFunction<List<TestSuite>> fn = invocation.getArgument(0);
+              return fn.apply(new ByteArrayInputStream(zip1));
+            });
+    GHArtifact phase2 = mock(GHArtifact.class);
+    when(phase2.getName()).thenReturn("JUnit Test Results Phase 2");
+    when(phase2.download(any())).thenThrow(new IOException("Download failed"));
+
+    @SuppressWarnings("unchecked")
+    PagedIterator<GHArtifact> mockPagedIterator = mock(PagedIterator.class);
+    when(mockPagedIterator.hasNext()).thenReturn(true, true, false);
+    when(mockPagedIterator.next()).thenReturn(phase1, phase2);
+    @SuppressWarnings("unchecked")
+    PagedIterable<GHArtifact> artifacts = mock(PagedIterable.class);
+    when(artifacts.iterator()).thenReturn(mockPagedIterator);
+    when(gitHubService.getWorkflowRunArtifacts(anyLong(), anyLong())).thenReturn(artifacts);
+
+    when(junitParser.supports(eq("results.xml"))).thenReturn(true);
+    when(junitParser.parse(any(InputStream.class)))
+        .thenReturn(
+            List.of(
+                new TestResultParser.TestSuite(
+                    "P1", LocalDateTime.now(), 1, 0, 0, 0, 0.0, "", Collections.emptyList())));
+
+    testResultProcessor.processRun(workflowRun);
+
+    assertEquals(WorkflowRun.TestProcessingStatus.FAILED, workflowRun.getTestProcessingStatus());
+    assertEquals(1, savedSuites().size());
+    verify(workflowRunRepository).deleteTestFailureAnalysesByWorkflowRunIdIn(List.of(123L));
+    verify(testSuiteRepository).deleteByWorkflowRunId(123L);
+    // Statistics are only written for completed runs, so a retry does not count the suite twice
+    verify(statisticsService, never()).updateStatistics(any(), anyString(), any());
+    verify(statisticsService, never()).updateFlakiness(any(), anyString(), any());
   }
 
   @Test
@@ -425,9 +492,14 @@ class TestResultProcessorTest {
 
     assertEquals(WorkflowRun.TestProcessingStatus.PROCESSED, workflowRun.getTestProcessingStatus());
     verify(statisticsService)
-        .updateStatisticsForTestSuite(any(TestSuite.class), eq("main"), eq(gitRepository));
+        .updateStatistics(any(TestRunTally.class), eq("main"), eq(gitRepository));
     verify(statisticsService)
-        .updateStatisticsForTestSuite(any(TestSuite.class), eq("combined"), eq(gitRepository));
+        .updateStatistics(any(TestRunTally.class), eq("combined"), eq(gitRepository));
+  }
+
+  private List<TestSuite> savedSuites() {
+    verify(testSuiteStore, atLeastOnce()).saveBatch(savedSuitesCaptor.capture(), anyList());
+    return savedSuitesCaptor.getAllValues().stream().flatMap(List::stream).toList();
   }
 
   // Helper to create a mock zip file in memory
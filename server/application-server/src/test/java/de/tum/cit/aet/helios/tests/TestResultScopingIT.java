@@ -11,8 +11,9 @@ import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
  * Cross-repository isolation guard for {@code /api/tests/*}. Test results are reached via a pull
- * request or workflow-run id; a foreign id must not surface another repository's test results. The
- * entry lookups are scoped, so cross-repo and no-header (unauthenticated) requests must 404.
+ * request or workflow-run id, their outputs via a hash; a foreign id or hash must not surface
+ * another repository's test results. The entry lookups are scoped, so cross-repo and no-header
+ * (unauthenticated) requests must 404.
  */
 class TestResultScopingIT extends HeliosIntegrationTest {
 
@@ -21,6 +22,8 @@ class TestResultScopingIT extends HeliosIntegrationTest {
   private static final long PR_B = 41L;
   private static final long WF_B = 52L;
   private static final long RUN_B = 71L;
+  private static final String SUITE_OUT_B = "scoping-suite-out";
+  private static final String TRACE_B = "scoping-trace";
 
   @BeforeEach
   void seed() {
@@ -61,6 +64,54 @@ class TestResultScopingIT extends HeliosIntegrationTest {
     mockMvc.perform(get("/api/tests/run/{id}", RUN_B)).andExpect(status().isNotFound());
   }
 
+  @Test
+  void testOutputsAreScopedByRepository() throws Exception {
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    insertOutput(jdbc, SUITE_OUT_B, "suite log");
+    insertOutput(jdbc, TRACE_B, "stack trace");
+    long suiteId =
+        jdbc.queryForObject(
+            "INSERT INTO test_suite (workflow_run_id, name, timestamp, tests, failures, errors, "
+                + "skipped, time, system_out_hash, run_created_at) "
+                + "SELECT id, 'suite', now(), 1, 1, 0, 0, 0, ?, created_at FROM workflow_run "
+                + "WHERE id = ? RETURNING id",
+            Long.class,
+            SUITE_OUT_B,
+            RUN_B);
+    jdbc.update(
+        "INSERT INTO test_case (test_suite_id, name, time, status, stack_trace_hash, "
+            + "run_created_at) "
+            + "SELECT id, 'case', 0, 'FAILED', ?, run_created_at FROM test_suite WHERE id = ?",
+        TRACE_B,
+        suiteId);
+
+    for (String hash : new String[] {SUITE_OUT_B, TRACE_B}) {
+      mockMvc
+          .perform(
+              get("/api/tests/outputs/{hash}", hash)
+                  .header(X_REPOSITORY_ID, String.valueOf(REPO_B)))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.hash").value(hash));
+      // Outputs are shared by content; another repository must not read them by hash
+      mockMvc
+          .perform(
+              get("/api/tests/outputs/{hash}", hash)
+                  .header(X_REPOSITORY_ID, String.valueOf(REPO_A)))
+          .andExpect(status().isNotFound());
+      mockMvc.perform(get("/api/tests/outputs/{hash}", hash)).andExpect(status().isNotFound());
+    }
+  }
+
+  private static void insertOutput(JdbcTemplate jdbc, String hash, String text) {
+    jdbc.update(
+        "INSERT INTO test_output (hash, encoding, raw_size, content) "
+            + "VALUES (?, 'PLAIN', octet_length(convert_to(?, 'UTF8')), convert_to(?, 'UTF8')) "
+            + "ON CONFLICT (hash) DO NOTHING",
+        hash,
+        text,
+        text);
+  }
+
   private static void insertRepo(JdbcTemplate jdbc, long id, String nameWithOwner) {
     jdbc.update(
         "INSERT INTO repository (repository_id, has_issues, has_projects, has_wiki, is_archived, "
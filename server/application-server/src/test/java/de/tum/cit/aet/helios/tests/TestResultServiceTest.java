@@ -6,13 +6,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,10 +22,9 @@ import de.tum.cit.aet.helios.tests.TestCase.TestStatus;
 import de.tum.cit.aet.helios.tests.type.TestType;
 import de.tum.cit.aet.helios.workflow.WorkflowRun;
 import de.tum.cit.aet.helios.workflow.WorkflowRunRepository;
-import java.lang.reflect.Method;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -44,6 +41,9 @@ import org.springframework.data.domain.PageRequest;
 @ExtendWith(MockitoExtension.class)
 class TestResultServiceTest {
 
+  private static final OffsetDateTime RUN_CREATED_AT =
+      OffsetDateTime.of(2025, 3, 14, 9, 0, 0, 0, ZoneOffset.UTC);
+
   @Mock private WorkflowRunRepository workflowRunRepository;
 
   @Mock private BranchRepository branchRepository;
@@ -54,9 +54,7 @@ class TestResultServiceTest {
 
   @Mock private TestCaseRepository testCaseRepository;
 
-  @Mock private TestCaseStatisticsRepository testCaseStatisticsRepository;
-
-  @Mock private TestCaseStatisticsService testCaseStatisticsService;
+  @Mock private TestOutputService testOutputService;
 
   @InjectMocks private TestResultService testResultService;
 
@@ -65,7 +63,7 @@ class TestResultServiceTest {
   private WorkflowRun workflowRun;
   private TestType testType;
   private TestSuite testSuite;
-  private TestCase testCase;
+  private TestCaseRepository.TestCaseRow testCaseRow;
 
   @BeforeEach
   void setUp() {
@@ -83,6 +81,7 @@ class TestResultServiceTest {
     workflowRun.setId(1L);
     workflowRun.setHeadBranch("featureBranch");
     workflowRun.setHeadSha("featureSha");
+    workflowRun.setCreatedAt(RUN_CREATED_AT);
     workflowRun.setRepository(gitRepository);
     final de.tum.cit.aet.helios.workflow.Workflow workflow =
         new de.tum.cit.aet.helios.workflow.Workflow();
@@ -105,14 +104,7 @@ class TestResultServiceTest {
     testSuite.setSkipped(0);
     testSuite.setTime(0.0);
 
-    testCase = new TestCase();
-    testCase.setId(1L);
-    testCase.setName("test1");
-    testCase.setClassName("TestClass1");
-    testCase.setTestSuite(testSuite);
-    testCase.setStatus(TestStatus.PASSED);
-    testCase.setTime(0.0);
-    testSuite.setTestCases(List.of(testCase));
+    testCaseRow = testCaseRow(1L, 1L, "test1", "TestClass1", TestStatus.PASSED);
   }
 
   @AfterEach
@@ -145,29 +137,33 @@ class TestResultServiceTest {
 
     TestSuiteSummaryDto summary = new TestSuiteSummaryDto(1L, 0L, 0L, 0L, 0.0, false);
     when(testSuiteRepository.findByWorkflowRunIdAndTestTypeId(
-            anyLong(), anyLong(), any(), anyString(), anyBoolean(), any(PageRequest.class)))
+            anyLong(),
+            eq(RUN_CREATED_AT),
+            anyLong(),
+            any(),
+            anyString(),
+            anyBoolean(),
+            any(PageRequest.class)))
         .thenReturn(new PageImpl<>(List.of(testSuite)));
-    when(testSuiteRepository.findSummaryByWorkflowRunIdAndTestTypeId(anyLong(), anyLong(), any()))
+    when(testSuiteRepository.findSummaryByWorkflowRunIdAndTestTypeId(
+            anyLong(), eq(RUN_CREATED_AT), anyLong(), any()))
         .thenReturn(summary);
-    when(testCaseRepository.findFailedByTestSuiteWorkflowIdAndClassNamesAndTestTypeId(
-            any(), anyList(), anyLong()))
-        .thenReturn(Collections.emptyList());
-    when(testCaseStatisticsRepository.findByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-            anyList(), anyString(), anyLong()))
-        .thenReturn(Collections.emptyList());
-    when(testCaseStatisticsService.loadFlakinessIndex(anyList(), anyLong()))
-        .thenReturn(Collections.emptyMap());
-    lenient()
-        .when(testCaseStatisticsService.computeFlakinessInfo(
-            anyString(), anyString(), anyString(), anyMap(), anyMap()))
-        .thenReturn(new TestCaseStatisticsService.FlakinessInfo(0.0, 0.0, 0.0));
+    when(testCaseRepository.findRowsByTestSuiteIds(
+            eq(List.of(1L)),
+            eq(RUN_CREATED_AT),
+            eq(1L),
+            any(),
+            any(),
+            any(),
+            any(),
+            eq("%"),
+            eq(false),
+            anyDouble()))
+        .thenReturn(List.of(testCaseRow));
 
     TestResultsDto result =
         testResultService.getLatestTestResultsForBranch("featureBranch", criteria);
 
-    verify(testCaseStatisticsService).computeFlakinessInfo(
-        anyString(), anyString(), anyString(), anyMap(), anyMap());
-
     assertNotNull(result);
     assertFalse(result.testResults().isEmpty());
     assertEquals(1, result.testResults().size());
@@ -204,28 +200,32 @@ class TestResultServiceTest {
 
     TestSuiteSummaryDto summary = new TestSuiteSummaryDto(1L, 0L, 0L, 0L, 0.0, false);
     when(testSuiteRepository.findByWorkflowRunIdAndTestTypeId(
-            anyLong(), anyLong(), any(), anyString(), anyBoolean(), any(PageRequest.class)))
+            anyLong(),
+            eq(RUN_CREATED_AT),
+            anyLong(),
+            any(),
+            anyString(),
+            anyBoolean(),
+            any(PageRequest.class)))
         .thenReturn(new PageImpl<>(List.of(testSuite)));
-    when(testSuiteRepository.findSummaryByWorkflowRunIdAndTestTypeId(anyLong(), anyLong(), any()))
+    when(testSuiteRepository.findSummaryByWorkflowRunIdAndTestTypeId(
+            anyLong(), eq(RUN_CREATED_AT), anyLong(), any()))
         .thenReturn(summary);
-    when(testCaseRepository.findFailedByTestSuiteWorkflowIdAndClassNamesAndTestTypeId(
-            any(), anyList(), anyLong()))
-        .thenReturn(Collections.emptyList());
-    when(testCaseStatisticsRepository.findByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-            anyList(), anyString(), anyLong()))
-        .thenReturn(Collections.emptyList());
-    when(testCaseStatisticsService.loadFlakinessIndex(anyList(), anyLong()))
-        .thenReturn(Collections.emptyMap());
-    lenient()
-        .when(testCaseStatisticsService.computeFlakinessInfo(
-            anyString(), anyString(), anyString(), anyMap(), anyMap()))
-        .thenReturn(new TestCaseStatisticsService.FlakinessInfo(0.0, 0.0, 0.0));
+    when(testCaseRepository.findRowsByTestSuiteIds(
+            eq(List.of(1L)),
+            eq(RUN_CREATED_AT),
+            eq(1L),
+            any(),
+            any(),
+            any(),
+            any(),
+            eq("%"),
+            eq(false),
+            anyDouble()))
+        .thenReturn(List.of(testCaseRow));
 
     TestResultsDto result = testResultService.getLatestTestResultsForPr(1L, criteria);
 
-    verify(testCaseStatisticsService).computeFlakinessInfo(
-        anyString(), anyString(), anyString(), anyMap(), anyMap());
-
     assertNotNull(result);
     assertFalse(result.testResults().isEmpty());
     assertEquals(1, result.testResults().size());
@@ -271,22 +271,29 @@ class TestResultServiceTest {
 
     TestSuiteSummaryDto summary = new TestSuiteSummaryDto(1L, 0L, 0L, 0L, 0.0, false);
     when(testSuiteRepository.findByWorkflowRunIdAndTestTypeId(
-            anyLong(), anyLong(), any(), anyString(), anyBoolean(), any(PageRequest.class)))
+            anyLong(),
+            eq(RUN_CREATED_AT),
+            anyLong(),
+            any(),
+            anyString(),
+            anyBoolean(),
+            any(PageRequest.class)))
         .thenReturn(new PageImpl<>(List.of(testSuite)));
-    when(testSuiteRepository.findSummaryByWorkflowRunIdAndTestTypeId(anyLong(), anyLong(), any()))
+    when(testSuiteRepository.findSummaryByWorkflowRunIdAndTestTypeId(
+            anyLong(), eq(RUN_CREATED_AT), anyLong(), any()))
         .thenReturn(summary);
-    when(testCaseRepository.findFailedByTestSuiteWorkflowIdAndClassNamesAndTestTypeId(
-            any(), anyList(), anyLong()))
-        .thenReturn(Collections.emptyList());
-    when(testCaseStatisticsRepository.findByTestSuiteNameInAndBranchNameAndRepositoryRepositoryId(
-            anyList(), anyString(), anyLong()))
-        .thenReturn(Collections.emptyList());
-    when(testCaseStatisticsService.loadFlakinessIndex(anyList(), anyLong()))
-        .thenReturn(Collections.emptyMap());
-    lenient()
-        .when(testCaseStatisticsService.computeFlakinessInfo(
-            anyString(), anyString(), anyString(), anyMap(), anyMap()))
-        .thenReturn(new TestCaseStatisticsService.FlakinessInfo(0.0, 0.0, 0.0));
+    when(testCaseRepository.findRowsByTestSuiteIds(
+            eq(List.of(1L)),
+            eq(RUN_CREATED_AT),
+            eq(1L),
+            any(),
+            any(),
+            any(),
+            any(),
+            eq("%"),
+            eq(false),
+            anyDouble()))
+        .thenReturn(List.of(testCaseRow));
 
     TestResultsDto result = testResultService.getTestResultsForWorkflowRun(1L, criteria);
 
@@ -303,139 +310,152 @@ class TestResultServiceTest {
     verify(workflowRunRepository).findPullRequestIdsByWorkflowRunId(1L);
     verify(workflowRunRepository).findNthLatestCommitShaBehindHeadByPullRequestId(
         42L, 0, "featureSha");
-    verify(testCaseStatisticsService).computeFlakinessInfo(
-        anyString(), anyString(), anyString(), anyMap(), anyMap());
   }
 
   @Test
-  void sortTestCases_shouldSortCorrectly() throws Exception {
-    TestCase tc1 = new TestCase();
-    tc1.setName("AlphaTest");
-    tc1.setStatus(TestStatus.PASSED);
-    tc1.setPreviousStatus(TestStatus.PASSED);
-    tc1.setFailsInDefaultBranch(false);
-    tc1.setFlakinessScore(0.0);
-
-    TestCase tc2 = new TestCase();
-    tc2.setName("BetaTest");
-    tc2.setStatus(TestStatus.FAILED);
-    tc2.setPreviousStatus(TestStatus.PASSED); // Status changed
-    tc2.setFailsInDefaultBranch(false);
-    tc2.setFlakinessScore(0.0);
-
-    TestCase tc3 = new TestCase();
-    tc3.setName("CharlieTest");
-    tc3.setStatus(TestStatus.FAILED);
-    tc3.setPreviousStatus(TestStatus.FAILED);
-    tc3.setFailsInDefaultBranch(false);
-    tc3.setFlakinessScore(0.0);
-
-    TestCase tc4 = new TestCase();
-    tc4.setName("DeltaTest");
-    tc4.setStatus(TestStatus.PASSED);
-    tc4.setPreviousStatus(TestStatus.PASSED);
-    tc4.setFailsInDefaultBranch(false);
-    tc4.setFlakinessScore(0.0);
-
-    TestCase tc5 = new TestCase();
-    tc5.setName("EchoTest");
-    tc5.setStatus(TestStatus.FAILED);
-    tc5.setPreviousStatus(TestStatus.FAILED);
-    tc5.setFailsInDefaultBranch(true); // Fails in default
-    tc5.setFlakinessScore(0.0);
-
-    TestCase tc6 = new TestCase();
-    tc6.setName("FoxtrotTest");
-    tc6.setStatus(TestStatus.FAILED);
-    tc6.setPreviousStatus(TestStatus.FAILED);
-    tc6.setFailsInDefaultBranch(false);
-    tc6.setFlakinessScore(50.0); // Flaky
-
-    List<TestCase> testCases = new ArrayList<>(List.of(tc1, tc2, tc3, tc4, tc5, tc6));
-
-    // Use reflection to access the private method
-    Method sortMethod = TestResultService.class.getDeclaredMethod("sortTestCases", List.class);
-    sortMethod.setAccessible(true);
-
-    @SuppressWarnings("unchecked")
-    List<TestCase> sortedTestCases =
-        (List<TestCase>) sortMethod.invoke(testResultService, testCases);
-
-    // Expected order: Beta (status change), Charlie (failed, not default, not flaky), Foxtrot
-    // (failed, not default, flaky), Echo (failed, default), Alpha (passed), Delta (passed)
-    assertEquals("BetaTest", sortedTestCases.get(0).getName());
-    assertEquals("CharlieTest", sortedTestCases.get(1).getName());
-    assertEquals("FoxtrotTest", sortedTestCases.get(2).getName());
-    assertEquals("EchoTest", sortedTestCases.get(3).getName());
-    assertEquals("AlphaTest", sortedTestCases.get(4).getName());
-    assertEquals("DeltaTest", sortedTestCases.get(5).getName());
+  void getTestResultsForWorkflowRun_pushesSearchAndFailedFilterIntoQuery() {
+    final TestResultService.TestSearchCriteria criteria =
+        new TestResultService.TestSearchCriteria(0, 10, "LoginTest", true);
+    workflowRun.setHeadBranch(null);
+
+    TestSuite otherSuite = new TestSuite();
+    otherSuite.setId(2L);
+    otherSuite.setName("TestSuite2");
+    otherSuite.setTimestamp(LocalDateTime.now());
+    otherSuite.setTests(1);
+    otherSuite.setFailures(1);
+    otherSuite.setErrors(0);
+    otherSuite.setSkipped(0);
+    otherSuite.setTime(0.0);
+    otherSuite.setSystemOutHash("suite-out");
+
+    when(workflowRunRepository.findByIdAndRepositoryRepositoryId(1L, 1L))
+        .thenReturn(Optional.of(workflowRun));
+    when(branchRepository.findFirstByRepositoryRepositoryIdAndIsDefaultTrue(anyLong()))
+        .thenReturn(Optional.of(defaultBranch));
+    when(workflowRunRepository.findByHeadBranchAndHeadShaAndRepositoryRepositoryId(
+            eq("main"), eq("defaultSha"), anyLong()))
+        .thenReturn(List.of(workflowRun));
+    when(testSuiteRepository.findByWorkflowRunIdAndTestTypeId(
+            1L, RUN_CREATED_AT, 1L, null, "LoginTest", true, PageRequest.of(0, 10)))
+        .thenReturn(new PageImpl<>(List.of(testSuite, otherSuite)));
+    when(testSuiteRepository.findSummaryByWorkflowRunIdAndTestTypeId(
+            1L, RUN_CREATED_AT, 1L, null))
+        .thenReturn(new TestSuiteSummaryDto(2L, 1L, 0L, 0L, 0.0, false));
+    when(testCaseRepository.findRowsByTestSuiteIds(
+            List.of(1L, 2L),
+            RUN_CREATED_AT,
+            1L,
+            null,
+            null,
+            1L,
+            RUN_CREATED_AT,
+            "%logintest%",
+            true,
+            TestCaseStatisticsService.LOW_FLAKINESS_THRESHOLD))
+        .thenReturn(
+            List.of(testCaseRow(4L, 2L, "shouldLogin", "LoginTest", TestStatus.FAILED)));
+    TestResultsDto result = testResultService.getTestResultsForWorkflowRun(1L, criteria);
+
+    var suites = result.testResults().getFirst().testSuites();
+    assertEquals(2, suites.size());
+    assertTrue(suites.getFirst().testCases().isEmpty());
+    assertEquals(1, suites.get(1).testCases().size());
+    assertEquals(TestStatus.FAILED, suites.get(1).testCases().getFirst().status());
+    // Outputs are referenced by hash only and loaded on demand
+    assertEquals("trace-4", suites.get(1).testCases().getFirst().stackTraceHash());
+    assertEquals("suite-out", suites.get(1).systemOutHash());
+    assertEquals(2, result.testResults().getFirst().stats().totalSuites());
   }
 
   @Test
-  void filterTestCases_shouldFilterCorrectly() throws Exception {
-    TestCase tc1 = new TestCase();
-    tc1.setName("MatchName");
-    tc1.setClassName("SomeClass");
-    tc1.setStatus(TestStatus.PASSED);
-
-    TestCase tc2 = new TestCase();
-    tc2.setName("AnotherTest");
-    tc2.setClassName("MatchClass");
-    tc2.setStatus(TestStatus.FAILED);
-
-    TestCase tc3 = new TestCase();
-    tc3.setName("NoMatch");
-    tc3.setClassName("SomeOtherClass");
-    tc3.setStatus(TestStatus.PASSED);
-
-    TestCase tc4 = new TestCase();
-    tc4.setName("FailedTest");
-    tc4.setClassName("IrrelevantClass");
-    tc4.setStatus(TestStatus.FAILED);
-
-    List<TestCase> testCases = new ArrayList<>(List.of(tc1, tc2, tc3, tc4));
-
-    Method filterMethod =
-        TestResultService.class.getDeclaredMethod(
-            "filterTestCases", List.class, String.class, boolean.class);
-    filterMethod.setAccessible(true);
-
-    // Test filtering by name
-    @SuppressWarnings("unchecked")
-    List<TestCase> filteredByName =
-        (List<TestCase>) filterMethod.invoke(testResultService, testCases, "MatchName", false);
-    assertEquals(1, filteredByName.size());
-    assertEquals("MatchName", filteredByName.get(0).getName());
-
-    // Test filtering by class name
-    @SuppressWarnings("unchecked")
-    List<TestCase> filteredByClass =
-        (List<TestCase>) filterMethod.invoke(testResultService, testCases, "MatchClass", false);
-    assertEquals(1, filteredByClass.size());
-    assertEquals("MatchClass", filteredByClass.get(0).getClassName());
-
-    // Test filtering by only failed
-    @SuppressWarnings("unchecked")
-    List<TestCase> filteredByFailed =
-        (List<TestCase>) filterMethod.invoke(testResultService, testCases, "", true);
-    assertEquals(2, filteredByFailed.size());
-    assertTrue(
-        filteredByFailed.stream()
-            .allMatch(
-                tc -> tc.getStatus() == TestStatus.FAILED || tc.getStatus() == TestStatus.ERROR));
-
-    // Test filtering by name and only failed
-    @SuppressWarnings("unchecked")
-    List<TestCase> filteredByNameAndFailed =
-        (List<TestCase>) filterMethod.invoke(testResultService, testCases, "AnotherTest", true);
-    assertEquals(1, filteredByNameAndFailed.size());
-    assertEquals("AnotherTest", filteredByNameAndFailed.get(0).getName());
-    assertEquals(TestStatus.FAILED, filteredByNameAndFailed.get(0).getStatus());
-
-    // Test with no filters
-    @SuppressWarnings("unchecked")
-    List<TestCase> noFilters =
-        (List<TestCase>) filterMethod.invoke(testResultService, testCases, "", false);
-    assertEquals(4, noFilters.size());
+  void getTestOutput_loadsOutputReferencedInCurrentRepository() {
+    when(testOutputService.load("trace-4", 1L)).thenReturn(Optional.of("AssertionError"));
+    when(testOutputService.load("other", 1L)).thenReturn(Optional.empty());
+
+    assertEquals(
+        Optional.of(new TestOutputDto("trace-4", "AssertionError")),
+        testResultService.getTestOutput("trace-4"));
+    assertTrue(testResultService.getTestOutput("other").isEmpty());
+  }
+
+  private static TestCaseRepository.TestCaseRow testCaseRow(
+      Long id, Long testSuiteId, String name, String className, TestStatus status) {
+    return new TestCaseRepository.TestCaseRow() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Long getTestSuiteId() {
+        return testSuiteId;
+      }
+
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public String getClassName() {
+        return className;
+      }
+
+      @Override
+      public String getStatus() {
+        return status.name();
+      }
+
+      @Override
+      public String getPreviousStatus() {
+        return null;
+      }
+
+      @Override
+      public Double getTime() {
+        return 0.0;
+      }
+
+      @Override
+      public String getMessage() {
+        return null;
+      }
+
+      @Override
+      public String getStackTraceHash() {
+        return status == TestStatus.FAILED ? "trace-" + id : null;
+      }
+
+      @Override
+      public String getSystemOutHash() {
+        return null;
+      }
+
+      @Override
+      public String getErrorType() {
+        return null;
+      }
+
+      @Override
+      public Double getFlakinessScore() {
+        return 0.0;
+      }
+
+      @Override
+      public Double getDefaultBranchFailureRate() {
+        return 0.0;
+      }
+
+      @Override
+      public Double getCombinedFailureRate() {
+        return 0.0;
+      }
+
+      @Override
+      public Boolean getFailsInDefaultBranch() {
+        return false;
+      }
+    };
   }
 }
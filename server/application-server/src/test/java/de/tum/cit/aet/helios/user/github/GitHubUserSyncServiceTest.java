@@ -3,8 +3,11 @@ package de.tum.cit.aet.helios.user.github;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -18,7 +21,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.kohsuke.github.GHUser;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class GitHubUserSyncServiceTest {
@@ -29,14 +34,15 @@ class GitHubUserSyncServiceTest {
 
   @Test
   void shouldProcessExistingCopilotUserWithoutCallingGhUserUpdatedAt() throws Exception {
-    GitHubUserSyncService service = new GitHubUserSyncService(userRepository, userConverter);
+    GitHubUserSyncService service = service();
     long ghId = 198982749L;
     User existingUser = createExistingUser(ghId, "Copilot");
     GHUser ghUser = createGhUserWithBrokenUpdatedAt(ghId, "Copilot",
         "https://avatars.githubusercontent.com/u/198982749?v=4");
 
     when(userRepository.findById(ghId)).thenReturn(Optional.of(existingUser));
-    when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(userRepository.saveAndFlush(any(User.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
 
     User result = service.processUser(ghUser);
 
@@ -44,20 +50,21 @@ class GitHubUserSyncServiceTest {
     assertTrue(userConverter.isCopilotActorLogin(result.getLogin()));
     assertFalse(result.getAvatarUrl().isBlank());
     assertNull(result.getUpdatedAt());
-    verify(userRepository).save(any(User.class));
+    verify(userRepository).saveAndFlush(any(User.class));
   }
 
   @Test
   void shouldProcessExistingCopilotUserCaseInsensitivelyWithoutCallingGhUserUpdatedAt()
       throws Exception {
-    GitHubUserSyncService service = new GitHubUserSyncService(userRepository, userConverter);
+    GitHubUserSyncService service = service();
     long ghId = 198982750L;
     User existingUser = createExistingUser(ghId, "copilot");
     GHUser ghUser = createGhUserWithBrokenUpdatedAt(ghId, "COPILOT",
         "https://avatars.githubusercontent.com/u/198982750?v=4");
 
     when(userRepository.findById(ghId)).thenReturn(Optional.of(existingUser));
-    when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(userRepository.saveAndFlush(any(User.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
 
     User result = service.processUser(ghUser);
 
@@ -65,7 +72,34 @@ class GitHubUserSyncServiceTest {
     assertTrue(userConverter.isCopilotActorLogin(result.getLogin()));
     assertFalse(result.getAvatarUrl().isBlank());
     assertNull(result.getUpdatedAt());
-    verify(userRepository).save(any(User.class));
+    verify(userRepository).saveAndFlush(any(User.class));
+  }
+
+  @Test
+  void shouldUpdateUserCreatedConcurrentlyInsteadOfFailing() throws Exception {
+    GitHubUserSyncService service = service();
+    long ghId = 198982751L;
+    User concurrentlyCreated = createExistingUser(ghId, "Copilot");
+    GHUser ghUser = createGhUserWithBrokenUpdatedAt(ghId, "Copilot",
+        "https://avatars.githubusercontent.com/u/198982751?v=4");
+
+    // Not there on the first attempt, inserted by another thread before the flush
+    when(userRepository.findById(ghId))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(concurrentlyCreated));
+    when(userRepository.saveAndFlush(any(User.class)))
+        .thenThrow(new DataIntegrityViolationException("duplicate key"))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    User result = service.processUser(ghUser);
+
+    assertSame(concurrentlyCreated, result);
+    verify(userRepository, times(2)).saveAndFlush(any(User.class));
+  }
+
+  private GitHubUserSyncService service() {
+    return new GitHubUserSyncService(
+        userRepository, userConverter, mock(PlatformTransactionManager.class));
   }
 
   private static User createExistingUser(long id, String login) {
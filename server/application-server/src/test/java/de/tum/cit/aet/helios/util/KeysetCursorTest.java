@@ -0,0 +1,57 @@
+package de.tum.cit.aet.helios.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class KeysetCursorTest {
+
+  private static final OffsetDateTime STARTED =
+      OffsetDateTime.of(2026, 4, 23, 12, 0, 0, 0, ZoneOffset.ofHours(2));
+
+  @Test
+  void roundTripsKeysIncludingNulls() {
+    KeysetCursor cursor = KeysetCursor.of(42L, STARTED, null);
+
+    KeysetCursor decoded = KeysetCursor.decode(cursor.encode(), 2);
+
+    assertThat(decoded.id()).isEqualTo(42L);
+    assertThat(decoded.keys()).hasSize(2);
+    assertThat(decoded.keys().get(0).toInstant()).isEqualTo(STARTED.toInstant());
+    assertThat(decoded.keys().get(1)).isNull();
+  }
+
+  @Test
+  void encodesUrlSafe() {
+    assertThat(KeysetCursor.of(Long.MAX_VALUE, STARTED, STARTED).encode())
+        .matches("[A-Za-z0-9_-]+");
+  }
+
+  @Test
+  void rejectsMalformedCursors() {
+    String wrongKeyCount = KeysetCursor.of(1L, STARTED).encode();
+    String badTimestamp =
+        Base64.getUrlEncoder().encodeToString("yesterday|1".getBytes());
+
+    assertThatThrownBy(() -> KeysetCursor.decode("not base64!", 1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> KeysetCursor.decode(wrongKeyCount, 2))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> KeysetCursor.decode(badTimestamp, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void sortsAllKeysDescendingWithIdAsTiebreaker() {
+    assertThat(KeysetCursor.sort("runStartedAt", "createdAt"))
+        .isEqualTo(
+            Sort.by(
+                Sort.Order.desc("runStartedAt"), Sort.Order.desc("createdAt"),
+                Sort.Order.desc("id")));
+  }
+}
@@ -92,4 +92,14 @@ class WorkflowRunControllerSecurityTest {
                 .with(user("writer").roles("WRITE")))
         .andExpect(status().isOk());
   }
+
+  @Test
+  void getWorkflowRunLogLinesReturnsForbiddenWhenUserLacksWritePermission() throws Exception {
+    mockMvc
+        .perform(
+            get("/api/workflows/runs/{workflowRunId}/logs/lines", 42L)
+                .param("path", "build/1_build.txt")
+                .with(user("reader")))
+        .andExpect(status().isForbidden());
+  }
 }
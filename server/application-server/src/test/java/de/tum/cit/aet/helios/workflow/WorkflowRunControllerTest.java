@@ -14,6 +14,7 @@ import de.tum.cit.aet.helios.workflow.WorkflowRun.Conclusion;
 import de.tum.cit.aet.helios.workflow.WorkflowRun.Status;
 import de.tum.cit.aet.helios.workflow.logs.WorkflowRunLogFileDto;
 import de.tum.cit.aet.helios.workflow.logs.WorkflowRunLogGroupDto;
+import de.tum.cit.aet.helios.workflow.logs.WorkflowRunLogLinesResponse;
 import de.tum.cit.aet.helios.workflow.logs.WorkflowRunLogReaderService;
 import de.tum.cit.aet.helios.workflow.logs.WorkflowRunLogStepDto;
 import de.tum.cit.aet.helios.workflow.logs.WorkflowRunLogsResponse;
@@ -198,6 +199,8 @@ class WorkflowRunControllerTest {
                             "success",
                             null,
                             null,
+                            14L,
+                            1,
                             "first log line")))));
     when(workflowRunLogReaderService.getLogs(42L, false)).thenReturn(response);
 
@@ -235,4 +238,23 @@ class WorkflowRunControllerTest {
 
     verify(workflowRunLogReaderService).getLogs(eq(42L), eq(true));
   }
+
+  @Test
+  void getWorkflowRunLogLinesReturnsRequestedRange() throws Exception {
+    when(workflowRunLogReaderService.getLogLines(42L, "build/1_build.txt", 100, 2))
+        .thenReturn(
+            new WorkflowRunLogLinesResponse(
+                "build/1_build.txt", 100, 250, true, List.of("line 100", "line 101")));
+
+    mockMvc
+        .perform(
+            get("/api/workflows/runs/{workflowRunId}/logs/lines", 42L)
+                .param("path", "build/1_build.txt")
+                .param("fromLine", "100")
+                .param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.totalLineCount").value(250))
+        .andExpect(jsonPath("$.hasMore").value(true))
+        .andExpect(jsonPath("$.lines[1]").value("line 101"));
+  }
 }
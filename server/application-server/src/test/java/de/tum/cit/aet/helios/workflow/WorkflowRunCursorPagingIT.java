@@ -0,0 +1,111 @@
+package de.tum.cit.aet.helios.workflow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.tum.cit.aet.helios.HeliosIntegrationTest;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Pages through {@code /api/workflows/runs/cursor} against PostgreSQL, including NULL start times
+ * and ties on both timestamps, and checks the pages add up to the database's own ordering.
+ */
+class WorkflowRunCursorPagingIT extends HeliosIntegrationTest {
+
+  private static final long REPO = 1L;
+  private static final long WORKFLOW = 51L;
+  private static final OffsetDateTime T0 = OffsetDateTime.parse("2026-03-01T10:00:00Z");
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void seed() {
+    jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("TRUNCATE TABLE repository CASCADE");
+    jdbc.update(
+        "INSERT INTO repository (repository_id, has_issues, has_projects, has_wiki, is_archived, "
+            + "is_disabled, is_private, stargazers_count, watchers_count, name_with_owner) "
+            + "VALUES (?, false, false, false, false, false, false, 0, 0, 'ls1intum/repo')",
+        REPO);
+    jdbc.update(
+        "INSERT INTO workflow (id, repository_id, state, label, name) "
+            + "VALUES (?, ?, 'ACTIVE', 'NONE', 'wf')",
+        WORKFLOW,
+        REPO);
+
+    // Not started yet: NULL run_started_at sorts first
+    insertRun(101, null, T0.plusMinutes(9));
+    insertRun(102, null, T0.plusMinutes(9));
+    insertRun(103, null, null);
+    // Same start, created at the same and at different times
+    insertRun(104, T0.plusMinutes(5), T0.plusMinutes(4));
+    insertRun(105, T0.plusMinutes(5), T0.plusMinutes(4));
+    insertRun(106, T0.plusMinutes(5), T0.plusMinutes(3));
+    insertRun(107, T0.plusMinutes(5), null);
+    insertRun(108, T0.plusMinutes(2), T0.plusMinutes(1));
+    insertRun(109, T0, T0);
+  }
+
+  @Test
+  void pagesAddUpToTheDatabaseOrder() throws Exception {
+    List<Long> expected =
+        jdbc.queryForList(
+            "SELECT id FROM workflow_run WHERE repository_id = ? "
+                + "ORDER BY run_started_at DESC, created_at DESC, id DESC",
+            Long.class,
+            REPO);
+
+    for (int size = 1; size <= 4; size++) {
+      assertThat(pageThrough(size)).as("page size %d", size).isEqualTo(expected);
+    }
+  }
+
+  private List<Long> pageThrough(int size) throws Exception {
+    List<Long> ids = new ArrayList<>();
+    String cursor = null;
+    do {
+      MockHttpServletRequestBuilder request =
+          get("/api/workflows/runs/cursor")
+              .param("size", String.valueOf(size))
+              .header(X_REPOSITORY_ID, String.valueOf(REPO));
+      if (cursor != null) {
+        request.param("cursor", cursor);
+      }
+      JsonNode page =
+          objectMapper.readTree(
+              mockMvc
+                  .perform(request)
+                  .andExpect(status().isOk())
+                  .andReturn()
+                  .getResponse()
+                  .getContentAsString());
+      page.path("runs").forEach(run -> ids.add(run.path("id").asLong()));
+      cursor = page.path("nextCursor").isTextual() ? page.path("nextCursor").asText() : null;
+      assertThat(ids.size()).as("runaway paging").isLessThanOrEqualTo(9);
+    } while (cursor != null);
+    return ids;
+  }
+
+  private void insertRun(long id, OffsetDateTime runStartedAt, OffsetDateTime createdAt) {
+    jdbc.update(
+        "INSERT INTO workflow_run (id, repository_id, workflow_id, run_attempt, run_number, "
+            + "status, head_branch, head_sha, run_started_at, created_at, updated_at) "
+            + "VALUES (?, ?, ?, 1, ?, 'COMPLETED', 'main', 'deadbeef', ?, ?, now())",
+        id,
+        REPO,
+        WORKFLOW,
+        id,
+        runStartedAt,
+        createdAt);
+  }
+}
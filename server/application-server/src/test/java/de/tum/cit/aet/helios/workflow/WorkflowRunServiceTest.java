@@ -19,10 +19,12 @@ import de.tum.cit.aet.helios.filters.RepositoryContext;
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.gitrepo.GitRepoRepository;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
+import de.tum.cit.aet.helios.live.LiveUpdatePublisher;
 import de.tum.cit.aet.helios.pullrequest.PullRequestRepository;
 import de.tum.cit.aet.helios.tests.TestSuite;
 import de.tum.cit.aet.helios.tests.TestSuiteRepository;
 import de.tum.cit.aet.helios.tests.type.TestType;
+import de.tum.cit.aet.helios.util.CappedCounter;
 import de.tum.cit.aet.helios.workflow.WorkflowRun.Conclusion;
 import de.tum.cit.aet.helios.workflow.WorkflowRun.Status;
 import de.tum.cit.aet.helios.workflow.pagination.PaginatedWorkflowRunsResponse;
@@ -59,6 +61,8 @@ public class WorkflowRunServiceTest {
   @Mock private GitHubService gitHubService;
   @Mock private GitRepoRepository gitRepoRepository;
   @Mock private TestSuiteRepository testSuiteRepository;
+  @Mock private CappedCounter cappedCounter;
+  @Mock private LiveUpdatePublisher liveUpdatePublisher;
 
   @BeforeEach
   public void setUp() {
@@ -279,8 +283,10 @@ public class WorkflowRunServiceTest {
     InOrder inOrder = inOrder(gitHubService, testSuiteRepository);
     inOrder.verify(gitHubService).reRunWorkflow("owner/repo", 205L);
     inOrder.verify(testSuiteRepository).findByWorkflowRunId(205L);
+    verify(workflowRunRepository).deleteTestFailureAnalysesByWorkflowRunIdIn(List.of(205L));
     verify(testSuiteRepository).deleteAll(List.of(existingSuite));
     verify(workflowRunRepository).save(run);
+    verify(liveUpdatePublisher).publish(any(), any());
     assertNull(run.getTestProcessingStatus());
   }
 
@@ -2,11 +2,13 @@ package de.tum.cit.aet.helios.workflow.cleanup;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -18,6 +20,8 @@ import de.tum.cit.aet.helios.gitrepo.GitRepository;
 import de.tum.cit.aet.helios.workflow.WorkflowRunRepository;
 import de.tum.cit.aet.helios.workflow.WorkflowRunRepository.OrphanBranchRunCandidate;
 import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +29,9 @@ import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.kohsuke.github.GHBranch;
 import org.kohsuke.github.GHRepository;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 class WorkflowRunCleanupTaskTest {
 
@@ -41,6 +48,7 @@ class WorkflowRunCleanupTaskTest {
 
     f.task().purgeOrphanBranchRuns();
 
+    verify(f.repo).deleteTestFailureAnalysesByWorkflowRunIdIn(List.of(100L));
     verify(f.repo).deleteAllByIdInBatch(List.of(100L));
     verify(f.branchSync, never()).processBranch(any());
   }
@@ -124,6 +132,58 @@ class WorkflowRunCleanupTaskTest {
     verifyNoInteractions(f.repo, f.gitHub, f.branchSync, f.gitRepoRepo);
   }
 
+  @Test
+  void purgesKeepNPolicyInCheckpointedBatches() {
+    Fixture f = new Fixture();
+    f.policies = List.of(policy("PROCESSED", 2, 0));
+    when(f.checkpointRepo.findById("PROCESSED/keep=2/ageDays=0")).thenReturn(Optional.empty());
+    when(f.checkpointRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(f.repo.findObsoleteRunIdsAfter(2, 0, "PROCESSED", 0L))
+        .thenReturn(List.of(10L, 11L, 12L));
+    when(f.repo.deleteTestCasesByWorkflowRunIdIn(any())).thenReturn(100, 40);
+    when(f.repo.deleteTestSuitesByWorkflowRunIdIn(any())).thenReturn(4, 2);
+    when(f.repo.deleteByIdIn(any())).thenReturn(2, 1);
+
+    f.task().purge();
+
+    // Ranked once, deleted in two batches
+    verify(f.repo).findObsoleteRunIdsAfter(2, 0, "PROCESSED", 0L);
+    verify(f.repo).deleteTestFailureAnalysesByWorkflowRunIdIn(List.of(10L, 11L));
+    verify(f.repo).deleteTestFailureAnalysesByWorkflowRunIdIn(List.of(12L));
+    verify(f.repo).deleteByIdIn(List.of(10L, 11L));
+    verify(f.repo).deleteByIdIn(List.of(12L));
+    ArgumentCaptor<WorkflowRunCleanupCheckpoint> saved =
+        ArgumentCaptor.forClass(WorkflowRunCleanupCheckpoint.class);
+    verify(f.checkpointRepo, times(2)).save(saved.capture());
+    WorkflowRunCleanupCheckpoint checkpoint = saved.getValue();
+    assertEquals(12L, checkpoint.getLastRunId());
+    assertEquals(2, checkpoint.getBatches());
+    assertEquals(3, checkpoint.getDeletedRuns());
+    assertEquals(6, checkpoint.getDeletedTestSuites());
+    assertEquals(140, checkpoint.getDeletedTestCases());
+    assertNotNull(checkpoint.getFinishedAt());
+  }
+
+  @Test
+  void resumesUnfinishedPurgeAfterCheckpoint() {
+    Fixture f = new Fixture();
+    f.policies = List.of(policy(null, 2, 5));
+    WorkflowRunCleanupCheckpoint checkpoint =
+        new WorkflowRunCleanupCheckpoint("*/keep=2/ageDays=5");
+    checkpoint.restart(OffsetDateTime.now().minusHours(1));
+    checkpoint.setLastRunId(42L);
+    checkpoint.setDeletedRuns(7);
+    when(f.checkpointRepo.findById("*/keep=2/ageDays=5")).thenReturn(Optional.of(checkpoint));
+    when(f.checkpointRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(f.repo.findObsoleteRunIdsAfter(2, 5, null, 42L)).thenReturn(List.of());
+
+    f.task().purge();
+
+    verify(f.repo, never()).deleteByIdIn(any());
+    assertEquals(7, checkpoint.getDeletedRuns());
+    assertNotNull(checkpoint.getFinishedAt());
+  }
+
   @Test
   void orphanBranchesDefaultsAreSafe() {
     // Defaults must keep the sweep off until an operator explicitly enables it.
@@ -133,6 +193,14 @@ class WorkflowRunCleanupTaskTest {
     assertEquals(5000, defaults.getBatchSize());
   }
 
+  private static WorkflowRunCleanupProps.Policy policy(String tps, int keep, int ageDays) {
+    WorkflowRunCleanupProps.Policy policy = new WorkflowRunCleanupProps.Policy();
+    policy.setTestProcessingStatus(tps);
+    policy.setKeep(keep);
+    policy.setAgeDays(ageDays);
+    return policy;
+  }
+
   private static OrphanBranchRunCandidate candidate(long id, String headBranch) {
     return new OrphanBranchRunCandidate() {
       @Override
@@ -154,21 +222,30 @@ class WorkflowRunCleanupTaskTest {
     final GitHubBranchSyncService branchSync = mock(GitHubBranchSyncService.class);
     final GitRepoRepository gitRepoRepo = mock(GitRepoRepository.class);
     final GHRepository ghRepo = mock(GHRepository.class);
+    final WorkflowRunCleanupCheckpointRepository checkpointRepo =
+        mock(WorkflowRunCleanupCheckpointRepository.class);
+    final TransactionTemplate transactionTemplate =
+        new TransactionTemplate(mock(PlatformTransactionManager.class));
 
     boolean enabled = true;
     boolean dryRun = false;
     int graceDays = GRACE;
     int batchSize = BATCH;
+    List<WorkflowRunCleanupProps.Policy> policies = List.of();
 
     WorkflowRunCleanupTask task() {
       WorkflowRunCleanupProps props = new WorkflowRunCleanupProps();
       props.setDryRun(dryRun);
+      props.setPolicies(policies);
+      props.setBatchSize(2);
+      props.setBatchPause(Duration.ZERO);
       WorkflowRunCleanupProps.OrphanBranches orphan = new WorkflowRunCleanupProps.OrphanBranches();
       orphan.setEnabled(enabled);
       orphan.setGraceDays(graceDays);
       orphan.setBatchSize(batchSize);
       props.setOrphanBranches(orphan);
-      return new WorkflowRunCleanupTask(repo, props, gitHub, branchSync, gitRepoRepo);
+      return new WorkflowRunCleanupTask(
+          repo, props, gitHub, branchSync, gitRepoRepo, checkpointRepo, transactionTemplate);
     }
 
     /** Repo has candidates, resolves to {@link #REPO}; GitHub returns the given branches. */
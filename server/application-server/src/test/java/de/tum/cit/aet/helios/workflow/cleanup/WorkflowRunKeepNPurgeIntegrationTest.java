@@ -0,0 +1,173 @@
+package de.tum.cit.aet.helios.workflow.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.tum.cit.aet.helios.workflow.WorkflowRunRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration test for the keep-N purge native queries in {@link WorkflowRunRepository}.
+ *
+ * <p>Runs against an embedded PostgreSQL (zonky) with the real Flyway schema: the ranking per
+ * (repository, workflow, branch), the age and status filters, and the explicit deletes of cached
+ * failure analyses, test cases and test suites, whose tables are partitioned by the run's month.
+ */
+@DataJpaTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(
+    type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+    provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.DOCKER)
+@Import(WorkflowRunKeepNPurgeIntegrationTest.CacheTestConfig.class)
+class WorkflowRunKeepNPurgeIntegrationTest {
+
+  /** See {@link WorkflowRunOrphanSweepIntegrationTest.CacheTestConfig}. */
+  @TestConfiguration
+  static class CacheTestConfig {
+    @Bean
+    CacheManager cacheManager() {
+      return new ConcurrentMapCacheManager();
+    }
+  }
+
+  private static final int KEEP = 2;
+  private static final int AGE_DAYS = 7;
+  private static final String PROCESSED = "PROCESSED";
+
+  // main: newest two are kept, the two older ones are obsolete
+  private static final long MAIN_NEWEST = 104L;
+  private static final long MAIN_NEWER = 103L;
+  private static final long MAIN_OLD = 102L;
+  private static final long MAIN_OLDEST = 101L;
+  // feature: third newest is obsolete by rank but younger than AGE_DAYS → keep
+  private static final long FEATURE_NEWEST = 203L;
+  private static final long FEATURE_NEWER = 202L;
+  private static final long FEATURE_YOUNG = 201L;
+  // main, but another test processing status → ranked separately, keep
+  private static final long MAIN_FAILED = 100L;
+
+  @Autowired private WorkflowRunRepository repo;
+  @Autowired private DataSource dataSource;
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void seed() {
+    jdbc = new JdbcTemplate(dataSource);
+
+    jdbc.update(
+        "INSERT INTO repository (repository_id, has_issues, has_projects, has_wiki, is_archived, "
+            + "is_disabled, is_private, stargazers_count, watchers_count, name_with_owner) "
+            + "VALUES (1, false, false, false, false, false, false, 0, 0, 'ls1intum/Helios')");
+    jdbc.update("INSERT INTO workflow (id, repository_id, name) VALUES (1, 1, 'CI')");
+
+    insertRun(MAIN_OLDEST, "main", "90 days", PROCESSED);
+    insertRun(MAIN_OLD, "main", "30 days", PROCESSED);
+    insertRun(MAIN_NEWER, "main", "20 days", PROCESSED);
+    insertRun(MAIN_NEWEST, "main", "10 days", PROCESSED);
+    insertRun(FEATURE_YOUNG, "feature", "3 days", PROCESSED);
+    insertRun(FEATURE_NEWER, "feature", "2 days", PROCESSED);
+    insertRun(FEATURE_NEWEST, "feature", "1 day", PROCESSED);
+    insertRun(MAIN_FAILED, "main", "120 days", "FAILED");
+
+    // Test results in different month partitions
+    insertSuiteWithCases(300L, MAIN_OLDEST, 2);
+    insertSuiteWithCases(301L, MAIN_OLD, 1);
+    insertSuiteWithCases(302L, MAIN_NEWEST, 3);
+    insertAnalysis(3000L);
+    insertAnalysis(3020L);
+  }
+
+  @Test
+  void ranksPerCombinationAndReturnsObsoleteRunsInIdOrder() {
+    assertThat(repo.findObsoleteRunIdsAfter(KEEP, AGE_DAYS, PROCESSED, 0L))
+        .containsExactly(MAIN_OLDEST, MAIN_OLD);
+    assertThat(repo.findObsoleteRunIdsAfter(KEEP, AGE_DAYS, PROCESSED, MAIN_OLDEST))
+        .containsExactly(MAIN_OLD);
+    // Without the age filter the young feature run is obsolete by rank, too
+    assertThat(repo.findObsoleteRunIdsAfter(KEEP, 0, PROCESSED, 0L))
+        .containsExactly(MAIN_OLDEST, MAIN_OLD, FEATURE_YOUNG);
+    assertThat(repo.findObsoleteRunIdsAfter(KEEP, AGE_DAYS, "FAILED", 0L)).isEmpty();
+  }
+
+  @Test
+  void deletesAnalysesTestCasesTestSuitesAndRunsOfTheBatchOnly() {
+    List<Long> batch = List.of(MAIN_OLDEST, MAIN_OLD);
+
+    assertThat(repo.deleteTestFailureAnalysesByWorkflowRunIdIn(batch)).isEqualTo(1);
+    assertThat(repo.deleteTestCasesByWorkflowRunIdIn(batch)).isEqualTo(3);
+    assertThat(repo.deleteTestSuitesByWorkflowRunIdIn(batch)).isEqualTo(2);
+    assertThat(repo.deleteByIdIn(batch)).isEqualTo(2);
+
+    assertThat(jdbc.queryForList("SELECT id FROM workflow_run ORDER BY id", Long.class))
+        .containsExactly(
+            MAIN_FAILED, MAIN_NEWER, MAIN_NEWEST, FEATURE_YOUNG, FEATURE_NEWER, FEATURE_NEWEST);
+    assertThat(jdbc.queryForList("SELECT id FROM test_suite", Long.class)).containsExactly(302L);
+    assertThat(count("test_case")).isEqualTo(3);
+    assertThat(jdbc.queryForList("SELECT test_case_id FROM test_failure_analysis", Long.class))
+        .containsExactly(3020L);
+  }
+
+  @Test
+  void deletingAnEmptyOrAlreadyDeletedBatchDeletesNothing() {
+    repo.deleteByIdIn(List.of(MAIN_OLD));
+
+    assertThat(repo.deleteTestCasesByWorkflowRunIdIn(List.of(MAIN_OLD))).isZero();
+    assertThat(repo.deleteTestSuitesByWorkflowRunIdIn(List.of(MAIN_OLD))).isZero();
+    assertThat(repo.deleteByIdIn(List.of(MAIN_OLD))).isZero();
+    assertThat(count("test_case")).isEqualTo(5);
+  }
+
+  private void insertRun(long id, String headBranch, String ageInterval, String tps) {
+    jdbc.update(
+        "INSERT INTO workflow_run (id, run_attempt, run_number, workflow_id, repository_id, "
+            + "head_branch, test_processing_status, created_at) "
+            + "VALUES (?, 1, 1, 1, 1, ?, ?, now() - INTERVAL '"
+            + ageInterval
+            + "')",
+        id,
+        headBranch,
+        tps);
+  }
+
+  private void insertSuiteWithCases(long suiteId, long workflowRunId, int cases) {
+    jdbc.update(
+        "INSERT INTO test_suite (id, workflow_run_id, name, timestamp, tests, failures, errors, "
+            + "skipped, time, run_created_at) "
+            + "SELECT ?, id, 'suite', now(), ?, 0, 0, 0, 0.0, created_at "
+            + "FROM workflow_run WHERE id = ?",
+        suiteId,
+        cases,
+        workflowRunId);
+    for (int i = 0; i < cases; i++) {
+      jdbc.update(
+          "INSERT INTO test_case (id, test_suite_id, name, time, status, run_created_at) "
+              + "SELECT ?, id, ?, 0.0, 'PASSED', run_created_at FROM test_suite WHERE id = ?",
+          suiteId * 10 + i,
+          "case" + i,
+          suiteId);
+    }
+  }
+
+  private void insertAnalysis(long testCaseId) {
+    jdbc.update(
+        "INSERT INTO test_failure_analysis (test_case_id, provider_id, status, updated_at, "
+            + "created_at) VALUES (?, 'provider', 'COMPLETED', now(), now())",
+        testCaseId);
+  }
+
+  private int count(String table) {
+    return jdbc.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+  }
+}
@@ -96,11 +96,14 @@ class WorkflowRunOrphanSweepIntegrationTest {
     // Child rows under the deletable orphan run, to prove the cascade.
     jdbc.update(
         "INSERT INTO test_suite (id, workflow_run_id, name, timestamp, tests, failures, errors, "
-            + "skipped, time) VALUES (200, ?, 'suite', now(), 1, 0, 0, 0, 0.0)",
+            + "skipped, time, run_created_at) "
+            + "SELECT 200, id, 'suite', now(), 1, 0, 0, 0, 0.0, created_at "
+            + "FROM workflow_run WHERE id = ?",
         ORPHAN_OLD);
     jdbc.update(
-        "INSERT INTO test_case (id, test_suite_id, name, time, status) "
-            + "VALUES (300, 200, 'case', 0.0, 'PASSED')");
+        "INSERT INTO test_case (id, test_suite_id, name, time, status, run_created_at) "
+            + "SELECT 300, id, 'case', 0.0, 'PASSED', run_created_at "
+            + "FROM test_suite WHERE id = 200");
   }
 
   private void insertRun(long id, String headBranch, String ageInterval) {
@@ -4,9 +4,11 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.tum.cit.aet.helios.github.GitHubService;
 import de.tum.cit.aet.helios.gitrepo.github.GitHubRepositorySyncService;
 import de.tum.cit.aet.helios.tests.TestResultProcessor;
+import de.tum.cit.aet.helios.workflow.WorkflowService;
 import java.util.Collections;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,6 +28,7 @@ class GitHubWorkflowRunMessageHandlerTest {
   @Mock private GitHubWorkflowRunSyncService workflowSyncService;
   @Mock private TestResultProcessor testResultProcessor;
   @Mock private GitHubService gitHubService;
+  @Mock private WorkflowService workflowService;
   @Mock private TaskScheduler taskScheduler;
 
   private GitHubWorkflowRunMessageHandler handler;
@@ -38,7 +41,10 @@ class GitHubWorkflowRunMessageHandlerTest {
             workflowSyncService,
             testResultProcessor,
             gitHubService,
-            taskScheduler);
+            taskScheduler,
+            workflowService,
+            new WorkflowEventCoalescer(
+                new WorkflowEventCoalescingProperties(false), new ObjectMapper()));
   }
 
   @Test
@@ -0,0 +1,132 @@
+package de.tum.cit.aet.helios.workflow.github;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class WorkflowEventCoalescerTest {
+
+  private static final Instant T0 = Instant.parse("2026-01-01T10:00:00Z");
+
+  private final List<String> applied = new ArrayList<>();
+  private final WorkflowEventCoalescer coalescer = coalescer(true);
+
+  @Test
+  void skipsUpdatesSupersededByANewerQueuedOne() {
+    coalescer.announce("run:1", T0);
+    coalescer.announce("run:1", T0.plusSeconds(5));
+    coalescer.announce("run:1", T0.plusSeconds(9));
+
+    coalescer.apply("run:1", T0, () -> false, () -> applied.add("queued"));
+    coalescer.apply("run:1", T0.plusSeconds(5), () -> false, () -> applied.add("in_progress"));
+    coalescer.apply("run:1", T0.plusSeconds(9), () -> false, () -> applied.add("in_progress 2"));
+
+    assertThat(applied).containsExactly("in_progress 2");
+    assertThat(coalescer.getCoalescedCount()).isEqualTo(2);
+  }
+
+  @Test
+  void neverSkipsUpdatesWithSideEffects() {
+    coalescer.announce("run:1", T0);
+    coalescer.announce("run:1", T0.plusSeconds(5));
+
+    coalescer.apply("run:1", T0, () -> true, () -> applied.add("deployment queued"));
+    coalescer.apply("run:1", T0.plusSeconds(5), () -> true, () -> applied.add("completed"));
+
+    assertThat(applied).containsExactly("deployment queued", "completed");
+    assertThat(coalescer.getCoalescedCount()).isZero();
+  }
+
+  @Test
+  void asksForSideEffectsOnlyWhenTheUpdateCouldBeSkipped() {
+    coalescer.announce("run:1", T0);
+
+    coalescer.apply(
+        "run:1",
+        T0,
+        () -> {
+          throw new AssertionError("must not be evaluated");
+        },
+        () -> applied.add("queued"));
+
+    assertThat(applied).containsExactly("queued");
+  }
+
+  @Test
+  void skipsUpdatesOlderThanTheLastAppliedOne() {
+    coalescer.apply("job:1", T0.plusSeconds(10), () -> false, () -> applied.add("completed"));
+    coalescer.apply("job:1", T0, () -> false, () -> applied.add("late in_progress"));
+
+    assertThat(applied).containsExactly("completed");
+  }
+
+  @Test
+  void keepsKeysApart() {
+    coalescer.announce("run:1", T0.plusSeconds(5));
+
+    coalescer.apply("run:2", T0, () -> false, () -> applied.add("run 2"));
+    coalescer.apply("job:1", T0, () -> false, () -> applied.add("job 1"));
+
+    assertThat(applied).containsExactly("run 2", "job 1");
+  }
+
+  @Test
+  void forgetsTheAnnouncementOnceTheNewestUpdateWasApplied() {
+    coalescer.announce("run:1", T0.plusSeconds(5));
+    coalescer.apply("run:1", T0.plusSeconds(5), () -> false, () -> applied.add("in_progress"));
+
+    coalescer.announce("run:1", T0.plusSeconds(6));
+    coalescer.apply("run:1", T0.plusSeconds(6), () -> false, () -> applied.add("in_progress 2"));
+
+    assertThat(applied).containsExactly("in_progress", "in_progress 2");
+  }
+
+  @Test
+  void announcesRunsAndJobsFromTheirPayload() {
+    coalescer.announceRun(
+        json("{'workflow_run':{'id':1,'updated_at':'2026-01-01T10:00:05Z'}}"));
+    coalescer.announceJob(
+        json("{'workflow_job':{'id':2,'created_at':'2026-01-01T10:00:00Z',"
+            + "'started_at':'2026-01-01T10:00:05Z','completed_at':null}}"));
+
+    coalescer.apply("run:1", T0, () -> false, () -> applied.add("run"));
+    coalescer.apply("job:2", T0, () -> false, () -> applied.add("job"));
+
+    assertThat(applied).isEmpty();
+  }
+
+  @Test
+  void ignoresUnreadablePayloads() {
+    coalescer.announceRun("not json".getBytes(StandardCharsets.UTF_8));
+    coalescer.announceJob(json("{'workflow_job':{'name':'build'}}"));
+
+    coalescer.apply("run:1", T0, () -> false, () -> applied.add("run"));
+
+    assertThat(applied).containsExactly("run");
+  }
+
+  @Test
+  void appliesEverythingWhenDisabled() {
+    WorkflowEventCoalescer disabled = coalescer(false);
+    disabled.announce("run:1", T0.plusSeconds(5));
+
+    disabled.apply("run:1", T0, () -> false, () -> applied.add("queued"));
+    disabled.apply("run:1", T0.plusSeconds(5), () -> false, () -> applied.add("in_progress"));
+
+    assertThat(applied).containsExactly("queued", "in_progress");
+  }
+
+  private static WorkflowEventCoalescer coalescer(boolean enabled) {
+    return new WorkflowEventCoalescer(
+        new WorkflowEventCoalescingProperties(enabled), new ObjectMapper());
+  }
+
+  private static byte[] json(String singleQuoted) {
+    return singleQuoted.replace('\'', '"').getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -2,6 +2,9 @@ package de.tum.cit.aet.helios.workflow.logs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -12,12 +15,17 @@ import de.tum.cit.aet.helios.deployment.WorkflowStepDto;
 import de.tum.cit.aet.helios.gitrepo.GitRepository;
 import de.tum.cit.aet.helios.workflow.WorkflowRun;
 import de.tum.cit.aet.helios.workflow.logs.storage.WorkflowRunLogCacheResult;
+import de.tum.cit.aet.helios.workflow.logs.storage.WorkflowRunLogLineIndex;
+import de.tum.cit.aet.helios.workflow.logs.storage.WorkflowRunLogSearchIndex;
 import de.tum.cit.aet.helios.workflow.logs.storage.WorkflowRunLogManifest;
 import de.tum.cit.aet.helios.workflow.logs.storage.WorkflowRunLogStorageService;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import jakarta.persistence.EntityNotFoundException;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
@@ -364,6 +372,153 @@ class WorkflowRunLogReaderServiceTest {
     assertEquals(null, files.get(2).stepConclusion());
   }
 
+  @Test
+  void getLogOutlineReturnsSizesAndLineCountsWithoutContent() throws Exception {
+    Path runDirectory = tempDir.resolve("repositories/99/workflow-runs/7");
+    Files.createDirectories(runDirectory.resolve("build"));
+    Files.writeString(runDirectory.resolve("build/1_build.txt"), "first\nsecond\nthird\n");
+    WorkflowRunLogManifest manifest =
+        new WorkflowRunLogManifest(7L, 99L, OffsetDateTime.parse("2026-03-12T10:15:30Z"), 1);
+    WorkflowRun workflowRun = createWorkflowRun(7L, "deploy", "Deploy preview");
+
+    when(workflowRunLogStorageService.ensureLogsCached(7L, false))
+        .thenReturn(new WorkflowRunLogCacheResult(workflowRun, runDirectory, manifest, true));
+    when(deploymentService.getWorkflowJobStatus(7L)).thenReturn(new WorkflowJobsResponse());
+
+    WorkflowRunLogsResponse response =
+        new WorkflowRunLogReaderService(
+                workflowRunLogStorageService, deploymentService, workflowRunLogFileResolver)
+            .getLogOutline(7L, false);
+
+    WorkflowRunLogFileDto file = response.groups().getFirst().files().getFirst();
+    assertEquals("build/1_build.txt", file.path());
+    assertEquals(19L, file.size());
+    assertEquals(3, file.lineCount());
+    assertNull(file.content());
+    // The cache predates the line index, so the first read stores one
+    assertTrue(Files.exists(runDirectory.resolve(WorkflowRunLogLineIndex.FILE_NAME)));
+    assertEquals(1, response.groups().size());
+  }
+
+  @Test
+  void getLogLinesReadsRangeAcrossIndexCheckpoints() throws Exception {
+    Path runDirectory = tempDir.resolve("repositories/99/workflow-runs/7");
+    Files.createDirectories(runDirectory.resolve("build"));
+    Files.writeString(
+        runDirectory.resolve("build/1_build.txt"),
+        IntStream.range(0, 600)
+            .mapToObj(line -> "2026-03-12T20:46:28.9782708Z line " + line)
+            .collect(Collectors.joining("\r\n")));
+    WorkflowRunLogManifest manifest =
+        new WorkflowRunLogManifest(7L, 99L, OffsetDateTime.parse("2026-03-12T10:15:30Z"), 1);
+    WorkflowRun workflowRun = createWorkflowRun(7L, "deploy", "Deploy preview");
+    WorkflowRunLogLineIndex.build(runDirectory).write(runDirectory);
+
+    when(workflowRunLogStorageService.ensureLogsCached(7L))
+        .thenReturn(new WorkflowRunLogCacheResult(workflowRun, runDirectory, manifest, true));
+
+    WorkflowRunLogLinesResponse response =
+        new WorkflowRunLogReaderService(
+                workflowRunLogStorageService, deploymentService, workflowRunLogFileResolver)
+            .getLogLines(7L, "build/1_build.txt", 510, 4);
+
+    assertEquals("build/1_build.txt", response.path());
+    assertEquals(510, response.fromLine());
+    assertEquals(600, response.totalLineCount());
+    assertTrue(response.hasMore());
+    assertEquals(List.of("line 510", "line 511", "line 512", "line 513"), response.lines());
+  }
+
+  @Test
+  void getLogLinesStopsAtEndOfFile() throws Exception {
+    Path runDirectory = tempDir.resolve("repositories/99/workflow-runs/7");
+    Files.createDirectories(runDirectory);
+    Files.writeString(runDirectory.resolve("summary.txt"), "one\ntwo\nthree");
+    WorkflowRunLogManifest manifest =
+        new WorkflowRunLogManifest(7L, 99L, OffsetDateTime.parse("2026-03-12T10:15:30Z"), 1);
+    WorkflowRun workflowRun = createWorkflowRun(7L, "deploy", "Deploy preview");
+
+    when(workflowRunLogStorageService.ensureLogsCached(7L))
+        .thenReturn(new WorkflowRunLogCacheResult(workflowRun, runDirectory, manifest, true));
+
+    WorkflowRunLogLinesResponse response =
+        new WorkflowRunLogReaderService(
+                workflowRunLogStorageService, deploymentService, workflowRunLogFileResolver)
+            .getLogLines(7L, "summary.txt", 1, 100);
+
+    assertEquals(List.of("two", "three"), response.lines());
+    assertFalse(response.hasMore());
+  }
+
+  @Test
+  void getLogLinesRejectsPathsOutsideTheRunDirectory() throws Exception {
+    Path runDirectory = tempDir.resolve("repositories/99/workflow-runs/7");
+    Files.createDirectories(runDirectory);
+    Files.writeString(tempDir.resolve("repositories/99/secret.txt"), "secret");
+    Files.writeString(runDirectory.resolve(WorkflowRunLogManifest.FILE_NAME), "{}");
+    WorkflowRunLogManifest manifest =
+        new WorkflowRunLogManifest(7L, 99L, OffsetDateTime.parse("2026-03-12T10:15:30Z"), 1);
+    WorkflowRun workflowRun = createWorkflowRun(7L, "deploy", "Deploy preview");
+
+    when(workflowRunLogStorageService.ensureLogsCached(7L))
+        .thenReturn(new WorkflowRunLogCacheResult(workflowRun, runDirectory, manifest, true));
+
+    WorkflowRunLogReaderService service =
+        new WorkflowRunLogReaderService(
+            workflowRunLogStorageService, deploymentService, workflowRunLogFileResolver);
+
+    assertThrows(
+        EntityNotFoundException.class,
+        () -> service.getLogLines(7L, "../../secret.txt", 0, 10));
+    assertThrows(
+        EntityNotFoundException.class,
+        () -> service.getLogLines(7L, WorkflowRunLogManifest.FILE_NAME, 0, 10));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            service.getLogLines(
+                7L, "summary.txt", 0, WorkflowRunLogReaderService.MAX_LINES_PER_REQUEST + 1));
+  }
+
+  @Test
+  void searchReturnsMatchingLinesWithNormalizedSnippets() throws Exception {
+    Path runDirectory = tempDir.resolve("repositories/99/workflow-runs/7");
+    Files.createDirectories(runDirectory.resolve("build"));
+    Files.writeString(
+        runDirectory.resolve("build/1_build.txt"),
+        IntStream.range(0, 2000)
+            .mapToObj(
+                line ->
+                    "2026-03-12T20:46:28.9782708Z "
+                        + (line % 700 == 5 ? "ERROR in test " + line : "step " + line))
+            .collect(Collectors.joining("\n")));
+    Files.writeString(runDirectory.resolve("summary.txt"), "no errors here");
+    WorkflowRunLogManifest manifest =
+        new WorkflowRunLogManifest(7L, 99L, OffsetDateTime.parse("2026-03-12T10:15:30Z"), 2);
+    WorkflowRun workflowRun = createWorkflowRun(7L, "deploy", "Deploy preview");
+
+    when(workflowRunLogStorageService.ensureLogsCached(7L))
+        .thenReturn(new WorkflowRunLogCacheResult(workflowRun, runDirectory, manifest, true));
+
+    WorkflowRunLogReaderService service =
+        new WorkflowRunLogReaderService(
+            workflowRunLogStorageService, deploymentService, workflowRunLogFileResolver);
+
+    WorkflowRunLogSearchResponse response = service.search(7L, "error in", 2);
+
+    assertEquals(
+        List.of(
+            new WorkflowRunLogSearchHitDto("build/1_build.txt", 5, "ERROR in test 5"),
+            new WorkflowRunLogSearchHitDto("build/1_build.txt", 705, "ERROR in test 705")),
+        response.hits());
+    assertTrue(response.truncated());
+    // The cache predates the search index, so the first search builds one
+    assertTrue(Files.exists(runDirectory.resolve(WorkflowRunLogSearchIndex.FILE_NAME)));
+    // Case-insensitive, so the summary's "errors" matches as well
+    assertEquals(4, service.search(7L, "ERROR", 10).hits().size());
+    assertThrows(IllegalArgumentException.class, () -> service.search(7L, "er", 10));
+  }
+
   private WorkflowRun createWorkflowRun(Long workflowRunId, String name, String displayTitle) {
     GitRepository repository = new GitRepository();
     repository.setRepositoryId(99L);
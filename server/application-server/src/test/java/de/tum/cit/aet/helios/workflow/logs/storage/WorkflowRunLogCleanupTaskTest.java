@@ -21,6 +21,7 @@ import org.springframework.boot.context.properties.bind.Bindable;
 import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
 import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
 
 class WorkflowRunLogCleanupTaskTest {
 
@@ -42,13 +43,16 @@ class WorkflowRunLogCleanupTaskTest {
             mock(GitHubService.class),
             new WorkflowRunLogStorageProperties(tempDir),
             objectMapper,
-            workflowRunLogArchiveExtractor);
+            workflowRunLogArchiveExtractor,
+            new WorkflowRunLogDownloadProperties(DataSize.ofMegabytes(16), 100));
   }
 
   @Test
   void purgeDeletesExpiredWorkflowLogCacheDirectories() throws Exception {
     Path runDirectory = createRunDirectory("99", "7");
     writeManifest(runDirectory, 7L, 99L, fixedNow.minusDays(2));
+    Files.writeString(runDirectory.resolve("job.txt"), "log line");
+    WorkflowRunLogSearchIndex.build(runDirectory);
 
     createTask(defaultProperties()).purge();
 
@@ -133,7 +137,8 @@ class WorkflowRunLogCleanupTaskTest {
             mock(GitHubService.class),
             new WorkflowRunLogStorageProperties(tempDir),
             objectMapper,
-            workflowRunLogArchiveExtractor) {
+            workflowRunLogArchiveExtractor,
+            new WorkflowRunLogDownloadProperties(DataSize.ofMegabytes(16), 100)) {
           @Override
           void deleteRecursively(Path path) throws IOException {
             throw new IOException("cannot delete " + path);
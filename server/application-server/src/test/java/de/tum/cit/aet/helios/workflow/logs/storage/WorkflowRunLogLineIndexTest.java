@@ -0,0 +1,76 @@
+package de.tum.cit.aet.helios.workflow.logs.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WorkflowRunLogLineIndexTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void scanCountsLinesLikeStringLines() throws Exception {
+    for (String content :
+        List.of("", "one", "one\n", "one\r\ntwo", "one\rtwo\r", "\n\n", "a\r\n\r\nb\n")) {
+      Path file = tempDir.resolve("log.txt");
+      Files.writeString(file, content);
+
+      WorkflowRunLogLineIndex.FileEntry entry = WorkflowRunLogLineIndex.scan(file);
+
+      assertEquals(content.lines().count(), entry.lineCount(), () -> "content: " + content);
+      assertEquals(content.getBytes(StandardCharsets.UTF_8).length, entry.size());
+    }
+  }
+
+  @Test
+  void scanRecordsTheOffsetOfEveryCheckpointLine() throws Exception {
+    Path file = tempDir.resolve("log.txt");
+    // Every line is "line NNNN\n", i.e. 10 bytes long
+    Files.writeString(
+        file,
+        IntStream.range(0, 600)
+            .mapToObj(line -> String.format("line %04d\n", line))
+            .collect(Collectors.joining()));
+
+    WorkflowRunLogLineIndex.FileEntry entry = WorkflowRunLogLineIndex.scan(file);
+
+    assertEquals(600, entry.lineCount());
+    assertArrayEquals(new long[] {0, 2560, 5120}, entry.checkpoints());
+    assertEquals(2560, entry.checkpointOffset(511));
+    assertEquals(256, entry.checkpointLine(511));
+  }
+
+  @Test
+  void buildSkipsMetadataFilesAndSurvivesRoundTrip() throws Exception {
+    Files.createDirectories(tempDir.resolve("build"));
+    Files.writeString(tempDir.resolve("build/1_build.txt"), "build\nlog\n");
+    Files.writeString(tempDir.resolve("summary.txt"), "summary");
+    Files.writeString(tempDir.resolve(WorkflowRunLogManifest.FILE_NAME), "{}");
+
+    WorkflowRunLogLineIndex index = WorkflowRunLogLineIndex.build(tempDir);
+    index.write(tempDir);
+    Optional<WorkflowRunLogLineIndex> stored = WorkflowRunLogLineIndex.read(tempDir);
+
+    assertEquals(List.of("build/1_build.txt", "summary.txt"), List.copyOf(index.files().keySet()));
+    assertTrue(stored.isPresent());
+    assertEquals(index, stored.get());
+    assertEquals(2, stored.get().find("build/1_build.txt").orElseThrow().lineCount());
+    // Rebuilding after the index was written must not pick up the index itself
+    assertEquals(index, WorkflowRunLogLineIndex.build(tempDir));
+  }
+
+  @Test
+  void readReturnsEmptyWithoutIndexFile() throws Exception {
+    assertEquals(Optional.empty(), WorkflowRunLogLineIndex.read(tempDir));
+  }
+}
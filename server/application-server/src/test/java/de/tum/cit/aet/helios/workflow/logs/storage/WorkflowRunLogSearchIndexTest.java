@@ -0,0 +1,86 @@
+package de.tum.cit.aet.helios.workflow.logs.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WorkflowRunLogSearchIndexTest {
+
+  private static final int BLOCK = WorkflowRunLogSearchIndex.BLOCK_LINES;
+
+  @TempDir Path tempDir;
+
+  @Test
+  void candidateBlocksNarrowSearchToBlocksContainingAllTrigrams() throws Exception {
+    Files.createDirectories(tempDir.resolve("build"));
+    // The error sits in the second block of the file
+    Files.writeString(
+        tempDir.resolve("build/1_build.txt"),
+        IntStream.range(0, 3 * BLOCK)
+            .mapToObj(line -> line == BLOCK + 7 ? "ERROR: Test failed" : "ok " + line)
+            .collect(Collectors.joining("\n")));
+    Files.writeString(tempDir.resolve("summary.txt"), "all good");
+
+    WorkflowRunLogSearchIndex.build(tempDir);
+    WorkflowRunLogSearchIndex index = WorkflowRunLogSearchIndex.open(tempDir).orElseThrow();
+
+    assertEquals(
+        List.of(new WorkflowRunLogSearchIndex.Block("build/1_build.txt", BLOCK)),
+        index.candidateBlocks("error: test"));
+    assertEquals(
+        List.of(new WorkflowRunLogSearchIndex.Block("summary.txt", 0)),
+        index.candidateBlocks("GOOD"));
+    assertEquals(List.of(), index.candidateBlocks("missing"));
+  }
+
+  @Test
+  void candidateBlocksMapBlocksToTheRightFileAroundEmptyFiles() throws Exception {
+    Files.writeString(tempDir.resolve("a.txt"), "alpha");
+    Files.writeString(tempDir.resolve("b.txt"), "");
+    Files.writeString(tempDir.resolve("c.txt"), "gamma\nalphabet");
+
+    WorkflowRunLogSearchIndex.build(tempDir);
+    WorkflowRunLogSearchIndex index = WorkflowRunLogSearchIndex.open(tempDir).orElseThrow();
+
+    assertEquals(
+        List.of(new WorkflowRunLogSearchIndex.Block("c.txt", 0)), index.candidateBlocks("bet"));
+    assertEquals(
+        List.of(
+            new WorkflowRunLogSearchIndex.Block("a.txt", 0),
+            new WorkflowRunLogSearchIndex.Block("c.txt", 0)),
+        index.candidateBlocks("alp"));
+  }
+
+  @Test
+  void trigramsDoNotSpanLineBreaks() throws Exception {
+    Files.writeString(tempDir.resolve("log.txt"), "ab\r\ncd");
+
+    WorkflowRunLogSearchIndex.build(tempDir);
+
+    assertEquals(
+        List.of(), WorkflowRunLogSearchIndex.open(tempDir).orElseThrow().candidateBlocks("bcd"));
+  }
+
+  @Test
+  void buildIgnoresMetadataFilesAndOpenWithoutIndexIsEmpty() throws Exception {
+    assertEquals(Optional.empty(), WorkflowRunLogSearchIndex.open(tempDir));
+    Files.writeString(tempDir.resolve(WorkflowRunLogManifest.FILE_NAME), "{\"manifest\": 1}");
+    Files.writeString(tempDir.resolve("log.txt"), "log line");
+
+    WorkflowRunLogSearchIndex.build(tempDir);
+    WorkflowRunLogSearchIndex index = WorkflowRunLogSearchIndex.open(tempDir).orElseThrow();
+
+    assertEquals(List.of(), index.candidateBlocks("manifest"));
+    assertTrue(WorkflowRunLogLineIndex.isMetadataFile(WorkflowRunLogSearchIndex.FILE_NAME));
+    assertFalse(WorkflowRunLogSearchIndex.isSearchable("ab"));
+  }
+}
@@ -5,6 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -25,9 +28,15 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import org.junit.jupiter.api.AfterEach;
@@ -38,6 +47,8 @@ import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.util.unit.DataSize;
 
 @ExtendWith(MockitoExtension.class)
 class WorkflowRunLogStorageServiceTest {
@@ -66,7 +77,8 @@ class WorkflowRunLogStorageServiceTest {
             gitHubService,
             properties,
             objectMapper,
-            workflowRunLogArchiveExtractor) {
+            workflowRunLogArchiveExtractor,
+            new WorkflowRunLogDownloadProperties(DataSize.ofMegabytes(16), 100)) {
           @Override
           protected OffsetDateTime currentTime() {
             return fixedNow;
@@ -83,14 +95,16 @@ class WorkflowRunLogStorageServiceTest {
   @Test
   void cacheLogsDownloadsWorkflowArchiveForRecentlyCompletedRuns() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
-    when(gitHubService.downloadWorkflowRunLogs("owner/repo", 7L))
-        .thenReturn(
-            createZipArchive(
-                Map.of(
-                    "job-1.txt", "first log line",
-                    "nested/job-2.txt", "second log line")));
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(
+            writesArchive(
+                createZipArchive(
+                    Map.of(
+                        "job-1.txt", "first log line",
+                        "nested/job-2.txt", "second log line"))));
 
     WorkflowRunLogCacheResult response = workflowRunLogStorageService.ensureLogsCached(7L);
 
@@ -102,21 +116,24 @@ class WorkflowRunLogStorageServiceTest {
     assertArrayEquals(
         "second log line".getBytes(StandardCharsets.UTF_8),
         Files.readAllBytes(response.runDirectory().resolve("nested/job-2.txt")));
-    verify(gitHubService).downloadWorkflowRunLogs("owner/repo", 7L);
+    verify(gitHubService)
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
     verify(gitHubService, never()).getWorkflowJobStatus("owner/repo", 7L);
   }
 
   @Test
   void cacheLogsDownloadsWorkflowArchiveForOlderRuns() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusHours(2));
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
-    when(gitHubService.downloadWorkflowRunLogs("owner/repo", 7L))
-        .thenReturn(
-            createZipArchive(
-                Map.of(
-                    "old-job.txt", "older run log",
-                    "nested/step.txt", "still from run archive")));
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(
+            writesArchive(
+                createZipArchive(
+                    Map.of(
+                        "old-job.txt", "older run log",
+                        "nested/step.txt", "still from run archive"))));
 
     WorkflowRunLogCacheResult response = workflowRunLogStorageService.ensureLogsCached(7L);
 
@@ -127,33 +144,37 @@ class WorkflowRunLogStorageServiceTest {
     assertEquals(
         "still from run archive",
         Files.readString(response.runDirectory().resolve("nested/step.txt")));
-    verify(gitHubService).downloadWorkflowRunLogs("owner/repo", 7L);
+    verify(gitHubService)
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
     verify(gitHubService, never()).getWorkflowJobStatus("owner/repo", 7L);
   }
 
   @Test
   void cacheLogsDownloadsWorkflowArchiveWhenWorkflowTimestampIsMissing() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", null);
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
-    when(gitHubService.downloadWorkflowRunLogs("owner/repo", 7L))
-        .thenReturn(createZipArchive(Map.of("job-1.txt", "first log line")));
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(writesArchive(createZipArchive(Map.of("job-1.txt", "first log line"))));
 
     WorkflowRunLogCacheResult response = workflowRunLogStorageService.ensureLogsCached(7L);
 
     assertFalse(response.cacheHit());
     assertTrue(Files.exists(response.runDirectory().resolve("job-1.txt")));
-    verify(gitHubService).downloadWorkflowRunLogs("owner/repo", 7L);
+    verify(gitHubService)
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
     verify(gitHubService, never()).getWorkflowJobStatus("owner/repo", 7L);
   }
 
   @Test
   void cacheLogsReusesExistingCacheWithoutRedownloading() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
-    when(gitHubService.downloadWorkflowRunLogs("owner/repo", 7L))
-        .thenReturn(createZipArchive(Map.of("job-1.txt", "first log line")));
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(writesArchive(createZipArchive(Map.of("job-1.txt", "first log line"))));
 
     WorkflowRunLogCacheResult first = workflowRunLogStorageService.ensureLogsCached(7L);
     WorkflowRunLogCacheResult second = workflowRunLogStorageService.ensureLogsCached(7L);
@@ -162,17 +183,19 @@ class WorkflowRunLogStorageServiceTest {
     assertTrue(second.cacheHit());
     assertEquals(1L, first.manifest().runAttempt());
     assertEquals(1L, second.manifest().runAttempt());
-    verify(gitHubService, times(1)).downloadWorkflowRunLogs("owner/repo", 7L);
+    verify(gitHubService, times(1))
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
   }
 
   @Test
   void cacheLogsForceRefreshesExistingCacheEvenWhenRunAttemptMatches() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
-    when(gitHubService.downloadWorkflowRunLogs("owner/repo", 7L))
-        .thenReturn(createZipArchive(Map.of("job-1.txt", "first log line")))
-        .thenReturn(createZipArchive(Map.of("job-1.txt", "refreshed log line")));
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(writesArchive(createZipArchive(Map.of("job-1.txt", "first log line"))))
+        .thenAnswer(writesArchive(createZipArchive(Map.of("job-1.txt", "refreshed log line"))));
 
     WorkflowRunLogCacheResult first = workflowRunLogStorageService.ensureLogsCached(7L);
     WorkflowRunLogCacheResult second = workflowRunLogStorageService.ensureLogsCached(7L, true);
@@ -182,17 +205,19 @@ class WorkflowRunLogStorageServiceTest {
     assertEquals(1L, second.manifest().runAttempt());
     assertEquals(
         "refreshed log line", Files.readString(second.runDirectory().resolve("job-1.txt")));
-    verify(gitHubService, times(2)).downloadWorkflowRunLogs("owner/repo", 7L);
+    verify(gitHubService, times(2))
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
   }
 
   @Test
   void cacheLogsRefreshesExistingCacheWhenWorkflowRunAttemptChanges() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
-    when(gitHubService.downloadWorkflowRunLogs("owner/repo", 7L))
-        .thenReturn(createZipArchive(Map.of("job-1.txt", "first attempt log")))
-        .thenReturn(createZipArchive(Map.of("job-1.txt", "second attempt log")));
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(writesArchive(createZipArchive(Map.of("job-1.txt", "first attempt log"))))
+        .thenAnswer(writesArchive(createZipArchive(Map.of("job-1.txt", "second attempt log"))));
 
     WorkflowRunLogCacheResult first = workflowRunLogStorageService.ensureLogsCached(7L);
 
@@ -207,16 +232,18 @@ class WorkflowRunLogStorageServiceTest {
     assertEquals(2L, second.manifest().runAttempt());
     assertEquals(
         "second attempt log", Files.readString(second.runDirectory().resolve("job-1.txt")));
-    verify(gitHubService, times(2)).downloadWorkflowRunLogs("owner/repo", 7L);
+    verify(gitHubService, times(2))
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
   }
 
   @Test
   void cacheLogsRefreshesExistingCacheWhenManifestPredatesRunAttemptTracking() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
-    when(gitHubService.downloadWorkflowRunLogs("owner/repo", 7L))
-        .thenReturn(createZipArchive(Map.of("job-1.txt", "fresh log")));
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(writesArchive(createZipArchive(Map.of("job-1.txt", "fresh log"))));
 
     Path runDirectory = tempDir.resolve("repositories/99/workflow-runs/7");
     Files.createDirectories(runDirectory);
@@ -237,38 +264,42 @@ class WorkflowRunLogStorageServiceTest {
     assertFalse(response.cacheHit());
     assertEquals(1L, response.manifest().runAttempt());
     assertEquals("fresh log", Files.readString(response.runDirectory().resolve("job-1.txt")));
-    verify(gitHubService).downloadWorkflowRunLogs("owner/repo", 7L);
+    verify(gitHubService)
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
   }
 
   @Test
   void cacheLogsRejectsWorkflowRunOutsideRepositoryContext() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 100L, "owner/repo", fixedNow.minusMinutes(30));
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
 
     assertThrows(
         EntityNotFoundException.class, () -> workflowRunLogStorageService.ensureLogsCached(7L));
-    verify(gitHubService, never()).downloadWorkflowRunLogs("owner/repo", 7L);
+    verify(gitHubService, never())
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
   }
 
   @Test
   void cacheLogsRejectsWorkflowRunThatHasNotCompletedYet() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
     workflowRun.setStatus(WorkflowRun.Status.IN_PROGRESS);
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
 
     assertThrows(
         IllegalStateException.class, () -> workflowRunLogStorageService.ensureLogsCached(7L));
-    verify(gitHubService, never()).downloadWorkflowRunLogs("owner/repo", 7L);
+    verify(gitHubService, never())
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
   }
 
   @Test
   void cacheLogsRemovesIncompleteCacheWhenDownloadFails() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
-    when(gitHubService.downloadWorkflowRunLogs("owner/repo", 7L))
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
         .thenThrow(new IOException("GitHub unavailable"));
 
     assertThrows(IOException.class, () -> workflowRunLogStorageService.ensureLogsCached(7L));
@@ -279,15 +310,138 @@ class WorkflowRunLogStorageServiceTest {
   @Test
   void cacheLogsRejectsUnsafeZipEntries() throws Exception {
     WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
-    when(workflowRunRepository.findById(Long.valueOf(7L))).thenReturn(Optional.of(workflowRun));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
     repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
-    when(gitHubService.downloadWorkflowRunLogs("owner/repo", 7L))
-        .thenReturn(createZipArchive(Map.of("../evil.txt", "malicious")));
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(writesArchive(createZipArchive(Map.of("../evil.txt", "malicious"))));
 
     assertThrows(IOException.class, () -> workflowRunLogStorageService.ensureLogsCached(7L));
     assertFalse(Files.exists(tempDir.resolve("evil.txt")));
   }
 
+  @Test
+  void cacheLogsRejectsArchivesWithTooManyEntries() throws Exception {
+    WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
+    repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
+    Map<String, String> entries = new HashMap<>();
+    for (int i = 0; i < 101; i++) {
+      entries.put("job-" + i + ".txt", "log " + i);
+    }
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(writesArchive(createZipArchive(entries)));
+
+    IOException exception =
+        assertThrows(IOException.class, () -> workflowRunLogStorageService.ensureLogsCached(7L));
+
+    assertTrue(exception.getMessage().contains("more than the limit of 100"));
+    assertFalse(Files.exists(tempDir.resolve("repositories/99/workflow-runs/7")));
+  }
+
+  @Test
+  void cacheLogsSharesInFlightDownloadWithConcurrentRequests() throws Exception {
+    WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
+    repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
+    byte[] archive = createZipArchive(Map.of("job-1.txt", "shared log"));
+    CountDownLatch downloadStarted = new CountDownLatch(1);
+    CountDownLatch releaseDownload = new CountDownLatch(1);
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              downloadStarted.countDown();
+              assertTrue(releaseDownload.await(5, TimeUnit.SECONDS));
+              return writesArchive(archive).answer(invocation);
+            });
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      // Static mocks are thread-local, so the leader sets the real repository context
+      Future<WorkflowRunLogCacheResult> leader =
+          executor.submit(
+              () -> {
+                RepositoryContext.setRepositoryId("99");
+                try {
+                  return workflowRunLogStorageService.ensureLogsCached(7L);
+                } finally {
+                  RepositoryContext.clear();
+                }
+              });
+      assertTrue(downloadStarted.await(5, TimeUnit.SECONDS));
+      executor.submit(
+          () -> {
+            Thread.sleep(100);
+            releaseDownload.countDown();
+            return null;
+          });
+
+      WorkflowRunLogCacheResult joined = workflowRunLogStorageService.ensureLogsCached(7L);
+
+      assertFalse(leader.get(5, TimeUnit.SECONDS).cacheHit());
+      assertTrue(joined.cacheHit());
+      assertEquals("shared log", Files.readString(joined.runDirectory().resolve("job-1.txt")));
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(gitHubService, times(1))
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
+  }
+
+  @Test
+  void cacheLogsForceRefreshDoesNotSettleForConcurrentCacheFill() throws Exception {
+    WorkflowRun workflowRun = createWorkflowRun(7L, 99L, "owner/repo", fixedNow.minusMinutes(30));
+    when(workflowRunRepository.findByIdWithRepository(7L)).thenReturn(Optional.of(workflowRun));
+    repositoryContextMockedStatic.when(RepositoryContext::getRepositoryId).thenReturn(99L);
+    byte[] staleArchive = createZipArchive(Map.of("job-1.txt", "stale log"));
+    byte[] freshArchive = createZipArchive(Map.of("job-1.txt", "fresh log"));
+    CountDownLatch downloadStarted = new CountDownLatch(1);
+    CountDownLatch releaseDownload = new CountDownLatch(1);
+    when(gitHubService.downloadWorkflowRunLogs(
+            eq("owner/repo"), eq(7L), any(Path.class), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              downloadStarted.countDown();
+              assertTrue(releaseDownload.await(5, TimeUnit.SECONDS));
+              return writesArchive(staleArchive).answer(invocation);
+            })
+        .thenAnswer(writesArchive(freshArchive));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<WorkflowRunLogCacheResult> leader =
+          executor.submit(
+              () -> {
+                RepositoryContext.setRepositoryId("99");
+                try {
+                  return workflowRunLogStorageService.ensureLogsCached(7L);
+                } finally {
+                  RepositoryContext.clear();
+                }
+              });
+      assertTrue(downloadStarted.await(5, TimeUnit.SECONDS));
+      executor.submit(
+          () -> {
+            Thread.sleep(100);
+            releaseDownload.countDown();
+            return null;
+          });
+
+      WorkflowRunLogCacheResult refreshed =
+          workflowRunLogStorageService.ensureLogsCached(7L, true);
+
+      assertFalse(leader.get(5, TimeUnit.SECONDS).cacheHit());
+      assertFalse(refreshed.cacheHit());
+      assertEquals("fresh log", Files.readString(refreshed.runDirectory().resolve("job-1.txt")));
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(gitHubService, times(2))
+        .downloadWorkflowRunLogs(eq("owner/repo"), eq(7L), any(Path.class), anyLong());
+  }
+
   private WorkflowRun createWorkflowRun(
       Long workflowRunId,
       Long repositoryId,
@@ -306,6 +460,13 @@ class WorkflowRunLogStorageServiceTest {
     return workflowRun;
   }
 
+  private Answer<Long> writesArchive(byte[] archive) {
+    return invocation -> {
+      Files.write(invocation.<Path>getArgument(2), archive);
+      return (long) archive.length;
+    };
+  }
+
   private byte[] createZipArchive(Map<String, String> entries) throws IOException {
     ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
     try (ZipOutputStream zipOutput = new ZipOutputStream(outputStream)) {
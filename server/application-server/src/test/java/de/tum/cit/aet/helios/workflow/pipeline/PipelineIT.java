@@ -7,6 +7,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import de.tum.cit.aet.helios.HeliosIntegrationTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
@@ -37,8 +38,12 @@ class PipelineIT extends HeliosIntegrationTest {
   private static final String BRANCH_B = "dev";
   private static final String SHA_B = "cafebabe";
 
+  @Autowired private PipelineCache pipelineCache;
+
   @BeforeEach
   void seed() {
+    // Rows are seeded directly, without the job/run events that would evict cached pipelines
+    pipelineCache.invalidateAll();
     JdbcTemplate jdbc = new JdbcTemplate(dataSource);
     jdbc.execute("TRUNCATE TABLE repository CASCADE");
     insertRepo(jdbc, REPO, "ls1intum/Artemis");
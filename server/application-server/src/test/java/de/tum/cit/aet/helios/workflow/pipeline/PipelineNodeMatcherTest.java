@@ -0,0 +1,76 @@
+package de.tum.cit.aet.helios.workflow.pipeline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.tum.cit.aet.helios.workflow.WorkflowJob;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class PipelineNodeMatcherTest {
+
+  private static final PipelineProperties.Node NATIVE =
+      new PipelineProperties.Node("build-native", "Native", List.of("Build / Build .war"), "CI");
+  private static final PipelineProperties.Node BUILD =
+      new PipelineProperties.Node("build", "Build", List.of("build /"), null);
+  private static final PipelineProperties.Node E2E =
+      new PipelineProperties.Node("test-e2e", "E2E", List.of("E2E /", "Playwright"), "CI");
+  private static final PipelineProperties.Node GATE =
+      new PipelineProperties.Node("ci-gate", "Gate", List.of("All required CI Passed"), "CI");
+
+  private final PipelineNodeMatcher matcher =
+      new PipelineNodeMatcher(
+          new PipelineProperties(
+              List.of("ls1intum/Artemis"),
+              List.of(
+                  new PipelineProperties.Category("Build", List.of(NATIVE, BUILD)),
+                  new PipelineProperties.Category("Tests", List.of(E2E))),
+              GATE));
+
+  @Test
+  void matchesEveryNodeWhosePrefixStartsTheJobNameIgnoringCase() {
+    assertThat(matcher.nodesOf(job("BUILD / Build .war artifact (retry)", "CI")))
+        .containsExactlyInAnyOrder(NATIVE, BUILD);
+    assertThat(matcher.nodesOf(job("Playwright (shard 2)", "CI"))).containsExactly(E2E);
+    assertThat(matcher.nodesOf(job("all required ci passed", "CI"))).containsExactly(GATE);
+  }
+
+  @Test
+  void requiresTheWorkflowNameMatcherIfSet() {
+    assertThat(matcher.nodesOf(job("Build / Build .war artifact", "Nightly")))
+        .containsExactly(BUILD);
+    assertThat(matcher.nodesOf(job("E2E / Phase 1", null))).isEmpty();
+  }
+
+  @Test
+  void ignoresJobsWithoutNameOrMatchingPrefix() {
+    assertThat(matcher.nodesOf(job(null, "CI"))).isEmpty();
+    assertThat(matcher.nodesOf(job("Build", "CI"))).isEmpty();
+    assertThat(matcher.nodesOf(job("Quality / Client Code Style", "CI"))).isEmpty();
+  }
+
+  @Test
+  void groupsJobsByNodeInJobOrder() {
+    Map<PipelineProperties.Node, List<WorkflowJob>> matched =
+        matcher.match(
+            List.of(
+                job("E2E / Phase 1", "CI"),
+                job("Build / Build .war artifact", "CI"),
+                job("E2E / Phase 2", "CI")));
+
+    assertThat(matched).containsOnlyKeys(E2E, NATIVE, BUILD);
+    assertThat(matched.get(E2E))
+        .extracting(WorkflowJob::getName)
+        .containsExactly("E2E / Phase 1", "E2E / Phase 2");
+    assertThat(matched.get(BUILD))
+        .extracting(WorkflowJob::getName)
+        .containsExactly("Build / Build .war artifact");
+  }
+
+  private static WorkflowJob job(String name, String workflowName) {
+    WorkflowJob job = new WorkflowJob();
+    job.setName(name);
+    job.setWorkflowName(workflowName);
+    return job;
+  }
+}